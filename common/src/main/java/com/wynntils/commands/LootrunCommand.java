@@ -14,6 +14,7 @@ import com.mojang.brigadier.tree.LiteralCommandNode;
 import com.wynntils.core.commands.CommandBase;
 import com.wynntils.mc.utils.McUtils;
 import com.wynntils.wynn.model.LootrunModel;
+import com.wynntils.wynn.model.lootrun.BinaryLootrunFormat;
 import java.io.File;
 import java.util.List;
 import java.util.stream.Stream;
@@ -38,7 +39,9 @@ public class LootrunCommand extends CommandBase {
     private static final SuggestionProvider<CommandSourceStack> LOOTRUN_SUGGESTION_PROVIDER =
             (context, suggestions) -> SharedSuggestionProvider.suggest(
                     Stream.of(LootrunModel.LOOTRUNS.list())
-                            .map((name) -> name.replaceAll("\\.json$", ""))
+                            .filter((name) -> name.endsWith(".json") || name.endsWith(BinaryLootrunFormat.EXTENSION))
+                            .map((name) -> name.replaceAll("\\.(json|lootrun)$", ""))
+                            .distinct()
                             .map(StringArgumentType::escapeIfRequired),
                     suggestions);
 
@@ -229,8 +232,8 @@ public class LootrunCommand extends CommandBase {
 
     private int deleteLootrun(CommandContext<CommandSourceStack> context) {
         String name = StringArgumentType.getString(context, "name");
-        File file = new File(LootrunModel.LOOTRUNS, name + ".json");
-        if (!file.exists()) {
+        File file = LootrunModel.findLootrunFile(name);
+        if (file == null) {
             context.getSource()
                     .sendFailure(new TranslatableComponent("feature.wynntils.lootrunUtils.lootrunDoesntExist", name));
         } else if (file.delete()) {
@@ -251,9 +254,11 @@ public class LootrunCommand extends CommandBase {
     private int renameLootrun(CommandContext<CommandSourceStack> context) {
         String oldName = StringArgumentType.getString(context, "old");
         String newName = StringArgumentType.getString(context, "new");
-        File oldFile = new File(LootrunModel.LOOTRUNS, oldName + ".json");
-        File newFile = new File(LootrunModel.LOOTRUNS, newName + ".json");
-        if (!oldFile.exists()) {
+        File oldFile = LootrunModel.findLootrunFile(oldName);
+        // The renamed lootrun keeps its format
+        String extension = oldFile == null ? "" : oldFile.getName().substring(oldName.length());
+        File newFile = new File(LootrunModel.LOOTRUNS, newName + extension);
+        if (oldFile == null) {
             context.getSource()
                     .sendFailure(
                             new TranslatableComponent("feature.wynntils.lootrunUtils.lootrunDoesntExist", oldName));
@@ -272,6 +277,31 @@ public class LootrunCommand extends CommandBase {
         return 0;
     }
 
+    private int exportLootrun(CommandContext<CommandSourceStack> context) {
+        String name = StringArgumentType.getString(context, "lootrun");
+        if (LootrunModel.findLootrunFile(name) == null) {
+            context.getSource()
+                    .sendFailure(new TranslatableComponent("feature.wynntils.lootrunUtils.lootrunDoesntExist", name));
+            return 0;
+        }
+
+        File exportFile = LootrunModel.tryExportLootrun(name);
+        if (exportFile == null) {
+            context.getSource()
+                    .sendFailure(
+                            new TranslatableComponent("feature.wynntils.lootrunUtils.lootrunCouldNotBeExported", name));
+            return 0;
+        }
+
+        context.getSource()
+                .sendSuccess(
+                        new TranslatableComponent(
+                                        "feature.wynntils.lootrunUtils.lootrunExported", name, exportFile.getPath())
+                                .withStyle(ChatFormatting.GREEN),
+                        false);
+        return 1;
+    }
+
     private int addChest(CommandContext<CommandSourceStack> context) throws CommandSyntaxException {
         BlockPos pos = BlockPosArgument.getSpawnablePos(context, "pos");
 
@@ -389,6 +419,10 @@ public class LootrunCommand extends CommandBase {
                                 .suggests(LOOTRUN_SUGGESTION_PROVIDER)
                                 .then(Commands.argument("new", StringArgumentType.string())
                                         .executes(this::renameLootrun))))
+                .then(Commands.literal("export")
+                        .then(Commands.argument("lootrun", StringArgumentType.string())
+                                .suggests(LOOTRUN_SUGGESTION_PROVIDER)
+                                .executes(this::exportLootrun)))
                 .then(Commands.literal("chest")
                         .then(Commands.literal("add")
                                 .then(Commands.argument("pos", BlockPosArgument.blockPos())
@@ -5,26 +5,50 @@
 package com.wynntils.commands;
 
 import com.mojang.brigadier.CommandDispatcher;
+import com.mojang.brigadier.arguments.BoolArgumentType;
+import com.mojang.brigadier.arguments.IntegerArgumentType;
+import com.mojang.brigadier.arguments.StringArgumentType;
 import com.mojang.brigadier.builder.LiteralArgumentBuilder;
 import com.mojang.brigadier.context.CommandContext;
 import com.wynntils.core.WynntilsMod;
+import com.wynntils.core.chat.ChatMatcher;
+import com.wynntils.core.chat.ChatPattern;
 import com.wynntils.core.commands.ClientCommandManager;
 import com.wynntils.core.commands.CommandBase;
+import com.wynntils.core.events.EventBusWrapper;
+import com.wynntils.core.events.EventProfiler;
 import com.wynntils.core.features.Feature;
 import com.wynntils.core.features.FeatureRegistry;
 import com.wynntils.core.webapi.WebManager;
+import com.wynntils.core.webapi.request.RequestExecutor;
+import com.wynntils.gui.render.TextLayoutCache;
+import com.wynntils.mc.MinecraftSchedulerManager;
 import com.wynntils.mc.utils.McUtils;
+import com.wynntils.wynn.item.GearParseCache;
+import com.wynntils.wynn.item.ItemStackTransformModel;
+import java.io.File;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
+import java.util.function.Function;
 import net.minecraft.ChatFormatting;
 import net.minecraft.commands.CommandSourceStack;
 import net.minecraft.commands.Commands;
+import net.minecraft.commands.SharedSuggestionProvider;
 import net.minecraft.network.chat.ClickEvent;
 import net.minecraft.network.chat.HoverEvent;
 import net.minecraft.network.chat.MutableComponent;
 import net.minecraft.network.chat.Style;
 import net.minecraft.network.chat.TextComponent;
+import net.minecraftforge.eventbus.api.Event;
 
 public class WynntilsCommand extends CommandBase {
+    private static final int DEBUG_TIMING_COUNT = 15;
+    private static final DateTimeFormatter DUMP_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd_HH.mm.ss");
+
     @Override
     public void register(CommandDispatcher<CommandSourceStack> dispatcher) {
         LiteralArgumentBuilder<CommandSourceStack> builder = getBaseCommandBuilder();
@@ -43,6 +67,30 @@ public class WynntilsCommand extends CommandBase {
     public LiteralArgumentBuilder<CommandSourceStack> getBaseCommandBuilder() {
         return Commands.literal("wynntils")
                 .then(Commands.literal("help").executes(this::help))
+                .then(Commands.literal("debug")
+                        .then(Commands.literal("chat").executes(this::debugChat))
+                        .then(Commands.literal("events")
+                                .executes(this::debugEvents)
+                                .then(Commands.literal("start").executes(this::debugEventsStart))
+                                .then(Commands.literal("stop").executes(this::debugEventsStop))
+                                .then(Commands.literal("dump").executes(this::debugEventsDump))
+                                .then(Commands.literal("dispatch")
+                                        .executes(this::debugEventsDispatch)
+                                        .then(Commands.argument("event", StringArgumentType.word())
+                                                .suggests((context, suggestions) -> SharedSuggestionProvider.suggest(
+                                                        getDispatchableEventNames(), suggestions))
+                                                .then(Commands.argument("dispatched", BoolArgumentType.bool())
+                                                        .executes(this::debugEventsSetDispatched)))))
+                        .then(Commands.literal("items").executes(this::debugItems))
+                        .then(Commands.literal("text").executes(this::debugText))
+                        .then(Commands.literal("web")
+                                .executes(this::debugWeb)
+                                .then(Commands.literal("concurrency")
+                                        .then(Commands.argument("limit", IntegerArgumentType.integer(1, 64))
+                                                .executes(this::debugWebConcurrency)))
+                                .then(Commands.literal("perhost")
+                                        .then(Commands.argument("limit", IntegerArgumentType.integer(1, 64))
+                                                .executes(this::debugWebPerHost)))))
                 .then(Commands.literal("discord").executes(this::discordLink))
                 .then(Commands.literal("donate").executes(this::donateLink))
                 .then(Commands.literal("reload").executes(this::reload))
@@ -69,6 +117,250 @@ public class WynntilsCommand extends CommandBase {
         return 1;
     }
 
+    private int debugChat(CommandContext<CommandSourceStack> context) {
+        MutableComponent text = new TextComponent("Matched " + ChatMatcher.getScannedLines() + " chat lines against "
+                        + ChatMatcher.getPatterns().size() + " patterns, most expensive first:")
+                .withStyle(ChatFormatting.GOLD);
+        appendTopTimings(
+                text,
+                ChatMatcher.getPatterns(),
+                Comparator.comparingLong(ChatPattern::getNanos),
+                ChatPattern::getName,
+                pattern -> ChatFormatting.AQUA,
+                pattern -> String.format(
+                        "%.2f ms, %d hits, %d attempts, %d skipped",
+                        pattern.getNanos() / 1_000_000d,
+                        pattern.getHits(),
+                        pattern.getAttempts(),
+                        pattern.getSkipped()));
+
+        context.getSource().sendSuccess(text, false);
+        return 1;
+    }
+
+    private int debugEvents(CommandContext<CommandSourceStack> context) {
+        List<EventProfiler.Timing> timings = EventProfiler.getTimings();
+        if (timings.isEmpty()) {
+            context.getSource()
+                    .sendFailure(
+                            new TextComponent("No events recorded, start profiling with /wynntils debug events start")
+                                    .withStyle(ChatFormatting.RED));
+            return 1;
+        }
+
+        MutableComponent text = new TextComponent("Events and listeners"
+                        + (EventProfiler.isEnabled() ? "" : " (profiling stopped)") + ", most total time first:")
+                .withStyle(ChatFormatting.GOLD);
+        // Events are aqua and their listeners yellow
+        appendTopTimings(
+                text,
+                timings,
+                Comparator.comparingLong(EventProfiler.Timing::totalNanos),
+                EventProfiler.Timing::name,
+                timing -> timing.kind().equals("event") ? ChatFormatting.AQUA : ChatFormatting.YELLOW,
+                timing -> String.format(
+                        "%d calls, %.2f ms total, p50 %.1f µs, p99 %.1f µs",
+                        timing.count(),
+                        timing.totalNanos() / 1_000_000d,
+                        timing.p50Nanos() / 1_000d,
+                        timing.p99Nanos() / 1_000d));
+
+        context.getSource().sendSuccess(text, false);
+        return 1;
+    }
+
+    private int debugEventsStart(CommandContext<CommandSourceStack> context) {
+        EventProfiler.start();
+        context.getSource()
+                .sendSuccess(new TextComponent("Started profiling events").withStyle(ChatFormatting.GREEN), false);
+        return 1;
+    }
+
+    private int debugEventsStop(CommandContext<CommandSourceStack> context) {
+        EventProfiler.stop();
+        context.getSource()
+                .sendSuccess(new TextComponent("Stopped profiling events").withStyle(ChatFormatting.GREEN), false);
+        return 1;
+    }
+
+    private int debugEventsDump(CommandContext<CommandSourceStack> context) {
+        File debugDir = WynntilsMod.getModStorageDir("debug");
+        File file = new File(debugDir, "events-" + LocalDateTime.now().format(DUMP_TIME_FORMAT) + ".csv");
+        try {
+            debugDir.mkdirs();
+            EventProfiler.dumpCsv(file);
+        } catch (IOException e) {
+            WynntilsMod.error("Failed to write event timings to " + file, e);
+            context.getSource()
+                    .sendFailure(new TextComponent("Failed to write event timings").withStyle(ChatFormatting.RED));
+            return 1;
+        }
+
+        context.getSource()
+                .sendSuccess(
+                        new TextComponent("Wrote event timings to " + file.getAbsolutePath())
+                                .withStyle(ChatFormatting.GREEN),
+                        false);
+        return 1;
+    }
+
+    private int debugEventsDispatch(CommandContext<CommandSourceStack> context) {
+        EventBusWrapper eventBus = WynntilsMod.getEventBus();
+        MutableComponent text = new TextComponent("Events dispatched by the typed dispatcher, or by the Forge bus:")
+                .withStyle(ChatFormatting.GOLD);
+        List<Class<? extends Event>> eventTypes = EventBusWrapper.getDispatchableEvents().stream()
+                .sorted(Comparator.comparing(EventProfiler::getEventName))
+                .toList();
+        for (Class<? extends Event> eventType : eventTypes) {
+            boolean dispatched = eventBus.isDispatched(eventType);
+            text.append(new TextComponent("\n" + EventProfiler.getEventName(eventType) + ": ")
+                            .withStyle(ChatFormatting.AQUA))
+                    .append(new TextComponent(dispatched ? "typed" : "forge")
+                            .withStyle(dispatched ? ChatFormatting.GREEN : ChatFormatting.GRAY));
+        }
+
+        context.getSource().sendSuccess(text, false);
+        return 1;
+    }
+
+    private int debugEventsSetDispatched(CommandContext<CommandSourceStack> context) {
+        String eventName = StringArgumentType.getString(context, "event");
+        boolean dispatched = BoolArgumentType.getBool(context, "dispatched");
+
+        Class<? extends Event> eventType = EventBusWrapper.getDispatchableEvents().stream()
+                .filter(type -> EventProfiler.getEventName(type).equals(eventName))
+                .findFirst()
+                .orElse(null);
+        if (eventType == null) {
+            context.getSource()
+                    .sendFailure(new TextComponent("Not a dispatchable event: " + eventName)
+                            .withStyle(ChatFormatting.RED));
+            return 1;
+        }
+
+        WynntilsMod.getEventBus().setDispatched(eventType, dispatched);
+        context.getSource()
+                .sendSuccess(
+                        new TextComponent(eventName + " is now dispatched by the "
+                                        + (dispatched ? "typed dispatcher" : "Forge bus"))
+                                .withStyle(ChatFormatting.GREEN),
+                        false);
+        return 1;
+    }
+
+    private static List<String> getDispatchableEventNames() {
+        return EventBusWrapper.getDispatchableEvents().stream()
+                .map(EventProfiler::getEventName)
+                .sorted()
+                .toList();
+    }
+
+    private int debugItems(CommandContext<CommandSourceStack> context) {
+        long gearLookups = GearParseCache.getHits() + GearParseCache.getMisses();
+        MutableComponent text = new TextComponent(String.format(
+                        "Gear parse cache: %d entries, %d hits of %d lookups (%.1f%%)",
+                        GearParseCache.getSize(),
+                        GearParseCache.getHits(),
+                        gearLookups,
+                        gearLookups == 0 ? 0d : GearParseCache.getHits() * 100d / gearLookups))
+                .withStyle(ChatFormatting.GOLD);
+        text.append(new TextComponent("\nClassified " + ItemStackTransformModel.getClassifiedStacks()
+                        + " items, most expensive first:")
+                .withStyle(ChatFormatting.GOLD));
+        appendTopTimings(
+                text,
+                ItemStackTransformModel.getMatcherStats(),
+                Comparator.comparingLong(ItemStackTransformModel.MatcherStats::nanos),
+                ItemStackTransformModel.MatcherStats::name,
+                matcher -> ChatFormatting.AQUA,
+                matcher -> String.format(
+                        "%.2f ms, %d hits, %d tests, %d skipped",
+                        matcher.nanos() / 1_000_000d,
+                        matcher.hits(),
+                        matcher.tests(),
+                        matcher.skipped()));
+
+        context.getSource().sendSuccess(text, false);
+        return 1;
+    }
+
+    /** Appends a line for each of the most expensive entries, with the name followed by its stats in gray */
+    private static <T> void appendTopTimings(
+            MutableComponent text,
+            Collection<T> entries,
+            Comparator<T> cost,
+            Function<T, String> name,
+            Function<T, ChatFormatting> nameColor,
+            Function<T, String> stats) {
+        List<T> mostExpensive = entries.stream()
+                .sorted(cost.reversed())
+                .limit(DEBUG_TIMING_COUNT)
+                .toList();
+
+        for (T entry : mostExpensive) {
+            text.append(new TextComponent("\n" + name.apply(entry) + ": ").withStyle(nameColor.apply(entry)))
+                    .append(new TextComponent(stats.apply(entry)).withStyle(ChatFormatting.GRAY));
+        }
+    }
+
+    private int debugWeb(CommandContext<CommandSourceStack> context) {
+        MutableComponent text = new TextComponent("Web requests:").withStyle(ChatFormatting.GOLD);
+        text.append(new TextComponent(String.format(
+                        "\n%d of at most %d running, %d queued, at most %d waiting or running at once",
+                        RequestExecutor.getActiveCount(),
+                        RequestExecutor.getMaxConcurrency(),
+                        RequestExecutor.getQueueDepth(),
+                        RequestExecutor.getPeakQueueDepth()))
+                .withStyle(ChatFormatting.GRAY));
+        text.append(new TextComponent(String.format(
+                        "\n%d of %d submitted completed, %d threads, at most %d connections per host",
+                        RequestExecutor.getCompletedCount(),
+                        RequestExecutor.getSubmittedCount(),
+                        RequestExecutor.getThreadCount(),
+                        RequestExecutor.getMaxPerHost()))
+                .withStyle(ChatFormatting.GRAY));
+
+        context.getSource().sendSuccess(text, false);
+        return 1;
+    }
+
+    private int debugWebConcurrency(CommandContext<CommandSourceStack> context) {
+        int limit = IntegerArgumentType.getInteger(context, "limit");
+        RequestExecutor.setMaxConcurrency(limit);
+        context.getSource()
+                .sendSuccess(
+                        new TextComponent("Running at most " + limit + " web requests at once")
+                                .withStyle(ChatFormatting.GREEN),
+                        false);
+        return 1;
+    }
+
+    private int debugWebPerHost(CommandContext<CommandSourceStack> context) {
+        int limit = IntegerArgumentType.getInteger(context, "limit");
+        RequestExecutor.setMaxPerHost(limit);
+        context.getSource()
+                .sendSuccess(
+                        new TextComponent("Opening at most " + limit + " connections per host")
+                                .withStyle(ChatFormatting.GREEN),
+                        false);
+        return 1;
+    }
+
+    private int debugText(CommandContext<CommandSourceStack> context) {
+        long lookups = TextLayoutCache.getHits() + TextLayoutCache.getMisses();
+        context.getSource()
+                .sendSuccess(
+                        new TextComponent(String.format(
+                                        "Text layout cache: %d entries, %d hits of %d lookups (%.1f%%)",
+                                        TextLayoutCache.getSize(),
+                                        TextLayoutCache.getHits(),
+                                        lookups,
+                                        lookups == 0 ? 0d : TextLayoutCache.getHits() * 100d / lookups))
+                                .withStyle(ChatFormatting.GOLD),
+                        false);
+        return 1;
+    }
+
     private int reload(CommandContext<CommandSourceStack> context) {
         List<Feature> enabledFeatures = FeatureRegistry.getFeatures().stream()
                 .filter(Feature::isEnabled)
@@ -81,7 +373,19 @@ public class WynntilsCommand extends CommandBase {
         WebManager.reset();
         WebManager.init(); // reloads api urls as well as web manager
 
-        for (Feature feature : enabledFeatures) { // re-enable all features which should be
+        // Features use the web content as soon as they are enabled, so wait for it to be loaded
+        WebManager.getStartupFuture()
+                .whenComplete((ignored, throwable) ->
+                        MinecraftSchedulerManager.queueRunnable(() -> enableFeatures(enabledFeatures)));
+
+        context.getSource()
+                .sendSuccess(new TextComponent("Reloading web content").withStyle(ChatFormatting.GREEN), false);
+
+        return 1;
+    }
+
+    private void enableFeatures(List<Feature> features) {
+        for (Feature feature : features) { // re-enable all features which should be
             if (feature.canEnable()) {
                 feature.enable();
 
@@ -99,10 +403,8 @@ public class WynntilsCommand extends CommandBase {
                     .append(new TextComponent(feature.getTranslatedName()).withStyle(ChatFormatting.RED)));
         }
 
-        context.getSource()
-                .sendSuccess(new TextComponent("Finished reloading everything").withStyle(ChatFormatting.GREEN), false);
-
-        return 1;
+        McUtils.sendMessageToClient(
+                new TextComponent("Finished reloading everything").withStyle(ChatFormatting.GREEN));
     }
 
     private int donateLink(CommandContext<CommandSourceStack> context) {
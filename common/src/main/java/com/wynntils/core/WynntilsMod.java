@@ -10,6 +10,7 @@ import com.wynntils.core.features.FeatureRegistry;
 import com.wynntils.core.features.UserFeature;
 import com.wynntils.core.managers.CrashReportManager;
 import com.wynntils.core.managers.ManagerRegistry;
+import com.wynntils.gui.render.TextLayoutCache;
 import com.wynntils.mc.event.ClientsideMessageEvent;
 import com.wynntils.mc.utils.McUtils;
 import java.io.File;
@@ -18,7 +19,6 @@ import net.minecraft.ChatFormatting;
 import net.minecraft.client.Minecraft;
 import net.minecraft.network.chat.TextComponent;
 import net.minecraftforge.eventbus.api.Event;
-import net.minecraftforge.eventbus.api.IEventBus;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -33,13 +33,17 @@ public final class WynntilsMod {
     private static String version = "";
     private static boolean developmentBuild = false;
     private static boolean developmentEnvironment;
-    private static IEventBus eventBus;
+    private static EventBusWrapper eventBus;
     private static File modJar;
 
     public static ModLoader getModLoader() {
         return modLoader;
     }
 
+    public static EventBusWrapper getEventBus() {
+        return eventBus;
+    }
+
     public static void unregisterEventListener(Object object) {
         eventBus.unregister(object);
     }
@@ -147,6 +151,9 @@ public final class WynntilsMod {
 
     // Ran when resources (including I18n) are available
     public static void onResourcesFinishedLoading() {
+        // Text is measured again, as a resource pack may bring another font
+        TextLayoutCache.clear();
+
         if (FeatureRegistry.isInitCompleted()) return;
 
         try {
@@ -0,0 +1,70 @@
+/*
+ * Copyright © Wynntils 2022.
+ * This file is released under AGPLv3. See LICENSE for full license details.
+ */
+package com.wynntils.core.chat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Matches every chat line against all registered chat patterns at most once. Patterns are registered up
+ * front, and each line is checked for the prefixes and literals the patterns require, with one pass over
+ * the line, before any regex is run. Regexes are only run when a pattern is asked for, and the result is
+ * shared by everyone asking for the same pattern.
+ *
+ * <p>Patterns should be registered in static initializers. Lines are matched on the render thread.
+ */
+public final class ChatMatcher {
+    private static final List<ChatPattern> PATTERNS = new ArrayList<>();
+
+    private static LiteralIndex codedIndex = null;
+    private static LiteralIndex unformattedIndex = null;
+    private static long scannedLines = 0;
+
+    private ChatMatcher() {}
+
+    public static synchronized ChatPattern register(
+            String name, Pattern pattern, ChatPattern.Target target, ChatPattern.Mode mode) {
+        ChatPattern chatPattern = new ChatPattern(name, pattern, target, mode, PATTERNS.size());
+        PATTERNS.add(chatPattern);
+
+        // Rebuilt on next use
+        codedIndex = null;
+        unformattedIndex = null;
+        return chatPattern;
+    }
+
+    /** @return the matches of a line, which are computed once they are asked for */
+    public static ChatMatches scan(ChatMessage message) {
+        scannedLines++;
+        return new ChatMatches(message, getPatternCount());
+    }
+
+    public static synchronized List<ChatPattern> getPatterns() {
+        return List.copyOf(PATTERNS);
+    }
+
+    public static long getScannedLines() {
+        return scannedLines;
+    }
+
+    static synchronized LiteralIndex getIndex(ChatPattern.Target target) {
+        if (target == ChatPattern.Target.CODED) {
+            if (codedIndex == null) {
+                codedIndex = new LiteralIndex(PATTERNS, target);
+            }
+            return codedIndex;
+        }
+
+        if (unformattedIndex == null) {
+            unformattedIndex = new LiteralIndex(PATTERNS, target);
+        }
+        return unformattedIndex;
+    }
+
+    private static synchronized int getPatternCount() {
+        return PATTERNS.size();
+    }
+}
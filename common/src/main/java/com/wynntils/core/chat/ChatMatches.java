@@ -0,0 +1,82 @@
+/*
+ * Copyright © Wynntils 2022.
+ * This file is released under AGPLv3. See LICENSE for full license details.
+ */
+package com.wynntils.core.chat;
+
+import java.util.BitSet;
+import java.util.regex.Matcher;
+
+/**
+ * The matches of the chat patterns for one chat line. Each pattern is matched at most once, when it is
+ * first asked for, and the literals of all patterns are found with a single pass over the line.
+ */
+public final class ChatMatches {
+    private static final byte UNKNOWN = 0;
+    private static final byte MATCHED = 1;
+    private static final byte FAILED = 2;
+
+    private final ChatMessage message;
+
+    private LiteralIndex codedIndex = null;
+    private BitSet codedLiterals = null;
+    private LiteralIndex unformattedIndex = null;
+    private BitSet unformattedLiterals = null;
+
+    // Indexed by pattern id, patterns registered after the line was scanned are not memoized
+    private final byte[] states;
+    private final Matcher[] matchers;
+
+    ChatMatches(ChatMessage message, int patternCount) {
+        this.message = message;
+        this.states = new byte[patternCount];
+        this.matchers = new Matcher[patternCount];
+    }
+
+    /**
+     * @return the matcher of the pattern after a successful match, or null if the pattern does not match.
+     *     The matcher is shared, so it must not be reset.
+     */
+    public Matcher get(ChatPattern pattern) {
+        int id = pattern.getId();
+        if (id >= states.length) return pattern.match(this);
+
+        if (states[id] == UNKNOWN) {
+            matchers[id] = pattern.match(this);
+            states[id] = matchers[id] != null ? MATCHED : FAILED;
+        }
+        return matchers[id];
+    }
+
+    public boolean matches(ChatPattern pattern) {
+        return get(pattern) != null;
+    }
+
+    public ChatMessage getMessage() {
+        return message;
+    }
+
+    String getText(ChatPattern.Target target) {
+        return target == ChatPattern.Target.CODED ? message.getCoded() : message.getUnformatted();
+    }
+
+    boolean containsLiteral(ChatPattern pattern) {
+        if (pattern.getTarget() == ChatPattern.Target.CODED) {
+            if (codedIndex == null) {
+                codedIndex = ChatMatcher.getIndex(ChatPattern.Target.CODED);
+                codedLiterals = codedIndex.scan(message.getCoded());
+            }
+            return codedIndex.covers(pattern)
+                    ? codedLiterals.get(pattern.getId())
+                    : message.getCoded().contains(pattern.getLiteral());
+        }
+
+        if (unformattedIndex == null) {
+            unformattedIndex = ChatMatcher.getIndex(ChatPattern.Target.UNFORMATTED);
+            unformattedLiterals = unformattedIndex.scan(message.getUnformatted());
+        }
+        return unformattedIndex.covers(pattern)
+                ? unformattedLiterals.get(pattern.getId())
+                : message.getUnformatted().contains(pattern.getLiteral());
+    }
+}
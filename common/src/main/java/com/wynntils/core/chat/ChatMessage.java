@@ -0,0 +1,63 @@
+/*
+ * Copyright © Wynntils 2022.
+ * This file is released under AGPLv3. See LICENSE for full license details.
+ */
+package com.wynntils.core.chat;
+
+import com.wynntils.mc.utils.ComponentUtils;
+import java.util.List;
+import net.minecraft.network.chat.Component;
+
+/**
+ * A chat message, together with the text forms it is matched in. Each form is computed when it is first
+ * asked for and then kept, so a message is never serialized twice, no matter how many subscribers look at
+ * it. The message itself never changes; replacing the component of an event means a new ChatMessage.
+ */
+public final class ChatMessage {
+    private final Component component;
+
+    private String coded = null;
+    private String unformatted = null;
+    private List<ChatMessage> lines = null;
+
+    public ChatMessage(Component component) {
+        this.component = component;
+    }
+
+    public Component getComponent() {
+        return component;
+    }
+
+    /** @return the message as a format-coded string */
+    public String getCoded() {
+        if (coded == null) {
+            coded = ComponentUtils.getCoded(component);
+        }
+        return coded;
+    }
+
+    /** @return the coded message, with all formatting codes removed */
+    public String getUnformatted() {
+        if (unformatted == null) {
+            unformatted = ComponentUtils.stripFormatting(getCoded());
+        }
+        return unformatted;
+    }
+
+    /** A trailing newline alone does not make a message multiline */
+    public boolean isMultiline() {
+        String text = getCoded();
+        int newline = text.indexOf('\n');
+        return newline >= 0 && newline != text.length() - 1;
+    }
+
+    /** @return the lines of the message, each of which memoizes its own text forms */
+    public List<ChatMessage> getLines() {
+        if (lines == null) {
+            lines = ComponentUtils.splitComponentInLines(component).stream()
+                    .map(ChatMessage::new)
+                    .toList();
+        }
+        return lines;
+    }
+}
@@ -8,10 +8,10 @@ import com.wynntils.core.WynntilsMod;
 import com.wynntils.core.features.Feature;
 import com.wynntils.core.managers.Model;
 import com.wynntils.mc.event.ChatPacketReceivedEvent;
-import com.wynntils.mc.utils.ComponentUtils;
 import com.wynntils.mc.utils.McUtils;
 import com.wynntils.wynn.event.ChatMessageReceivedEvent;
 import com.wynntils.wynn.event.NpcDialogEvent;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.LinkedList;
@@ -84,19 +84,16 @@ public final class ChatModel extends Model {
     public static void onChatReceived(ChatPacketReceivedEvent e) {
         if (e.getType() == ChatType.GAME_INFO) return;
 
-        Component message = e.getMessage();
-        String codedMessage = ComponentUtils.getCoded(message);
+        ChatMessage message = e.getChatMessage();
 
-        // Sometimes there is just a trailing newline; that does not
-        // make it a multiline message
-        if (!codedMessage.contains("\n") || codedMessage.indexOf('\n') == (codedMessage.length() - 1)) {
+        if (!message.isMultiline()) {
             saveLastChat(message);
             MessageType messageType = e.getType() == ChatType.SYSTEM ? MessageType.SYSTEM : MessageType.NORMAL;
-            Component updatedMessage = handleChatLine(message, codedMessage, messageType);
+            ChatMessage updatedMessage = handleChatLine(message, messageType);
             if (updatedMessage == null) {
                 e.setCanceled(true);
-            } else if (!updatedMessage.equals(message)) {
-                e.setMessage(updatedMessage);
+            } else if (updatedMessage != message) {
+                e.setChatMessage(updatedMessage);
             }
             return;
         }
@@ -107,18 +104,18 @@ public final class ChatModel extends Model {
         }
     }
 
-    private static void handleMultilineMessage(Component message) {
-        List<Component> lines = ComponentUtils.splitComponentInLines(message);
+    private static void handleMultilineMessage(ChatMessage message) {
+        List<ChatMessage> lines = new ArrayList<>(message.getLines());
         // From now on, we'll work on reversed lists
         Collections.reverse(lines);
-        LinkedList<Component> newLines = new LinkedList<>();
+        LinkedList<ChatMessage> newLines = new LinkedList<>();
         if (lastRealChat == null) {
             // If we have no history, all lines are to be considered new
             lines.forEach(newLines::addLast);
         } else {
             // Figure out what's new since last chat message
-            for (Component line : lines) {
-                String plainText = line.getString();
+            for (ChatMessage line : lines) {
+                String plainText = line.getComponent().getString();
                 if (plainText.equals(lastRealChat)) break;
                 newLines.addLast(line);
             }
@@ -131,21 +128,19 @@ public final class ChatModel extends Model {
             return;
         }
 
-        if (newLines.getLast().getString().isEmpty()) {
+        if (newLines.getLast().getComponent().getString().isEmpty()) {
             // Wynntils add an empty line before the NPC dialog; remove it
             newLines.removeLast();
         }
 
-        LinkedList<Component> newChatLines = new LinkedList<>();
+        LinkedList<ChatMessage> newChatLines = new LinkedList<>();
         LinkedList<Component> dialog = new LinkedList<>();
 
-        if (NPC_FINAL_PATTERN
-                .matcher(ComponentUtils.getCoded(newLines.getFirst()))
-                .find()) {
+        if (NPC_FINAL_PATTERN.matcher(newLines.getFirst().getCoded()).find()) {
             // This is an NPC dialog screen.
             // First remove the "Press SHIFT to continue" trailer.
             newLines.removeFirst();
-            if (newLines.getFirst().getString().isEmpty()) {
+            if (newLines.getFirst().getComponent().getString().isEmpty()) {
                 newLines.removeFirst();
             } else {
                 WynntilsMod.warn("Malformed dialog [#1]: " + newLines.getFirst());
@@ -153,14 +148,14 @@ public final class ChatModel extends Model {
 
             // Separate the dialog part from any potential new "real" chat lines
             boolean dialogDone = false;
-            for (Component line : newLines) {
-                String codedLine = ComponentUtils.getCoded(line);
+            for (ChatMessage line : newLines) {
+                String codedLine = line.getCoded();
                 if (!dialogDone) {
                     if (EMPTY_LINE_PATTERN.matcher(codedLine).find()) {
                         dialogDone = true;
                         // Intentionally throw away this line
                     } else {
-                        dialog.push(line);
+                        dialog.push(line.getComponent());
                     }
                 } else {
                     if (!EMPTY_LINE_PATTERN.matcher(codedLine).find()) {
@@ -172,9 +167,7 @@ public final class ChatModel extends Model {
             // After a NPC dialog screen, Wynncraft sends a "clear screen" with line of ÀÀÀ...
             // We just ignore that part. Also, remove empty lines or lines with just the §r code
             while (!newLines.isEmpty()
-                    && EMPTY_LINE_PATTERN
-                            .matcher(ComponentUtils.getCoded(newLines.getFirst()))
-                            .find()) {
+                    && EMPTY_LINE_PATTERN.matcher(newLines.getFirst().getCoded()).find()) {
                 newLines.removeFirst();
             }
 
@@ -189,20 +182,19 @@ public final class ChatModel extends Model {
         handleNpcDialog(dialog);
     }
 
-    private static void handleFakeChatLine(Component chatMsg) {
+    private static void handleFakeChatLine(ChatMessage chatMsg) {
         // This is a normal, single line chat
         saveLastChat(chatMsg);
-        String coded = ComponentUtils.getCoded(chatMsg);
-        Component updatedMessage = handleChatLine(chatMsg, coded, MessageType.BACKGROUND);
+        ChatMessage updatedMessage = handleChatLine(chatMsg, MessageType.BACKGROUND);
         // If the message is canceled, we do not need to cancel any packets,
         // just don't send out the chat message
         if (updatedMessage == null) return;
 
-        McUtils.sendMessageToClient(updatedMessage);
+        McUtils.sendMessageToClient(updatedMessage.getComponent());
     }
 
-    private static void saveLastChat(Component chatMsg) {
-        String plainText = chatMsg.getString();
+    private static void saveLastChat(ChatMessage chatMsg) {
+        String plainText = chatMsg.getComponent().getString();
         if (!plainText.isBlank()) {
             // We store the unformatted string version to be able to compare between
             // normal and background versions
@@ -210,19 +202,17 @@ public final class ChatModel extends Model {
         }
     }
 
-    private static RecipientType getRecipientType(Component message, MessageType messageType) {
-        String msg = ComponentUtils.getCoded(message);
-
+    private static RecipientType getRecipientType(ChatMatches matches, MessageType messageType) {
         // Check if message match a recipient category
         if (messageType == MessageType.SYSTEM) {
             // System type messages can only be shouts or "info" messages
             // We call this MessageType.NORMAL anyway...
-            if (RecipientType.SHOUT.matchPattern(msg, MessageType.NORMAL)) {
+            if (RecipientType.SHOUT.matchPattern(matches, MessageType.NORMAL)) {
                 return RecipientType.SHOUT;
             }
         } else {
             for (RecipientType recipientType : RecipientType.values()) {
-                if (recipientType.matchPattern(msg, messageType)) {
+                if (recipientType.matchPattern(matches, messageType)) {
                     return recipientType;
                 }
             }
@@ -236,14 +226,15 @@ public final class ChatModel extends Model {
      * Return a "massaged" version of the message, or null if we should cancel the
      * message entirely.
      */
-    private static Component handleChatLine(Component message, String codedMessage, MessageType messageType) {
-        RecipientType recipientType = getRecipientType(message, messageType);
+    private static ChatMessage handleChatLine(ChatMessage message, MessageType messageType) {
+        // The line is matched against the chat patterns once, and the results are shared by all subscribers
+        ChatMatches matches = ChatMatcher.scan(message);
+        RecipientType recipientType = getRecipientType(matches, messageType);
 
-        ChatMessageReceivedEvent event =
-                new ChatMessageReceivedEvent(message, codedMessage, messageType, recipientType);
+        ChatMessageReceivedEvent event = new ChatMessageReceivedEvent(matches, messageType, recipientType);
         WynntilsMod.postEvent(event);
         if (event.isCanceled()) return null;
-        return event.getMessage();
+        return event.getChatMessage();
     }
 
     private static void handleNpcDialog(List<Component> dialog) {
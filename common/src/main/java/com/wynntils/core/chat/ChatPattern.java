@@ -0,0 +1,248 @@
+/*
+ * Copyright © Wynntils 2022.
+ * This file is released under AGPLv3. See LICENSE for full license details.
+ */
+package com.wynntils.core.chat;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A chat pattern registered with the {@link ChatMatcher}. Besides the regex, it knows a literal every
+ * matching line has to contain, and possibly a prefix every matching line has to start with. Both are
+ * derived from the regex, and allow skipping the regex for most lines.
+ */
+public final class ChatPattern {
+    private static final String ZERO_WIDTH_ESCAPES = "bBGZzA";
+    private static final String CLASS_ESCAPES = "dDsSwWhHvVRX";
+
+    private final String name;
+    private final Pattern pattern;
+    private final Target target;
+    private final Mode mode;
+    private final int id;
+
+    // Required text of every matching line, null if there is none
+    private final String prefix;
+    private final String literal;
+
+    private long attempts = 0;
+    private long hits = 0;
+    private long skipped = 0;
+    private long nanos = 0;
+
+    ChatPattern(String name, Pattern pattern, Target target, Mode mode, int id) {
+        this.name = name;
+        this.pattern = pattern;
+        this.target = target;
+        this.mode = mode;
+        this.id = id;
+
+        String[] literals = findLiterals(pattern, mode);
+        this.prefix = literals[0];
+        // The prefix check already covers the literal if they are the same
+        this.literal = literals[1] != null && !literals[1].equals(literals[0]) ? literals[1] : null;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Pattern getPattern() {
+        return pattern;
+    }
+
+    /** @return how often the regex was run */
+    public long getAttempts() {
+        return attempts;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    /** @return how often the regex was skipped, as the line lacked the prefix or the literal */
+    public long getSkipped() {
+        return skipped;
+    }
+
+    /** @return the total time spent running the regex */
+    public long getNanos() {
+        return nanos;
+    }
+
+    int getId() {
+        return id;
+    }
+
+    Target getTarget() {
+        return target;
+    }
+
+    String getLiteral() {
+        return literal;
+    }
+
+    Matcher match(ChatMatches line) {
+        String text = line.getText(target);
+        if ((prefix != null && !text.startsWith(prefix)) || (literal != null && !line.containsLiteral(this))) {
+            skipped++;
+            return null;
+        }
+
+        long start = System.nanoTime();
+        Matcher matcher = pattern.matcher(text);
+        boolean found = mode == Mode.MATCHES ? matcher.matches() : matcher.find();
+        nanos += System.nanoTime() - start;
+        attempts++;
+
+        if (!found) return null;
+
+        hits++;
+        return matcher;
+    }
+
+    /**
+     * Finds the text every match of the regex has to contain. Only plain characters outside of groups are
+     * considered, anything the parser is unsure about ends the current run of characters.
+     *
+     * @return the required prefix and the longest required literal, either may be null
+     */
+    private static String[] findLiterals(Pattern pattern, Mode mode) {
+        String[] none = new String[2];
+        if (pattern.flags() != 0) return none;
+
+        String regex = pattern.pattern();
+        int i = 0;
+        boolean anchored = regex.startsWith("^");
+        if (anchored) i++;
+
+        String prefix = null;
+        String longest = null;
+        boolean atStart = anchored || mode == Mode.MATCHES;
+        StringBuilder run = new StringBuilder();
+        boolean lastAtomLiteral = false;
+
+        while (i <= regex.length()) {
+            char c = i < regex.length() ? regex.charAt(i) : '\0';
+            boolean endRun = true;
+
+            if (i == regex.length()) {
+                i++;
+            } else if (c == '\\') {
+                if (i + 1 >= regex.length()) return none;
+                char escaped = regex.charAt(i + 1);
+                i += 2;
+                if (!Character.isLetterOrDigit(escaped)) {
+                    run.append(escaped);
+                    lastAtomLiteral = true;
+                    endRun = false;
+                } else if (ZERO_WIDTH_ESCAPES.indexOf(escaped) < 0 && CLASS_ESCAPES.indexOf(escaped) < 0) {
+                    // Quoting, code points, back references and the like
+                    return none;
+                }
+            } else if (c == '[') {
+                i = skipClass(regex, i);
+            } else if (c == '(') {
+                if (regex.startsWith("(?", i)
+                        && i + 2 < regex.length()
+                        && ":<=!>".indexOf(regex.charAt(i + 2)) < 0) {
+                    // Inline flags change how the rest of the regex matches
+                    return none;
+                }
+                i = skipGroup(regex, i);
+                if (i < 0) return none;
+            } else if (c == '|') {
+                return none;
+            } else if (c == '?' || c == '*' || c == '{' || c == '+') {
+                // The quantified atom may be missing, or be repeated, so it ends the run
+                if (c != '+' && lastAtomLiteral) {
+                    run.setLength(run.length() - 1);
+                }
+                i = c == '{' ? regex.indexOf('}', i) + 1 : i + 1;
+                if (i == 0) return none;
+                if (i < regex.length() && (regex.charAt(i) == '?' || regex.charAt(i) == '+')) i++;
+            } else if (c == '.' || c == '^' || c == '$') {
+                i++;
+            } else {
+                run.append(c);
+                lastAtomLiteral = true;
+                endRun = false;
+                i++;
+            }
+
+            if (!endRun) continue;
+
+            if (!run.isEmpty()) {
+                String found = run.toString();
+                if (atStart) prefix = found;
+                if (longest == null || found.length() > longest.length()) longest = found;
+                run.setLength(0);
+            }
+            atStart = false;
+            lastAtomLiteral = false;
+        }
+
+        return new String[] {prefix, longest};
+    }
+
+    /** @return the index after the character class starting at start */
+    private static int skipClass(String regex, int start) {
+        int i = start + 1;
+        if (i < regex.length() && regex.charAt(i) == '^') i++;
+        // A closing bracket directly at the start is part of the class
+        if (i < regex.length() && regex.charAt(i) == ']') i++;
+
+        int depth = 1;
+        while (i < regex.length() && depth > 0) {
+            char c = regex.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == '[') {
+                depth++;
+            } else if (c == ']') {
+                depth--;
+            }
+            i++;
+        }
+        return i;
+    }
+
+    /** @return the index after the group starting at start, or -1 if it is not closed */
+    private static int skipGroup(String regex, int start) {
+        int i = start + 1;
+        int depth = 1;
+        while (i < regex.length()) {
+            char c = regex.charAt(i);
+            if (c == '\\') {
+                i += 2;
+                continue;
+            }
+            if (c == '[') {
+                i = skipClass(regex, i);
+                continue;
+            }
+
+            if (c == '(') {
+                depth++;
+            } else if (c == ')' && --depth == 0) {
+                return i + 1;
+            }
+            i++;
+        }
+        return -1;
+    }
+
+    /** Which text of the chat line the pattern is matched against */
+    public enum Target {
+        CODED,
+        UNFORMATTED
+    }
+
+    public enum Mode {
+        // The pattern has to be found somewhere in the text
+        FIND,
+        // The pattern has to match the whole text
+        MATCHES
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright © Wynntils 2022.
+ * This file is released under AGPLv3. See LICENSE for full license details.
+ */
+package com.wynntils.core.chat;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * An Aho-Corasick automaton over the literals of the chat patterns, so a single pass over a line finds the
+ * literals of all patterns it contains.
+ */
+final class LiteralIndex {
+    private final Node root = new Node();
+    // Patterns registered later are not part of the index
+    private final int patternCount;
+
+    LiteralIndex(List<ChatPattern> patterns, ChatPattern.Target target) {
+        patternCount = patterns.size();
+
+        for (ChatPattern pattern : patterns) {
+            if (pattern.getTarget() != target || pattern.getLiteral() == null) continue;
+
+            Node node = root;
+            for (char c : pattern.getLiteral().toCharArray()) {
+                node = node.next.computeIfAbsent(c, key -> new Node());
+            }
+            node.outputIds.add(pattern.getId());
+        }
+
+        buildFailureLinks();
+    }
+
+    boolean covers(ChatPattern pattern) {
+        return pattern.getId() < patternCount;
+    }
+
+    /** @return the ids of the patterns whose literal is contained in the text */
+    BitSet scan(String text) {
+        BitSet found = new BitSet(patternCount);
+
+        Node node = root;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            while (node != root && !node.next.containsKey(c)) {
+                node = node.fail;
+            }
+            node = node.next.getOrDefault(c, root);
+
+            for (int id : node.outputs) {
+                found.set(id);
+            }
+        }
+
+        return found;
+    }
+
+    private void buildFailureLinks() {
+        Queue<Node> queue = new ArrayDeque<>();
+        root.fail = root;
+        root.outputs = new int[0];
+        for (Node child : root.next.values()) {
+            child.fail = root;
+            queue.add(child);
+        }
+
+        // Breadth first, so the failure target of a node is complete before the node itself
+        while (!queue.isEmpty()) {
+            Node node = queue.poll();
+
+            List<Integer> outputs = new ArrayList<>(node.outputIds);
+            for (int id : node.fail.outputs) {
+                outputs.add(id);
+            }
+            node.outputs = outputs.stream().mapToInt(Integer::intValue).toArray();
+
+            for (Map.Entry<Character, Node> entry : node.next.entrySet()) {
+                Node fail = node.fail;
+                while (fail != root && !fail.next.containsKey(entry.getKey())) {
+                    fail = fail.fail;
+                }
+                Node target = fail.next.get(entry.getKey());
+                entry.getValue().fail = target != null && target != entry.getValue() ? target : root;
+                queue.add(entry.getValue());
+            }
+        }
+    }
+
+    private static final class Node {
+        private final Map<Character, Node> next = new HashMap<>();
+        private final List<Integer> outputIds = new ArrayList<>();
+        private Node fail;
+        // The ids of this node and all its failure targets
+        private int[] outputs;
+    }
+}
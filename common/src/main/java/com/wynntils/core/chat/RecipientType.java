@@ -20,18 +20,25 @@ public enum RecipientType {
     PRIVATE("^§7\\[.* ➤ .*\\] §r§f.*$", "^(§r§8)?\\[.* ➤ .*\\] §r§7.*$"),
     SHOUT("^§3.* \\[[A-Z0-9]+\\] shouts: §r§b.*$", "^(§r§8)?.* \\[[A-Z0-9]+\\] shouts: §r§7.*$");
 
-    private final Pattern normalPattern;
-    private final Pattern backgroundPattern;
+    private final ChatPattern normalPattern;
+    private final ChatPattern backgroundPattern;
 
     RecipientType(String normalPattern, String backgroundPattern) {
-        this.normalPattern = (normalPattern == null ? null : Pattern.compile(normalPattern));
-        this.backgroundPattern = (backgroundPattern == null ? null : Pattern.compile(backgroundPattern));
+        this.normalPattern = register(name() + "/normal", normalPattern);
+        this.backgroundPattern = register(name() + "/background", backgroundPattern);
     }
 
-    public boolean matchPattern(String msg, MessageType messageType) {
+    public boolean matchPattern(ChatMatches matches, MessageType messageType) {
         assert (messageType == MessageType.NORMAL || messageType == MessageType.BACKGROUND);
-        Pattern pattern = (messageType == MessageType.NORMAL ? normalPattern : backgroundPattern);
+        ChatPattern pattern = (messageType == MessageType.NORMAL ? normalPattern : backgroundPattern);
         if (pattern == null) return false;
-        return pattern.matcher(msg).find();
+        return matches.matches(pattern);
+    }
+
+    private static ChatPattern register(String name, String pattern) {
+        if (pattern == null) return null;
+
+        return ChatMatcher.register(
+                "recipient/" + name, Pattern.compile(pattern), ChatPattern.Target.CODED, ChatPattern.Mode.FIND);
     }
 }
@@ -5,28 +5,121 @@
 package com.wynntils.core.events;
 
 import com.wynntils.core.WynntilsMod;
+import com.wynntils.mc.event.ClientTickEvent;
+import com.wynntils.mc.event.NametagRenderEvent;
+import com.wynntils.mc.event.RenderEvent;
+import com.wynntils.mc.event.SetSlotEvent;
+import com.wynntils.mc.event.SlotRenderEvent;
+import java.util.Optional;
+import java.util.Set;
 import net.minecraftforge.eventbus.EventBus;
 import net.minecraftforge.eventbus.api.BusBuilder;
 import net.minecraftforge.eventbus.api.Event;
-import net.minecraftforge.eventbus.api.IEventBus;
+import net.minecraftforge.eventbus.api.EventPriority;
+import net.minecraftforge.eventbus.api.IEventListener;
 
+/**
+ * The event bus of the mod. In the development environment, it checks that events are posted on the thread they
+ * are annotated with, and while {@link EventProfiler} is enabled, it times every event and listener. The events
+ * posted every frame or for every slot are dispatched by a {@link TypedEventDispatcher}.
+ */
 public class EventBusWrapper extends EventBus {
-    private EventBusWrapper(BusBuilder busBuilder) {
+    private static final Set<Class<? extends Event>> HOT_EVENTS = Set.of(
+            ClientTickEvent.Start.class,
+            ClientTickEvent.End.class,
+            RenderEvent.Pre.class,
+            RenderEvent.Post.class,
+            SlotRenderEvent.Pre.class,
+            SlotRenderEvent.Post.class,
+            NametagRenderEvent.class,
+            SetSlotEvent.Pre.class,
+            SetSlotEvent.Post.class);
+
+    // Looking up annotations is slow, so it is done once per event class
+    private static final ClassValue<Optional<EventThread>> EVENT_THREADS = new ClassValue<>() {
+        @Override
+        protected Optional<EventThread> computeValue(Class<?> type) {
+            return Optional.ofNullable(type.getDeclaredAnnotation(EventThread.class));
+        }
+    };
+
+    private final TypedEventDispatcher dispatcher = new TypedEventDispatcher(HOT_EVENTS);
+    private final boolean checkThreads;
+
+    private EventBusWrapper(BusBuilder busBuilder, boolean checkThreads) {
         super(busBuilder);
+        this.checkThreads = checkThreads;
     }
 
-    public static IEventBus createEventBus() {
-        if (WynntilsMod.isDevelopmentEnvironment()) {
-            return new EventBusWrapper(BusBuilder.builder());
-        } else {
-            return BusBuilder.builder().build();
-        }
+    public static EventBusWrapper createEventBus() {
+        // The wrapper is used everywhere, so events can be profiled in production as well
+        return new EventBusWrapper(BusBuilder.builder(), WynntilsMod.isDevelopmentEnvironment());
     }
 
     @Override
     public boolean post(Event event) {
+        if (checkThreads) {
+            checkThread(event);
+        }
+
+        // Profiling always goes through the Forge bus, which knows every listener as well
+        if (EventProfiler.isEnabled()) return postProfiled(event);
+
+        if (dispatcher.handles(event)) return dispatcher.post(event);
+
+        return super.post(event);
+    }
+
+    @Override
+    public void register(Object target) {
+        super.register(target);
+        dispatcher.register(target);
+    }
+
+    @Override
+    public void unregister(Object object) {
+        super.unregister(object);
+        dispatcher.unregister(object);
+    }
+
+    /** @return the event types which can be dispatched by the typed dispatcher */
+    public static Set<Class<? extends Event>> getDispatchableEvents() {
+        return HOT_EVENTS;
+    }
+
+    public boolean isDispatched(Class<? extends Event> eventType) {
+        return dispatcher.isEnabled(eventType);
+    }
+
+    /** Switches an event type between the typed dispatcher and the Forge bus */
+    public void setDispatched(Class<? extends Event> eventType, boolean dispatched) {
+        dispatcher.setEnabled(eventType, dispatched);
+    }
+
+    private boolean postProfiled(Event event) {
+        long start = System.nanoTime();
+        try {
+            return super.post(event, EventBusWrapper::invokeProfiled);
+        } finally {
+            EventProfiler.recordEvent(event.getClass(), System.nanoTime() - start);
+        }
+    }
+
+    private static void invokeProfiled(IEventListener listener, Event event) {
+        // Priorities are markers in the listener list, they only set the phase of the event
+        if (listener instanceof EventPriority) {
+            listener.invoke(event);
+            return;
+        }
+
+        long start = System.nanoTime();
+        listener.invoke(event);
+        EventProfiler.recordListener(listener, System.nanoTime() - start);
+    }
+
+    private void checkThread(Event event) {
         Class<? extends Event> eventClass = event.getClass();
-        EventThread threadAnnotation = eventClass.getDeclaredAnnotation(EventThread.class);
+        EventThread threadAnnotation = EVENT_THREADS.get(eventClass).orElse(null);
         String threadName = Thread.currentThread().getName();
         if (threadAnnotation == null) {
             // Events without annotation are only allowed on Render thread
@@ -48,7 +141,5 @@ public class EventBusWrapper extends EventBus {
                         + threadAnnotation.value() + " on thread " + threadName);
             }
         }
-
-        return super.post(event);
     }
 }
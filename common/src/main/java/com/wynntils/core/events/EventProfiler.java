@@ -0,0 +1,115 @@
+/*
+ * Copyright © Wynntils 2022.
+ * This file is released under AGPLv3. See LICENSE for full license details.
+ */
+package com.wynntils.core.events;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import net.minecraftforge.eventbus.api.Event;
+import net.minecraftforge.eventbus.api.IEventListener;
+
+/**
+ * Records how long each event class, and each listener, takes to handle an event. Profiling is off until it is
+ * started, and costs a single check per posted event while off.
+ *
+ * @see EventBusWrapper
+ */
+public final class EventProfiler {
+    private static final Map<Class<? extends Event>, LatencyHistogram> EVENTS = new ConcurrentHashMap<>();
+    private static final Map<IEventListener, ListenerEntry> LISTENERS = new ConcurrentHashMap<>();
+
+    private static volatile boolean enabled = false;
+
+    private EventProfiler() {}
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /** Starts profiling, throwing away what was recorded before */
+    public static void start() {
+        EVENTS.clear();
+        LISTENERS.clear();
+        enabled = true;
+    }
+
+    public static void stop() {
+        enabled = false;
+    }
+
+    static void recordEvent(Class<? extends Event> eventClass, long nanos) {
+        EVENTS.computeIfAbsent(eventClass, c -> new LatencyHistogram()).record(nanos);
+    }
+
+    static void recordListener(IEventListener listener, long nanos) {
+        // Listeners describe themselves as their owner and method
+        LISTENERS
+                .computeIfAbsent(listener, l -> new ListenerEntry(l.toString(), new LatencyHistogram()))
+                .histogram()
+                .record(nanos);
+    }
+
+    /** @return the timings of all events and listeners, the ones with the most total time first */
+    public static List<Timing> getTimings() {
+        List<Timing> timings = new ArrayList<>();
+        for (Map.Entry<Class<? extends Event>, LatencyHistogram> entry : EVENTS.entrySet()) {
+            timings.add(Timing.of("event", getEventName(entry.getKey()), entry.getValue()));
+        }
+        for (ListenerEntry entry : LISTENERS.values()) {
+            timings.add(Timing.of("listener", entry.name(), entry.histogram()));
+        }
+
+        timings.sort(Comparator.comparingLong(Timing::totalNanos).reversed());
+        return timings;
+    }
+
+    /** Writes all timings to a CSV file, with one row per event class or listener */
+    public static void dumpCsv(File file) throws IOException {
+        try (PrintWriter writer = new PrintWriter(new FileWriter(file, StandardCharsets.UTF_8))) {
+            writer.println("kind,name,count,total_ns,p50_ns,p99_ns,max_ns");
+            for (Timing timing : getTimings()) {
+                writer.println(String.format(
+                        Locale.ROOT,
+                        "%s,\"%s\",%d,%d,%d,%d,%d",
+                        timing.kind(),
+                        timing.name().replace("\"", "\"\""),
+                        timing.count(),
+                        timing.totalNanos(),
+                        timing.p50Nanos(),
+                        timing.p99Nanos(),
+                        timing.maxNanos()));
+            }
+        }
+    }
+
+    public static String getEventName(Class<? extends Event> eventClass) {
+        // Nested event classes, like RenderEvent.Pre, are named with their outer class
+        return eventClass.getName().substring(eventClass.getPackageName().length() + 1);
+    }
+
+    public record Timing(
+            String kind, String name, long count, long totalNanos, long p50Nanos, long p99Nanos, long maxNanos) {
+        private static Timing of(String kind, String name, LatencyHistogram histogram) {
+            return new Timing(
+                    kind,
+                    name,
+                    histogram.getCount(),
+                    histogram.getTotalNanos(),
+                    histogram.getPercentile(0.5),
+                    histogram.getPercentile(0.99),
+                    histogram.getMaxNanos());
+        }
+    }
+
+    private record ListenerEntry(String name, LatencyHistogram histogram) {}
+}
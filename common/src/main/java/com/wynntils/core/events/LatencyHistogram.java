@@ -0,0 +1,72 @@
+/*
+ * Copyright © Wynntils 2022.
+ * This file is released under AGPLv3. See LICENSE for full license details.
+ */
+package com.wynntils.core.events;
+
+/**
+ * A histogram of latencies in nanoseconds. Every power of two is split into eight buckets, so percentiles are
+ * within about 6% of the recorded values, and recording never allocates.
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final long[] buckets = new long[BUCKETS];
+    private long count = 0;
+    private long totalNanos = 0;
+    private long maxNanos = 0;
+
+    public synchronized void record(long nanos) {
+        if (nanos < 0) nanos = 0;
+
+        buckets[getBucket(nanos)]++;
+        count++;
+        totalNanos += nanos;
+        maxNanos = Math.max(maxNanos, nanos);
+    }
+
+    public synchronized long getCount() {
+        return count;
+    }
+
+    public synchronized long getTotalNanos() {
+        return totalNanos;
+    }
+
+    public synchronized long getMaxNanos() {
+        return maxNanos;
+    }
+
+    /** @return the approximate latency below which the given fraction of the recorded latencies are */
+    public synchronized long getPercentile(double fraction) {
+        if (count == 0) return 0;
+
+        long rank = Math.max((long) Math.ceil(count * fraction), 1);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += buckets[i];
+            if (seen >= rank) return Math.min(getBucketMiddle(i), maxNanos);
+        }
+        return maxNanos;
+    }
+
+    private static int getBucket(long nanos) {
+        if (nanos < SUB_BUCKETS) return (int) nanos;
+
+        // The highest bit picks the power of two, the bits below it the sub bucket
+        int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+        int subBucket = (int) (nanos >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    private static long getBucketMiddle(int bucket) {
+        if (bucket < SUB_BUCKETS) return bucket;
+
+        int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        int subBucket = bucket % SUB_BUCKETS;
+        long width = 1L << (exponent - SUB_BUCKET_BITS);
+        return ((long) (SUB_BUCKETS + subBucket) << (exponent - SUB_BUCKET_BITS)) + width / 2;
+    }
+}
@@ -0,0 +1,252 @@
+/*
+ * Copyright © Wynntils 2022.
+ * This file is released under AGPLv3. See LICENSE for full license details.
+ */
+package com.wynntils.core.events;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import net.minecraftforge.eventbus.api.Event;
+import net.minecraftforge.eventbus.api.EventPriority;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+
+/**
+ * Dispatches a fixed set of high frequency event types, with one array of listeners per type and priority which is
+ * only rebuilt when listeners are registered or unregistered.
+ *
+ * <p>Listeners are found just like the Forge event bus finds them, and the Forge bus keeps all of them too, so an
+ * event type can be switched back to the Forge bus at any time. Dispatching follows the Forge bus: every priority
+ * sets the phase of the event, listeners of a parent event type are called before those of the subtype, and
+ * listeners not receiving canceled events are skipped once the event is canceled.
+ */
+public final class TypedEventDispatcher {
+    private static final EventPriority[] PRIORITIES = EventPriority.values();
+
+    private final Map<Class<? extends Event>, EventListeners> eventListeners = new IdentityHashMap<>();
+    private final ClassValue<EventListeners> listenersByClass = new ClassValue<>() {
+        @Override
+        protected EventListeners computeValue(Class<?> type) {
+            return eventListeners.get(type);
+        }
+    };
+
+    // Registered objects and classes, and the listeners found on them
+    private final Map<Object, List<Listener>> listenersByTarget = new IdentityHashMap<>();
+    private int registrations = 0;
+
+    /** The event types are fixed when the dispatcher is created, they must be concrete classes */
+    public TypedEventDispatcher(Set<Class<? extends Event>> eventTypes) {
+        for (Class<? extends Event> eventType : eventTypes) {
+            eventListeners.put(eventType, new EventListeners());
+        }
+    }
+
+    /** @return whether the event is dispatched here, rather than by the Forge bus */
+    public boolean handles(Event event) {
+        EventListeners listeners = listenersByClass.get(event.getClass());
+        return listeners != null && listeners.enabled;
+    }
+
+    public boolean isEnabled(Class<? extends Event> eventType) {
+        return getListeners(eventType).enabled;
+    }
+
+    /** Switches an event type between this dispatcher and the Forge bus */
+    public void setEnabled(Class<? extends Event> eventType, boolean enabled) {
+        getListeners(eventType).enabled = enabled;
+    }
+
+    /** @return whether the event was canceled, like {@link net.minecraftforge.eventbus.api.IEventBus#post(Event)} */
+    public boolean post(Event event) {
+        Listener[][] byPriority = listenersByClass.get(event.getClass()).byPriority;
+
+        for (int i = 0; i < PRIORITIES.length; i++) {
+            PRIORITIES[i].invoke(event);
+
+            for (Listener listener : byPriority[i]) {
+                if (event.isCancelable() && event.isCanceled() && !listener.receiveCanceled) continue;
+
+                listener.invoke(event);
+            }
+        }
+
+        return event.isCancelable() && event.isCanceled();
+    }
+
+    /** Finds the listeners the same way as the Forge bus: static methods of a class, or instance methods */
+    public synchronized void register(Object target) {
+        if (listenersByTarget.containsKey(target)) return;
+
+        boolean isStatic = target.getClass() == Class.class;
+        Class<?> type = isStatic ? (Class<?>) target : target.getClass();
+
+        List<Listener> listeners = new ArrayList<>();
+        for (Method method : type.getMethods()) {
+            if (Modifier.isStatic(method.getModifiers()) != isStatic) continue;
+
+            SubscribeEvent annotation = findAnnotation(type, method);
+            if (annotation == null || method.getParameterCount() != 1) continue;
+
+            Class<?> parameter = method.getParameterTypes()[0];
+            if (!isListenedTo(parameter)) continue;
+
+            listeners.add(new Listener(
+                    createHandle(method, isStatic ? null : target),
+                    parameter,
+                    annotation.priority(),
+                    annotation.receiveCanceled(),
+                    registrations++));
+        }
+
+        listenersByTarget.put(target, listeners);
+        if (!listeners.isEmpty()) {
+            rebuild();
+        }
+    }
+
+    public synchronized void unregister(Object target) {
+        List<Listener> listeners = listenersByTarget.remove(target);
+        if (listeners != null && !listeners.isEmpty()) {
+            rebuild();
+        }
+    }
+
+    private EventListeners getListeners(Class<? extends Event> eventType) {
+        EventListeners listeners = eventListeners.get(eventType);
+        if (listeners == null) throw new IllegalArgumentException("Not a dispatched event type: " + eventType);
+
+        return listeners;
+    }
+
+    private boolean isListenedTo(Class<?> parameter) {
+        for (Class<? extends Event> eventType : eventListeners.keySet()) {
+            if (parameter.isAssignableFrom(eventType)) return true;
+        }
+        return false;
+    }
+
+    private void rebuild() {
+        for (Map.Entry<Class<? extends Event>, EventListeners> entry : eventListeners.entrySet()) {
+            List<List<Listener>> byPriority = new ArrayList<>();
+            for (int i = 0; i < PRIORITIES.length; i++) {
+                byPriority.add(new ArrayList<>());
+            }
+
+            for (List<Listener> listeners : listenersByTarget.values()) {
+                for (Listener listener : listeners) {
+                    if (listener.eventType.isAssignableFrom(entry.getKey())) {
+                        byPriority.get(listener.priority.ordinal()).add(listener);
+                    }
+                }
+            }
+
+            // Listeners of parent event types first, and then in the order they were registered
+            Comparator<Listener> order = Comparator.<Listener>comparingInt(l -> getDepth(l.eventType))
+                    .thenComparingInt(l -> l.registration);
+            Listener[][] arrays = new Listener[PRIORITIES.length][];
+            for (int i = 0; i < PRIORITIES.length; i++) {
+                List<Listener> listeners = byPriority.get(i);
+                listeners.sort(order);
+                arrays[i] = listeners.toArray(new Listener[0]);
+            }
+            entry.getValue().byPriority = arrays;
+        }
+    }
+
+    private static int getDepth(Class<?> type) {
+        int depth = 0;
+        for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+            depth++;
+        }
+        return depth;
+    }
+
+    // Like the Forge bus, an overriding method is a listener if any method it overrides or implements is annotated
+    private static SubscribeEvent findAnnotation(Class<?> type, Method method) {
+        Set<Class<?>> supertypes = new LinkedHashSet<>();
+        collectSupertypes(type, supertypes);
+
+        for (Class<?> c : supertypes) {
+            try {
+                Method declared = c.getDeclaredMethod(method.getName(), method.getParameterTypes());
+                SubscribeEvent annotation = declared.getAnnotation(SubscribeEvent.class);
+                if (annotation != null) return annotation;
+            } catch (NoSuchMethodException ignored) {
+                // Declared further up
+            }
+        }
+        return null;
+    }
+
+    private static void collectSupertypes(Class<?> type, Set<Class<?>> supertypes) {
+        if (type == null || !supertypes.add(type)) return;
+
+        collectSupertypes(type.getSuperclass(), supertypes);
+        for (Class<?> implemented : type.getInterfaces()) {
+            collectSupertypes(implemented, supertypes);
+        }
+    }
+
+    private static MethodHandle createHandle(Method method, Object target) {
+        try {
+            method.setAccessible(true);
+            MethodHandle handle = MethodHandles.lookup().unreflect(method);
+            if (target != null) {
+                handle = handle.bindTo(target);
+            }
+            return handle.asType(MethodType.methodType(void.class, Event.class));
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            throw new IllegalArgumentException("Can not dispatch to listener " + method, e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T extends Throwable> T sneakyThrow(Throwable t) throws T {
+        throw (T) t;
+    }
+
+    private static final class EventListeners {
+        private volatile Listener[][] byPriority = new Listener[PRIORITIES.length][0];
+        private volatile boolean enabled = true;
+    }
+
+    private static final class Listener {
+        private final MethodHandle handle;
+        private final Class<?> eventType;
+        private final EventPriority priority;
+        private final boolean receiveCanceled;
+        private final int registration;
+
+        private Listener(
+                MethodHandle handle,
+                Class<?> eventType,
+                EventPriority priority,
+                boolean receiveCanceled,
+                int registration) {
+            this.handle = handle;
+            this.eventType = eventType;
+            this.priority = priority;
+            this.receiveCanceled = receiveCanceled;
+            this.registration = registration;
+        }
+
+        private void invoke(Event event) {
+            try {
+                handle.invokeExact(event);
+            } catch (Throwable t) {
+                // Thrown unwrapped like the Forge bus does, the stack trace is used to find the crashing feature
+                throw TypedEventDispatcher.<RuntimeException>sneakyThrow(t);
+            }
+        }
+    }
+}
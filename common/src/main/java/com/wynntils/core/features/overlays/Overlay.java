@@ -42,6 +42,8 @@ public abstract class Overlay extends AbstractConfigurable implements Translatab
     @Config(key = "overlay.wynntils.overlay.verticalAlignmentOverride", visible = false)
     protected VerticalAlignment verticalAlignmentOverride = null;
 
+    private boolean dirty = true;
+
     protected Overlay(OverlayPosition position, float width, float height) {
         this.position = position;
         this.size = new GuiScaledOverlaySize(width, height);
@@ -69,6 +71,37 @@ public abstract class Overlay extends AbstractConfigurable implements Translatab
         this.render(poseStack, partialTicks, window);
     }
 
+    /**
+     * Cacheable overlays are rendered into a texture, which is drawn instead of rendering them again until they are
+     * marked dirty. They must only draw within their bounds, and their rendering must only depend on their state. This
+     * is checked every frame, after {@link #updateState()}.
+     */
+    public boolean isCacheable() {
+        return false;
+    }
+
+    /**
+     * Called every frame before the overlay is rendered or drawn from its cache. Cacheable overlays should check for
+     * changes of their content here, and call {@link #markDirty()} if it changed.
+     */
+    protected void updateState() {}
+
+    /** Called when the overlay, or its feature, is disabled. Undoes anything set up by {@link #updateState()} */
+    protected void onDisable() {}
+
+    /** Makes a cacheable overlay render again on the next frame */
+    public final void markDirty() {
+        dirty = true;
+    }
+
+    protected final boolean isDirty() {
+        return dirty;
+    }
+
+    final void clearDirty() {
+        dirty = false;
+    }
+
     @Override
     public final void updateConfigOption(ConfigHolder configHolder) {
         // if user toggle was changed, enable/disable feature accordingly
@@ -78,6 +111,7 @@ public abstract class Overlay extends AbstractConfigurable implements Translatab
             OverlayManager.enableOverlays(List.of(this), false);
         }
 
+        markDirty();
         onConfigUpdate(configHolder);
     }
 
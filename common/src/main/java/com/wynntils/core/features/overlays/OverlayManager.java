@@ -10,6 +10,7 @@ import com.wynntils.core.features.Feature;
 import com.wynntils.core.features.overlays.annotations.OverlayInfo;
 import com.wynntils.core.managers.CoreManager;
 import com.wynntils.core.managers.CrashReportManager;
+import com.wynntils.gui.render.RenderBatcher;
 import com.wynntils.gui.screens.overlays.OverlayManagementScreen;
 import com.wynntils.mc.event.DisplayResizeEvent;
 import com.wynntils.mc.event.RenderEvent;
@@ -31,6 +32,7 @@ public final class OverlayManager extends CoreManager {
     private static final Map<Overlay, Feature> overlayParent = new HashMap<>();
 
     private static final Set<Overlay> enabledOverlays = new HashSet<>();
+    private static final Map<Overlay, OverlayRenderCache> renderCaches = new HashMap<>();
 
     private static final List<SectionCoordinates> sections = new ArrayList<>(9);
 
@@ -40,7 +42,16 @@ public final class OverlayManager extends CoreManager {
     }
 
     public static void disableOverlays(List<Overlay> overlays) {
-        enabledOverlays.removeIf(overlays::contains);
+        for (Overlay overlay : overlays) {
+            if (enabledOverlays.remove(overlay)) {
+                overlay.onDisable();
+            }
+
+            OverlayRenderCache cache = renderCaches.remove(overlay);
+            if (cache != null) {
+                cache.destroy();
+            }
+        }
         overlays.forEach(
                 overlay -> overlay.getConfigOptionFromString("userEnabled").ifPresent(overlay::onConfigUpdate));
     }
@@ -57,6 +68,10 @@ public final class OverlayManager extends CoreManager {
 
     @SubscribeEvent
     public static void onRenderPre(RenderEvent.Pre event) {
+        if (event.getType() == RenderEvent.ElementType.GUI) {
+            RenderBatcher.startFrame();
+        }
+
         McUtils.mc().getProfiler().push("preRenOverlay");
         renderOverlays(event, OverlayInfo.RenderState.Pre);
         McUtils.mc().getProfiler().pop();
@@ -97,12 +112,29 @@ public final class OverlayManager extends CoreManager {
                 }
             }
 
+            // Consecutive batched overlays share one batch, anything else is drawn directly
+            if (annotation.batched() && !RenderBatcher.isBatching()) {
+                RenderBatcher.begin();
+            } else if (!annotation.batched() && RenderBatcher.isBatching()) {
+                RenderBatcher.end();
+            }
+
             try {
                 if (testMode) {
                     overlay.renderPreview(event.getPoseStack(), event.getPartialTicks(), event.getWindow());
                 } else {
                     if (shouldRender) {
-                        overlay.render(event.getPoseStack(), event.getPartialTicks(), event.getWindow());
+                        overlay.updateState();
+
+                        if (overlay.isCacheable()) {
+                            // Drawing to another render target can not be batched
+                            RenderBatcher.end();
+                            renderCaches
+                                    .computeIfAbsent(overlay, o -> new OverlayRenderCache())
+                                    .render(overlay, event.getPoseStack(), event.getPartialTicks(), event.getWindow());
+                        } else {
+                            overlay.render(event.getPoseStack(), event.getPartialTicks(), event.getWindow());
+                        }
                     }
                 }
             } catch (Throwable t) {
@@ -116,6 +148,8 @@ public final class OverlayManager extends CoreManager {
             }
         }
 
+        RenderBatcher.end();
+
         // Hopefully we have none :)
         for (Overlay overlay : crashedOverlays) {
             overlay.getConfigOptionFromString("userEnabled").ifPresent(c -> c.setValue(Boolean.FALSE));
@@ -145,6 +179,7 @@ public final class OverlayManager extends CoreManager {
     @SubscribeEvent
     public static void onResizeEvent(DisplayResizeEvent event) {
         calculateSections();
+        renderCaches.values().forEach(OverlayRenderCache::invalidate);
     }
 
     // Calculate the sections when loading is finished (this acts as a "game loaded" event)
@@ -0,0 +1,144 @@
+/*
+ * Copyright © Wynntils 2022.
+ * This file is released under AGPLv3. See LICENSE for full license details.
+ */
+package com.wynntils.core.features.overlays;
+
+import com.mojang.blaze3d.pipeline.RenderTarget;
+import com.mojang.blaze3d.pipeline.TextureTarget;
+import com.mojang.blaze3d.platform.GlStateManager;
+import com.mojang.blaze3d.platform.Window;
+import com.mojang.blaze3d.systems.RenderSystem;
+import com.mojang.blaze3d.vertex.BufferBuilder;
+import com.mojang.blaze3d.vertex.DefaultVertexFormat;
+import com.mojang.blaze3d.vertex.PoseStack;
+import com.mojang.blaze3d.vertex.Tesselator;
+import com.mojang.blaze3d.vertex.VertexFormat;
+import com.mojang.math.Matrix4f;
+import com.wynntils.gui.render.HorizontalAlignment;
+import com.wynntils.gui.render.VerticalAlignment;
+import com.wynntils.mc.utils.McUtils;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.renderer.GameRenderer;
+
+/**
+ * The rendered image of a cacheable overlay. The overlay is rendered into a texture the size of its bounds, which is
+ * drawn every frame, until the overlay is marked dirty, moves, is aligned differently, or the GUI scale changes.
+ *
+ * <p>The texture holds premultiplied alpha, as the default blending leaves it when drawing on a transparent
+ * background, so it is drawn with matching blending.
+ */
+final class OverlayRenderCache {
+    // Room for text outlines and shadows just outside the bounds, in GUI pixels
+    private static final int PADDING = 1;
+
+    private RenderTarget target = null;
+    private boolean valid = false;
+
+    private float x;
+    private float y;
+    private int pixelWidth;
+    private int pixelHeight;
+    private double guiScale;
+    private HorizontalAlignment horizontalAlignment;
+    private VerticalAlignment verticalAlignment;
+
+    void invalidate() {
+        valid = false;
+    }
+
+    /** Frees the texture, the cache can still be used afterwards */
+    void destroy() {
+        if (target != null) {
+            target.destroyBuffers();
+            target = null;
+        }
+        valid = false;
+    }
+
+    void render(Overlay overlay, PoseStack poseStack, float partialTicks, Window window) {
+        if (overlay.getWidth() <= 0 || overlay.getHeight() <= 0) {
+            // Nothing to cache, but the overlay may still draw something
+            overlay.render(poseStack, partialTicks, window);
+            return;
+        }
+
+        float renderX = overlay.getRenderX() - PADDING;
+        float renderY = overlay.getRenderY() - PADDING;
+        double scale = window.getGuiScale();
+        int width = (int) Math.ceil((overlay.getWidth() + 2 * PADDING) * scale);
+        int height = (int) Math.ceil((overlay.getHeight() + 2 * PADDING) * scale);
+
+        if (!valid
+                || overlay.isDirty()
+                || renderX != x
+                || renderY != y
+                || width != pixelWidth
+                || height != pixelHeight
+                || scale != guiScale
+                || overlay.getRenderHorizontalAlignment() != horizontalAlignment
+                || overlay.getRenderVerticalAlignment() != verticalAlignment) {
+            x = renderX;
+            y = renderY;
+            pixelWidth = width;
+            pixelHeight = height;
+            guiScale = scale;
+            horizontalAlignment = overlay.getRenderHorizontalAlignment();
+            verticalAlignment = overlay.getRenderVerticalAlignment();
+
+            redraw(overlay, partialTicks, window);
+            overlay.clearDirty();
+            valid = true;
+        }
+
+        draw(poseStack);
+    }
+
+    private void redraw(Overlay overlay, float partialTicks, Window window) {
+        if (target == null) {
+            target = new TextureTarget(pixelWidth, pixelHeight, false, Minecraft.ON_OSX);
+        } else if (target.width != pixelWidth || target.height != pixelHeight) {
+            target.resize(pixelWidth, pixelHeight, Minecraft.ON_OSX);
+        }
+
+        target.setClearColor(0f, 0f, 0f, 0f);
+        target.clear(Minecraft.ON_OSX);
+        target.bindWrite(true);
+
+        // The same projection as the GUI, but only covering the overlay
+        RenderSystem.backupProjectionMatrix();
+        RenderSystem.setProjectionMatrix(Matrix4f.orthographic(
+                0f, (float) (pixelWidth / guiScale), 0f, (float) (pixelHeight / guiScale), 1000f, 3000f));
+
+        PoseStack poseStack = new PoseStack();
+        poseStack.translate(-x, -y, 0);
+        try {
+            overlay.render(poseStack, partialTicks, window);
+        } finally {
+            RenderSystem.restoreProjectionMatrix();
+            McUtils.mc().getMainRenderTarget().bindWrite(true);
+        }
+    }
+
+    private void draw(PoseStack poseStack) {
+        float width = (float) (pixelWidth / guiScale);
+        float height = (float) (pixelHeight / guiScale);
+        Matrix4f matrix = poseStack.last().pose();
+
+        RenderSystem.setShader(GameRenderer::getPositionTexShader);
+        RenderSystem.setShaderTexture(0, target.getColorTextureId());
+        RenderSystem.enableBlend();
+        RenderSystem.blendFunc(GlStateManager.SourceFactor.ONE, GlStateManager.DestFactor.ONE_MINUS_SRC_ALPHA);
+
+        // Textures of render targets are upside down
+        BufferBuilder bufferBuilder = Tesselator.getInstance().getBuilder();
+        bufferBuilder.begin(VertexFormat.Mode.QUADS, DefaultVertexFormat.POSITION_TEX);
+        bufferBuilder.vertex(matrix, x, y + height, 0).uv(0, 0).endVertex();
+        bufferBuilder.vertex(matrix, x + width, y + height, 0).uv(1, 0).endVertex();
+        bufferBuilder.vertex(matrix, x + width, y, 0).uv(1, 1).endVertex();
+        bufferBuilder.vertex(matrix, x, y, 0).uv(0, 1).endVertex();
+        Tesselator.getInstance().end();
+
+        RenderSystem.defaultBlendFunc();
+    }
+}
@@ -20,6 +20,9 @@ public @interface OverlayInfo {
 
     RenderState renderAt() default RenderState.Post;
 
+    /* Whether the overlay only draws using RenderUtils and FontRenderer, so its quads can be batched */
+    boolean batched() default false;
+
     enum RenderState {
         Pre,
         Post,
@@ -11,33 +11,61 @@ import com.wynntils.functions.CharacterFunctions;
 import com.wynntils.functions.EnvironmentFunctions;
 import com.wynntils.functions.HorseFunctions;
 import com.wynntils.functions.LootrunFunctions;
+import com.wynntils.functions.MapFunctions;
 import com.wynntils.functions.MinecraftFunctions;
 import com.wynntils.functions.WorldFunction;
+import com.wynntils.mc.event.ClientTickEvent;
 import com.wynntils.mc.utils.McUtils;
-import com.wynntils.wynn.objects.EmeraldSymbols;
 import java.text.NumberFormat;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.function.Consumer;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import net.minecraft.ChatFormatting;
 import net.minecraft.network.chat.Component;
 import net.minecraft.network.chat.MutableComponent;
 import net.minecraft.network.chat.TextComponent;
+import net.minecraftforge.eventbus.api.EventPriority;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
 
 /** Manage all built-in {@link Function}s */
 public final class FunctionManager extends CoreManager {
     private static final List<Function<?>> FUNCTIONS = new ArrayList<>();
     private static final Set<ActiveFunction<?>> ENABLED_FUNCTIONS = new HashSet<>();
     private static final Set<Function<?>> CRASHED_FUNCTIONS = new HashSet<>();
+    // Lower case names and aliases
+    private static final Map<String, Function<?>> FUNCTIONS_BY_NAME = new HashMap<>();
+
+    private static final int LEGACY_TEMPLATE_CACHE_SIZE = 64;
+    private static final Map<String, FunctionTemplate> LEGACY_TEMPLATES =
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, FunctionTemplate> eldest) {
+                    return size() > LEGACY_TEMPLATE_CACHE_SIZE;
+                }
+            };
+
+    // Formatted values, valid until the next tick; empty if the function has no value
+    private static final Map<ValueKey, Optional<String>> TICK_VALUES = new HashMap<>();
+    private static final Map<ValueKey, WatchedValue> WATCHED_VALUES = new HashMap<>();
+    private static long valueChanges = 0;
+
+    private static NumberFormat numberFormat = null;
+    private static Locale numberFormatLocale = null;
 
     private static void registerFunction(Function<?> function) {
         FUNCTIONS.add(function);
+        // The first function registered with a name or alias wins
+        FUNCTIONS_BY_NAME.putIfAbsent(function.getName().toLowerCase(Locale.ROOT), function);
+        for (String alias : function.getAliases()) {
+            FUNCTIONS_BY_NAME.putIfAbsent(alias.toLowerCase(Locale.ROOT), function);
+        }
         if (function instanceof ActiveFunction<?> activeFunction) {
             activeFunction.init();
         }
@@ -66,6 +94,7 @@ public final class FunctionManager extends CoreManager {
             WynntilsMod.unregisterEventListener(activeFunction);
         }
         ENABLED_FUNCTIONS.add(activeFunction);
+        TICK_VALUES.clear();
         return enableSucceeded;
     }
 
@@ -75,6 +104,7 @@ public final class FunctionManager extends CoreManager {
         WynntilsMod.unregisterEventListener(activeFunction);
         activeFunction.onDisable();
         ENABLED_FUNCTIONS.remove(activeFunction);
+        TICK_VALUES.clear();
     }
 
     public static boolean isEnabled(Function<?> function) {
@@ -84,21 +114,7 @@ public final class FunctionManager extends CoreManager {
     }
 
     public static Optional<Function<?>> forName(String functionName) {
-        for (Function<?> function : FunctionManager.getFunctions()) {
-            if (hasName(function, functionName)) {
-                return Optional.of(function);
-            }
-        }
-
-        return Optional.empty();
-    }
-
-    private static boolean hasName(Function<?> function, String name) {
-        if (function.getName().equalsIgnoreCase(name)) return true;
-        for (String alias : function.getAliases()) {
-            if (alias.equalsIgnoreCase(name)) return true;
-        }
-        return false;
+        return Optional.ofNullable(FUNCTIONS_BY_NAME.get(functionName.toLowerCase(Locale.ROOT)));
     }
 
     private static Optional<Object> getFunctionValueSafely(Function<?> function, String argument) {
@@ -128,49 +144,109 @@ public final class FunctionManager extends CoreManager {
                 ? new TextComponent(function.getTranslatedName() + ": ").withStyle(ChatFormatting.WHITE)
                 : new TextComponent("");
 
-        Optional<Object> value = getFunctionValueSafely(function, argument);
+        Optional<String> value = getFormattedValue(function, argument);
         if (value.isEmpty()) {
             return header.append(new TextComponent("??"));
         }
 
-        String formattedValue = format(value.get());
-
-        return header.append(new TextComponent(formattedValue).withStyle(color));
+        return header.append(new TextComponent(value.get()).withStyle(color));
     }
 
     public static String getRawValueString(Function<?> function, String argument) {
-        Optional<Object> value = getFunctionValueSafely(function, argument);
-        if (value.isEmpty()) {
-            return "??";
+        return getFormattedValue(function, argument).orElse("??");
+    }
+
+    /**
+     * Checks the value every tick, and posts a {@link FunctionValueChangedEvent} when it changes. Every call
+     * must be paired with a call to {@link #unwatch(Function, String)}.
+     */
+    public static void watch(Function<?> function, String argument) {
+        WATCHED_VALUES.computeIfAbsent(new ValueKey(function, argument), k -> new WatchedValue()).watchers++;
+    }
+
+    public static void unwatch(Function<?> function, String argument) {
+        ValueKey key = new ValueKey(function, argument);
+        WatchedValue watched = WATCHED_VALUES.get(key);
+        if (watched == null) return;
+
+        if (--watched.watchers <= 0) {
+            WATCHED_VALUES.remove(key);
+        }
+    }
+
+    /** @return a counter which is increased every tick in which a watched value changed */
+    public static long getValueChanges() {
+        return valueChanges;
+    }
+
+    @SubscribeEvent(priority = EventPriority.HIGHEST)
+    public static void onTickStart(ClientTickEvent.Start event) {
+        TICK_VALUES.clear();
+
+        List<FunctionValueChangedEvent> changes = new ArrayList<>();
+        for (Map.Entry<ValueKey, WatchedValue> entry : WATCHED_VALUES.entrySet()) {
+            ValueKey key = entry.getKey();
+            WatchedValue watched = entry.getValue();
+
+            String value = getRawValueString(key.function(), key.argument());
+            if (!value.equals(watched.value)) {
+                changes.add(new FunctionValueChangedEvent(key.function(), key.argument(), watched.value, value));
+                watched.value = value;
+            }
+        }
+
+        if (changes.isEmpty()) return;
+
+        valueChanges++;
+        // Posted after the loop, so subscribers can watch and unwatch values
+        for (FunctionValueChangedEvent change : changes) {
+            WynntilsMod.postEvent(change);
         }
+    }
 
-        return format(value.get());
+    private static Optional<String> getFormattedValue(Function<?> function, String argument) {
+        // Every template and overlay asking for the same value in a tick shares one evaluation
+        ValueKey key = new ValueKey(function, argument);
+        Optional<String> value = TICK_VALUES.get(key);
+        if (value == null) {
+            value = getFunctionValueSafely(function, argument).map(FunctionManager::format);
+            TICK_VALUES.put(key, value);
+        }
+        return value;
     }
 
     private static String format(Object value) {
         if (value instanceof Number number) {
             // French locale has NBSP
             // https://stackoverflow.com/questions/34156585/java-decimal-format-parsing-issue
-            return NumberFormat.getInstance().format(number).replaceAll("\u00A0", " ");
+            return getNumberFormat().format(number).replace('\u00A0', ' ').replace('\u202F', ' ');
         }
         return value.toString();
     }
 
+    private static NumberFormat getNumberFormat() {
+        // Creating a NumberFormat is expensive, so it is only done when the locale changes
+        Locale locale = Locale.getDefault(Locale.Category.FORMAT);
+        if (numberFormat == null || !locale.equals(numberFormatLocale)) {
+            numberFormat = NumberFormat.getInstance(locale);
+            numberFormatLocale = locale;
+        }
+        return numberFormat;
+    }
+
     /**
      * Return a string, based on the template, with values filled in from the referenced
      * functions.
      */
     public static Component getStringFromTemplate(String template) {
-        // FIXME: implement template parser
-        return new TextComponent(template);
+        return new TextComponent(String.join("\n", getLinesFromLegacyTemplate(template)));
     }
 
     /**
      * Return a list of all functions referenced in a template string
      */
     public static List<Function<?>> getFunctionsInTemplate(String template) {
-        // FIXME: implement template parser
-        return List.of();
+        return getDependenciesFromStringLegacy(template);
     }
 
     public static <T> void doFormat(
@@ -215,82 +291,19 @@ public final class FunctionManager extends CoreManager {
 
     // region Legacy formatting
 
-    private static final Pattern INFO_VARIABLE_PATTERN =
-            Pattern.compile("%([a-zA-Z_]+|%)%|\\\\([\\\\n%§EBLMH]|x[\\dA-Fa-f]{2}|u[\\dA-Fa-f]{4}|U[\\dA-Fa-f]{8})");
+    /** @return the compiled template, shared with everyone asking for the same template */
+    public static FunctionTemplate getLegacyTemplate(String template) {
+        return LEGACY_TEMPLATES.computeIfAbsent(template, FunctionTemplate::compileLegacy);
+    }
 
     public static List<Function<?>> getDependenciesFromStringLegacy(String renderableText) {
-        List<Function<?>> dependencies = new ArrayList<>();
-
-        Matcher m = INFO_VARIABLE_PATTERN.matcher(renderableText);
-        while (m.find()) {
-            if (m.group(1) != null && FunctionManager.forName(m.group(1)).isPresent()) {
-                // %variable%
-                Function<?> function = FunctionManager.forName(m.group(1)).get();
-                dependencies.add(function);
-            }
-        }
-
-        return dependencies;
+        return getLegacyTemplate(renderableText).getFunctions();
     }
 
     public static String[] getLinesFromLegacyTemplate(String renderableText) {
-        StringBuilder builder = new StringBuilder(renderableText.length() + 10);
-        Matcher m = INFO_VARIABLE_PATTERN.matcher(renderableText);
-        while (m.find()) {
-            String replacement = null;
-            if (m.group(1) != null && FunctionManager.forName(m.group(1)).isPresent()) {
-                // %variable%
-                Function<?> function = FunctionManager.forName(m.group(1)).get();
-
-                replacement = FunctionManager.getRawValueString(function, "");
-            } else if (m.group(2) != null) {
-                // \escape
-                replacement = doEscapeFormat(m.group(2));
-            }
-            if (replacement == null) {
-                replacement = m.group(0);
-            }
-
-            m.appendReplacement(builder, replacement);
-        }
-        m.appendTail(builder);
-
-        return parseColorCodes(builder.toString()).split("\n");
-    }
-
-    private static String parseColorCodes(String toProcess) {
-        // For every & symbol, check if the next symbol is a color code and if so, replace it with §
-        // But don't do it if a \ precedes the &
-        String validColors = "0123456789abcdefklmnor";
-        StringBuilder sb = new StringBuilder(toProcess);
-        for (int i = 0; i < sb.length(); i++) {
-            if (sb.charAt(i) == '&') { // char == &
-                if (i + 1 < sb.length()
-                        && validColors.contains(String.valueOf(sb.charAt(i + 1)))) { // char after is valid color
-                    if (i - 1 < 0 || sb.charAt(i - 1) != '\\') { // & is first char || char before is not \
-                        sb.setCharAt(i, '§');
-                    } else if (sb.charAt(i - 1) == '\\') { // & is preceded by \, just remove the \
-                        sb.deleteCharAt(i - 1);
-                    }
-                }
-            }
-        }
-        return sb.toString();
-    }
-
-    private static String doEscapeFormat(String escaped) {
-        return switch (escaped) {
-            case "\\" -> "\\\\";
-            case "n" -> "\n";
-            case "%" -> "%";
-            case "§" -> "&";
-            case "E" -> EmeraldSymbols.E_STRING;
-            case "B" -> EmeraldSymbols.B_STRING;
-            case "L" -> EmeraldSymbols.L_STRING;
-            case "M" -> "✺";
-            case "H" -> "❤";
-            default -> null;
-        };
+        FunctionTemplate template = getLegacyTemplate(renderableText);
+        template.update();
+        return template.getLines();
     }
     // endregion
 
@@ -338,10 +351,21 @@ public final class FunctionManager extends CoreManager {
         registerFunction(new LootrunFunctions.DryBoxesFunction());
         registerFunction(new LootrunFunctions.DryStreakFunction());
 
+        registerFunction(new MapFunctions.MapPoisDrawnFunction());
+        registerFunction(new MapFunctions.MapPoisTestedFunction());
+
         registerFunction(new MinecraftFunctions.DirFunction());
+        registerFunction(new MinecraftFunctions.DrawCallsFunction());
         registerFunction(new MinecraftFunctions.FpsFunction());
         registerFunction(new MinecraftFunctions.XFunction());
         registerFunction(new MinecraftFunctions.YFunction());
         registerFunction(new MinecraftFunctions.ZFunction());
     }
+
+    private record ValueKey(Function<?> function, String argument) {}
+
+    private static final class WatchedValue {
+        private int watchers = 0;
+        private String value = null;
+    }
 }
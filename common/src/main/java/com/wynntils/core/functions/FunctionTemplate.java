@@ -0,0 +1,254 @@
+/*
+ * Copyright © Wynntils 2022.
+ * This file is released under AGPLv3. See LICENSE for full license details.
+ */
+package com.wynntils.core.functions;
+
+import com.wynntils.gui.render.TextRenderSetting;
+import com.wynntils.gui.render.TextRenderTask;
+import com.wynntils.wynn.objects.EmeraldSymbols;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A template, compiled once into lines of literal text and function references. Updating the template
+ * gets the value of every referenced function once, and only rebuilds the lines that use a value which
+ * changed; each line is kept in a {@link TextRenderTask} which is reused between updates.
+ */
+public final class FunctionTemplate {
+    private static final Pattern INFO_VARIABLE_PATTERN =
+            Pattern.compile("%([a-zA-Z_]+|%)%|\\\\([\\\\n%§EBLMH]|x[\\dA-Fa-f]{2}|u[\\dA-Fa-f]{4}|U[\\dA-Fa-f]{8})");
+    private static final String VALID_COLORS = "0123456789abcdefklmnor";
+
+    private final String source;
+    private final List<Function<?>> functions;
+    private final List<List<Part>> lines;
+
+    // Indexed like functions, null until the first update
+    private final String[] values;
+    private final List<TextRenderTask> tasks = new ArrayList<>();
+
+    private boolean watched = false;
+    private long seenValueChanges = -1;
+
+    private FunctionTemplate(String source, List<Function<?>> functions, List<List<Part>> lines) {
+        this.source = source;
+        this.functions = List.copyOf(functions);
+        this.lines = lines;
+        this.values = new String[functions.size()];
+
+        // Lines without functions are only ever built here
+        for (List<Part> line : lines) {
+            tasks.add(new TextRenderTask(buildLine(line), TextRenderSetting.DEFAULT));
+        }
+    }
+
+    /**
+     * Compiles a template in the legacy format: %function% is replaced by the value of the function,
+     * \ starts an escape, and &amp; followed by a color code is a color code.
+     */
+    public static FunctionTemplate compileLegacy(String template) {
+        List<Function<?>> functions = new ArrayList<>();
+        List<List<Part>> lines = new ArrayList<>();
+        List<Part> line = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+
+        Matcher m = INFO_VARIABLE_PATTERN.matcher(template);
+        int index = 0;
+        while (m.find()) {
+            literal.append(template, index, m.start());
+            index = m.end();
+
+            if (m.group(1) != null) {
+                // %variable%
+                Function<?> function = FunctionManager.forName(m.group(1)).orElse(null);
+                if (function != null) {
+                    addLiteral(literal, line, lines);
+
+                    int functionIndex = functions.indexOf(function);
+                    if (functionIndex < 0) {
+                        functionIndex = functions.size();
+                        functions.add(function);
+                    }
+                    line.add(new FunctionValue(functionIndex));
+                    continue;
+                }
+            } else {
+                // \escape
+                String replacement = doEscapeFormat(m.group(2));
+                if (replacement != null) {
+                    literal.append(replacement);
+                    continue;
+                }
+            }
+
+            literal.append(m.group(0));
+        }
+        literal.append(template, index, template.length());
+        addLiteral(literal, line, lines);
+        lines.add(List.copyOf(line));
+
+        // Like String.split, trailing empty lines are dropped
+        while (lines.size() > 1 && lines.get(lines.size() - 1).isEmpty()) {
+            lines.remove(lines.size() - 1);
+        }
+
+        return new FunctionTemplate(template, functions, lines);
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    /** @return the distinct functions referenced by the template */
+    public List<Function<?>> getFunctions() {
+        return functions;
+    }
+
+    /**
+     * Watches the referenced functions, so updates are skipped until a watched value changes. Must be paired
+     * with {@link #unwatch()}.
+     */
+    public void watch() {
+        if (watched) return;
+
+        watched = true;
+        for (Function<?> function : functions) {
+            FunctionManager.watch(function, "");
+        }
+    }
+
+    public void unwatch() {
+        if (!watched) return;
+
+        watched = false;
+        seenValueChanges = -1;
+        for (Function<?> function : functions) {
+            FunctionManager.unwatch(function, "");
+        }
+    }
+
+    /**
+     * Gets the current value of the referenced functions, and rebuilds the lines using a changed value.
+     *
+     * @return whether any line changed
+     */
+    public boolean update() {
+        if (watched) {
+            long valueChanges = FunctionManager.getValueChanges();
+            if (valueChanges == seenValueChanges) return false;
+
+            seenValueChanges = valueChanges;
+        }
+
+        BitSet changed = new BitSet(functions.size());
+        for (int i = 0; i < functions.size(); i++) {
+            String value = FunctionManager.getRawValueString(functions.get(i), "");
+            if (!value.equals(values[i])) {
+                values[i] = value;
+                changed.set(i);
+            }
+        }
+
+        if (changed.isEmpty()) return false;
+
+        for (int i = 0; i < lines.size(); i++) {
+            if (usesAny(lines.get(i), changed)) {
+                tasks.get(i).setText(buildLine(lines.get(i)));
+            }
+        }
+
+        return true;
+    }
+
+    public List<TextRenderTask> getTasks() {
+        return tasks;
+    }
+
+    public String[] getLines() {
+        return tasks.stream().map(TextRenderTask::getText).toArray(String[]::new);
+    }
+
+    private String buildLine(List<Part> line) {
+        if (line.size() == 1 && line.get(0) instanceof Literal literal) return literal.text();
+
+        StringBuilder builder = new StringBuilder();
+        for (Part part : line) {
+            if (part instanceof Literal literal) {
+                builder.append(literal.text());
+            } else if (part instanceof FunctionValue functionValue) {
+                String value = values[functionValue.index()];
+                builder.append(value == null ? "??" : value);
+            }
+        }
+        return builder.toString();
+    }
+
+    private static boolean usesAny(List<Part> line, BitSet changed) {
+        for (Part part : line) {
+            if (part instanceof FunctionValue functionValue && changed.get(functionValue.index())) return true;
+        }
+        return false;
+    }
+
+    /** Adds the pending literal text to the line, starting a new line for each newline in it */
+    private static void addLiteral(StringBuilder literal, List<Part> line, List<List<Part>> lines) {
+        if (literal.isEmpty()) return;
+
+        // Color codes are only parsed in the template itself, never in function values
+        String[] split = parseColorCodes(literal.toString()).split("\n", -1);
+        literal.setLength(0);
+
+        for (int i = 0; i < split.length; i++) {
+            if (i > 0) {
+                lines.add(List.copyOf(line));
+                line.clear();
+            }
+            if (!split[i].isEmpty()) {
+                line.add(new Literal(split[i]));
+            }
+        }
+    }
+
+    private static String parseColorCodes(String toProcess) {
+        // For every & symbol, check if the next symbol is a color code and if so, replace it with §
+        // But don't do it if a \ precedes the &
+        StringBuilder sb = new StringBuilder(toProcess);
+        for (int i = 0; i < sb.length(); i++) {
+            if (sb.charAt(i) == '&') { // char == &
+                if (i + 1 < sb.length() && VALID_COLORS.indexOf(sb.charAt(i + 1)) >= 0) { // char after is valid color
+                    if (i - 1 < 0 || sb.charAt(i - 1) != '\\') { // & is first char || char before is not \
+                        sb.setCharAt(i, '§');
+                    } else if (sb.charAt(i - 1) == '\\') { // & is preceded by \, just remove the \
+                        sb.deleteCharAt(i - 1);
+                    }
+                }
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String doEscapeFormat(String escaped) {
+        return switch (escaped) {
+            case "\\" -> "\\";
+            case "n" -> "\n";
+            case "%" -> "%";
+            case "§" -> "&";
+            case "E" -> EmeraldSymbols.E_STRING;
+            case "B" -> EmeraldSymbols.B_STRING;
+            case "L" -> EmeraldSymbols.L_STRING;
+            case "M" -> "✺";
+            case "H" -> "❤";
+            default -> null;
+        };
+    }
+
+    private interface Part {}
+
+    private record Literal(String text) implements Part {}
+
+    private record FunctionValue(int index) implements Part {}
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright © Wynntils 2022.
+ * This file is released under AGPLv3. See LICENSE for full license details.
+ */
+package com.wynntils.core.functions;
+
+import net.minecraftforge.eventbus.api.Event;
+
+/**
+ * Fired at the start of a tick, for every watched function value which changed since the last tick.
+ * Values are compared in their formatted form.
+ *
+ * @see FunctionManager#watch(Function, String)
+ */
+public class FunctionValueChangedEvent extends Event {
+    private final Function<?> function;
+    private final String argument;
+    private final String oldValue;
+    private final String newValue;
+
+    public FunctionValueChangedEvent(Function<?> function, String argument, String oldValue, String newValue) {
+        this.function = function;
+        this.argument = argument;
+        this.oldValue = oldValue;
+        this.newValue = newValue;
+    }
+
+    public Function<?> getFunction() {
+        return function;
+    }
+
+    public String getArgument() {
+        return argument;
+    }
+
+    /** @return the previous formatted value, or null if the value was just watched */
+    public String getOldValue() {
+        return oldValue;
+    }
+
+    public String getNewValue() {
+        return newValue;
+    }
+}
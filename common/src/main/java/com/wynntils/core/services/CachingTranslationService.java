@@ -5,8 +5,10 @@
 package com.wynntils.core.services;
 
 import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
 import com.google.gson.reflect.TypeToken;
 import com.wynntils.core.WynntilsMod;
+import com.wynntils.features.user.TranslationFeature;
 import com.wynntils.utils.TaskUtils;
 import java.io.File;
 import java.io.IOException;
@@ -19,21 +21,15 @@ import org.apache.commons.io.FileUtils;
 
 public abstract class CachingTranslationService implements TranslationService {
     private static final File TRANSLATION_CACHE_ROOT = WynntilsMod.getModStorageDir("translationcache");
-    private static final Gson GSON = new Gson();
+    private static final int DEFAULT_CACHED_TRANSLATIONS = 1000;
 
-    // Map language code (String) to a translation map (String -> String)
-    private static Map<String, ConcurrentHashMap<String, String>> translationCaches = new HashMap<>();
-    private static int counter;
+    // Map language code (String) to the translations to that language, which are loaded when first used
+    private static final Map<String, TranslationStore> translationStores = new ConcurrentHashMap<>();
 
     protected abstract void translateNew(String message, String toLanguage, Consumer<String> handleTranslation);
 
     protected void saveTranslation(String toLanguage, String message, String translatedMessage) {
-        Map<String, String> translationCache = translationCaches.get(toLanguage);
-        translationCache.put(message, translatedMessage);
-        if (++counter % 16 == 0) {
-            // Persist translation cache in background
-            TaskUtils.runAsync(CachingTranslationService::saveTranslationCache);
-        }
+        getTranslationStore(toLanguage).put(message, translatedMessage);
     }
 
     @Override
@@ -43,48 +39,69 @@ public abstract class CachingTranslationService implements TranslationService {
             return;
         }
 
-        Map<String, String> translationCache =
-                translationCaches.computeIfAbsent(toLanguage, k -> new ConcurrentHashMap<>());
-        String cachedTranslation = translationCache.get(message);
-        if (cachedTranslation != null) {
-            TaskUtils.runAsync(() -> handleTranslation.accept(cachedTranslation));
-            return;
-        }
+        // Translations not used recently are read from disk, so look them up in the background
+        TaskUtils.runAsync(() -> {
+            String cachedTranslation = getTranslationStore(toLanguage).get(message);
+            if (cachedTranslation != null) {
+                handleTranslation.accept(cachedTranslation);
+                return;
+            }
 
-        translateNew(message, toLanguage, handleTranslation);
+            translateNew(message, toLanguage, handleTranslation);
+        });
     }
 
-    public static synchronized void saveTranslationCache() {
-        try {
-            if (translationCaches == null) return;
+    private static TranslationStore getTranslationStore(String toLanguage) {
+        return translationStores.computeIfAbsent(
+                toLanguage,
+                language -> new TranslationStore(
+                        new File(TRANSLATION_CACHE_ROOT, getFileName(language) + ".log"),
+                        CachingTranslationService::getMaxCachedTranslations));
+    }
 
-            File f = new File(TRANSLATION_CACHE_ROOT, "translations.json");
-            String json = GSON.toJson(translationCaches);
-            FileUtils.writeStringToFile(f, json, "UTF-8");
-        } catch (IOException e) {
-            WynntilsMod.error("Error when trying to save translation cache.", e);
-        }
+    private static int getMaxCachedTranslations() {
+        TranslationFeature feature = TranslationFeature.INSTANCE;
+        return feature == null ? DEFAULT_CACHED_TRANSLATIONS : Math.max(feature.cachedTranslations, 0);
     }
 
+    private static String getFileName(String language) {
+        // The language code is entered by the user
+        return language.replaceAll("[^A-Za-z0-9_-]", "_");
+    }
+
+    public static synchronized void closeTranslationCache() {
+        translationStores.values().forEach(TranslationStore::close);
+    }
+
+    /** Moves translations from the single JSON file used before into the logs of each language */
     public static synchronized void loadTranslationCache() {
         File f = new File(TRANSLATION_CACHE_ROOT, "translations.json");
-
-        if (!f.exists()) {
-            translationCaches = new HashMap<>();
-            return;
-        }
+        if (!f.exists()) return;
 
         try {
             String json = FileUtils.readFileToString(f, "UTF-8");
 
-            Type type = new TypeToken<HashMap<String, ConcurrentHashMap<String, String>>>() {}.getType();
-            translationCaches = GSON.fromJson(json, type);
-        } catch (IOException e) {
-            WynntilsMod.error("Error when trying to load translation cache.", e);
-        } finally {
-            if (translationCaches == null) {
-                translationCaches = new HashMap<>();
+            Type type = new TypeToken<HashMap<String, HashMap<String, String>>>() {}.getType();
+            Map<String, Map<String, String>> translationCaches = new Gson().fromJson(json, type);
+            boolean persisted = true;
+            if (translationCaches != null) {
+                for (Map.Entry<String, Map<String, String>> translationCache : translationCaches.entrySet()) {
+                    TranslationStore store = getTranslationStore(translationCache.getKey());
+                    for (Map.Entry<String, String> translation : translationCache.getValue().entrySet()) {
+                        persisted &= store.put(translation.getKey(), translation.getValue());
+                    }
+                }
             }
+
+            // Keep the old file until every translation is in a log, so none are lost
+            if (!persisted) {
+                WynntilsMod.warn("Not all translations could be moved out of " + f + ", keeping it");
+                return;
+            }
+
+            FileUtils.delete(f);
+        } catch (IOException | JsonParseException e) {
+            WynntilsMod.error("Error when trying to load translation cache.", e);
         }
     }
 }
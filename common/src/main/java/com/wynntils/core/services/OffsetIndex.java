@@ -0,0 +1,108 @@
+/*
+ * Copyright © Wynntils 2022.
+ * This file is released under AGPLv3. See LICENSE for full license details.
+ */
+package com.wynntils.core.services;
+
+import java.util.Arrays;
+
+/**
+ * Maps the hash of a message to the offset of its record in a log, with both kept as primitives in two arrays.
+ * Offsets are never negative, so a negative offset marks a free slot. Entries are only ever replaced, or all
+ * cleared at once.
+ */
+final class OffsetIndex {
+    static final long NO_OFFSET = -1;
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private long[] hashes;
+    private long[] offsets;
+    private int size = 0;
+
+    OffsetIndex() {
+        allocate(INITIAL_CAPACITY);
+    }
+
+    /** @return the offset of the record, or {@link #NO_OFFSET} if there is none */
+    long get(long hash) {
+        int mask = offsets.length - 1;
+        for (int i = slot(hash, mask); offsets[i] != NO_OFFSET; i = (i + 1) & mask) {
+            if (hashes[i] == hash) return offsets[i];
+        }
+        return NO_OFFSET;
+    }
+
+    /** @return the offset that was replaced, or {@link #NO_OFFSET} if there was none */
+    long put(long hash, long offset) {
+        if (offset < 0) throw new IllegalArgumentException("Negative offset " + offset);
+
+        // Kept at most three quarters full, so probing stays short
+        if ((size + 1) * 4L > offsets.length * 3L) {
+            grow();
+        }
+
+        int mask = offsets.length - 1;
+        int i = slot(hash, mask);
+        while (offsets[i] != NO_OFFSET) {
+            if (hashes[i] == hash) {
+                long replaced = offsets[i];
+                offsets[i] = offset;
+                return replaced;
+            }
+            i = (i + 1) & mask;
+        }
+
+        hashes[i] = hash;
+        offsets[i] = offset;
+        size++;
+        return NO_OFFSET;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        allocate(INITIAL_CAPACITY);
+        size = 0;
+    }
+
+    /** @return every offset, in the order the records are in the log */
+    long[] getSortedOffsets() {
+        long[] sorted = new long[size];
+        int count = 0;
+        for (long offset : offsets) {
+            if (offset != NO_OFFSET) {
+                sorted[count++] = offset;
+            }
+        }
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    private void grow() {
+        long[] oldHashes = hashes;
+        long[] oldOffsets = offsets;
+        allocate(offsets.length * 2);
+        size = 0;
+
+        for (int i = 0; i < oldOffsets.length; i++) {
+            if (oldOffsets[i] != NO_OFFSET) {
+                put(oldHashes[i], oldOffsets[i]);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        hashes = new long[capacity];
+        offsets = new long[capacity];
+        Arrays.fill(offsets, NO_OFFSET);
+    }
+
+    private static int slot(long hash, int mask) {
+        // Mix the upper bits in, the slot only uses the lowest ones
+        long mixed = hash * 0x9e3779b97f4a7c15L;
+        return (int) (mixed ^ (mixed >>> 32)) & mask;
+    }
+}
@@ -62,7 +62,7 @@ public class TranslationModel extends Model {
     }
 
     public static void shutdown() {
-        CachingTranslationService.saveTranslationCache();
+        CachingTranslationService.closeTranslationCache();
     }
 
     public enum TranslationServices {
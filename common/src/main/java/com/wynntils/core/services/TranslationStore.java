@@ -0,0 +1,247 @@
+/*
+ * Copyright © Wynntils 2022.
+ * This file is released under AGPLv3. See LICENSE for full license details.
+ */
+package com.wynntils.core.services;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.wynntils.core.WynntilsMod;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.IntSupplier;
+
+/**
+ * The translations to a single language. They are stored on disk in a log, which new translations are appended to,
+ * and only the most recently used translations are kept in memory. For everything else, only the position in the log
+ * is kept, by a hash of the message.
+ *
+ * <p>The log is read the first time the store is used, and is compacted when most of its records are replaced or
+ * broken. Each record is a line with a JSON array of the message and its translation.
+ */
+final class TranslationStore {
+    private static final Gson GSON = new Gson();
+    private static final int COMPACT_MIN_STALE_RECORDS = 256;
+
+    private final File logFile;
+    private final Map<String, String> recentTranslations;
+    private final OffsetIndex recordOffsets = new OffsetIndex();
+
+    private RandomAccessFile log = null;
+    private boolean loaded = false;
+    private int staleRecords = 0;
+
+    TranslationStore(File logFile, IntSupplier maxRecentTranslations) {
+        this.logFile = logFile;
+        this.recentTranslations = new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > maxRecentTranslations.getAsInt();
+            }
+        };
+    }
+
+    /** @return the translation of the message, or null if it was never translated */
+    synchronized String get(String message) {
+        load();
+
+        String translation = recentTranslations.get(message);
+        if (translation != null) return translation;
+
+        long offset = recordOffsets.get(hash(message));
+        if (offset == OffsetIndex.NO_OFFSET || log == null) return null;
+
+        try {
+            String[] record = parseRecord(readLine(offset));
+
+            // Another message with the same hash is just a miss
+            if (record == null || !record[0].equals(message)) return null;
+
+            recentTranslations.put(message, record[1]);
+            return record[1];
+        } catch (IOException e) {
+            WynntilsMod.error("Error when trying to read translation from " + logFile, e);
+            return null;
+        }
+    }
+
+    /** @return whether the translation was written to the log, rather than only kept in memory */
+    synchronized boolean put(String message, String translation) {
+        load();
+
+        recentTranslations.put(message, translation);
+        if (log == null) return false;
+
+        try {
+            long offset = log.length();
+            log.seek(offset);
+            log.write(formatRecord(message, translation));
+
+            if (recordOffsets.put(hash(message), offset) != OffsetIndex.NO_OFFSET) {
+                staleRecords++;
+                compactIfNeeded();
+            }
+            return true;
+        } catch (IOException e) {
+            WynntilsMod.error("Error when trying to save translation to " + logFile, e);
+            return false;
+        }
+    }
+
+    synchronized void close() {
+        if (log == null) return;
+
+        try {
+            log.close();
+        } catch (IOException e) {
+            WynntilsMod.error("Error when trying to close " + logFile, e);
+        }
+        log = null;
+        loaded = false;
+        recordOffsets.clear();
+        recentTranslations.clear();
+        staleRecords = 0;
+    }
+
+    private void load() {
+        if (loaded) return;
+        loaded = true;
+
+        try {
+            logFile.getParentFile().mkdirs();
+            log = new RandomAccessFile(logFile, "rw");
+            readOffsets();
+            compactIfNeeded();
+        } catch (IOException e) {
+            WynntilsMod.error("Error when trying to load translations from " + logFile
+                    + ", translations will only be kept in memory", e);
+            closeQuietly();
+        }
+    }
+
+    private void readOffsets() throws IOException {
+        recordOffsets.clear();
+        staleRecords = 0;
+
+        long offset = 0;
+        long validLength = 0;
+        try (InputStream in = new BufferedInputStream(new FileInputStream(logFile))) {
+            ByteArrayOutputStream line = new ByteArrayOutputStream();
+            int b;
+            while ((b = in.read()) != -1) {
+                if (b != '\n') {
+                    line.write(b);
+                    continue;
+                }
+
+                String[] record = parseRecord(line.toString(StandardCharsets.UTF_8));
+                if (record == null || recordOffsets.put(hash(record[0]), offset) != OffsetIndex.NO_OFFSET) {
+                    staleRecords++;
+                }
+
+                offset += line.size() + 1;
+                validLength = offset;
+                line.reset();
+            }
+        }
+
+        // A record without a line break was cut off while being written
+        if (log.length() != validLength) {
+            WynntilsMod.warn("Dropping incomplete translation at the end of " + logFile);
+            log.setLength(validLength);
+        }
+    }
+
+    private void compactIfNeeded() throws IOException {
+        if (staleRecords < COMPACT_MIN_STALE_RECORDS || staleRecords < recordOffsets.size()) return;
+
+        File compactedFile = new File(logFile.getPath() + ".tmp");
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(compactedFile))) {
+            for (long offset : recordOffsets.getSortedOffsets()) {
+                out.write(readLine(offset).getBytes(StandardCharsets.UTF_8));
+                out.write('\n');
+            }
+        }
+
+        log.close();
+        try {
+            Files.move(
+                    compactedFile.toPath(),
+                    logFile.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            // Either the compacted log, or the old one if it could not be replaced
+            log = new RandomAccessFile(logFile, "rw");
+        }
+        readOffsets();
+    }
+
+    private String readLine(long offset) throws IOException {
+        log.seek(offset);
+
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        byte[] buffer = new byte[256];
+        int read;
+        while ((read = log.read(buffer)) != -1) {
+            for (int i = 0; i < read; i++) {
+                if (buffer[i] == '\n') {
+                    line.write(buffer, 0, i);
+                    return line.toString(StandardCharsets.UTF_8);
+                }
+            }
+            line.write(buffer, 0, read);
+        }
+        return line.toString(StandardCharsets.UTF_8);
+    }
+
+    private void closeQuietly() {
+        try {
+            if (log != null) {
+                log.close();
+            }
+        } catch (IOException ignored) {
+            // Not using the file anymore either way
+        }
+        log = null;
+    }
+
+    private static byte[] formatRecord(String message, String translation) {
+        // Line breaks are escaped by Gson, so a record is always a single line
+        return (GSON.toJson(new String[] {message, translation}) + "\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String[] parseRecord(String line) {
+        try {
+            String[] record = GSON.fromJson(line, String[].class);
+            if (record == null || record.length != 2 || record[0] == null || record[1] == null) return null;
+
+            return record;
+        } catch (JsonParseException e) {
+            return null;
+        }
+    }
+
+    // 64-bit FNV-1a, so different messages practically never share a record
+    private static long hash(String message) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < message.length(); i++) {
+            hash ^= message.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,319 @@
+/*
+ * Copyright © Wynntils 2022.
+ * This file is released under AGPLv3. See LICENSE for full license details.
+ */
+package com.wynntils.core.webapi;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import com.google.common.reflect.TypeToken;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.wynntils.core.WynntilsMod;
+import com.wynntils.core.webapi.profiles.ingredient.IngredientProfile;
+import com.wynntils.core.webapi.profiles.item.ItemProfile;
+import com.wynntils.core.webapi.profiles.item.ItemType;
+import com.wynntils.core.webapi.profiles.item.MajorIdentification;
+import com.wynntils.core.webapi.snapshot.DataSnapshot;
+import com.wynntils.utils.MD5Verification;
+import com.wynntils.wynn.item.IdentificationOrderer;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Parses the Athena item and ingredient lists straight from the token stream, without building a
+ * {@link com.google.gson.JsonObject} tree of the whole payload first.
+ *
+ * <p>Strings are deduplicated while parsing, since identification names, type names and requirement
+ * keys repeat for thousands of items.
+ *
+ * <p>Parsed lists are also kept as a {@link DataSnapshot}, so that unchanged data can be restored on the
+ * next launch without touching JSON at all.
+ */
+public final class ItemListParser {
+    private static final Type STRING_MAP_TYPE = new TypeToken<HashMap<String, String>>() {}.getType();
+    private static final Type MAJOR_IDS_TYPE = new TypeToken<HashMap<String, MajorIdentification>>() {}.getType();
+    private static final Type MATERIAL_TYPES_TYPE = new TypeToken<HashMap<ItemType, String[]>>() {}.getType();
+
+    // Check heap usage every this many parsed entries
+    private static final int HEAP_SAMPLE_INTERVAL = 256;
+
+    private static ParseStats lastItemListStats = null;
+    private static ParseStats lastIngredientListStats = null;
+
+    private static final File ITEM_LIST_SNAPSHOT = new File(WebManager.API_CACHE_ROOT, "item_list.snapshot");
+    private static final File INGREDIENT_LIST_SNAPSHOT =
+            new File(WebManager.API_CACHE_ROOT, "ingredient_list.snapshot");
+
+    // Bump these whenever the profile classes change, so outdated snapshots are ignored
+    private static final String ITEM_LIST_SCHEMA = "item_list:1";
+    private static final String INGREDIENT_LIST_SCHEMA = "ingredient_list:1";
+
+    private ItemListParser() {}
+
+    /**
+     * Restores the item list from its snapshot if it was made from the same data. Otherwise, the data
+     * is parsed and a new snapshot is saved for the next launch.
+     */
+    public static ItemList loadItemList(byte[] data) throws IOException {
+        long startTime = System.currentTimeMillis();
+        String sourceHash = new MD5Verification(data).getMd5();
+
+        ItemListSnapshot snapshot =
+                DataSnapshot.load(ITEM_LIST_SNAPSHOT, ITEM_LIST_SCHEMA, sourceHash, ItemListSnapshot.class);
+        if (snapshot != null) {
+            WynntilsMod.info("Restored item list snapshot in " + (System.currentTimeMillis() - startTime) + " ms");
+            return snapshot.toItemList();
+        }
+
+        ItemList itemList = parseItemList(data);
+        DataSnapshot.save(ITEM_LIST_SNAPSHOT, ITEM_LIST_SCHEMA, sourceHash, new ItemListSnapshot(itemList));
+        return itemList;
+    }
+
+    /** As {@link #loadItemList(byte[])}, for the ingredient list */
+    public static IngredientList loadIngredientList(byte[] data) throws IOException {
+        long startTime = System.currentTimeMillis();
+        String sourceHash = new MD5Verification(data).getMd5();
+
+        IngredientListSnapshot snapshot = DataSnapshot.load(
+                INGREDIENT_LIST_SNAPSHOT, INGREDIENT_LIST_SCHEMA, sourceHash, IngredientListSnapshot.class);
+        if (snapshot != null) {
+            WynntilsMod.info(
+                    "Restored ingredient list snapshot in " + (System.currentTimeMillis() - startTime) + " ms");
+            return snapshot.toIngredientList();
+        }
+
+        IngredientList ingredientList = parseIngredientList(data);
+        DataSnapshot.save(
+                INGREDIENT_LIST_SNAPSHOT,
+                INGREDIENT_LIST_SCHEMA,
+                sourceHash,
+                new IngredientListSnapshot(ingredientList));
+        return ingredientList;
+    }
+
+    public static ItemList parseItemList(byte[] data) throws IOException {
+        HeapSampler sampler = new HeapSampler();
+        Gson gson = createGson();
+
+        HashMap<String, String> translatedReferences = new HashMap<>();
+        HashMap<String, String> internalIdentifications = new HashMap<>();
+        HashMap<String, MajorIdentification> majorIds = new HashMap<>();
+        HashMap<ItemType, String[]> materialTypes = new HashMap<>();
+        IdentificationOrderer identificationOrderer = null;
+        List<ItemProfile> items = new ArrayList<>();
+
+        try (JsonReader reader = createReader(data)) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "translatedReferences" -> translatedReferences = gson.fromJson(reader, STRING_MAP_TYPE);
+                    case "internalIdentifications" -> internalIdentifications =
+                            gson.fromJson(reader, STRING_MAP_TYPE);
+                    case "majorIdentifications" -> majorIds = gson.fromJson(reader, MAJOR_IDS_TYPE);
+                    case "materialTypes" -> materialTypes = gson.fromJson(reader, MATERIAL_TYPES_TYPE);
+                    case "identificationOrder" -> identificationOrderer =
+                            gson.fromJson(reader, IdentificationOrderer.class);
+                    case "items" -> {
+                        reader.beginArray();
+                        while (reader.hasNext()) {
+                            items.add(gson.fromJson(reader, ItemProfile.class));
+                            if (items.size() % HEAP_SAMPLE_INTERVAL == 0) sampler.sample();
+                        }
+                        reader.endArray();
+                    }
+                    default -> reader.skipValue();
+                }
+            }
+            reader.endObject();
+        }
+
+        lastItemListStats = sampler.finish(items.size(), data.length);
+        WynntilsMod.info("Parsed item list: " + lastItemListStats);
+
+        return new ItemList(
+                translatedReferences, internalIdentifications, majorIds, materialTypes, identificationOrderer, items);
+    }
+
+    public static IngredientList parseIngredientList(byte[] data) throws IOException {
+        HeapSampler sampler = new HeapSampler();
+        Gson gson = createGson();
+
+        HashMap<String, String> headTextures = new HashMap<>();
+        List<IngredientProfile> ingredients = new ArrayList<>();
+
+        try (JsonReader reader = createReader(data)) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "headTextures" -> headTextures = gson.fromJson(reader, STRING_MAP_TYPE);
+                    case "ingredients" -> {
+                        reader.beginArray();
+                        while (reader.hasNext()) {
+                            ingredients.add(gson.fromJson(reader, IngredientProfile.class));
+                            if (ingredients.size() % HEAP_SAMPLE_INTERVAL == 0) sampler.sample();
+                        }
+                        reader.endArray();
+                    }
+                    default -> reader.skipValue();
+                }
+            }
+            reader.endObject();
+        }
+
+        lastIngredientListStats = sampler.finish(ingredients.size(), data.length);
+        WynntilsMod.info("Parsed ingredient list: " + lastIngredientListStats);
+
+        return new IngredientList(headTextures, ingredients);
+    }
+
+    /** @return statistics of the last item list parse, or null if none happened yet */
+    public static ParseStats getLastItemListStats() {
+        return lastItemListStats;
+    }
+
+    /** @return statistics of the last ingredient list parse, or null if none happened yet */
+    public static ParseStats getLastIngredientListStats() {
+        return lastIngredientListStats;
+    }
+
+    private static JsonReader createReader(byte[] data) {
+        return new JsonReader(new InputStreamReader(new ByteArrayInputStream(data), StandardCharsets.UTF_8));
+    }
+
+    /** Each parse gets its own interner, so the deduplication table is dropped afterwards */
+    private static Gson createGson() {
+        return new GsonBuilder()
+                .registerTypeAdapter(String.class, new InterningStringAdapter(Interners.newStrongInterner()))
+                .create();
+    }
+
+    public record ItemList(
+            HashMap<String, String> translatedReferences,
+            HashMap<String, String> internalIdentifications,
+            HashMap<String, MajorIdentification> majorIds,
+            HashMap<ItemType, String[]> materialTypes,
+            IdentificationOrderer identificationOrderer,
+            List<ItemProfile> items) {}
+
+    public record IngredientList(HashMap<String, String> headTextures, List<IngredientProfile> ingredients) {}
+
+    /**
+     * @param entries number of parsed items or ingredients
+     * @param payloadBytes size of the parsed payload
+     * @param millis wall time spent parsing
+     * @param peakHeapBytes highest sampled heap growth during parsing
+     */
+    public record ParseStats(int entries, int payloadBytes, long millis, long peakHeapBytes) {
+        @Override
+        public String toString() {
+            return String.format(
+                    "%d entries from %d KiB in %d ms, peak heap growth %d KiB",
+                    entries, payloadBytes / 1024, millis, peakHeapBytes / 1024);
+        }
+    }
+
+    /** Gson can not construct records, so snapshots are stored through these holders */
+    private static final class ItemListSnapshot {
+        private HashMap<String, String> translatedReferences;
+        private HashMap<String, String> internalIdentifications;
+        private HashMap<String, MajorIdentification> majorIds;
+        private HashMap<ItemType, String[]> materialTypes;
+        private IdentificationOrderer identificationOrderer;
+        private List<ItemProfile> items;
+
+        private ItemListSnapshot(ItemList itemList) {
+            translatedReferences = itemList.translatedReferences();
+            internalIdentifications = itemList.internalIdentifications();
+            majorIds = itemList.majorIds();
+            materialTypes = itemList.materialTypes();
+            identificationOrderer = itemList.identificationOrderer();
+            items = itemList.items();
+        }
+
+        private ItemList toItemList() {
+            return new ItemList(
+                    translatedReferences,
+                    internalIdentifications,
+                    majorIds,
+                    materialTypes,
+                    identificationOrderer,
+                    items);
+        }
+    }
+
+    private static final class IngredientListSnapshot {
+        private HashMap<String, String> headTextures;
+        private List<IngredientProfile> ingredients;
+
+        private IngredientListSnapshot(IngredientList ingredientList) {
+            headTextures = ingredientList.headTextures();
+            ingredients = ingredientList.ingredients();
+        }
+
+        private IngredientList toIngredientList() {
+            return new IngredientList(headTextures, ingredients);
+        }
+    }
+
+    private static final class HeapSampler {
+        private final Runtime runtime = Runtime.getRuntime();
+        private final long startTime = System.currentTimeMillis();
+        private final long startHeap = usedHeap();
+        private long peakHeap = startHeap;
+
+        private long usedHeap() {
+            return runtime.totalMemory() - runtime.freeMemory();
+        }
+
+        private void sample() {
+            peakHeap = Math.max(peakHeap, usedHeap());
+        }
+
+        private ParseStats finish(int entries, int payloadBytes) {
+            sample();
+            // A garbage collection during parsing can make the growth negative
+            return new ParseStats(
+                    entries, payloadBytes, System.currentTimeMillis() - startTime, Math.max(0, peakHeap - startHeap));
+        }
+    }
+
+    private static final class InterningStringAdapter extends TypeAdapter<String> {
+        private final Interner<String> interner;
+
+        private InterningStringAdapter(Interner<String> interner) {
+            this.interner = interner;
+        }
+
+        @Override
+        public void write(JsonWriter out, String value) throws IOException {
+            out.value(value);
+        }
+
+        @Override
+        public String read(JsonReader in) throws IOException {
+            JsonToken token = in.peek();
+            if (token == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            if (token == JsonToken.BOOLEAN) {
+                return Boolean.toString(in.nextBoolean());
+            }
+
+            return interner.intern(in.nextString());
+        }
+    }
+}
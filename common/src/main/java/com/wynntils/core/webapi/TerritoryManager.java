@@ -7,10 +7,12 @@ package com.wynntils.core.webapi;
 import com.google.common.reflect.TypeToken;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.wynntils.core.WynntilsMod;
 import com.wynntils.core.managers.CoreManager;
 import com.wynntils.core.webapi.profiles.TerritoryProfile;
 import com.wynntils.core.webapi.request.RequestBuilder;
 import com.wynntils.core.webapi.request.RequestHandler;
+import com.wynntils.mc.event.WebDataLoadedEvent;
 import com.wynntils.wynn.model.map.poi.TerritoryPoi;
 import java.io.File;
 import java.lang.reflect.Type;
@@ -40,12 +42,27 @@ public class TerritoryManager extends CoreManager {
     }
 
     public static boolean tryLoadTerritories(RequestHandler handler) {
+        if (!addTerritoryRequest(handler, false)) return false;
+
+        handler.dispatch();
+        return isTerritoryListLoaded();
+    }
+
+    /**
+     * Enqueues the territory request without dispatching it, so it can be loaded alongside other
+     * requests.
+     *
+     * @param serveCacheFirst whether the cached territories should be loaded before the request is made
+     * @return whether the request could be enqueued
+     */
+    public static boolean addTerritoryRequest(RequestHandler handler, boolean serveCacheFirst) {
         if (WebManager.getApiUrls().isEmpty() || !WebManager.getApiUrls().get().hasKey("Athena")) return false;
 
         String url = WebManager.getApiUrls().get().get("Athena") + "/cache/get/territoryList";
 
-        handler.addAndDispatch(new RequestBuilder(url, "territory")
+        RequestBuilder requestBuilder = new RequestBuilder(url, "territory")
                 .cacheTo(new File(WebManager.API_CACHE_ROOT, "territories.json"))
+                .useConditionalRequests()
                 .handleJsonObject(json -> {
                     if (!json.has("territories")) return false;
 
@@ -59,11 +76,17 @@ public class TerritoryManager extends CoreManager {
                     territories = gson.fromJson(json.get("territories"), type);
                     territoryPois =
                             territories.values().stream().map(TerritoryPoi::new).collect(Collectors.toSet());
+
+                    WynntilsMod.postEvent(new WebDataLoadedEvent(WebDataLoadedEvent.DataType.TERRITORIES));
                     return true;
-                })
-                .build());
+                });
 
-        return isTerritoryListLoaded();
+        if (serveCacheFirst) {
+            requestBuilder.serveCacheFirst();
+        }
+
+        handler.addRequest(requestBuilder.build());
+        return true;
     }
 
     private static void updateTerritoryThreadStatus(boolean start) {
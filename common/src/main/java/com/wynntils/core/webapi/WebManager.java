@@ -21,7 +21,10 @@ import com.wynntils.core.webapi.profiles.item.ItemProfile;
 import com.wynntils.core.webapi.profiles.item.ItemType;
 import com.wynntils.core.webapi.profiles.item.MajorIdentification;
 import com.wynntils.core.webapi.request.RequestBuilder;
+import com.wynntils.core.webapi.request.RequestExecutor;
 import com.wynntils.core.webapi.request.RequestHandler;
+import com.wynntils.mc.MinecraftSchedulerManager;
+import com.wynntils.mc.event.WebDataLoadedEvent;
 import com.wynntils.mc.event.WebSetupEvent;
 import com.wynntils.mc.utils.ComponentUtils;
 import com.wynntils.mc.utils.McUtils;
@@ -42,6 +45,7 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import net.minecraft.ChatFormatting;
 import net.minecraft.network.chat.ClickEvent;
 import net.minecraft.network.chat.MutableComponent;
@@ -78,6 +82,8 @@ public final class WebManager extends CoreManager {
 
     private static WynntilsAccount account = null;
 
+    private static CompletableFuture<Void> startup = CompletableFuture.completedFuture(null);
+
     private static final String USER_AGENT = String.format(
             "Wynntils Artemis\\%s (%s) %s",
             WynntilsMod.getVersion(),
@@ -85,18 +91,47 @@ public final class WebManager extends CoreManager {
             WynntilsMod.getModLoader());
 
     public static void init() {
-        tryReloadApiUrls(false);
-        setupUserAccount();
+        startup = startLoading();
+    }
 
-        WebManager.updateCurrentSplash();
+    /**
+     * Loads all web content without blocking the calling thread. Api urls are needed by everything
+     * else, so they are served from the cache first if possible. As soon as they are known, the
+     * account login and the common objects are loaded side by side.
+     */
+    private static CompletableFuture<Void> startLoading() {
+        long startTime = System.currentTimeMillis();
+
+        CompletableFuture<Void> apiUrlsReady = new CompletableFuture<>();
+        CompletableFuture<Void> apiUrlsLoaded = RequestExecutor.runAsync(() -> tryReloadApiUrls(apiUrlsReady))
+                .whenComplete((ignored, throwable) -> apiUrlsReady.complete(null));
+
+        CompletableFuture<Void> splashLoaded = apiUrlsReady.thenRun(WebManager::updateCurrentSplash);
+        CompletableFuture<Void> accountLoaded =
+                apiUrlsReady.thenCompose(ignored -> RequestExecutor.runAsync(WebManager::setupUserAccount));
+        CompletableFuture<Void> objectsLoaded =
+                apiUrlsReady.thenCompose(ignored -> RequestExecutor.runAsync(WebManager::loadCommonObjects));
+
+        return CompletableFuture.allOf(apiUrlsLoaded, splashLoaded, accountLoaded, objectsLoaded)
+                .whenComplete((ignored, throwable) -> {
+                    if (throwable != null) {
+                        WynntilsMod.error("Exception while loading web content.", throwable);
+                        return;
+                    }
 
-        loadCommonObjects();
+                    WynntilsMod.info(
+                            "Loaded web content in " + (System.currentTimeMillis() - startTime) + " ms.");
+                });
     }
 
+    /** Loads all common objects in a single dispatch, so they are requested in parallel */
     private static void loadCommonObjects() {
         WebManager.tryLoadItemList();
         WebManager.tryLoadItemGuesses();
         WebManager.tryLoadIngredientList();
+        TerritoryManager.addTerritoryRequest(handler, true);
+
+        handler.dispatch();
     }
 
     public static boolean isLoggedIn() {
@@ -107,23 +142,15 @@ public final class WebManager extends CoreManager {
         // tryReloadApiUrls
         apiUrls = null;
 
-        // tryLoadItemGuesses
-        itemGuesses = null;
-
-        // tryLoadItemList
-        items = null;
-        directItems = null;
-        translatedReferences = null;
-        internalIdentifications = null;
-        majorIds = null;
-        materialTypes = null;
+        // The items, ingredients and guesses are kept until the reload replaces them, so they are never missing
     }
 
     private static void setupUserAccount() {
         if (isLoggedIn()) return;
 
-        account = new WynntilsAccount();
-        boolean accountSetup = account.login();
+        WynntilsAccount newAccount = new WynntilsAccount();
+        boolean accountSetup = newAccount.login();
+        account = newAccount;
 
         if (!accountSetup) {
             MutableComponent failed = new TextComponent(
@@ -140,13 +167,13 @@ public final class WebManager extends CoreManager {
                 return;
             }
 
-            McUtils.sendMessageToClient(failed);
+            MinecraftSchedulerManager.queueRunnable(() -> McUtils.sendMessageToClient(failed));
         }
     }
 
     private static void tryLoadItemGuesses() {
         if (apiUrls == null || !apiUrls.hasKey("ItemGuesses")) return;
-        handler.addAndDispatch(new RequestBuilder(apiUrls.get("ItemGuesses"), "item_guesses")
+        handler.addRequest(new RequestBuilder(apiUrls.get("ItemGuesses"), "item_guesses")
                 .cacheTo(new File(API_CACHE_ROOT, "item_guesses.json"))
                 .handleJsonObject(json -> {
                     Type type = new TypeToken<HashMap<String, ItemGuessProfile>>() {}.getType();
@@ -156,40 +183,36 @@ public final class WebManager extends CoreManager {
                             HashMap.class, new ItemGuessProfile.ItemGuessDeserializer());
                     Gson gson = gsonBuilder.create();
 
-                    itemGuesses = new HashMap<>();
-                    itemGuesses.putAll(gson.fromJson(json, type));
+                    HashMap<String, ItemGuessProfile> newItemGuesses = new HashMap<>();
+                    newItemGuesses.putAll(gson.fromJson(json, type));
+                    itemGuesses = newItemGuesses;
 
+                    WynntilsMod.postEvent(new WebDataLoadedEvent(WebDataLoadedEvent.DataType.ITEM_GUESSES));
                     return true;
                 })
+                .serveCacheFirst()
+                .useConditionalRequests()
                 .useCacheAsBackup()
                 .build());
-
-        // Check for success
     }
 
     private static void tryLoadItemList() {
         if (apiUrls == null || !apiUrls.hasKey("Athena")) return;
-        handler.addAndDispatch(new RequestBuilder(apiUrls.get("Athena") + "/cache/get/itemList", "item_list")
+        handler.addRequest(new RequestBuilder(apiUrls.get("Athena") + "/cache/get/itemList", "item_list")
                 .cacheTo(new File(API_CACHE_ROOT, "item_list.json"))
-                .handleJsonObject(json -> {
-                    Type hashmapType = new TypeToken<HashMap<String, String>>() {}.getType();
-                    translatedReferences = gson.fromJson(json.getAsJsonObject("translatedReferences"), hashmapType);
-                    internalIdentifications =
-                            gson.fromJson(json.getAsJsonObject("internalIdentifications"), hashmapType);
+                .handle((conn, data) -> {
+                    ItemListParser.ItemList itemList = ItemListParser.loadItemList(data);
 
-                    Type majorIdsType = new TypeToken<HashMap<String, MajorIdentification>>() {}.getType();
-                    majorIds = gson.fromJson(json.getAsJsonObject("majorIdentifications"), majorIdsType);
-                    Type materialTypesType = new TypeToken<HashMap<ItemType, String[]>>() {}.getType();
-                    materialTypes = gson.fromJson(json.getAsJsonObject("materialTypes"), materialTypesType);
+                    translatedReferences = itemList.translatedReferences();
+                    internalIdentifications = itemList.internalIdentifications();
+                    majorIds = itemList.majorIds();
+                    materialTypes = itemList.materialTypes();
 
                     // FIXME: We should not be doing Singleton housekeeping for IdentificationOrderer!
-                    IdentificationOrderer.INSTANCE =
-                            gson.fromJson(json.getAsJsonObject("identificationOrder"), IdentificationOrderer.class);
-
-                    ItemProfile[] gItems = gson.fromJson(json.getAsJsonArray("items"), ItemProfile[].class);
+                    IdentificationOrderer.INSTANCE = itemList.identificationOrderer();
 
                     HashMap<String, ItemProfile> citems = new HashMap<>();
-                    for (ItemProfile prof : gItems) {
+                    for (ItemProfile prof : itemList.items()) {
                         prof.getStatuses().forEach((n, p) -> p.calculateMinMax(n));
                         prof.addMajorIds(majorIds);
                         citems.put(prof.getDisplayName(), prof);
@@ -200,12 +223,13 @@ public final class WebManager extends CoreManager {
                     directItems = citems.values();
                     items = citems;
 
+                    WynntilsMod.postEvent(new WebDataLoadedEvent(WebDataLoadedEvent.DataType.ITEM_LIST));
                     return true;
                 })
+                .serveCacheFirst()
+                .useConditionalRequests()
                 .useCacheAsBackup()
                 .build());
-
-        // Check for success
     }
 
     public static void tryLoadIngredientList() {
@@ -213,43 +237,51 @@ public final class WebManager extends CoreManager {
 
         handler.addRequest(new RequestBuilder(apiUrls.get("Athena") + "/cache/get/ingredientList", "ingredientList")
                 .cacheTo(new File(API_CACHE_ROOT, "ingredient_list.json"))
+                .serveCacheFirst()
+                .useConditionalRequests()
                 .useCacheAsBackup()
-                .handleJsonObject(j -> {
-                    Type hashmapType = new TypeToken<HashMap<String, String>>() {}.getType();
-                    ingredientHeadTextures = gson.fromJson(j.getAsJsonObject("headTextures"), hashmapType);
+                .handle((conn, data) -> {
+                    ItemListParser.IngredientList ingredientList = ItemListParser.loadIngredientList(data);
+                    ingredientHeadTextures = ingredientList.headTextures();
 
-                    IngredientProfile[] gItems =
-                            gson.fromJson(j.getAsJsonArray("ingredients"), IngredientProfile[].class);
                     HashMap<String, IngredientProfile> cingredients = new HashMap<>();
 
-                    for (IngredientProfile prof : gItems) {
+                    for (IngredientProfile prof : ingredientList.ingredients()) {
                         cingredients.put(prof.getDisplayName(), prof);
                     }
 
                     ingredients = cingredients;
                     directIngredients = cingredients.values();
 
+                    WynntilsMod.postEvent(new WebDataLoadedEvent(WebDataLoadedEvent.DataType.INGREDIENT_LIST));
                     return true;
                 })
                 .build());
     }
 
-    private static void tryReloadApiUrls(boolean async) {
-        handler.addRequest(new RequestBuilder("https://api.wynntils.com/webapi", "webapi")
+    /**
+     * Loads the api urls, completing {@code apiUrlsReady} as soon as the first copy of them is known,
+     * which usually is the cached one.
+     */
+    private static void tryReloadApiUrls(CompletableFuture<Void> apiUrlsReady) {
+        handler.addAndDispatch(new RequestBuilder("https://api.wynntils.com/webapi", "webapi")
                 .cacheTo(new File(API_CACHE_ROOT, "webapi.txt"))
+                .serveCacheFirst()
+                .useConditionalRequests()
                 .useCacheAsBackup()
                 .handleWebReader(reader -> {
                     apiUrls = reader;
+
+                    // Only the first copy sets the web up, the fresh copy and reloads just replace the urls
                     if (!setup) {
                         setup = true;
+                        WynntilsMod.postEvent(new WebSetupEvent());
                     }
 
-                    WynntilsMod.postEvent(new WebSetupEvent());
+                    apiUrlsReady.complete(null);
                     return true;
                 })
                 .build());
-
-        handler.dispatch(async);
     }
 
     /**
@@ -410,4 +442,12 @@ public final class WebManager extends CoreManager {
     public static RequestHandler getHandler() {
         return handler;
     }
+
+    /**
+     * @return a future that completes once all web content loaded by the last {@link #init()} has been fetched. Each
+     *     part of the content also posts a {@link WebDataLoadedEvent} as soon as it is loaded.
+     */
+    public static CompletableFuture<Void> getStartupFuture() {
+        return startup;
+    }
 }
@@ -55,7 +55,8 @@ public class WynntilsAccount {
         if (WebManager.getApiUrls().isEmpty() || !WebManager.getApiUrls().get().hasKey("Athena")) return false;
 
         WebReader webReader = WebManager.getApiUrls().get();
-        RequestHandler handler = WebManager.getHandler();
+        // Not the shared handler, its dispatch would pick up the requests loaded at startup alongside the login
+        RequestHandler handler = new RequestHandler();
 
         String baseUrl = webReader.get("Athena");
         String[] secretKey = new String[1]; // it's an array for the lambda below be able to set its value
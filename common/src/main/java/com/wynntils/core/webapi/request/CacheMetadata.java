@@ -0,0 +1,124 @@
+/*
+ * Copyright © Wynntils 2022.
+ * This file is released under AGPLv3. See LICENSE for full license details.
+ */
+package com.wynntils.core.webapi.request;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.wynntils.core.WynntilsMod;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.commons.io.FileUtils;
+
+/**
+ * HTTP validators (ETag and Last-Modified) of a cache file, stored next to it as
+ * {@code <cache file>.meta}. Also remembers whether the current content of the cache file has already
+ * been handed to a handler during this session, so a 304 response does not have to be parsed again.
+ */
+final class CacheMetadata {
+    private static final String META_SUFFIX = ".meta";
+    private static final Map<String, CacheMetadata> loadedMetadata = new ConcurrentHashMap<>();
+
+    private final File metaFile;
+    private String etag;
+    private String lastModified;
+    private long fetchTime;
+    private boolean handled = false;
+
+    private CacheMetadata(File metaFile) {
+        this.metaFile = metaFile;
+    }
+
+    static CacheMetadata of(File cacheFile) {
+        return loadedMetadata.computeIfAbsent(cacheFile.getPath(), path -> {
+            CacheMetadata metadata = new CacheMetadata(new File(path + META_SUFFIX));
+            metadata.load();
+            return metadata;
+        });
+    }
+
+    /** Adds conditional request headers, if there are validators for the cached data */
+    synchronized void addValidators(HttpURLConnection connection) {
+        if (etag != null) {
+            connection.setRequestProperty("If-None-Match", etag);
+        }
+        if (lastModified != null) {
+            connection.setRequestProperty("If-Modified-Since", lastModified);
+        }
+    }
+
+    /** Called after fresh data has been written to the cache file */
+    synchronized void update(HttpURLConnection connection) {
+        etag = connection.getHeaderField("ETag");
+        lastModified = connection.getHeaderField("Last-Modified");
+        fetchTime = System.currentTimeMillis();
+        handled = true;
+        save();
+    }
+
+    /** Called after the server confirmed that the cached data is still up to date */
+    synchronized void revalidated() {
+        fetchTime = System.currentTimeMillis();
+        save();
+    }
+
+    /** Called when the cache file is deleted or could not be written */
+    synchronized void invalidate() {
+        etag = null;
+        lastModified = null;
+        fetchTime = 0;
+        handled = false;
+        FileUtils.deleteQuietly(metaFile);
+    }
+
+    synchronized void markHandled() {
+        handled = true;
+    }
+
+    synchronized boolean isHandled() {
+        return handled;
+    }
+
+    /** @return whether the cached data was fetched or revalidated less than {@code maxAge} ms ago */
+    synchronized boolean isFresh(long maxAge) {
+        return maxAge > 0 && System.currentTimeMillis() - fetchTime < maxAge;
+    }
+
+    private void load() {
+        try {
+            JsonObject json = JsonParser.parseString(FileUtils.readFileToString(metaFile, StandardCharsets.UTF_8))
+                    .getAsJsonObject();
+            etag = getStringOrNull(json, "etag");
+            lastModified = getStringOrNull(json, "lastModified");
+            fetchTime = json.has("fetchTime") ? json.get("fetchTime").getAsLong() : 0;
+        } catch (FileNotFoundException ignored) {
+        } catch (IOException | RuntimeException e) {
+            WynntilsMod.warn("Could not read cache metadata at " + metaFile.getPath(), e);
+        }
+    }
+
+    private void save() {
+        JsonObject json = new JsonObject();
+        if (etag != null) json.addProperty("etag", etag);
+        if (lastModified != null) json.addProperty("lastModified", lastModified);
+        json.addProperty("fetchTime", fetchTime);
+
+        try {
+            FileUtils.writeStringToFile(metaFile, json.toString(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            WynntilsMod.warn("Could not write cache metadata at " + metaFile.getPath(), e);
+        }
+    }
+
+    private static String getStringOrNull(JsonObject json, String key) {
+        JsonElement element = json.get(key);
+        return element == null || element.isJsonNull() ? null : element.getAsString();
+    }
+}
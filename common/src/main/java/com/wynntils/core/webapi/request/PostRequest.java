@@ -22,13 +22,29 @@ public class PostRequest extends Request {
             int parallelGroup,
             ThrowingBiPredicate<URLConnection, byte[], IOException> handler,
             boolean useCacheAsBackup,
+            boolean serveCacheFirst,
+            boolean conditional,
+            long maxCacheAge,
             RequestErrorHandler onError,
             Map<String, String> headers,
             File cacheFile,
             Predicate<byte[]> cacheValidator,
             int timeout,
             ThrowingConsumer<HttpURLConnection, IOException> writer) {
-        super(url, id, parallelGroup, handler, useCacheAsBackup, onError, headers, cacheFile, cacheValidator, timeout);
+        super(
+                url,
+                id,
+                parallelGroup,
+                handler,
+                useCacheAsBackup,
+                serveCacheFirst,
+                conditional,
+                maxCacheAge,
+                onError,
+                headers,
+                cacheFile,
+                cacheValidator,
+                timeout);
         this.writer = writer;
     }
 
@@ -101,6 +101,9 @@ public class PostRequestBuilder extends RequestBuilder {
                 this.parallelGroup,
                 this.handler,
                 this.useCacheAsBackup,
+                this.serveCacheFirst,
+                this.conditional,
+                this.maxCacheAge,
                 this.onError,
                 this.headers,
                 this.cacheFile,
@@ -25,6 +25,9 @@ public class Request {
     protected final int parallelGroup;
     protected final ThrowingBiPredicate<URLConnection, byte[], IOException> handler;
     protected final boolean useCacheAsBackup;
+    protected final boolean serveCacheFirst;
+    protected final boolean conditional;
+    protected final long maxCacheAge;
     private final RequestErrorHandler onError;
     private final Map<String, String> headers;
     private final int timeout;
@@ -40,6 +43,9 @@ public class Request {
             int parallelGroup,
             ThrowingBiPredicate<URLConnection, byte[], IOException> handler,
             boolean useCacheAsBackup,
+            boolean serveCacheFirst,
+            boolean conditional,
+            long maxCacheAge,
             RequestErrorHandler onError,
             Map<String, String> headers,
             File cacheFile,
@@ -50,6 +56,9 @@ public class Request {
         this.parallelGroup = parallelGroup;
         this.handler = handler;
         this.useCacheAsBackup = useCacheAsBackup;
+        this.serveCacheFirst = serveCacheFirst;
+        this.conditional = conditional;
+        this.maxCacheAge = maxCacheAge;
         this.onError = onError;
         this.headers = headers;
         this.cacheFile = cacheFile;
@@ -66,11 +75,23 @@ public class Request {
         st.setRequestProperty("User-Agent", WebManager.getUserAgent());
         if (!headers.isEmpty()) headers.forEach(st::addRequestProperty);
 
+        if (conditional && cacheFile.exists()) {
+            getCacheMetadata().addValidators(st);
+        }
+
         st.setConnectTimeout(timeout);
         st.setReadTimeout(timeout);
         return st;
     }
 
+    boolean tracksCacheMetadata() {
+        return conditional || maxCacheAge > 0;
+    }
+
+    CacheMetadata getCacheMetadata() {
+        return CacheMetadata.of(cacheFile);
+    }
+
     @FunctionalInterface
     public interface RequestErrorHandler {
         void invoke();
@@ -33,6 +33,9 @@ public class RequestBuilder {
     protected File cacheFile;
     protected Predicate<byte[]> cacheValidator = null;
     protected boolean useCacheAsBackup;
+    protected boolean serveCacheFirst;
+    protected boolean conditional;
+    protected long maxCacheAge;
     protected int timeout = 16000;
 
     public RequestBuilder(String url, String id) {
@@ -177,6 +180,39 @@ public class RequestBuilder {
         return this;
     }
 
+    /**
+     * Hands the cache file, if present, to the handler right away, before the request is made. The
+     * request is still made afterwards, and its result replaces the cached one.
+     *
+     * <p>If the cache was served successfully, a failing request is not treated as an error.
+     */
+    public RequestBuilder serveCacheFirst() {
+        this.serveCacheFirst = true;
+        return this;
+    }
+
+    /**
+     * As {@link #serveCacheFirst()}, but no request is made at all while the cache was fetched or
+     * revalidated less than {@code maxAgeMillis} ago. Once older, the cache is still served right away
+     * and then revalidated.
+     */
+    public RequestBuilder staleWhileRevalidate(long maxAgeMillis) {
+        this.maxCacheAge = maxAgeMillis;
+        return serveCacheFirst();
+    }
+
+    /**
+     * Stores the ETag and Last-Modified validators of the response next to the cache file and sends
+     * them along with the next request.
+     *
+     * <p>If the server answers 304 Not Modified, the cached data is kept. The handler is only called
+     * again if the cached data has not been handled yet during this session.
+     */
+    public RequestBuilder useConditionalRequests() {
+        this.conditional = true;
+        return this;
+    }
+
     /** A MD5 hash cache validator. */
     public RequestBuilder cacheMD5Validator(String expectedHash) {
         if (!MD5Verification.isMd5Digest(expectedHash)) return this;
@@ -226,6 +262,10 @@ public class RequestBuilder {
     public Request build() {
         if (cacheValidator != null && cacheFile == null)
             throw new IllegalStateException("Invalid cache file and validator pairing");
+        if (serveCacheFirst && cacheFile == null)
+            throw new IllegalStateException("Serving cache first requires a cache file");
+        if (conditional && cacheFile == null)
+            throw new IllegalStateException("Conditional requests require a cache file");
 
         return new Request(
                 url,
@@ -233,6 +273,9 @@ public class RequestBuilder {
                 parallelGroup,
                 handler,
                 useCacheAsBackup,
+                serveCacheFirst,
+                conditional,
+                maxCacheAge,
                 onError,
                 headers,
                 cacheFile,
@@ -0,0 +1,220 @@
+/*
+ * Copyright © Wynntils 2022.
+ * This file is released under AGPLv3. See LICENSE for full license details.
+ */
+package com.wynntils.core.webapi.request;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.wynntils.core.WynntilsMod;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Process-wide executor shared by all {@link RequestHandler} instances.
+ *
+ * <p>Requests run on a single bounded worker pool, so the number of threads stays the same no matter
+ * how many handlers are created. Connections to the same host are additionally limited by a per-host
+ * cap. Asynchronous dispatches are coordinated on a small separate pool, so they never occupy worker
+ * slots while waiting for their requests.
+ */
+public final class RequestExecutor {
+    private static final int DEFAULT_MAX_CONCURRENCY = 6;
+    private static final int DEFAULT_MAX_PER_HOST = 4;
+    private static final int DISPATCHER_THREADS = 4;
+    private static final long IDLE_TIMEOUT_SECONDS = 30;
+
+    private static final ThreadLocal<Boolean> isWorker = ThreadLocal.withInitial(() -> false);
+
+    private static final ThreadPoolExecutor workers =
+            createPool(DEFAULT_MAX_CONCURRENCY, "wynntils-web-request-pool-%d");
+    private static final ThreadPoolExecutor dispatchers =
+            createPool(DISPATCHER_THREADS, "wynntils-web-dispatch-pool-%d");
+
+    private static final Map<String, Semaphore> hostLimits = new ConcurrentHashMap<>();
+    private static volatile int maxPerHost = DEFAULT_MAX_PER_HOST;
+
+    // Requests submitted to the workers which did not finish yet, whether they are waiting or running
+    private static final AtomicInteger inFlightTasks = new AtomicInteger();
+    private static final AtomicInteger peakQueueDepth = new AtomicInteger();
+    private static final AtomicLong submittedTasks = new AtomicLong();
+
+    private RequestExecutor() {}
+
+    private static ThreadPoolExecutor createPool(int threads, String nameFormat) {
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(
+                threads,
+                threads,
+                IDLE_TIMEOUT_SECONDS,
+                TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                new ThreadFactoryBuilder()
+                        .setNameFormat(nameFormat)
+                        .setDaemon(true)
+                        .build());
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    /**
+     * Runs all tasks on the shared worker pool and waits for them to complete.
+     *
+     * <p>If called from a worker thread (e.g. a request handler dispatching another request
+     * synchronously), the tasks are run inline instead, so the bounded pool can not deadlock on
+     * itself.
+     */
+    static void invokeAll(List<Callable<Void>> tasks) throws InterruptedException {
+        if (isWorker.get()) {
+            for (Callable<Void> task : tasks) {
+                if (Thread.interrupted()) throw new InterruptedException();
+
+                try {
+                    task.call();
+                } catch (Exception e) {
+                    WynntilsMod.error("Exception in inline web request task.", e);
+                }
+            }
+            return;
+        }
+
+        List<Callable<Void>> wrapped = new ArrayList<>(tasks.size());
+        List<AtomicBoolean> finished = new ArrayList<>(tasks.size());
+        for (Callable<Void> task : tasks) {
+            AtomicBoolean taskFinished = new AtomicBoolean();
+            finished.add(taskFinished);
+            wrapped.add(() -> {
+                isWorker.set(true);
+                try {
+                    return task.call();
+                } finally {
+                    isWorker.set(false);
+                    finishTask(taskFinished);
+                }
+            });
+        }
+
+        submittedTasks.addAndGet(tasks.size());
+        peakQueueDepth.accumulateAndGet(inFlightTasks.addAndGet(tasks.size()), Math::max);
+        try {
+            workers.invokeAll(wrapped);
+        } finally {
+            // Tasks canceled by an interrupt never ran, so they did not finish themselves
+            finished.forEach(RequestExecutor::finishTask);
+        }
+    }
+
+    private static void finishTask(AtomicBoolean finished) {
+        if (finished.compareAndSet(false, true)) {
+            inFlightTasks.decrementAndGet();
+        }
+    }
+
+    /** Runs a dispatch on the shared coordinator pool. */
+    static void dispatchAsync(Runnable dispatch) {
+        dispatchers.execute(dispatch);
+    }
+
+    /**
+     * Runs a task that issues requests on the shared coordinator pool. The task may block on
+     * synchronous dispatches, these are carried out by the worker pool.
+     */
+    public static CompletableFuture<Void> runAsync(Runnable task) {
+        return CompletableFuture.runAsync(task, dispatchers);
+    }
+
+    /**
+     * Blocks until a connection slot for the host of the given url is available. Every successful
+     * call must be paired with {@link #releaseHost(Semaphore)}.
+     *
+     * @return the acquired slot, or null if the url has no host to limit
+     */
+    static Semaphore acquireHost(String url) throws InterruptedException {
+        String host;
+        try {
+            host = URI.create(url).getHost();
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        if (host == null) return null;
+
+        Semaphore semaphore = hostLimits.computeIfAbsent(host, h -> new Semaphore(maxPerHost));
+        semaphore.acquire();
+        return semaphore;
+    }
+
+    static void releaseHost(Semaphore semaphore) {
+        if (semaphore != null) {
+            semaphore.release();
+        }
+    }
+
+    /** Sets the maximum number of requests that may run at the same time, across all handlers. */
+    public static void setMaxConcurrency(int maxConcurrency) {
+        if (maxConcurrency < 1) throw new IllegalArgumentException("Concurrency must be at least 1");
+
+        // The order matters, core size may never exceed max size
+        if (maxConcurrency > workers.getMaximumPoolSize()) {
+            workers.setMaximumPoolSize(maxConcurrency);
+            workers.setCorePoolSize(maxConcurrency);
+        } else {
+            workers.setCorePoolSize(maxConcurrency);
+            workers.setMaximumPoolSize(maxConcurrency);
+        }
+    }
+
+    /**
+     * Sets the maximum number of concurrent connections to a single host. Connections already in
+     * progress keep their slot.
+     */
+    public static void setMaxPerHost(int limit) {
+        if (limit < 1) throw new IllegalArgumentException("Per-host limit must be at least 1");
+
+        maxPerHost = limit;
+        hostLimits.clear();
+    }
+
+    public static int getMaxConcurrency() {
+        return workers.getMaximumPoolSize();
+    }
+
+    public static int getMaxPerHost() {
+        return maxPerHost;
+    }
+
+    /** @return the number of requests waiting for a worker */
+    public static int getQueueDepth() {
+        return workers.getQueue().size();
+    }
+
+    /** @return the highest number of requests that were waiting or running at once */
+    public static int getPeakQueueDepth() {
+        return peakQueueDepth.get();
+    }
+
+    public static int getActiveCount() {
+        return workers.getActiveCount();
+    }
+
+    public static int getThreadCount() {
+        return workers.getPoolSize() + dispatchers.getPoolSize();
+    }
+
+    public static long getSubmittedCount() {
+        return submittedTasks.get();
+    }
+
+    public static long getCompletedCount() {
+        return workers.getCompletedTaskCount();
+    }
+}
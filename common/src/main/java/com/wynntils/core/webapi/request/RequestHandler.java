@@ -4,7 +4,6 @@
  */
 package com.wynntils.core.webapi.request;
 
-import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.wynntils.core.WynntilsMod;
 import com.wynntils.core.webapi.LoadingPhase;
 import java.io.FileNotFoundException;
@@ -16,23 +15,20 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
 
-/** Handles and dispatches {@link Request} */
+/**
+ * Handles and dispatches {@link Request}. Handlers are cheap to create, all of them share the threads
+ * of {@link RequestExecutor}
+ */
 public class RequestHandler {
     /** If set to true, will not make HTTP requests. */
     private static final boolean CACHE_ONLY = false;
 
-    private final ExecutorService pool = Executors.newFixedThreadPool(
-            4,
-            new ThreadFactoryBuilder()
-                    .setNameFormat("wynntils-web-request-pool-%d")
-                    .build());
     private final List<Request> requests = new ArrayList<>();
     private int maxParallelGroup = 0;
     private int dispatchId = 0;
@@ -59,9 +55,7 @@ public class RequestHandler {
         dispatch(false);
     }
 
-    /**
-     * Send all enqueued requests inside of a new thread and return that thread
-     */
+    /** Send all enqueued requests on the shared dispatcher pool and return immediately */
     public void dispatchAsync() {
         dispatch(true);
     }
@@ -82,7 +76,7 @@ public class RequestHandler {
         addAndDispatch(req, true);
     }
 
-    public Thread dispatch(boolean async) {
+    public void dispatch(boolean async) {
         List<List<Request>> groupedRequests;
         boolean anyRequests = false;
         int thisDispatch;
@@ -107,16 +101,10 @@ public class RequestHandler {
         if (anyRequests) {
             if (!async) {
                 handleDispatch(thisDispatch, groupedRequests, 0);
-                return null;
             } else {
-                Thread t = new Thread(
-                        () -> handleDispatch(thisDispatch, groupedRequests, 0), "wynntils-webrequesthandler");
-                t.start();
-                return t;
+                RequestExecutor.dispatchAsync(() -> handleDispatch(thisDispatch, groupedRequests, 0));
             }
         }
-
-        return null;
     }
 
     private void handleDispatch(int dispatchId, List<List<Request>> groupedRequests, int currentGroupIndex) {
@@ -135,6 +123,7 @@ public class RequestHandler {
                         if (req.cacheValidator.test(cachedData)) {
                             try {
                                 if (req.handler.test(null, cachedData)) {
+                                    markCacheHandled(req);
                                     return null;
                                 }
                             } catch (Exception e) {
@@ -156,12 +145,35 @@ public class RequestHandler {
                     }
                 }
 
-                boolean result = CACHE_ONLY || handleHttpConnection(req);
+                boolean servedFromCache = false;
+                if (req.serveCacheFirst && req.cacheFile.exists()) {
+                    try {
+                        servedFromCache = req.handler.test(null, FileUtils.readFileToByteArray(req.cacheFile));
+                        if (servedFromCache) {
+                            markCacheHandled(req);
+                        }
+                    } catch (Exception e) {
+                        WynntilsMod.warn(
+                                "Error occurred whilst trying to serve cache for " + req.id + " at "
+                                        + req.cacheFile.getPath(),
+                                e);
+                    }
+                }
 
-                if (!result) {
+                boolean result;
+                if (servedFromCache && req.maxCacheAge > 0 && req.getCacheMetadata().isFresh(req.maxCacheAge)) {
+                    // Cache is recent enough, do not revalidate yet
+                    result = true;
+                } else {
+                    result = CACHE_ONLY || handleHttpConnection(req, servedFromCache);
+                }
+
+                if (!result && !servedFromCache) {
                     if (req.useCacheAsBackup) {
                         try {
-                            if (!req.handler.test(null, FileUtils.readFileToByteArray(req.cacheFile))) {
+                            if (req.handler.test(null, FileUtils.readFileToByteArray(req.cacheFile))) {
+                                markCacheHandled(req);
+                            } else {
                                 WynntilsMod.warn("Error occurred whilst trying to use cache for " + req.id + " at "
                                         + req.cacheFile.getPath() + ": Cache file is invalid");
                                 FileUtils.deleteQuietly(req.cacheFile);
@@ -190,7 +202,7 @@ public class RequestHandler {
         }
 
         try {
-            pool.invokeAll(tasks);
+            RequestExecutor.invokeAll(tasks);
         } catch (InterruptedException e) {
             Set<String> completedIds = new HashSet<>();
             Set<String> interruptedIds = new HashSet<>();
@@ -234,39 +246,58 @@ public class RequestHandler {
         }
     }
 
-    private boolean handleHttpConnection(Request req) {
+    private static void markCacheHandled(Request req) {
+        if (req.tracksCacheMetadata()) {
+            req.getCacheMetadata().markHandled();
+        }
+    }
+
+    private boolean handleHttpConnection(Request req, boolean servedFromCache) {
+        Response response;
+        Semaphore hostSlot;
+        try {
+            hostSlot = RequestExecutor.acquireHost(req.url);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+
+        // The host slot is only held while talking to the host, a handler may dispatch requests to it as well
+        try {
+            response = fetch(req);
+        } finally {
+            RequestExecutor.releaseHost(hostSlot);
+        }
+
+        if (response == null) return false;
+        if (response.notModified()) return handleNotModified(req, servedFromCache);
+
+        return handleResponse(req, response.connection(), response.data());
+    }
+
+    /** @return the response, or null if the request failed */
+    private Response fetch(Request req) {
         HttpURLConnection st;
         try {
             st = req.establishConnection();
             st.setReadTimeout(0);
-            if (st.getResponseCode() != 200) {
+            int responseCode = st.getResponseCode();
+            if (responseCode == HttpURLConnection.HTTP_NOT_MODIFIED && req.conditional) {
+                st.disconnect();
+                return new Response(st, null, true);
+            }
+            if (responseCode != 200) {
                 WynntilsMod.warn("Invalid response code for request");
                 st.disconnect();
-                return false;
+                return null;
             }
         } catch (Exception e) {
             WynntilsMod.warn("Error occurred whilst fetching " + req.id + " from " + req.url, e);
-            return false;
+            return null;
         }
 
         try {
-            byte[] data = IOUtils.toByteArray(st.getInputStream());
-            if (req.handler != null) {
-                if (req.handler.test(st, data)) {
-                    if (req.cacheFile != null) {
-                        try {
-                            FileUtils.writeByteArrayToFile(req.cacheFile, data);
-                        } catch (Exception e) {
-                            WynntilsMod.warn("Error occurred whilst writing cache for " + req.id, e);
-                            FileUtils.deleteQuietly(req.cacheFile);
-                        }
-                    }
-
-                    return true;
-                } else {
-                    WynntilsMod.warn("Error occurred whilst fetching " + req.id + " from " + req.url);
-                }
-            }
+            return new Response(st, IOUtils.toByteArray(st.getInputStream()), false);
         } catch (IOException e) {
             WynntilsMod.warn("Error occurred whilst fetching " + req.id + " from " + req.url + ": "
                     + (e instanceof SocketTimeoutException ? "Socket timeout (server may be down)" : e.getMessage()));
@@ -274,6 +305,65 @@ public class RequestHandler {
             WynntilsMod.warn("Error occurred whilst fetching " + req.id + " from " + req.url, e);
         }
 
+        return null;
+    }
+
+    private boolean handleResponse(Request req, HttpURLConnection st, byte[] data) {
+        if (req.handler == null) return false;
+
+        try {
+            if (!req.handler.test(st, data)) {
+                WynntilsMod.warn("Error occurred whilst fetching " + req.id + " from " + req.url);
+                return false;
+            }
+        } catch (IOException | RuntimeException e) {
+            WynntilsMod.warn("Error occurred whilst fetching " + req.id + " from " + req.url, e);
+            return false;
+        }
+
+        if (req.cacheFile != null) {
+            try {
+                FileUtils.writeByteArrayToFile(req.cacheFile, data);
+                if (req.tracksCacheMetadata()) {
+                    req.getCacheMetadata().update(st);
+                }
+            } catch (Exception e) {
+                WynntilsMod.warn("Error occurred whilst writing cache for " + req.id, e);
+                FileUtils.deleteQuietly(req.cacheFile);
+                if (req.tracksCacheMetadata()) {
+                    req.getCacheMetadata().invalidate();
+                }
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * The cached data is still up to date. It only has to be handed to the handler if that did not
+     * happen yet during this session.
+     */
+    private boolean handleNotModified(Request req, boolean servedFromCache) {
+        CacheMetadata metadata = req.getCacheMetadata();
+        metadata.revalidated();
+
+        if (servedFromCache || metadata.isHandled()) return true;
+
+        try {
+            if (req.handler.test(null, FileUtils.readFileToByteArray(req.cacheFile))) {
+                metadata.markHandled();
+                return true;
+            }
+
+            WynntilsMod.warn("Cached data for " + req.id + " was not modified, but is invalid");
+        } catch (Exception e) {
+            WynntilsMod.warn("Error occurred whilst trying to use unmodified cache for " + req.id, e);
+        }
+
+        FileUtils.deleteQuietly(req.cacheFile);
+        metadata.invalidate();
         return false;
     }
+
+    private record Response(HttpURLConnection connection, byte[] data, boolean notModified) {}
 }
@@ -0,0 +1,241 @@
+/*
+ * Copyright © Wynntils 2022.
+ * This file is released under AGPLv3. See LICENSE for full license details.
+ */
+package com.wynntils.core.webapi.snapshot;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/** Reads the binary token stream written by {@link BinaryJsonWriter} */
+final class BinaryJsonReader extends JsonReader {
+    private static final Reader UNREADABLE_READER = new Reader() {
+        @Override
+        public int read(char[] buffer, int offset, int count) {
+            throw new AssertionError();
+        }
+
+        @Override
+        public void close() {
+            throw new AssertionError();
+        }
+    };
+
+    private final ByteBuffer buffer;
+    private final List<String> strings = new ArrayList<>();
+    private byte[] stringBuffer = new byte[64];
+    private int peeked = -1;
+
+    BinaryJsonReader(ByteBuffer buffer) {
+        super(UNREADABLE_READER);
+        this.buffer = buffer;
+    }
+
+    @Override
+    public void beginArray() {
+        expect(BinaryJsonWriter.BEGIN_ARRAY, JsonToken.BEGIN_ARRAY);
+    }
+
+    @Override
+    public void endArray() {
+        expect(BinaryJsonWriter.END_ARRAY, JsonToken.END_ARRAY);
+    }
+
+    @Override
+    public void beginObject() {
+        expect(BinaryJsonWriter.BEGIN_OBJECT, JsonToken.BEGIN_OBJECT);
+    }
+
+    @Override
+    public void endObject() {
+        expect(BinaryJsonWriter.END_OBJECT, JsonToken.END_OBJECT);
+    }
+
+    @Override
+    public boolean hasNext() {
+        JsonToken token = peek();
+        return token != JsonToken.END_OBJECT && token != JsonToken.END_ARRAY && token != JsonToken.END_DOCUMENT;
+    }
+
+    @Override
+    public JsonToken peek() {
+        if (peeked == -1) {
+            peeked = buffer.hasRemaining() ? buffer.get() : 0;
+        }
+
+        return switch (peeked) {
+            case 0 -> JsonToken.END_DOCUMENT;
+            case BinaryJsonWriter.BEGIN_ARRAY -> JsonToken.BEGIN_ARRAY;
+            case BinaryJsonWriter.END_ARRAY -> JsonToken.END_ARRAY;
+            case BinaryJsonWriter.BEGIN_OBJECT -> JsonToken.BEGIN_OBJECT;
+            case BinaryJsonWriter.END_OBJECT -> JsonToken.END_OBJECT;
+            case BinaryJsonWriter.NAME -> JsonToken.NAME;
+            case BinaryJsonWriter.STRING -> JsonToken.STRING;
+            case BinaryJsonWriter.LONG, BinaryJsonWriter.DOUBLE -> JsonToken.NUMBER;
+            case BinaryJsonWriter.TRUE, BinaryJsonWriter.FALSE -> JsonToken.BOOLEAN;
+            case BinaryJsonWriter.NULL -> JsonToken.NULL;
+            default -> throw new IllegalStateException("Corrupt snapshot, unknown token " + peeked);
+        };
+    }
+
+    @Override
+    public String nextName() {
+        expect(BinaryJsonWriter.NAME, JsonToken.NAME);
+        return readString();
+    }
+
+    @Override
+    public String nextString() {
+        JsonToken token = peek();
+        int opcode = consume();
+        return switch (opcode) {
+            case BinaryJsonWriter.STRING -> readString();
+            case BinaryJsonWriter.LONG -> Long.toString(readLong());
+            case BinaryJsonWriter.DOUBLE -> Double.toString(buffer.getDouble());
+            default -> throw unexpected(JsonToken.STRING, token);
+        };
+    }
+
+    @Override
+    public boolean nextBoolean() {
+        JsonToken token = peek();
+        int opcode = consume();
+        return switch (opcode) {
+            case BinaryJsonWriter.TRUE -> true;
+            case BinaryJsonWriter.FALSE -> false;
+            default -> throw unexpected(JsonToken.BOOLEAN, token);
+        };
+    }
+
+    @Override
+    public void nextNull() {
+        expect(BinaryJsonWriter.NULL, JsonToken.NULL);
+    }
+
+    @Override
+    public double nextDouble() {
+        JsonToken token = peek();
+        int opcode = consume();
+        return switch (opcode) {
+            case BinaryJsonWriter.DOUBLE -> buffer.getDouble();
+            case BinaryJsonWriter.LONG -> readLong();
+            case BinaryJsonWriter.STRING -> Double.parseDouble(readString());
+            default -> throw unexpected(JsonToken.NUMBER, token);
+        };
+    }
+
+    @Override
+    public long nextLong() {
+        JsonToken token = peek();
+        int opcode = consume();
+        return switch (opcode) {
+            case BinaryJsonWriter.LONG -> readLong();
+            case BinaryJsonWriter.DOUBLE -> toExactLong(buffer.getDouble());
+            case BinaryJsonWriter.STRING -> Long.parseLong(readString());
+            default -> throw unexpected(JsonToken.NUMBER, token);
+        };
+    }
+
+    @Override
+    public int nextInt() {
+        long value = nextLong();
+        if ((int) value != value) throw new NumberFormatException("Expected an int but was " + value);
+
+        return (int) value;
+    }
+
+    @Override
+    public void skipValue() {
+        int depth = 0;
+        do {
+            peek();
+            switch (consume()) {
+                case BinaryJsonWriter.BEGIN_ARRAY, BinaryJsonWriter.BEGIN_OBJECT -> depth++;
+                case BinaryJsonWriter.END_ARRAY, BinaryJsonWriter.END_OBJECT -> depth--;
+                    // Strings must still be read, they may be referred to later on
+                case BinaryJsonWriter.NAME, BinaryJsonWriter.STRING -> readString();
+                case BinaryJsonWriter.LONG -> readLong();
+                case BinaryJsonWriter.DOUBLE -> buffer.getDouble();
+                default -> {}
+            }
+        } while (depth > 0);
+    }
+
+    @Override
+    public void close() {
+        peeked = 0;
+    }
+
+    @Override
+    public String getPath() {
+        return "$";
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + " at byte " + buffer.position();
+    }
+
+    private int consume() {
+        int opcode = peeked;
+        peeked = -1;
+        return opcode;
+    }
+
+    private void expect(int opcode, JsonToken expected) {
+        JsonToken token = peek();
+        if (peeked != opcode) throw unexpected(expected, token);
+
+        consume();
+    }
+
+    private IllegalStateException unexpected(JsonToken expected, JsonToken actual) {
+        return new IllegalStateException("Expected " + expected + " but was " + actual + " in " + this);
+    }
+
+    private String readString() {
+        int index = (int) readVarLong();
+        if (index < strings.size()) return strings.get(index);
+
+        int length = (int) readVarLong();
+        if (stringBuffer.length < length) {
+            stringBuffer = new byte[Math.max(length, stringBuffer.length * 2)];
+        }
+        buffer.get(stringBuffer, 0, length);
+
+        String value = new String(stringBuffer, 0, length, StandardCharsets.UTF_8);
+        strings.add(value);
+        return value;
+    }
+
+    private long readLong() {
+        long encoded = readVarLong();
+        return (encoded >>> 1) ^ -(encoded & 1);
+    }
+
+    private long readVarLong() {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+
+        return value;
+    }
+
+    private static long toExactLong(double value) {
+        long result = (long) value;
+        if (result != value) throw new NumberFormatException("Expected a long but was " + value);
+
+        return result;
+    }
+}
@@ -0,0 +1,243 @@
+/*
+ * Copyright © Wynntils 2022.
+ * This file is released under AGPLv3. See LICENSE for full license details.
+ */
+package com.wynntils.core.webapi.snapshot;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@link JsonWriter} that writes a compact binary token stream instead of JSON text, so that Gson
+ * type adapters can be reused for snapshots. Read back with {@link BinaryJsonReader}.
+ *
+ * <p>Every distinct string is written once. Later occurrences only refer to the index of the first
+ * one, which also makes them share a single instance when read back.
+ */
+final class BinaryJsonWriter extends JsonWriter {
+    static final byte BEGIN_ARRAY = 1;
+    static final byte END_ARRAY = 2;
+    static final byte BEGIN_OBJECT = 3;
+    static final byte END_OBJECT = 4;
+    static final byte NAME = 5;
+    static final byte STRING = 6;
+    static final byte LONG = 7;
+    static final byte DOUBLE = 8;
+    static final byte TRUE = 9;
+    static final byte FALSE = 10;
+    static final byte NULL = 11;
+
+    private static final Writer UNWRITABLE_WRITER = new Writer() {
+        @Override
+        public void write(char[] buffer, int offset, int counter) {
+            throw new AssertionError();
+        }
+
+        @Override
+        public void flush() {
+            throw new AssertionError();
+        }
+
+        @Override
+        public void close() {
+            throw new AssertionError();
+        }
+    };
+
+    private static final TypeAdapter<JsonElement> JSON_ELEMENT_ADAPTER = new Gson().getAdapter(JsonElement.class);
+
+    private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    private final DataOutputStream out = new DataOutputStream(bytes);
+    private final Map<String, Integer> stringIndices = new HashMap<>();
+    private String deferredName = null;
+
+    BinaryJsonWriter() {
+        super(UNWRITABLE_WRITER);
+    }
+
+    byte[] toByteArray() {
+        return bytes.toByteArray();
+    }
+
+    @Override
+    public JsonWriter beginArray() throws IOException {
+        writeDeferredName();
+        out.writeByte(BEGIN_ARRAY);
+        return this;
+    }
+
+    @Override
+    public JsonWriter endArray() throws IOException {
+        out.writeByte(END_ARRAY);
+        return this;
+    }
+
+    @Override
+    public JsonWriter beginObject() throws IOException {
+        writeDeferredName();
+        out.writeByte(BEGIN_OBJECT);
+        return this;
+    }
+
+    @Override
+    public JsonWriter endObject() throws IOException {
+        if (deferredName != null) throw new IllegalStateException("Dangling name: " + deferredName);
+
+        out.writeByte(END_OBJECT);
+        return this;
+    }
+
+    @Override
+    public JsonWriter name(String name) {
+        if (name == null) throw new NullPointerException("name == null");
+        if (deferredName != null) throw new IllegalStateException("Name already set: " + deferredName);
+
+        deferredName = name;
+        return this;
+    }
+
+    @Override
+    public JsonWriter value(String value) throws IOException {
+        if (value == null) return nullValue();
+
+        writeDeferredName();
+        out.writeByte(STRING);
+        writeString(value);
+        return this;
+    }
+
+    @Override
+    public JsonWriter jsonValue(String value) throws IOException {
+        if (value == null) return nullValue();
+
+        // Raw JSON is parsed, and written token by token like any other value
+        JSON_ELEMENT_ADAPTER.write(this, JsonParser.parseString(value));
+        return this;
+    }
+
+    @Override
+    public JsonWriter nullValue() throws IOException {
+        if (deferredName != null) {
+            if (!getSerializeNulls()) {
+                // Skip both the name and the null value, as JsonWriter does
+                deferredName = null;
+                return this;
+            }
+            writeDeferredName();
+        }
+
+        out.writeByte(NULL);
+        return this;
+    }
+
+    @Override
+    public JsonWriter value(boolean value) throws IOException {
+        writeDeferredName();
+        out.writeByte(value ? TRUE : FALSE);
+        return this;
+    }
+
+    @Override
+    public JsonWriter value(Boolean value) throws IOException {
+        if (value == null) return nullValue();
+
+        return value(value.booleanValue());
+    }
+
+    // Not annotated with @Override, this overload only exists in newer Gson versions
+    public JsonWriter value(float value) throws IOException {
+        return value((double) value);
+    }
+
+    @Override
+    public JsonWriter value(double value) throws IOException {
+        writeDeferredName();
+        out.writeByte(DOUBLE);
+        out.writeDouble(value);
+        return this;
+    }
+
+    @Override
+    public JsonWriter value(long value) throws IOException {
+        writeDeferredName();
+        out.writeByte(LONG);
+        writeVarLong((value << 1) ^ (value >> 63));
+        return this;
+    }
+
+    @Override
+    public JsonWriter value(Number value) throws IOException {
+        if (value == null) return nullValue();
+
+        if (value instanceof Integer
+                || value instanceof Long
+                || value instanceof Short
+                || value instanceof Byte
+                || value instanceof AtomicInteger
+                || value instanceof AtomicLong
+                || (value instanceof BigInteger bigInteger && bigInteger.bitLength() < 64)) {
+            return value(value.longValue());
+        }
+
+        // Numbers parsed from raw JSON are lazily parsed, and stay integers if they were written as one
+        try {
+            return value(Long.parseLong(value.toString()));
+        } catch (NumberFormatException e) {
+            return value(value.doubleValue());
+        }
+    }
+
+    @Override
+    public void flush() {}
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    private void writeDeferredName() throws IOException {
+        if (deferredName == null) return;
+
+        out.writeByte(NAME);
+        writeString(deferredName);
+        deferredName = null;
+    }
+
+    private void writeString(String value) throws IOException {
+        Integer index = stringIndices.get(value);
+        if (index != null) {
+            writeVarLong(index);
+            return;
+        }
+
+        // A new string is announced by the next free index
+        int newIndex = stringIndices.size();
+        stringIndices.put(value, newIndex);
+        writeVarLong(newIndex);
+
+        byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(encoded.length);
+        out.write(encoded);
+    }
+
+    private void writeVarLong(long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+}
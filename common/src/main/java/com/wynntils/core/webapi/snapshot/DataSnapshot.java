@@ -0,0 +1,200 @@
+/*
+ * Copyright © Wynntils 2022.
+ * This file is released under AGPLv3. See LICENSE for full license details.
+ */
+package com.wynntils.core.webapi.snapshot;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.wynntils.core.WynntilsMod;
+import com.wynntils.utils.FileUtils;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Versioned binary snapshots of parsed web data, so the data can be restored on the next launch
+ * without parsing JSON again.
+ *
+ * <p>A snapshot is bound to a schema name and the hash of the source it was created from. If either
+ * does not match, or the format version changed, {@link #load} returns null and the caller should fall
+ * back to parsing the source. The data itself is stored through Gson type adapters, so any class Gson
+ * can handle can be snapshotted.
+ */
+public final class DataSnapshot {
+    private static final int MAGIC = 0x574E5353; // "WNSS"
+    private static final int FORMAT_VERSION = 1;
+
+    private static final Gson GSON = new GsonBuilder()
+            .registerTypeAdapterFactory(new MapAdapterFactory())
+            .create();
+
+    private DataSnapshot() {}
+
+    /**
+     * @param schema name and version of the snapshotted data; bump it whenever the snapshotted classes
+     *     change
+     * @return the snapshotted data, or null if there is no usable snapshot for this source
+     */
+    public static <T> T load(File file, String schema, String sourceHash, Class<T> type) {
+        if (sourceHash == null || !file.isFile()) return null;
+
+        try {
+            ByteBuffer buffer = FileUtils.readToBuffer(file);
+
+            if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) return null;
+            if (!readHeaderString(buffer).equals(schema)) return null;
+            if (!readHeaderString(buffer).equals(sourceHash)) return null;
+
+            try (BinaryJsonReader reader = new BinaryJsonReader(buffer)) {
+                return GSON.fromJson(reader, type);
+            }
+        } catch (IOException | RuntimeException e) {
+            WynntilsMod.warn("Could not load snapshot " + file.getPath() + ", ignoring it.", e);
+            return null;
+        }
+    }
+
+    public static void save(File file, String schema, String sourceHash, Object data) {
+        if (sourceHash == null) return;
+
+        File tempFile = new File(file.getPath() + ".tmp");
+        try {
+            BinaryJsonWriter writer = new BinaryJsonWriter();
+            GSON.toJson(data, data.getClass(), writer);
+
+            try (DataOutputStream out = new DataOutputStream(new FileOutputStream(tempFile))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                writeHeaderString(out, schema);
+                writeHeaderString(out, sourceHash);
+                out.write(writer.toByteArray());
+            }
+
+            // Never leave a half written snapshot behind
+            Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException | RuntimeException e) {
+            WynntilsMod.warn("Could not save snapshot " + file.getPath(), e);
+            tempFile.delete();
+        }
+    }
+
+    private static void writeHeaderString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readHeaderString(ByteBuffer buffer) {
+        byte[] bytes = new byte[Short.toUnsignedInt(buffer.getShort())];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Gson's own map adapter relies on JsonReader internals that a {@link BinaryJsonReader} does not
+     * have, so maps are handled here instead. Keys are converted through their own type adapter, as
+     * Gson does.
+     */
+    private static final class MapAdapterFactory implements TypeAdapterFactory {
+        @Override
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> typeToken) {
+            Class<? super T> rawType = typeToken.getRawType();
+            if (!Map.class.isAssignableFrom(rawType)) return null;
+
+            Type keyType = Object.class;
+            Type valueType = Object.class;
+            if (typeToken.getType() instanceof ParameterizedType parameterized) {
+                keyType = parameterized.getActualTypeArguments()[0];
+                valueType = parameterized.getActualTypeArguments()[1];
+            }
+
+            TypeAdapter<?> keyAdapter = gson.getAdapter(TypeToken.get(keyType));
+            TypeAdapter<?> valueAdapter = gson.getAdapter(TypeToken.get(valueType));
+            Class<?> keyClass = TypeToken.get(keyType).getRawType();
+
+            return (TypeAdapter<T>) new MapAdapter(rawType, keyClass, keyAdapter, valueAdapter);
+        }
+    }
+
+    private static final class MapAdapter<K, V> extends TypeAdapter<Map<K, V>> {
+        private final Class<?> mapClass;
+        private final Class<?> keyClass;
+        private final TypeAdapter<K> keyAdapter;
+        private final TypeAdapter<V> valueAdapter;
+
+        private MapAdapter(
+                Class<?> mapClass, Class<?> keyClass, TypeAdapter<K> keyAdapter, TypeAdapter<V> valueAdapter) {
+            this.mapClass = mapClass;
+            this.keyClass = keyClass;
+            this.keyAdapter = keyAdapter;
+            this.valueAdapter = valueAdapter;
+        }
+
+        @Override
+        public void write(JsonWriter out, Map<K, V> map) throws IOException {
+            if (map == null) {
+                out.nullValue();
+                return;
+            }
+
+            out.beginObject();
+            for (Map.Entry<K, V> entry : map.entrySet()) {
+                JsonElement key = keyAdapter.toJsonTree(entry.getKey());
+                out.name(key.isJsonPrimitive() ? key.getAsString() : String.valueOf(entry.getKey()));
+                valueAdapter.write(out, entry.getValue());
+            }
+            out.endObject();
+        }
+
+        @Override
+        public Map<K, V> read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+
+            Map<K, V> map = createMap();
+            in.beginObject();
+            while (in.hasNext()) {
+                K key = keyAdapter.fromJsonTree(new JsonPrimitive(in.nextName()));
+                map.put(key, valueAdapter.read(in));
+            }
+            in.endObject();
+
+            return map;
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        private Map<K, V> createMap() {
+            // Keep the order of the snapshot, as Gson does for maps parsed from JSON
+            if (mapClass.isAssignableFrom(LinkedHashMap.class)) return new LinkedHashMap<>();
+            if (mapClass.isAssignableFrom(TreeMap.class)) return new TreeMap<>();
+            if (mapClass == EnumMap.class) return new EnumMap(keyClass);
+            if (SortedMap.class.isAssignableFrom(mapClass)) return new TreeMap<>();
+
+            throw new IllegalStateException("Unsupported map type in snapshot: " + mapClass);
+        }
+    }
+}
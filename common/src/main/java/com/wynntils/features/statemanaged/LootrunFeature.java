@@ -9,6 +9,7 @@ import com.wynntils.core.config.Config;
 import com.wynntils.core.config.ConfigHolder;
 import com.wynntils.core.features.StateManagedFeature;
 import com.wynntils.core.features.properties.StartDisabled;
+import com.wynntils.mc.event.ChunkUpdateEvent;
 import com.wynntils.mc.event.ClientTickEvent;
 import com.wynntils.mc.event.PlayerInteractEvent;
 import com.wynntils.mc.event.RenderLevelEvent;
@@ -70,6 +71,11 @@ public class LootrunFeature extends StateManagedFeature {
         }
     }
 
+    @SubscribeEvent
+    public void onChunkUpdate(ChunkUpdateEvent event) {
+        LootrunModel.onChunkUpdate(event.getChunkX(), event.getChunkZ());
+    }
+
     @SubscribeEvent
     public void onRenderLastLevel(RenderLevelEvent.Post event) {
         LootrunModel.render(event.getPoseStack());
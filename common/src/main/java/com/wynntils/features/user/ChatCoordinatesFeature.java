@@ -36,9 +36,10 @@ public class ChatCoordinatesFeature extends UserFeature {
     public void onChatReceived(ChatMessageReceivedEvent e) {
         if (!WynnUtils.onWorld()) return;
 
-        Component message = e.getMessage();
+        // The coded message is memoized, so lines without coordinates are not serialized again
+        if (!LocationUtils.strictCoordinateMatcher(e.getCodedMessage()).find()) return;
 
-        e.setMessage(insertCoordinateComponents(message));
+        e.setMessage(insertCoordinateComponents(e.getMessage()));
     }
 
     public static Component insertCoordinateComponents(Component message) {
@@ -20,7 +20,6 @@ import java.util.Map;
 import java.util.regex.Matcher;
 import net.minecraft.client.gui.components.EditBox;
 import net.minecraft.client.gui.screens.ChatScreen;
-import net.minecraft.network.chat.Component;
 import net.minecraftforge.eventbus.api.EventPriority;
 import net.minecraftforge.eventbus.api.SubscribeEvent;
 import org.lwjgl.glfw.GLFW;
@@ -72,8 +71,9 @@ public class ChatItemFeature extends UserFeature {
     public void onChatReceived(ChatMessageReceivedEvent e) {
         if (!WynnUtils.onWorld()) return;
 
-        Component message = e.getMessage();
+        // The coded message is memoized, so lines without items are not serialized again
+        if (!ChatItemModel.chatItemMatcher(e.getCodedMessage()).find()) return;
 
-        e.setMessage(ChatItemModel.insertItemComponents(message));
+        e.setMessage(ChatItemModel.insertItemComponents(e.getMessage()));
     }
 }
@@ -4,6 +4,8 @@
  */
 package com.wynntils.features.user;
 
+import com.wynntils.core.chat.ChatMatcher;
+import com.wynntils.core.chat.ChatPattern;
 import com.wynntils.core.chat.MessageType;
 import com.wynntils.core.chat.RecipientType;
 import com.wynntils.core.config.Config;
@@ -15,31 +17,38 @@ import net.minecraftforge.eventbus.api.SubscribeEvent;
 
 @FeatureInfo
 public class InfoMessageFilterFeature extends UserFeature {
-    private static final Pattern PRE_WELCOME_1 = Pattern.compile("^§7Loading Resource Pack...$");
-    private static final Pattern PRE_WELCOME_2 =
-            Pattern.compile("^§6Thank you for using the WynnPack. Enjoy the game!$");
-    private static final Pattern PRE_WELCOME_3 = Pattern.compile(
+    private static final ChatPattern PRE_WELCOME_1 = register("preWelcome1", "^§7Loading Resource Pack...$");
+    private static final ChatPattern PRE_WELCOME_2 =
+            register("preWelcome2", "^§6Thank you for using the WynnPack. Enjoy the game!$");
+    private static final ChatPattern PRE_WELCOME_3 = register(
+            "preWelcome3",
             "^§cSelect a class! Each class is saved individually across all servers, you can come back at any time with /class and select another class!$");
 
-    private static final Pattern WELCOME_1 = Pattern.compile("^ +§6§lWelcome to Wynncraft!$");
-    private static final Pattern WELCOME_2 = Pattern.compile("^ +§fplay.wynncraft.com §7-/-§f wynncraft.com$");
+    private static final ChatPattern WELCOME_1 = register("welcome1", "^ +§6§lWelcome to Wynncraft!$");
+    private static final ChatPattern WELCOME_2 =
+            register("welcome2", "^ +§fplay.wynncraft.com §7-/-§f wynncraft.com$");
 
-    private static final Pattern SYSTEM_INFO = Pattern.compile("^(§r)?§.\\[Info\\] .*$");
+    private static final ChatPattern SYSTEM_INFO = register("systemInfo", "^(§r)?§.\\[Info\\] .*$");
 
-    private static final Pattern LEVEL_UP_1 = Pattern.compile("^§6.* is now (?:combat )?level .*(?: in §.*)?$");
-    private static final Pattern LEVEL_UP_2 =
-            Pattern.compile("^§8\\[§r§7!§r§8\\] §r§7Congratulations to §r.* for reaching (combat )?§r§flevel .*!$");
+    private static final ChatPattern LEVEL_UP_1 =
+            register("levelUp1", "^§6.* is now (?:combat )?level .*(?: in §.*)?$");
+    private static final ChatPattern LEVEL_UP_2 = register(
+            "levelUp2",
+            "^§8\\[§r§7!§r§8\\] §r§7Congratulations to §r.* for reaching (combat )?§r§flevel .*!$");
 
-    private static final Pattern BACKGROUND_WELCOME_1 = Pattern.compile("^ +§6§lWelcome to Wynncraft!$");
-    private static final Pattern BACKGROUND_WELCOME_2 =
-            Pattern.compile("^ +§fplay.wynncraft.com §7-/-§f wynncraft.com$");
+    private static final ChatPattern BACKGROUND_WELCOME_1 =
+            register("backgroundWelcome1", "^ +§6§lWelcome to Wynncraft!$");
+    private static final ChatPattern BACKGROUND_WELCOME_2 =
+            register("backgroundWelcome2", "^ +§fplay.wynncraft.com §7-/-§f wynncraft.com$");
 
-    private static final Pattern BACKGROUND_SYSTEM_INFO = Pattern.compile("^(§r§8)?\\[Info\\] .*$");
+    private static final ChatPattern BACKGROUND_SYSTEM_INFO =
+            register("backgroundSystemInfo", "^(§r§8)?\\[Info\\] .*$");
 
-    private static final Pattern BACKGROUND_LEVEL_UP_1 =
-            Pattern.compile("^(?:§r§8)?.* is now (?:combat )?level .*(?: in §.*)?$");
-    private static final Pattern BACKGROUND_LEVEL_UP_2 =
-            Pattern.compile("^(§r§8)?\\[!\\] Congratulations to §r.* for reaching (combat )?§r§7level .*!$");
+    private static final ChatPattern BACKGROUND_LEVEL_UP_1 =
+            register("backgroundLevelUp1", "^(?:§r§8)?.* is now (?:combat )?level .*(?: in §.*)?$");
+    private static final ChatPattern BACKGROUND_LEVEL_UP_2 = register(
+            "backgroundLevelUp2",
+            "^(§r§8)?\\[!\\] Congratulations to §r.* for reaching (combat )?§r§7level .*!$");
 
     @Config
     private boolean hideWelcome = true;
@@ -54,62 +63,66 @@ public class InfoMessageFilterFeature extends UserFeature {
     public void onInfoMessage(ChatMessageReceivedEvent e) {
         if (e.getRecipientType() != RecipientType.INFO) return;
 
-        String msg = e.getOriginalCodedMessage();
         MessageType messageType = e.getMessageType();
 
         if (messageType == MessageType.NORMAL) {
             if (hideSystemInfo) {
-                if (SYSTEM_INFO.matcher(msg).find()) {
+                if (e.getOriginalMatch(SYSTEM_INFO) != null) {
                     e.setCanceled(true);
                     return;
                 }
             }
 
             if (hideWelcome) {
-                if (WELCOME_1.matcher(msg).find() || WELCOME_2.matcher(msg).find()) {
+                if (e.getOriginalMatch(WELCOME_1) != null || e.getOriginalMatch(WELCOME_2) != null) {
                     e.setCanceled(true);
                     return;
                 }
             }
         } else if (messageType == MessageType.SYSTEM) {
             if (hideLevelUp) {
-                if (LEVEL_UP_1.matcher(msg).find() || LEVEL_UP_2.matcher(msg).find()) {
+                if (e.getOriginalMatch(LEVEL_UP_1) != null || e.getOriginalMatch(LEVEL_UP_2) != null) {
                     e.setCanceled(true);
                     return;
                 }
             }
 
             if (hideWelcome) {
-                if (PRE_WELCOME_1.matcher(msg).find()
-                        || PRE_WELCOME_2.matcher(msg).find()
-                        || PRE_WELCOME_3.matcher(msg).find()) {
+                if (e.getOriginalMatch(PRE_WELCOME_1) != null
+                        || e.getOriginalMatch(PRE_WELCOME_2) != null
+                        || e.getOriginalMatch(PRE_WELCOME_3) != null) {
                     e.setCanceled(true);
                     return;
                 }
             }
         } else if (messageType == MessageType.BACKGROUND) {
             if (hideSystemInfo) {
-                if (BACKGROUND_SYSTEM_INFO.matcher(msg).find()) {
+                if (e.getOriginalMatch(BACKGROUND_SYSTEM_INFO) != null) {
                     e.setCanceled(true);
                     return;
                 }
             }
 
             if (hideLevelUp) {
-                if (BACKGROUND_LEVEL_UP_1.matcher(msg).find()
-                        || BACKGROUND_LEVEL_UP_2.matcher(msg).find()) {
+                if (e.getOriginalMatch(BACKGROUND_LEVEL_UP_1) != null
+                        || e.getOriginalMatch(BACKGROUND_LEVEL_UP_2) != null) {
                     e.setCanceled(true);
                     return;
                 }
             }
 
             if (hideWelcome) {
-                if (BACKGROUND_WELCOME_1.matcher(msg).find()
-                        || BACKGROUND_WELCOME_2.matcher(msg).find()) {
+                if (e.getOriginalMatch(BACKGROUND_WELCOME_1) != null
+                        || e.getOriginalMatch(BACKGROUND_WELCOME_2) != null) {
                     e.setCanceled(true);
                     return;
                 }
             }
         }
     }
+
+    private static ChatPattern register(String name, String regex) {
+        return ChatMatcher.register(
+                "infoFilter/" + name, Pattern.compile(regex), ChatPattern.Target.CODED, ChatPattern.Mode.FIND);
+    }
 }
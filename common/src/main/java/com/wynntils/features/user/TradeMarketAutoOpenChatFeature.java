@@ -4,6 +4,8 @@
  */
 package com.wynntils.features.user;
 
+import com.wynntils.core.chat.ChatMatcher;
+import com.wynntils.core.chat.ChatPattern;
 import com.wynntils.core.features.UserFeature;
 import com.wynntils.mc.event.ScreenClosedEvent;
 import com.wynntils.mc.event.ScreenOpenedEvent;
@@ -18,7 +20,11 @@ public class TradeMarketAutoOpenChatFeature extends UserFeature {
     // Type the price in emeralds or type 'cancel' to cancel:
     // Type the amount you wish to buy or type 'cancel' to cancel:
     // Type the item name or type 'cancel' to cancel:
-    private static final Pattern TYPE_TO_CHAT_PATTERN = Pattern.compile("^§6Type the .* or type 'cancel' to cancel:$");
+    private static final ChatPattern TYPE_TO_CHAT_PATTERN = ChatMatcher.register(
+            "tradeMarket/typeToChat",
+            Pattern.compile("^§6Type the .* or type 'cancel' to cancel:$"),
+            ChatPattern.Target.CODED,
+            ChatPattern.Mode.MATCHES);
 
     private boolean openChatWhenContainerClosed = false;
 
@@ -26,7 +32,7 @@ public class TradeMarketAutoOpenChatFeature extends UserFeature {
     public void onChatMessageReceive(ChatMessageReceivedEvent event) {
         if (!WynnUtils.onWorld()) return;
 
-        if (TYPE_TO_CHAT_PATTERN.matcher(event.getOriginalCodedMessage()).matches()) {
+        if (event.getOriginalMatch(TYPE_TO_CHAT_PATTERN) != null) {
             openChatWhenContainerClosed = true;
         }
     }
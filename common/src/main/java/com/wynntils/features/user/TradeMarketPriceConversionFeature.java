@@ -4,6 +4,8 @@
  */
 package com.wynntils.features.user;
 
+import com.wynntils.core.chat.ChatMatcher;
+import com.wynntils.core.chat.ChatPattern;
 import com.wynntils.core.features.UserFeature;
 import com.wynntils.mc.event.ChatSentEvent;
 import com.wynntils.mc.event.ScreenOpenedEvent;
@@ -14,19 +16,26 @@ import net.minecraftforge.eventbus.api.SubscribeEvent;
 
 public class TradeMarketPriceConversionFeature extends UserFeature {
 
-    private static final Pattern PRICE_PATTERN =
-            Pattern.compile("^§6Type the price in emeralds or type 'cancel' to cancel:$");
+    private static final ChatPattern PRICE_PATTERN = ChatMatcher.register(
+            "tradeMarket/price",
+            Pattern.compile("^§6Type the price in emeralds or type 'cancel' to cancel:$"),
+            ChatPattern.Target.CODED,
+            ChatPattern.Mode.MATCHES);
     private static final Pattern TRADE_MARKET_PATTERN = Pattern.compile("^What would you like to sell\\?$");
-    private static final Pattern CANCELLED_PATTERN = Pattern.compile("^You moved and your chat input was canceled.$");
+    private static final ChatPattern CANCELLED_PATTERN = ChatMatcher.register(
+            "tradeMarket/cancelled",
+            Pattern.compile("^You moved and your chat input was canceled.$"),
+            ChatPattern.Target.CODED,
+            ChatPattern.Mode.MATCHES);
 
     private boolean shouldConvert = false;
 
     @SubscribeEvent
     public void onChatMessageReceive(ChatMessageReceivedEvent event) {
-        if (PRICE_PATTERN.matcher(event.getOriginalCodedMessage()).matches()) {
+        if (event.getOriginalMatch(PRICE_PATTERN) != null) {
             shouldConvert = true;
         }
-        if (CANCELLED_PATTERN.matcher(event.getOriginalCodedMessage()).matches()) {
+        if (event.getOriginalMatch(CANCELLED_PATTERN) != null) {
             shouldConvert = false;
         }
     }
@@ -46,6 +46,9 @@ public class TranslationFeature extends UserFeature {
     @Config
     public TranslationModel.TranslationServices translationService = TranslationModel.TranslationServices.GOOGLEAPI;
 
+    @Config
+    public int cachedTranslations = 1000;
+
     @Override
     public List<Class<? extends Model>> getModelDependencies() {
         return List.of(TranslationModel.class);
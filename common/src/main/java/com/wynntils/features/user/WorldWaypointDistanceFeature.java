@@ -105,7 +105,7 @@ public class WorldWaypointDistanceFeature extends UserFeature {
                 || screenCoord == null
                 || (maxWaypointTextDistance != 0 && maxWaypointTextDistance < distance)) return;
 
-        float backgroundWidth = FontRenderer.getInstance().getFont().width(distanceText);
+        float backgroundWidth = FontRenderer.getInstance().getTextWidth(distanceText);
         float backgroundHeight = FontRenderer.getInstance().getFont().lineHeight;
 
         float displayPositionX;
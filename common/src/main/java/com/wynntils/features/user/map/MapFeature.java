@@ -6,6 +6,7 @@ package com.wynntils.features.user.map;
 
 import com.google.common.reflect.TypeToken;
 import com.wynntils.core.config.Config;
+import com.wynntils.core.config.ConfigHolder;
 import com.wynntils.core.config.ConfigManager;
 import com.wynntils.core.config.TypeOverride;
 import com.wynntils.core.features.UserFeature;
@@ -107,6 +108,25 @@ public class MapFeature extends UserFeature {
         return List.of(MapModel.class);
     }
 
+    @Override
+    protected void onConfigUpdate(ConfigHolder configHolder) {
+        if (configHolder.getFieldName().equals("customPois")) {
+            MapModel.setCustomPois(customPois);
+        }
+    }
+
+    /** Custom POIs must be added and removed through these, to keep them indexed for rendering */
+    public void addCustomPoi(CustomPoi poi) {
+        customPois.add(poi);
+        MapModel.addCustomPoi(poi);
+    }
+
+    public void removeCustomPoi(CustomPoi poi) {
+        if (customPois.remove(poi)) {
+            MapModel.removeCustomPoi(poi);
+        }
+    }
+
     @SubscribeEvent
     public void onRightClick(PlayerInteractEvent.RightClickBlock event) {
         if (!autoWaypointChests) return;
@@ -135,7 +155,7 @@ public class MapFeature extends UserFeature {
                 location, tier.getWaypointName(), CommonColors.WHITE, tier.getWaypointTexture(), Integer.MIN_VALUE);
 
         if (MapFeature.INSTANCE.customPois.stream().noneMatch(customPoi -> customPoi.equals(newPoi))) {
-            MapFeature.INSTANCE.customPois.add(newPoi);
+            MapFeature.INSTANCE.addCustomPoi(newPoi);
 
             // TODO: Replace this notification with a popup
             NotificationManager.queueMessage(new TextComponent("Added new waypoint for " + tier.getWaypointName())
@@ -35,7 +35,6 @@ import com.wynntils.utils.MathUtils;
 import com.wynntils.utils.StringUtils;
 import com.wynntils.wynn.model.CompassModel;
 import com.wynntils.wynn.model.map.MapModel;
-import com.wynntils.wynn.model.map.MapTexture;
 import com.wynntils.wynn.model.map.poi.PlayerMiniMapPoi;
 import com.wynntils.wynn.model.map.poi.Poi;
 import com.wynntils.wynn.model.map.poi.WaypointPoi;
@@ -166,22 +165,16 @@ public class MinimapFeature extends UserFeature {
                 }
             }
 
-            List<MapTexture> maps = MapModel.getMapsForBoundingBox(textureBoundingBox);
-            for (MapTexture map : maps) {
-                float textureX = map.getTextureXPosition(playerX);
-                float textureZ = map.getTextureZPosition(playerZ);
-                MapRenderer.renderMapQuad(
-                        map,
-                        poseStack,
-                        centerX,
-                        centerZ,
-                        textureX,
-                        textureZ,
-                        width * extraFactor,
-                        height * extraFactor,
-                        this.scale,
-                        this.renderUsingLinear);
-            }
+            MapRenderer.renderMapTiles(
+                    poseStack,
+                    centerX,
+                    centerZ,
+                    (float) playerX,
+                    (float) playerZ,
+                    width * extraFactor,
+                    height * extraFactor,
+                    this.scale,
+                    this.renderUsingLinear);
 
             // disable rotation if necessary
             if (followPlayerRotation) {
@@ -249,8 +242,9 @@ public class MinimapFeature extends UserFeature {
 
             float currentZoom = 1f / scale;
 
-            List<Poi> poisToRender = new ArrayList<>(MapModel.getServicePois());
-            poisToRender.addAll(MapFeature.INSTANCE.customPois);
+            List<Poi> poisToRender = new ArrayList<>();
+            MapModel.getPoisInBoundingBox(
+                    textureBoundingBox, MapModel.POI_QUERY_MARGIN * poiScale, false, poisToRender);
             List<PlayerMiniMapPoi> playerPois = HadesUserModel.getHadesUserMap().values().stream()
                     .filter(user -> (user.isPartyMember() && renderRemotePartyPlayers)
                             || (user.isMutualFriend() && renderRemoteFriendPlayers))
@@ -260,6 +254,7 @@ public class MinimapFeature extends UserFeature {
                     .toList();
             poisToRender.addAll(playerPois);
 
+            int drawn = 0;
             for (Poi poi : poisToRender) {
                 float dX = (poi.getLocation().getX() - (float) playerX) / scale;
                 float dZ = (poi.getLocation().getZ() - (float) playerZ) / scale;
@@ -282,9 +277,12 @@ public class MinimapFeature extends UserFeature {
 
                 if (box.intersects(textureBoundingBox)) {
                     poi.renderAt(poseStack, poiRenderX, poiRenderZ, false, poiScale, currentZoom);
+                    drawn++;
                 }
             }
 
+            MapModel.recordMinimapPoiStats(poisToRender.size(), drawn);
+
             // Compass icon
             Optional<WaypointPoi> compassOpt = CompassModel.getCompassWaypoint();
 
@@ -355,7 +353,7 @@ public class MinimapFeature extends UserFeature {
             Font font = fontRenderer.getFont();
 
             String text = StringUtils.integerToShortString(Math.round(distance * scale)) + "m";
-            float w = font.width(text) / 2f, h = font.lineHeight / 2f;
+            float w = fontRenderer.getTextWidth(text) / 2f, h = font.lineHeight / 2f;
 
             RenderUtils.drawRect(
                     poseStack,
@@ -73,25 +73,31 @@ public class CustomBarsOverlayFeature extends UserFeature {
         }
     }
 
-    @OverlayInfo(renderType = RenderEvent.ElementType.HealthBar, renderAt = OverlayInfo.RenderState.Replace)
+    @OverlayInfo(
+            renderType = RenderEvent.ElementType.HealthBar,
+            renderAt = OverlayInfo.RenderState.Replace,
+            batched = true)
     private final HealthBarOverlay healthBarOverlay = new HealthBarOverlay();
 
-    @OverlayInfo(renderType = RenderEvent.ElementType.GUI)
+    @OverlayInfo(renderType = RenderEvent.ElementType.GUI, batched = true)
     private final BloodPoolBarOverlay bloodPoolBarOverlay = new BloodPoolBarOverlay();
 
-    @OverlayInfo(renderType = RenderEvent.ElementType.FoodBar, renderAt = OverlayInfo.RenderState.Replace)
+    @OverlayInfo(
+            renderType = RenderEvent.ElementType.FoodBar,
+            renderAt = OverlayInfo.RenderState.Replace,
+            batched = true)
     private final ManaBarOverlay manaBarOverlay = new ManaBarOverlay();
 
-    @OverlayInfo(renderType = RenderEvent.ElementType.GUI)
+    @OverlayInfo(renderType = RenderEvent.ElementType.GUI, batched = true)
     private final ManaBankBarOverlay manaBankBarOverlay = new ManaBankBarOverlay();
 
-    @OverlayInfo(renderType = RenderEvent.ElementType.GUI)
+    @OverlayInfo(renderType = RenderEvent.ElementType.GUI, batched = true)
     private final FocusBarOverlay focusBarOverlay = new FocusBarOverlay();
 
-    @OverlayInfo(renderType = RenderEvent.ElementType.GUI)
+    @OverlayInfo(renderType = RenderEvent.ElementType.GUI, batched = true)
     private final AwakenedProgressBarOverlay awakenedProgressBarOverlay = new AwakenedProgressBarOverlay();
 
-    @OverlayInfo(renderType = RenderEvent.ElementType.GUI)
+    @OverlayInfo(renderType = RenderEvent.ElementType.GUI, batched = true)
     private final CorruptedBarOverlay corruptedBarOverlay = new CorruptedBarOverlay();
 
     public abstract static class BaseBarOverlay extends Overlay {
@@ -17,8 +17,10 @@ import com.wynntils.core.features.properties.FeatureCategory;
 import com.wynntils.core.features.properties.FeatureInfo;
 import com.wynntils.core.functions.Function;
 import com.wynntils.core.functions.FunctionManager;
+import com.wynntils.core.functions.FunctionTemplate;
 import com.wynntils.gui.render.FontRenderer;
 import com.wynntils.gui.render.HorizontalAlignment;
+import com.wynntils.gui.render.TextRenderTask;
 import com.wynntils.gui.render.VerticalAlignment;
 import com.wynntils.mc.event.RenderEvent;
 import com.wynntils.mc.objects.CommonColors;
@@ -30,25 +32,27 @@ import net.minecraft.client.resources.language.I18n;
 @FeatureInfo(category = FeatureCategory.OVERLAYS)
 public class InfoBoxFeature extends UserFeature {
 
-    @OverlayInfo(renderType = RenderEvent.ElementType.GUI, renderAt = OverlayInfo.RenderState.Pre)
+    @OverlayInfo(renderType = RenderEvent.ElementType.GUI, renderAt = OverlayInfo.RenderState.Pre, batched = true)
     private final Overlay infoBox1Overlay = new InfoBoxOverlay(1);
 
-    @OverlayInfo(renderType = RenderEvent.ElementType.GUI, renderAt = OverlayInfo.RenderState.Pre)
+    @OverlayInfo(renderType = RenderEvent.ElementType.GUI, renderAt = OverlayInfo.RenderState.Pre, batched = true)
     private final Overlay infoBox2Overlay = new InfoBoxOverlay(2);
 
-    @OverlayInfo(renderType = RenderEvent.ElementType.GUI, renderAt = OverlayInfo.RenderState.Pre)
+    @OverlayInfo(renderType = RenderEvent.ElementType.GUI, renderAt = OverlayInfo.RenderState.Pre, batched = true)
     private final Overlay infoBox3Overlay = new InfoBoxOverlay(3);
 
-    @OverlayInfo(renderType = RenderEvent.ElementType.GUI, renderAt = OverlayInfo.RenderState.Pre)
+    @OverlayInfo(renderType = RenderEvent.ElementType.GUI, renderAt = OverlayInfo.RenderState.Pre, batched = true)
     private final Overlay infoBox4Overlay = new InfoBoxOverlay(4);
 
-    @OverlayInfo(renderType = RenderEvent.ElementType.GUI, renderAt = OverlayInfo.RenderState.Pre)
+    @OverlayInfo(renderType = RenderEvent.ElementType.GUI, renderAt = OverlayInfo.RenderState.Pre, batched = true)
     private final Overlay infoBox5Overlay = new InfoBoxOverlay(5);
 
-    @OverlayInfo(renderType = RenderEvent.ElementType.GUI, renderAt = OverlayInfo.RenderState.Pre)
+    @OverlayInfo(renderType = RenderEvent.ElementType.GUI, renderAt = OverlayInfo.RenderState.Pre, batched = true)
     private final Overlay infoBox6Overlay = new InfoBoxOverlay(6);
 
     public static class InfoBoxOverlay extends Overlay {
+        private static final String PREVIEW_TEMPLATE = "&cX: %x%, &9Y: %y%, &aZ: %z%";
+
         @Config
         public FontRenderer.TextShadow textShadow = FontRenderer.TextShadow.OUTLINE;
 
@@ -60,8 +64,10 @@ public class InfoBoxFeature extends UserFeature {
 
         private final int id;
         private final List<Function<?>> functionDependencies = new ArrayList<>();
-        private String[] cachedLines;
+        private FunctionTemplate template = null;
         private long lastUpdate = 0;
+        private boolean wasOnWorld = false;
+        private boolean fitsBounds = false;
 
         protected InfoBoxOverlay(int id) {
             super(
@@ -78,21 +84,64 @@ public class InfoBoxFeature extends UserFeature {
         }
 
         @Override
-        public void render(PoseStack poseStack, float partialTicks, Window window) {
-            if (!WynnUtils.onWorld()) return;
+        public boolean isCacheable() {
+            return fitsBounds;
+        }
+
+        @Override
+        protected void updateState() {
+            boolean onWorld = WynnUtils.onWorld();
+            if (onWorld != wasOnWorld) {
+                wasOnWorld = onWorld;
+                markDirty();
+            }
+            if (!onWorld) return;
+
+            if (template == null || !template.getSource().equals(content)) {
+                if (template != null) {
+                    template.unwatch();
+                }
+
+                // Compiled only when the content changes, and only updated when a function value changed
+                template = FunctionTemplate.compileLegacy(content);
+                template.watch();
+                lastUpdate = 0;
+                markDirty();
+            }
 
             if (System.nanoTime() - lastUpdate > secondsPerRecalculation * 1e+9) {
                 lastUpdate = System.nanoTime();
-                cachedLines = FunctionManager.getLinesFromLegacyTemplate(content);
+                if (template.update()) {
+                    markDirty();
+                }
+            }
+
+            if (isDirty()) {
+                fitsBounds = fitsBounds();
+            }
+        }
+
+        @Override
+        protected void onDisable() {
+            // Stop updating the watched functions, the template is compiled again when the overlay is enabled
+            if (template != null) {
+                template.unwatch();
+                template = null;
             }
+            fitsBounds = false;
+        }
+
+        @Override
+        public void render(PoseStack poseStack, float partialTicks, Window window) {
+            if (!WynnUtils.onWorld() || template == null) return;
 
             float renderX = this.getRenderX();
             float renderY = this.getRenderY();
-            for (String line : cachedLines) {
+            for (TextRenderTask task : template.getTasks()) {
                 FontRenderer.getInstance()
                         .renderAlignedTextInBox(
                                 poseStack,
-                                line,
+                                task.getText(),
                                 renderX,
                                 renderX + this.getWidth(),
                                 renderY,
@@ -107,14 +156,23 @@ public class InfoBoxFeature extends UserFeature {
             }
         }
 
+        // Further lines, and text wider or taller than the box, are drawn outside of the bounds and can not be cached
+        private boolean fitsBounds() {
+            List<TextRenderTask> tasks = template.getTasks();
+            if (tasks.size() > 1) return false;
+            if (tasks.isEmpty()) return true;
+
+            FontRenderer fontRenderer = FontRenderer.getInstance();
+            return this.getHeight() >= fontRenderer.getFont().lineHeight
+                    && fontRenderer.getTextWidth(tasks.get(0).getText()) <= this.getWidth();
+        }
+
         @Override
         public void renderPreview(PoseStack poseStack, float partialTicks, Window window) {
             if (!WynnUtils.onWorld()) return;
 
-            // FIXME: We do re-calculate this on render, but this is preview only, and fixing this would need a lot of
-            //        architectural changes at the moment
-
-            String line = FunctionManager.getLinesFromLegacyTemplate("&cX: %x%, &9Y: %y%, &aZ: %z%")[0];
+            // The template is compiled once and shared, only the values are fetched on render
+            String line = FunctionManager.getLinesFromLegacyTemplate(PREVIEW_TEMPLATE)[0];
 
             float renderX = this.getRenderX();
             float renderY = this.getRenderY();
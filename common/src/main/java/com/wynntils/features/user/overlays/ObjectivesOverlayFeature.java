@@ -61,10 +61,10 @@ public class ObjectivesOverlayFeature extends UserFeature {
         }
     }
 
-    @OverlayInfo(renderType = RenderEvent.ElementType.GUI)
+    @OverlayInfo(renderType = RenderEvent.ElementType.GUI, batched = true)
     public final Overlay guildObjectiveOverlay = new GuildObjectiveOverlay();
 
-    @OverlayInfo(renderType = RenderEvent.ElementType.GUI)
+    @OverlayInfo(renderType = RenderEvent.ElementType.GUI, batched = true)
     public final Overlay dailyObjectiveOverlay = new DailyObjectiveOverlay();
 
     public static class GuildObjectiveOverlay extends ObjectiveOverlayBase {
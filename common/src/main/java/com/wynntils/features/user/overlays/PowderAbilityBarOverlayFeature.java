@@ -33,7 +33,7 @@ import java.util.List;
 
 @FeatureInfo(category = FeatureCategory.OVERLAYS)
 public class PowderAbilityBarOverlayFeature extends UserFeature {
-    @OverlayInfo(renderType = RenderEvent.ElementType.GUI)
+    @OverlayInfo(renderType = RenderEvent.ElementType.GUI, batched = true)
     private final Overlay powderAbilityBarOverlay = new PowderAbilityBarOverlay();
 
     @Override
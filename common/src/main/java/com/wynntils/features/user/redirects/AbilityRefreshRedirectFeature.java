@@ -4,23 +4,27 @@
  */
 package com.wynntils.features.user.redirects;
 
+import com.wynntils.core.chat.ChatMatcher;
 import com.wynntils.core.chat.ChatModel;
+import com.wynntils.core.chat.ChatPattern;
 import com.wynntils.core.features.UserFeature;
 import com.wynntils.core.features.properties.FeatureCategory;
 import com.wynntils.core.features.properties.FeatureInfo;
 import com.wynntils.core.managers.Model;
 import com.wynntils.core.notifications.NotificationManager;
-import com.wynntils.mc.utils.ComponentUtils;
 import com.wynntils.wynn.event.ChatMessageReceivedEvent;
 import java.util.List;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import net.minecraftforge.eventbus.api.EventPriority;
 import net.minecraftforge.eventbus.api.SubscribeEvent;
 
 @FeatureInfo(category = FeatureCategory.REDIRECTS)
 public class AbilityRefreshRedirectFeature extends UserFeature {
-    private static final Pattern REFRESH_PATTERN = Pattern.compile("\\[⬤\\] (.+) has been refreshed!");
+    private static final ChatPattern REFRESH_PATTERN = ChatMatcher.register(
+            "redirect/abilityRefresh",
+            Pattern.compile("\\[⬤\\] (.+) has been refreshed!"),
+            ChatPattern.Target.UNFORMATTED,
+            ChatPattern.Mode.MATCHES);
 
     @Override
     public List<Class<? extends Model>> getModelDependencies() {
@@ -29,8 +33,7 @@ public class AbilityRefreshRedirectFeature extends UserFeature {
 
     @SubscribeEvent(priority = EventPriority.HIGHEST)
     public void onChat(ChatMessageReceivedEvent event) {
-        Matcher matcher = REFRESH_PATTERN.matcher(ComponentUtils.stripFormatting(event.getOriginalCodedMessage()));
-        if (matcher.matches()) {
+        if (event.getOriginalMatch(REFRESH_PATTERN) != null) {
             event.setCanceled(true);
 
             NotificationManager.queueMessage(event.getOriginalMessage());
@@ -4,7 +4,9 @@
  */
 package com.wynntils.features.user.redirects;
 
+import com.wynntils.core.chat.ChatMatcher;
 import com.wynntils.core.chat.ChatModel;
+import com.wynntils.core.chat.ChatPattern;
 import com.wynntils.core.features.UserFeature;
 import com.wynntils.core.features.properties.FeatureCategory;
 import com.wynntils.core.features.properties.FeatureInfo;
@@ -25,8 +27,12 @@ import net.minecraftforge.eventbus.api.SubscribeEvent;
 
 @FeatureInfo(category = FeatureCategory.REDIRECTS)
 public class BlacksmithRedirectFeature extends UserFeature {
-    private static final Pattern BLACKSMITH_MESSAGE_PATTERN = Pattern.compile(
-            "§5Blacksmith: §r§dYou (.+): (.+) for a total of §r§e(\\d+)§r§d (emeralds|scrap). It was a pleasure doing business with you.");
+    private static final ChatPattern BLACKSMITH_MESSAGE_PATTERN = ChatMatcher.register(
+            "redirect/blacksmith",
+            Pattern.compile(
+                    "§5Blacksmith: §r§dYou (.+): (.+) for a total of §r§e(\\d+)§r§d (emeralds|scrap). It was a pleasure doing business with you."),
+            ChatPattern.Target.CODED,
+            ChatPattern.Mode.MATCHES);
     private static final Pattern ITEM_PATTERN = Pattern.compile("§r§([fedacb53])([A-Z][a-zA-Z\\s]+)");
 
     @Override
@@ -36,8 +42,8 @@ public class BlacksmithRedirectFeature extends UserFeature {
 
     @SubscribeEvent(priority = EventPriority.HIGH)
     public void onChat(ChatMessageReceivedEvent event) {
-        Matcher messageMatcher = BLACKSMITH_MESSAGE_PATTERN.matcher(event.getOriginalCodedMessage());
-        if (!messageMatcher.matches()) return;
+        Matcher messageMatcher = event.getOriginalMatch(BLACKSMITH_MESSAGE_PATTERN);
+        if (messageMatcher == null) return;
         event.setCanceled(true);
 
         EnumMap<ItemTier, Integer> totalItems = new EnumMap<>(ItemTier.class);
@@ -4,17 +4,20 @@
  */
 package com.wynntils.features.user.redirects;
 
+import com.wynntils.core.chat.ChatMatcher;
+import com.wynntils.core.chat.ChatPattern;
 import com.wynntils.core.chat.MessageType;
 import com.wynntils.core.chat.RecipientType;
 import com.wynntils.core.config.Config;
 import com.wynntils.core.features.UserFeature;
 import com.wynntils.core.features.properties.FeatureInfo;
 import com.wynntils.core.notifications.NotificationManager;
-import com.wynntils.mc.utils.ComponentUtils;
 import com.wynntils.wynn.event.ChatMessageReceivedEvent;
 import com.wynntils.wynn.utils.WynnPlayerUtils;
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import net.minecraft.ChatFormatting;
@@ -58,7 +61,7 @@ public class ChatRedirectFeature extends UserFeature {
     @Config
     public RedirectAction unusedPoints = RedirectAction.REDIRECT;
 
-    private final List<Redirector> redirectors = new ArrayList<>();
+    private final List<RegisteredRedirector> redirectors = new ArrayList<>();
 
     public ChatRedirectFeature() {
         register(new CraftedDurabilityRedirector());
@@ -83,32 +86,50 @@ public class ChatRedirectFeature extends UserFeature {
     }
 
     private void register(Redirector redirector) {
-        redirectors.add(redirector);
+        String name = "redirect/" + redirector.getClass().getSimpleName();
+
+        Map<MessageType, ChatPattern> patterns = new EnumMap<>(MessageType.class);
+        for (MessageType messageType : MessageType.values()) {
+            Pattern pattern = redirector.getPattern(messageType);
+            if (pattern != null) {
+                patterns.put(
+                        messageType,
+                        ChatMatcher.register(
+                                name + "/" + messageType, pattern, ChatPattern.Target.CODED, ChatPattern.Mode.FIND));
+            }
+        }
+
+        Pattern uncoloredPattern = redirector.getUncoloredSystemPattern();
+        ChatPattern uncoloredSystemPattern = uncoloredPattern == null
+                ? null
+                : ChatMatcher.register(
+                        name + "/uncolored", uncoloredPattern, ChatPattern.Target.UNFORMATTED, ChatPattern.Mode.FIND);
+
+        redirectors.add(new RegisteredRedirector(redirector, patterns, uncoloredSystemPattern));
     }
 
     @SubscribeEvent
     public void onChatMessage(ChatMessageReceivedEvent e) {
         if (e.getRecipientType() != RecipientType.INFO) return;
 
-        String message = e.getOriginalCodedMessage();
         MessageType messageType = e.getMessageType();
 
-        for (Redirector redirector : redirectors) {
+        for (RegisteredRedirector registered : redirectors) {
+            Redirector redirector = registered.redirector();
             RedirectAction action = redirector.getAction();
             if (action == RedirectAction.KEEP) continue;
 
-            Matcher matcher;
-            Pattern pattern = redirector.getPattern(messageType);
+            ChatPattern pattern;
             // Ideally we will get rid of those "uncolored" patterns
-            Pattern uncoloredPattern = redirector.getUncoloredSystemPattern();
-            if (messageType == MessageType.SYSTEM && uncoloredPattern != null) {
-                matcher = uncoloredPattern.matcher(ComponentUtils.stripFormatting(message));
+            if (messageType == MessageType.SYSTEM && registered.uncoloredSystemPattern() != null) {
+                pattern = registered.uncoloredSystemPattern();
             } else {
+                pattern = registered.patterns().get(messageType);
                 if (pattern == null) continue;
-                matcher = pattern.matcher(message);
             }
 
-            if (matcher.find()) {
+            Matcher matcher = e.getOriginalMatch(pattern);
+            if (matcher != null) {
                 e.setCanceled(true);
                 if (redirector.getAction() == RedirectAction.HIDE) continue;
 
@@ -119,6 +140,9 @@ public class ChatRedirectFeature extends UserFeature {
         }
     }
 
+    private record RegisteredRedirector(
+            Redirector redirector, Map<MessageType, ChatPattern> patterns, ChatPattern uncoloredSystemPattern) {}
+
     public enum RedirectAction {
         KEEP,
         HIDE,
@@ -4,6 +4,8 @@
  */
 package com.wynntils.features.user.redirects;
 
+import com.wynntils.core.chat.ChatMatcher;
+import com.wynntils.core.chat.ChatPattern;
 import com.wynntils.core.features.UserFeature;
 import com.wynntils.core.features.properties.FeatureCategory;
 import com.wynntils.core.features.properties.FeatureInfo;
@@ -19,6 +21,8 @@ import org.apache.commons.lang3.StringUtils;
 @FeatureInfo(category = FeatureCategory.REDIRECTS)
 public class TerritoryMessageRedirectFeature extends UserFeature {
     private static final Pattern TERRITORY_MESSAGE_PATTERN = Pattern.compile("§7\\[You are now (\\S+) (.+)\\]");
+    private static final ChatPattern TERRITORY_CHAT_PATTERN = ChatMatcher.register(
+            "redirect/territory", TERRITORY_MESSAGE_PATTERN, ChatPattern.Target.CODED, ChatPattern.Mode.MATCHES);
 
     // Handles the subtitle text event.
     @SubscribeEvent
@@ -56,6 +60,6 @@ public class TerritoryMessageRedirectFeature extends UserFeature {
     // text event.
     @SubscribeEvent
     public void onChat(ChatMessageReceivedEvent event) {
-        if (TERRITORY_MESSAGE_PATTERN.matcher(event.getOriginalCodedMessage()).matches()) event.setCanceled(true);
+        if (event.getOriginalMatch(TERRITORY_CHAT_PATTERN) != null) event.setCanceled(true);
     }
 }
@@ -6,11 +6,13 @@ package com.wynntils.features.user.tooltips;
 
 import com.google.common.collect.ImmutableList;
 import com.wynntils.core.config.Config;
+import com.wynntils.core.config.ConfigHolder;
 import com.wynntils.core.features.UserFeature;
 import com.wynntils.core.features.properties.FeatureCategory;
 import com.wynntils.core.features.properties.FeatureInfo;
 import com.wynntils.core.features.properties.FeatureInfo.Stability;
 import com.wynntils.core.managers.Model;
+import com.wynntils.wynn.item.GearParseCache;
 import com.wynntils.wynn.item.ItemStackTransformModel;
 import java.util.List;
 
@@ -50,6 +52,12 @@ public class ItemStatInfoFeature extends UserFeature {
         conditions.add(new WebLoadedCondition());
     }
 
+    @Override
+    protected void onConfigUpdate(ConfigHolder configHolder) {
+        // The cached tooltips are built with the old settings
+        GearParseCache.clear();
+    }
+
     @Override
     public List<Class<? extends Model>> getModelDependencies() {
         return List.of(ItemStackTransformModel.class);
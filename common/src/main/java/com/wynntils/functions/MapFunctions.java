@@ -0,0 +1,28 @@
+/*
+ * Copyright © Wynntils 2022.
+ * This file is released under AGPLv3. See LICENSE for full license details.
+ */
+package com.wynntils.functions;
+
+import com.wynntils.core.functions.Function;
+import com.wynntils.wynn.model.map.MapModel;
+
+public class MapFunctions {
+    public static class MapPoisTestedFunction extends Function<Integer> {
+        @Override
+        public Integer getValue(String argument) {
+            return getPoiStats(argument).tested();
+        }
+    }
+
+    public static class MapPoisDrawnFunction extends Function<Integer> {
+        @Override
+        public Integer getValue(String argument) {
+            return getPoiStats(argument).drawn();
+        }
+    }
+
+    private static MapModel.PoiStats getPoiStats(String argument) {
+        return "minimap".equalsIgnoreCase(argument) ? MapModel.getMinimapPoiStats() : MapModel.getMainMapPoiStats();
+    }
+}
@@ -5,6 +5,7 @@
 package com.wynntils.functions;
 
 import com.wynntils.core.functions.Function;
+import com.wynntils.gui.render.RenderBatcher;
 import com.wynntils.mc.mixin.accessors.MinecraftAccessor;
 import com.wynntils.mc.utils.McUtils;
 
@@ -43,4 +44,11 @@ public class MinecraftFunctions {
             return MinecraftAccessor.getFps();
         }
     }
+
+    public static class DrawCallsFunction extends Function<Integer> {
+        @Override
+        public Integer getValue(String argument) {
+            return RenderBatcher.getLastFrameDrawCalls();
+        }
+    }
 }
@@ -13,11 +13,11 @@ import net.minecraft.client.renderer.RenderType;
 
 public class CustomRenderType extends RenderType {
     // Copied from RenderType.LINE_STRIP and changed the line width from the default
-    // to 3
+    // to 3. Uses separate line segments, so a whole chunk of a lootrun can be baked into one buffer.
     public static final RenderType LOOTRUN_LINE = RenderType.create(
             "lootrun",
             DefaultVertexFormat.POSITION_COLOR_NORMAL,
-            Mode.LINE_STRIP,
+            Mode.LINES,
             256,
             false,
             false,
@@ -8,12 +8,9 @@ import com.mojang.blaze3d.vertex.PoseStack;
 import com.wynntils.mc.mixin.accessors.MinecraftAccessor;
 import com.wynntils.mc.objects.CommonColors;
 import com.wynntils.mc.objects.CustomColor;
-import com.wynntils.mc.utils.ComponentUtils;
 import com.wynntils.mc.utils.McUtils;
 import java.util.List;
 import net.minecraft.client.gui.Font;
-import net.minecraft.network.chat.FormattedText;
-import net.minecraft.network.chat.Style;
 
 public final class FontRenderer {
     private static final FontRenderer INSTANCE = new FontRenderer();
@@ -34,6 +31,15 @@ public final class FontRenderer {
         return font;
     }
 
+    /** @return the width of the text, which is only measured again when it was not rendered recently */
+    public int getTextWidth(String text) {
+        return getLayout(text, 0).getWidth();
+    }
+
+    private TextLayoutCache.TextLayout getLayout(String text, float maxWidth) {
+        return TextLayoutCache.get(font, text, (int) maxWidth);
+    }
+
     public void renderText(
             PoseStack poseStack,
             String text,
@@ -49,12 +55,16 @@ public final class FontRenderer {
 
         if (text == null) return;
 
+        // Text is drawn by the vanilla font renderer, so anything batched so far has to be drawn below it
+        RenderBatcher.flush();
+
         // TODO: Add rainbow color support
 
+        TextLayoutCache.TextLayout layout = getLayout(text, 0);
         renderX = switch (horizontalAlignment) {
             case Left -> x;
-            case Center -> x - (font.width(text) / 2f * textScale);
-            case Right -> x - font.width(text) * textScale;};
+            case Center -> x - (layout.getWidth() / 2f * textScale);
+            case Right -> x - layout.getWidth() * textScale;};
 
         renderY = switch (verticalAlignment) {
             case Top -> y;
@@ -68,7 +78,7 @@ public final class FontRenderer {
         switch (shadow) {
             case OUTLINE -> {
                 int shadowColor = SHADOW_COLOR.withAlpha(customColor.a).asInt();
-                String strippedText = ComponentUtils.stripColorFormatting(text);
+                String strippedText = layout.getStrippedText();
 
                 // draw outline behind text
                 font.draw(poseStack, strippedText, 1, 0, shadowColor);
@@ -232,22 +242,17 @@ public final class FontRenderer {
             float textScale) {
         if (text == null) return;
 
-        if (maxWidth == 0 || font.width(text) < maxWidth) {
+        TextLayoutCache.TextLayout layout = getLayout(text, maxWidth);
+        if (maxWidth == 0 || layout.getWidth() < maxWidth) {
             renderText(poseStack, text, x, y, customColor, horizontalAlignment, verticalAlignment, shadow, textScale);
             return;
         }
 
-        List<FormattedText> parts = font.getSplitter().splitLines(text, (int) maxWidth, Style.EMPTY);
-
-        String lastPart = "";
-        for (int i = 0; i < parts.size(); i++) {
-            // copy the format codes to this part as well
-            String part =
-                    ComponentUtils.getLastPartCodes(lastPart) + parts.get(i).getString();
-            lastPart = part;
+        List<String> lines = layout.getLines();
+        for (int i = 0; i < lines.size(); i++) {
             renderText(
                     poseStack,
-                    part,
+                    lines.get(i),
                     x,
                     y + (i * font.lineHeight),
                     customColor,
@@ -342,8 +347,8 @@ public final class FontRenderer {
             if (textRenderTask.getSetting().maxWidth() == 0) {
                 height += font.lineHeight;
             } else {
-                height += font.wordWrapHeight(textRenderTask.getText(), (int)
-                        textRenderTask.getSetting().maxWidth());
+                height += calculateRenderHeight(
+                        textRenderTask.getText(), textRenderTask.getSetting().maxWidth());
             }
             totalLineCount++;
         }
@@ -355,15 +360,16 @@ public final class FontRenderer {
     }
 
     public float calculateRenderHeight(List<String> lines, float maxWidth) {
-        int sum = 0;
+        float sum = 0;
         for (String line : lines) {
-            sum += font.wordWrapHeight(line, (int) maxWidth);
+            sum += calculateRenderHeight(line, maxWidth);
         }
         return sum;
     }
 
     public float calculateRenderHeight(String line, float maxWidth) {
-        return font.wordWrapHeight(line, (int) maxWidth);
+        // The same as Font#wordWrapHeight, but with the lines split only once
+        return getLayout(line, maxWidth).getLines().size() * font.lineHeight;
     }
 
     public enum TextShadow {
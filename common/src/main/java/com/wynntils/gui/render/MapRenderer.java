@@ -15,26 +15,102 @@ import com.mojang.math.Matrix4f;
 import com.wynntils.features.user.map.PointerType;
 import com.wynntils.mc.objects.CustomColor;
 import com.wynntils.mc.utils.McUtils;
+import com.wynntils.utils.BoundingBox;
+import com.wynntils.wynn.model.map.MapModel;
 import com.wynntils.wynn.model.map.MapTexture;
+import com.wynntils.wynn.model.map.MapTile;
+import com.wynntils.wynn.model.map.MapTileCache;
 import com.wynntils.wynn.model.map.poi.Poi;
+import java.util.ArrayList;
+import java.util.List;
 import net.minecraft.client.renderer.GameRenderer;
+import net.minecraft.resources.ResourceLocation;
 import org.lwjgl.opengl.GL11;
-import org.lwjgl.opengl.GL13;
+import org.lwjgl.opengl.GL12;
 
 public final class MapRenderer {
     public static Poi hovered = null;
 
-    public static void renderMapQuad(
-            MapTexture map,
+    /**
+     * Renders the map tiles around a world location. The tile level is picked by the current scale, tiles
+     * which are not loaded yet are replaced by a coarser loaded level if possible.
+     *
+     * {@param centerX} center coordinates of the rendered area (screen render coordinates)
+     * {@param worldCenterX} center coordinates of the rendered area (in-game coordinates)
+     * {@param width} size of the rendered area (screen render coordinates)
+     * {@param scale} in-game blocks per rendered pixel
+     */
+    public static void renderMapTiles(
             PoseStack poseStack,
             float centerX,
             float centerZ,
-            float textureX,
-            float textureZ,
+            float worldCenterX,
+            float worldCenterZ,
             float width,
             float height,
             float scale,
             boolean renderUsingLinear) {
+        RenderBatcher.flush();
+        MapTileCache.uploadLoadedTiles();
+
+        BoundingBox worldBox = BoundingBox.centered(worldCenterX, worldCenterZ, width * scale, height * scale);
+
+        // Pick the level with about one texel per framebuffer pixel
+        float texelsPerPixel = scale / (float) McUtils.guiScale();
+        int wantedLevel = texelsPerPixel <= 1f ? 0 : (int) (Math.log(texelsPerPixel) / Math.log(2));
+
+        List<MapTile> tiles = new ArrayList<>();
+        for (MapTexture map : MapModel.getMapsForBoundingBox(worldBox)) {
+            int level = Math.min(wantedLevel, map.getLevelCount() - 1);
+
+            tiles.clear();
+            map.getTilesInBox(level, worldBox, tiles);
+            for (MapTile tile : tiles) {
+                MapTile renderedTile = tile;
+                ResourceLocation resource = MapTileCache.getOrLoad(tile);
+
+                // Show a blurrier version of the tile until it has been loaded. The next coarser tile covers
+                // four tiles and loads quickly, so it is loaded as well, even coarser ones are used if present
+                int coarserLevel = level + 1;
+                while (resource == null && coarserLevel < map.getLevelCount()) {
+                    renderedTile = map.getCoveringTile(tile, coarserLevel);
+                    resource = coarserLevel == level + 1
+                            ? MapTileCache.getOrLoad(renderedTile)
+                            : MapTileCache.getIfResident(renderedTile);
+                    coarserLevel++;
+                }
+
+                if (resource == null) continue;
+
+                BoundingBox area = intersection(intersection(worldBox, tile.getWorldBox()), renderedTile.getWorldBox());
+                if (area == null) continue;
+
+                renderTile(
+                        poseStack,
+                        renderedTile,
+                        resource,
+                        area,
+                        centerX,
+                        centerZ,
+                        worldCenterX,
+                        worldCenterZ,
+                        scale,
+                        renderUsingLinear);
+            }
+        }
+    }
+
+    private static void renderTile(
+            PoseStack poseStack,
+            MapTile tile,
+            ResourceLocation resource,
+            BoundingBox area,
+            float centerX,
+            float centerZ,
+            float worldCenterX,
+            float worldCenterZ,
+            float scale,
+            boolean renderUsingLinear) {
         RenderSystem.disableBlend();
 
         // has to be before setting shader texture
@@ -43,45 +119,49 @@ public final class MapRenderer {
         RenderSystem.texParameter(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MIN_FILTER, option);
 
         RenderSystem.setShader(GameRenderer::getPositionTexShader);
-        RenderSystem.setShaderTexture(0, map.resource());
+        RenderSystem.setShaderTexture(0, resource);
 
-        // clamp map rendering
+        // clamp to the tile edge, so neighbouring tiles do not show seams
         // has to be after setting shader texture
-        RenderSystem.texParameter(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_WRAP_T, GL13.GL_CLAMP_TO_BORDER);
-        RenderSystem.texParameter(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_WRAP_S, GL13.GL_CLAMP_TO_BORDER);
+        RenderSystem.texParameter(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_WRAP_T, GL12.GL_CLAMP_TO_EDGE);
+        RenderSystem.texParameter(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_WRAP_S, GL12.GL_CLAMP_TO_EDGE);
+
+        BoundingBox tileBox = tile.getWorldBox();
+        float uScale = 1f / (tileBox.x2 - tileBox.x1);
+        float vScale = 1f / (tileBox.z2 - tileBox.z1);
 
-        float uScale = 1f / map.getTextureWidth();
-        float vScale = 1f / map.getTextureHeight();
+        float u1 = (area.x1 - tileBox.x1) * uScale;
+        float u2 = (area.x2 - tileBox.x1) * uScale;
+        float v1 = (area.z1 - tileBox.z1) * vScale;
+        float v2 = (area.z2 - tileBox.z1) * vScale;
 
-        float halfRenderedWidth = width / 2f;
-        float halfRenderedHeight = height / 2f;
-        float halfTextureWidth = halfRenderedWidth * scale;
-        float halfTextureHeight = halfRenderedHeight * scale;
+        float renderX1 = centerX + (area.x1 - worldCenterX) / scale;
+        float renderX2 = centerX + (area.x2 - worldCenterX) / scale;
+        float renderZ1 = centerZ + (area.z1 - worldCenterZ) / scale;
+        float renderZ2 = centerZ + (area.z2 - worldCenterZ) / scale;
 
         Matrix4f matrix = poseStack.last().pose();
 
         BufferBuilder bufferBuilder = Tesselator.getInstance().getBuilder();
         bufferBuilder.begin(VertexFormat.Mode.QUADS, DefaultVertexFormat.POSITION_TEX);
-        bufferBuilder
-                .vertex(matrix, (centerX - halfRenderedWidth), (centerZ + halfRenderedHeight), 0)
-                .uv((textureX - halfTextureWidth) * uScale, (textureZ + halfTextureHeight) * vScale)
-                .endVertex();
-        bufferBuilder
-                .vertex(matrix, (centerX + halfRenderedWidth), (centerZ + halfRenderedHeight), 0)
-                .uv((textureX + halfTextureWidth) * uScale, (textureZ + halfTextureHeight) * vScale)
-                .endVertex();
-        bufferBuilder
-                .vertex(matrix, (centerX + halfRenderedWidth), (centerZ - halfRenderedHeight), 0)
-                .uv((textureX + halfTextureWidth) * uScale, (textureZ - halfTextureHeight) * vScale)
-                .endVertex();
-        bufferBuilder
-                .vertex(matrix, (centerX - halfRenderedWidth), (centerZ - halfRenderedHeight), 0)
-                .uv((textureX - halfTextureWidth) * uScale, (textureZ - halfTextureHeight) * vScale)
-                .endVertex();
+        bufferBuilder.vertex(matrix, renderX1, renderZ2, 0).uv(u1, v2).endVertex();
+        bufferBuilder.vertex(matrix, renderX2, renderZ2, 0).uv(u2, v2).endVertex();
+        bufferBuilder.vertex(matrix, renderX2, renderZ1, 0).uv(u2, v1).endVertex();
+        bufferBuilder.vertex(matrix, renderX1, renderZ1, 0).uv(u1, v1).endVertex();
         bufferBuilder.end();
         BufferUploader.end(bufferBuilder);
     }
 
+    private static BoundingBox intersection(BoundingBox first, BoundingBox second) {
+        if (first == null || !first.intersects(second)) return null;
+
+        return new BoundingBox(
+                Math.max(first.x1, second.x1),
+                Math.max(first.z1, second.z1),
+                Math.min(first.x2, second.x2),
+                Math.min(first.z2, second.z2));
+    }
+
     public static void renderCursor(
             PoseStack poseStack,
             float renderX,
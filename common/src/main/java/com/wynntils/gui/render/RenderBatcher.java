@@ -0,0 +1,181 @@
+/*
+ * Copyright © Wynntils 2022.
+ * This file is released under AGPLv3. See LICENSE for full license details.
+ */
+package com.wynntils.gui.render;
+
+import com.mojang.blaze3d.systems.RenderSystem;
+import com.mojang.blaze3d.vertex.BufferBuilder;
+import com.mojang.blaze3d.vertex.BufferUploader;
+import com.mojang.blaze3d.vertex.DefaultVertexFormat;
+import com.mojang.blaze3d.vertex.Tesselator;
+import com.mojang.blaze3d.vertex.VertexFormat;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.Supplier;
+import net.minecraft.client.renderer.GameRenderer;
+import net.minecraft.client.renderer.ShaderInstance;
+import net.minecraft.resources.ResourceLocation;
+
+/**
+ * Collects the quads drawn by {@link RenderUtils} while batching is active, and draws consecutive quads
+ * sharing the same shader, texture, blend mode and shader color with a single draw call. Quads are only
+ * merged with the directly preceding ones, so the drawing order is kept.
+ *
+ * <p>Anything drawn outside of RenderUtils must call {@link #flush()} first, as {@link FontRenderer} does.
+ * Code rendered while batching must not change render state directly. All methods must be called from
+ * the render thread.
+ */
+public final class RenderBatcher {
+    private static final BufferBuilder BATCH_BUFFER = new BufferBuilder(16384);
+
+    private static boolean batching = false;
+
+    // State of the quads currently in BATCH_BUFFER, null shader if it is empty
+    private static Shader batchShader = null;
+    private static ResourceLocation batchTexture = null;
+    private static Blend batchBlend = null;
+    private static float[] batchShaderColor = null;
+
+    private static int drawCalls = 0;
+    private static int lastFrameDrawCalls = 0;
+    private static int batchedQuads = 0;
+    private static int lastFrameBatchedQuads = 0;
+
+    private RenderBatcher() {}
+
+    public static void begin() {
+        batching = true;
+    }
+
+    public static void end() {
+        flush();
+        batching = false;
+    }
+
+    public static boolean isBatching() {
+        return batching;
+    }
+
+    /** Draws the quads collected so far */
+    public static void flush() {
+        if (batchShader == null) return;
+
+        float[] previousShaderColor = RenderSystem.getShaderColor().clone();
+        RenderSystem.setShaderColor(
+                batchShaderColor[0], batchShaderColor[1], batchShaderColor[2], batchShaderColor[3]);
+
+        applyState(batchShader, batchTexture, batchBlend);
+        BATCH_BUFFER.end();
+        BufferUploader.end(BATCH_BUFFER);
+        restoreState(batchBlend);
+
+        RenderSystem.setShaderColor(
+                previousShaderColor[0], previousShaderColor[1], previousShaderColor[2], previousShaderColor[3]);
+
+        batchShader = null;
+        batchTexture = null;
+        drawCalls++;
+    }
+
+    /** Called once at the start of each frame, to update the per frame counters */
+    public static void startFrame() {
+        lastFrameDrawCalls = drawCalls;
+        lastFrameBatchedQuads = batchedQuads;
+        drawCalls = 0;
+        batchedQuads = 0;
+    }
+
+    /** @return the number of draw calls issued by RenderUtils in the last frame */
+    public static int getLastFrameDrawCalls() {
+        return lastFrameDrawCalls;
+    }
+
+    /** @return the number of quads which were merged into a preceding draw call in the last frame */
+    public static int getLastFrameBatchedQuads() {
+        return lastFrameBatchedQuads;
+    }
+
+    /**
+     * Starts adding quads with the given state. Every call must be followed by {@link #endQuads(Blend)} once
+     * the vertices of the quads have been added to the returned builder.
+     */
+    static BufferBuilder beginQuads(Shader shader, ResourceLocation texture, Blend blend) {
+        if (!batching) {
+            applyState(shader, texture, blend);
+            BufferBuilder bufferBuilder = Tesselator.getInstance().getBuilder();
+            bufferBuilder.begin(VertexFormat.Mode.QUADS, shader.format);
+            return bufferBuilder;
+        }
+
+        float[] shaderColor = RenderSystem.getShaderColor();
+        if (shader == batchShader
+                && Objects.equals(texture, batchTexture)
+                && blend == batchBlend
+                && Arrays.equals(shaderColor, batchShaderColor)) {
+            batchedQuads++;
+            return BATCH_BUFFER;
+        }
+
+        flush();
+
+        batchShader = shader;
+        batchTexture = texture;
+        batchBlend = blend;
+        batchShaderColor = shaderColor.clone();
+        BATCH_BUFFER.begin(VertexFormat.Mode.QUADS, shader.format);
+        return BATCH_BUFFER;
+    }
+
+    static void endQuads(Blend blend) {
+        if (batching) return;
+
+        BufferBuilder bufferBuilder = Tesselator.getInstance().getBuilder();
+        bufferBuilder.end();
+        BufferUploader.end(bufferBuilder);
+        restoreState(blend);
+        drawCalls++;
+    }
+
+    private static void applyState(Shader shader, ResourceLocation texture, Blend blend) {
+        if (blend != Blend.KEEP) {
+            RenderSystem.enableBlend();
+            RenderSystem.defaultBlendFunc();
+        }
+
+        RenderSystem.setShader(shader.shader);
+        if (texture != null) {
+            RenderSystem.setShaderTexture(0, texture);
+        }
+    }
+
+    private static void restoreState(Blend blend) {
+        if (blend == Blend.ENABLE_THEN_DISABLE) {
+            RenderSystem.disableBlend();
+        }
+    }
+
+    enum Shader {
+        POSITION_COLOR(DefaultVertexFormat.POSITION_COLOR, GameRenderer::getPositionColorShader),
+        POSITION_TEX(DefaultVertexFormat.POSITION_TEX, GameRenderer::getPositionTexShader),
+        POSITION_TEX_COLOR(DefaultVertexFormat.POSITION_TEX_COLOR, GameRenderer::getPositionTexColorShader);
+
+        private final VertexFormat format;
+        private final Supplier<ShaderInstance> shader;
+
+        Shader(VertexFormat format, Supplier<ShaderInstance> shader) {
+            this.format = format;
+            this.shader = shader;
+        }
+    }
+
+    /** What a primitive does with the blend state, which has to be replicated when drawing it later */
+    enum Blend {
+        // Draw with whatever blend state is active
+        KEEP,
+        // Enable default blending, and leave it enabled
+        ENABLE,
+        // Enable default blending, and disable it again afterwards
+        ENABLE_THEN_DISABLE
+    }
+}
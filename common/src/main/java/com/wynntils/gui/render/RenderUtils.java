@@ -52,23 +52,19 @@ public final class RenderUtils {
     // number of possible segments for arc drawing
     private static final float MAX_CIRCLE_STEPS = 16f;
 
-    // See https://github.com/MinecraftForge/MinecraftForge/issues/8083 as to why this uses TRIANGLE_STRIPS.
+    // See https://github.com/MinecraftForge/MinecraftForge/issues/8083 as to why this doesn't use LINES.
     // TLDR: New OpenGL only supports TRIANGLES and Minecraft patched QUADS to be usable ATM, but LINES patch is broken
     // and you can't use it.
-    // (This also means that using QUADS is probably not the best idea)
+    // Lines are drawn as QUADS so they can be batched with other primitives, see RenderBatcher
     public static void drawLine(
             PoseStack poseStack, CustomColor color, float x1, float y1, float x2, float y2, float z, float width) {
         Matrix4f matrix = poseStack.last().pose();
 
-        RenderSystem.enableBlend();
-        RenderSystem.defaultBlendFunc();
-        RenderSystem.setShader(GameRenderer::getPositionColorShader);
-        BufferBuilder bufferBuilder = Tesselator.getInstance().getBuilder();
+        BufferBuilder bufferBuilder = RenderBatcher.beginQuads(
+                RenderBatcher.Shader.POSITION_COLOR, null, RenderBatcher.Blend.ENABLE_THEN_DISABLE);
 
         float halfWidth = width / 2;
 
-        bufferBuilder.begin(VertexFormat.Mode.TRIANGLE_STRIP, DefaultVertexFormat.POSITION_COLOR);
-
         if (x1 == x2) {
             if (y2 < y1) {
                 float tmp = y1;
@@ -84,11 +80,11 @@ public final class RenderUtils {
                     .color(color.r, color.g, color.b, color.a)
                     .endVertex();
             bufferBuilder
-                    .vertex(matrix, x1 + halfWidth, y1, z)
+                    .vertex(matrix, x2 + halfWidth, y2, z)
                     .color(color.r, color.g, color.b, color.a)
                     .endVertex();
             bufferBuilder
-                    .vertex(matrix, x2 + halfWidth, y2, z)
+                    .vertex(matrix, x1 + halfWidth, y1, z)
                     .color(color.r, color.g, color.b, color.a)
                     .endVertex();
         } else if (y1 == y2) {
@@ -107,11 +103,11 @@ public final class RenderUtils {
                     .color(color.r, color.g, color.b, color.a)
                     .endVertex();
             bufferBuilder
-                    .vertex(matrix, x2, y2 - halfWidth, z)
+                    .vertex(matrix, x2, y2 + halfWidth, z)
                     .color(color.r, color.g, color.b, color.a)
                     .endVertex();
             bufferBuilder
-                    .vertex(matrix, x2, y2 + halfWidth, z)
+                    .vertex(matrix, x2, y2 - halfWidth, z)
                     .color(color.r, color.g, color.b, color.a)
                     .endVertex();
         } else if ((x1 < x2 && y1 < y2) || (x2 < x1 && y2 < y1)) { // Top Left to Bottom Right line
@@ -134,11 +130,11 @@ public final class RenderUtils {
                     .color(color.r, color.g, color.b, color.a)
                     .endVertex();
             bufferBuilder
-                    .vertex(matrix, x2 + halfWidth, y2 - halfWidth, z)
+                    .vertex(matrix, x2 - halfWidth, y2 + halfWidth, z)
                     .color(color.r, color.g, color.b, color.a)
                     .endVertex();
             bufferBuilder
-                    .vertex(matrix, x2 - halfWidth, y2 + halfWidth, z)
+                    .vertex(matrix, x2 + halfWidth, y2 - halfWidth, z)
                     .color(color.r, color.g, color.b, color.a)
                     .endVertex();
         } else { // Top Right to Bottom Left Line
@@ -161,18 +157,16 @@ public final class RenderUtils {
                     .color(color.r, color.g, color.b, color.a)
                     .endVertex();
             bufferBuilder
-                    .vertex(matrix, x2 + halfWidth, y2 + halfWidth, z)
+                    .vertex(matrix, x2 - halfWidth, y2 - halfWidth, z)
                     .color(color.r, color.g, color.b, color.a)
                     .endVertex();
             bufferBuilder
-                    .vertex(matrix, x2 - halfWidth, y2 - halfWidth, z)
+                    .vertex(matrix, x2 + halfWidth, y2 + halfWidth, z)
                     .color(color.r, color.g, color.b, color.a)
                     .endVertex();
         }
 
-        bufferBuilder.end();
-        BufferUploader.end(bufferBuilder);
-        RenderSystem.disableBlend();
+        RenderBatcher.endQuads(RenderBatcher.Blend.ENABLE_THEN_DISABLE);
     }
 
     public static void drawRectBorders(
@@ -191,11 +185,8 @@ public final class RenderUtils {
             PoseStack poseStack, CustomColor color, float x, float y, float z, float width, float height) {
         Matrix4f matrix = poseStack.last().pose();
 
-        RenderSystem.enableBlend();
-        RenderSystem.defaultBlendFunc();
-        RenderSystem.setShader(GameRenderer::getPositionColorShader);
-        BufferBuilder bufferBuilder = Tesselator.getInstance().getBuilder();
-        bufferBuilder.begin(VertexFormat.Mode.QUADS, DefaultVertexFormat.POSITION_COLOR);
+        BufferBuilder bufferBuilder = RenderBatcher.beginQuads(
+                RenderBatcher.Shader.POSITION_COLOR, null, RenderBatcher.Blend.ENABLE_THEN_DISABLE);
         bufferBuilder
                 .vertex(matrix, x, y + height, z)
                 .color(color.r, color.g, color.b, color.a)
@@ -212,9 +203,7 @@ public final class RenderUtils {
                 .vertex(matrix, x, y, z)
                 .color(color.r, color.g, color.b, color.a)
                 .endVertex();
-        bufferBuilder.end();
-        BufferUploader.end(bufferBuilder);
-        RenderSystem.disableBlend();
+        RenderBatcher.endQuads(RenderBatcher.Blend.ENABLE_THEN_DISABLE);
     }
 
     public static void drawHoverableTexturedRect(
@@ -293,10 +282,8 @@ public final class RenderUtils {
 
         Matrix4f matrix = poseStack.last().pose();
 
-        RenderSystem.setShader(GameRenderer::getPositionTexShader);
-        RenderSystem.setShaderTexture(0, tex);
-        BufferBuilder bufferBuilder = Tesselator.getInstance().getBuilder();
-        bufferBuilder.begin(VertexFormat.Mode.QUADS, DefaultVertexFormat.POSITION_TEX);
+        BufferBuilder bufferBuilder =
+                RenderBatcher.beginQuads(RenderBatcher.Shader.POSITION_TEX, tex, RenderBatcher.Blend.KEEP);
         bufferBuilder
                 .vertex(matrix, x, y + height, z)
                 .uv(uOffset * uScale, (vOffset + v) * vScale)
@@ -313,8 +300,7 @@ public final class RenderUtils {
                 .vertex(matrix, x, y, z)
                 .uv(uOffset * uScale, vOffset * vScale)
                 .endVertex();
-        bufferBuilder.end();
-        BufferUploader.end(bufferBuilder);
+        RenderBatcher.endQuads(RenderBatcher.Blend.KEEP);
     }
 
     public static void drawScalingTexturedRect(
@@ -378,12 +364,8 @@ public final class RenderUtils {
 
         Matrix4f matrix = poseStack.last().pose();
 
-        RenderSystem.enableBlend();
-        RenderSystem.defaultBlendFunc();
-        RenderSystem.setShader(GameRenderer::getPositionTexColorShader);
-        RenderSystem.setShaderTexture(0, tex);
-        BufferBuilder bufferBuilder = Tesselator.getInstance().getBuilder();
-        bufferBuilder.begin(VertexFormat.Mode.QUADS, DefaultVertexFormat.POSITION_TEX_COLOR);
+        BufferBuilder bufferBuilder = RenderBatcher.beginQuads(
+                RenderBatcher.Shader.POSITION_TEX_COLOR, tex, RenderBatcher.Blend.ENABLE_THEN_DISABLE);
         bufferBuilder
                 .vertex(matrix, x, y + height, z)
                 .uv(uOffset * uScale, (vOffset + v) * vScale)
@@ -404,9 +386,7 @@ public final class RenderUtils {
                 .uv(uOffset * uScale, vOffset * vScale)
                 .color(color.r, color.g, color.b, color.a)
                 .endVertex();
-        bufferBuilder.end();
-        BufferUploader.end(bufferBuilder);
-        RenderSystem.disableBlend();
+        RenderBatcher.endQuads(RenderBatcher.Blend.ENABLE_THEN_DISABLE);
     }
 
     public static void drawArc(
@@ -430,34 +410,41 @@ public final class RenderUtils {
         float midY = y + outerRadius;
         Matrix4f matrix = poseStack.last().pose();
 
-        RenderSystem.enableBlend();
-        RenderSystem.defaultBlendFunc();
-        RenderSystem.setShader(GameRenderer::getPositionColorShader);
-        BufferBuilder bufferBuilder = Tesselator.getInstance().getBuilder();
+        if (segments <= 0) return;
 
-        bufferBuilder.begin(VertexFormat.Mode.TRIANGLE_STRIP, DefaultVertexFormat.POSITION_COLOR);
+        BufferBuilder bufferBuilder = RenderBatcher.beginQuads(
+                RenderBatcher.Shader.POSITION_COLOR, null, RenderBatcher.Blend.ENABLE_THEN_DISABLE);
 
-        float angle;
-        float sinAngle;
-        float cosAngle;
-        for (int i = 0; i <= segments; i++) {
-            angle = Mth.TWO_PI * i / (MAX_CIRCLE_STEPS - 1f) + angleOffset;
-            sinAngle = Mth.sin(angle);
-            cosAngle = Mth.cos(angle);
+        // Each segment is a quad from the outer and inner point of its start angle to those of its end angle
+        float prevSin = Mth.sin(angleOffset);
+        float prevCos = Mth.cos(angleOffset);
+        for (int i = 1; i <= segments; i++) {
+            float angle = Mth.TWO_PI * i / (MAX_CIRCLE_STEPS - 1f) + angleOffset;
+            float sinAngle = Mth.sin(angle);
+            float cosAngle = Mth.cos(angle);
 
             bufferBuilder
-                    .vertex(matrix, midX + sinAngle * outerRadius, midY - cosAngle * outerRadius, z)
+                    .vertex(matrix, midX + prevSin * outerRadius, midY - prevCos * outerRadius, z)
+                    .color(color.r, color.g, color.b, color.a)
+                    .endVertex();
+            bufferBuilder
+                    .vertex(matrix, midX + prevSin * innerRadius, midY - prevCos * innerRadius, z)
                     .color(color.r, color.g, color.b, color.a)
                     .endVertex();
             bufferBuilder
                     .vertex(matrix, midX + sinAngle * innerRadius, midY - cosAngle * innerRadius, z)
                     .color(color.r, color.g, color.b, color.a)
                     .endVertex();
+            bufferBuilder
+                    .vertex(matrix, midX + sinAngle * outerRadius, midY - cosAngle * outerRadius, z)
+                    .color(color.r, color.g, color.b, color.a)
+                    .endVertex();
+
+            prevSin = sinAngle;
+            prevCos = cosAngle;
         }
 
-        bufferBuilder.end();
-        BufferUploader.end(bufferBuilder);
-        RenderSystem.disableBlend();
+        RenderBatcher.endQuads(RenderBatcher.Blend.ENABLE_THEN_DISABLE);
     }
 
     public static void drawRoundedRectWithBorder(
@@ -524,6 +511,8 @@ public final class RenderUtils {
 
     public static void drawTooltip(
             PoseStack poseStack, List<Component> componentLines, Font font, boolean firstLineHasPlusHeight) {
+        RenderBatcher.flush();
+
         List<ClientTooltipComponent> lines = componentToClientTooltipComponent(componentLines);
 
         int tooltipWidth = getToolTipWidth(lines, font);
@@ -803,9 +792,6 @@ public final class RenderUtils {
         Matrix4f matrix = poseStack.last().pose();
 
         RenderSystem.enableTexture();
-        RenderSystem.setShader(GameRenderer::getPositionTexShader);
-        RenderSystem.setShaderTexture(0, texture.resource());
-        BufferBuilder bufferBuilder = Tesselator.getInstance().getBuilder();
         float xMin = Math.min(x1, x2),
                 xMax = Math.max(x1, x2),
                 yMin = Math.min(y1, y2),
@@ -825,13 +811,13 @@ public final class RenderUtils {
             }
         }
 
-        bufferBuilder.begin(VertexFormat.Mode.QUADS, DefaultVertexFormat.POSITION_TEX);
+        BufferBuilder bufferBuilder = RenderBatcher.beginQuads(
+                RenderBatcher.Shader.POSITION_TEX, texture.resource(), RenderBatcher.Blend.KEEP);
         bufferBuilder.vertex(matrix, xMin, yMin, 0).uv(txMin, tyMin).endVertex();
         bufferBuilder.vertex(matrix, xMin, yMax, 0).uv(txMin, tyMax).endVertex();
         bufferBuilder.vertex(matrix, xMax, yMax, 0).uv(txMax, tyMax).endVertex();
         bufferBuilder.vertex(matrix, xMax, yMin, 0).uv(txMax, tyMin).endVertex();
-        bufferBuilder.end();
-        BufferUploader.end(bufferBuilder);
+        RenderBatcher.endQuads(RenderBatcher.Blend.KEEP);
     }
 
     private static void drawProgressBarForegroundWithColor(
@@ -854,11 +840,6 @@ public final class RenderUtils {
         Matrix4f matrix = poseStack.last().pose();
 
         RenderSystem.enableTexture();
-        RenderSystem.enableBlend();
-        RenderSystem.defaultBlendFunc();
-        RenderSystem.setShader(GameRenderer::getPositionTexColorShader);
-        RenderSystem.setShaderTexture(0, texture.resource());
-        BufferBuilder bufferBuilder = Tesselator.getInstance().getBuilder();
         float xMin = Math.min(x1, x2),
                 xMax = Math.max(x1, x2),
                 yMin = Math.min(y1, y2),
@@ -878,7 +859,8 @@ public final class RenderUtils {
             }
         }
 
-        bufferBuilder.begin(VertexFormat.Mode.QUADS, DefaultVertexFormat.POSITION_TEX_COLOR);
+        BufferBuilder bufferBuilder = RenderBatcher.beginQuads(
+                RenderBatcher.Shader.POSITION_TEX_COLOR, texture.resource(), RenderBatcher.Blend.ENABLE);
         bufferBuilder
                 .vertex(matrix, xMin, yMin, 0)
                 .uv(txMin, tyMin)
@@ -899,8 +881,7 @@ public final class RenderUtils {
                 .uv(txMax, tyMin)
                 .color(customColor.asInt())
                 .endVertex();
-        bufferBuilder.end();
-        BufferUploader.end(bufferBuilder);
+        RenderBatcher.endQuads(RenderBatcher.Blend.ENABLE);
     }
 
     public static void drawProgressBarBackground(
@@ -917,9 +898,6 @@ public final class RenderUtils {
         Matrix4f matrix = poseStack.last().pose();
 
         RenderSystem.enableTexture();
-        RenderSystem.setShader(GameRenderer::getPositionTexShader);
-        RenderSystem.setShaderTexture(0, texture.resource());
-        BufferBuilder bufferBuilder = Tesselator.getInstance().getBuilder();
         float xMin = Math.min(x1, x2),
                 xMax = Math.max(x1, x2),
                 yMin = Math.min(y1, y2),
@@ -929,13 +907,13 @@ public final class RenderUtils {
                 tyMin = (float) Math.min(textureY1, textureY2) / texture.height(),
                 tyMax = (float) Math.max(textureY1, textureY2) / texture.height();
 
-        bufferBuilder.begin(VertexFormat.Mode.QUADS, DefaultVertexFormat.POSITION_TEX);
+        BufferBuilder bufferBuilder = RenderBatcher.beginQuads(
+                RenderBatcher.Shader.POSITION_TEX, texture.resource(), RenderBatcher.Blend.KEEP);
         bufferBuilder.vertex(matrix, xMin, yMin, 0).uv(txMin, tyMin).endVertex();
         bufferBuilder.vertex(matrix, xMin, yMax, 0).uv(txMin, tyMax).endVertex();
         bufferBuilder.vertex(matrix, xMax, yMax, 0).uv(txMax, tyMax).endVertex();
         bufferBuilder.vertex(matrix, xMax, yMin, 0).uv(txMax, tyMin).endVertex();
-        bufferBuilder.end();
-        BufferUploader.end(bufferBuilder);
+        RenderBatcher.endQuads(RenderBatcher.Blend.KEEP);
     }
 
     public static void fillGradient(
@@ -986,6 +964,8 @@ public final class RenderUtils {
        this changes it so it doesn't do that
     */
     public static void enableScissor(int x, int y, int width, int height) {
+        RenderBatcher.flush();
+
         Window window = McUtils.window();
         double scale = window.getGuiScale();
         RenderSystem.enableScissor(
@@ -1003,6 +983,8 @@ public final class RenderUtils {
 
     // Basically this is ItemRenderer#renderGuiItem, but we can modify the poseStack
     public static void renderGuiItem(ItemStack itemStack, int x, int y, float scale) {
+        RenderBatcher.flush();
+
         BakedModel bakedModel = McUtils.mc().getItemRenderer().getModel(itemStack, null, null, 0);
 
         McUtils.mc()
@@ -1057,6 +1039,8 @@ public final class RenderUtils {
     }
 
     public static void renderVignetteOverlay(PoseStack poseStack, CustomColor color, float alpha) {
+        RenderBatcher.flush();
+
         float[] colorArray = color.asFloatArray();
         RenderSystem.setShaderColor(colorArray[0], colorArray[1], colorArray[2], alpha);
         RenderSystem.disableDepthTest();
@@ -1080,6 +1064,7 @@ public final class RenderUtils {
                 Texture.VIGNETTE.height(),
                 Texture.VIGNETTE.width(),
                 Texture.VIGNETTE.height());
+        RenderBatcher.flush();
 
         RenderSystem.setShaderColor(1, 1, 1, 1);
         RenderSystem.enableBlend();
@@ -1118,6 +1103,7 @@ public final class RenderUtils {
             int ty2) {
         // See https://gist.github.com/burgerguy/8233170683ad93eea6aa27ee02a5c4d1
 
+        RenderBatcher.flush();
         GL11.glEnable(GL11.GL_STENCIL_TEST);
 
         // Enable writing to stencil
@@ -1147,6 +1133,7 @@ public final class RenderUtils {
                 ty2 - ty1,
                 width,
                 height);
+        RenderBatcher.flush();
 
         // Reenable color and depth
         RenderSystem.colorMask(true, true, true, true);
@@ -1163,6 +1150,7 @@ public final class RenderUtils {
      * Based on Figura <a href="https://github.com/Kingdom-of-The-Moon/FiguraRewriteRewrite"> code</a>.
      */
     public static void clearMask() {
+        RenderBatcher.flush();
         RenderSystem.clear(GL11.GL_STENCIL_BUFFER_BIT, true);
 
         // Turn off writing to stencil buffer.
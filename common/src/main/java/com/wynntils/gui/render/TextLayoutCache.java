@@ -0,0 +1,118 @@
+/*
+ * Copyright © Wynntils 2022.
+ * This file is released under AGPLv3. See LICENSE for full license details.
+ */
+package com.wynntils.gui.render;
+
+import com.wynntils.mc.utils.ComponentUtils;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import net.minecraft.client.gui.Font;
+import net.minecraft.network.chat.FormattedText;
+import net.minecraft.network.chat.Style;
+
+/**
+ * Keeps the measured width and the wrapped lines of recently rendered text, so text that does not change between
+ * frames is not measured again. Layouts are unscaled, so the same layout is used for every text scale.
+ *
+ * <p>Only used on the render thread, and must be cleared when the font changes, like on resource reloads.
+ */
+public final class TextLayoutCache {
+    private static final int MAX_ENTRIES = 1024;
+
+    private static final Map<LayoutKey, TextLayout> CACHE = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<LayoutKey, TextLayout> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    private static long hits = 0;
+    private static long misses = 0;
+
+    private TextLayoutCache() {}
+
+    static TextLayout get(Font font, String text, int maxWidth) {
+        LayoutKey key = new LayoutKey(text, maxWidth);
+        TextLayout layout = CACHE.get(key);
+        if (layout != null) {
+            hits++;
+            return layout;
+        }
+
+        misses++;
+        layout = new TextLayout(font, text, maxWidth);
+        CACHE.put(key, layout);
+        return layout;
+    }
+
+    public static void clear() {
+        CACHE.clear();
+    }
+
+    public static long getHits() {
+        return hits;
+    }
+
+    public static long getMisses() {
+        return misses;
+    }
+
+    public static int getSize() {
+        return CACHE.size();
+    }
+
+    private record LayoutKey(String text, int maxWidth) {}
+
+    /** The parts of the layout are only measured when first asked for */
+    static final class TextLayout {
+        private final Font font;
+        private final String text;
+        private final int maxWidth;
+
+        private int width = -1;
+        private String strippedText = null;
+        private List<String> lines = null;
+
+        private TextLayout(Font font, String text, int maxWidth) {
+            this.font = font;
+            this.text = text;
+            this.maxWidth = maxWidth;
+        }
+
+        int getWidth() {
+            if (width < 0) {
+                width = font.width(text);
+            }
+            return width;
+        }
+
+        String getStrippedText() {
+            if (strippedText == null) {
+                strippedText = ComponentUtils.stripColorFormatting(text);
+            }
+            return strippedText;
+        }
+
+        /** @return the text split into lines no wider than the max width, each starting with the codes in effect */
+        List<String> getLines() {
+            if (lines == null) {
+                List<FormattedText> parts = font.getSplitter().splitLines(text, maxWidth, Style.EMPTY);
+
+                List<String> split = new ArrayList<>(parts.size());
+                String lastPart = "";
+                for (FormattedText formattedText : parts) {
+                    // copy the format codes to this part as well
+                    String part = ComponentUtils.getLastPartCodes(lastPart) + formattedText.getString();
+                    lastPart = part;
+                    split.add(part);
+                }
+                lines = Collections.unmodifiableList(split);
+            }
+            return lines;
+        }
+    }
+}
@@ -17,6 +17,7 @@ import com.wynntils.mc.objects.CommonColors;
 import com.wynntils.mc.utils.McUtils;
 import com.wynntils.utils.StringUtils;
 import com.wynntils.wynn.model.LootrunModel;
+import com.wynntils.wynn.model.lootrun.LootrunCatalog.LootrunMetadata;
 import java.util.List;
 import java.util.Objects;
 import net.minecraft.ChatFormatting;
@@ -26,7 +27,7 @@ import net.minecraft.network.chat.TextComponent;
 import net.minecraft.network.chat.TranslatableComponent;
 import net.minecraft.world.phys.Vec3;
 
-public class WynntilsLootrunsScreen extends WynntilsMenuListScreen<LootrunModel.LootrunInstance, LootrunButton> {
+public class WynntilsLootrunsScreen extends WynntilsMenuListScreen<LootrunMetadata, LootrunButton> {
     public WynntilsLootrunsScreen() {
         super(new TranslatableComponent("screens.wynntils.lootruns.name"));
     }
@@ -252,7 +253,7 @@ public class WynntilsLootrunsScreen extends WynntilsMenuListScreen<LootrunModel.
     @Override
     protected void reloadElementsList(String searchTerm) {
         elements.addAll(LootrunModel.getLootruns().stream()
-                .filter(lootrunInstance -> StringUtils.partialMatch(lootrunInstance.name(), searchTerm))
+                .filter(lootrun -> StringUtils.partialMatch(lootrun.name(), searchTerm))
                 .toList());
     }
 }
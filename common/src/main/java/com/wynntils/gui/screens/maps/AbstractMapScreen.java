@@ -20,8 +20,6 @@ import com.wynntils.mc.utils.McUtils;
 import com.wynntils.utils.BoundingBox;
 import com.wynntils.utils.KeyboardUtils;
 import com.wynntils.utils.MathUtils;
-import com.wynntils.wynn.model.map.MapModel;
-import com.wynntils.wynn.model.map.MapTexture;
 import com.wynntils.wynn.model.map.poi.Poi;
 import java.util.ArrayList;
 import java.util.List;
@@ -139,7 +137,8 @@ public abstract class AbstractMapScreen extends Screen {
                 Texture.FULLSCREEN_MAP_BORDER.height());
     }
 
-    protected void renderPois(
+    /** @return the number of rendered POIs */
+    protected int renderPois(
             List<Poi> pois,
             PoseStack poseStack,
             BoundingBox textureBoundingBox,
@@ -159,6 +158,8 @@ public abstract class AbstractMapScreen extends Screen {
 
             poi.renderAt(poseStack, poiRenderX, poiRenderZ, hovered == poi, poiScale, currentZoom);
         }
+
+        return filteredPois.size();
     }
 
     protected List<Poi> getRenderedPois(
@@ -312,26 +313,16 @@ public abstract class AbstractMapScreen extends Screen {
                 mapWidth,
                 mapHeight);
 
-        BoundingBox textureBoundingBox =
-                BoundingBox.centered(mapCenterX, mapCenterZ, width / currentZoom, height / currentZoom);
-
-        List<MapTexture> maps = MapModel.getMapsForBoundingBox(textureBoundingBox);
-        for (MapTexture map : maps) {
-            float textureX = map.getTextureXPosition(mapCenterX);
-            float textureZ = map.getTextureZPosition(mapCenterZ);
-
-            MapRenderer.renderMapQuad(
-                    map,
-                    poseStack,
-                    centerX,
-                    centerZ,
-                    textureX,
-                    textureZ,
-                    mapWidth,
-                    mapHeight,
-                    1f / currentZoom,
-                    renderUsingLinear);
-        }
+        MapRenderer.renderMapTiles(
+                poseStack,
+                centerX,
+                centerZ,
+                mapCenterX,
+                mapCenterZ,
+                mapWidth,
+                mapHeight,
+                1f / currentZoom,
+                renderUsingLinear);
 
         RenderSystem.disableScissor();
     }
@@ -199,12 +199,12 @@ public class MainMapScreen extends AbstractMapScreen {
     }
 
     private void renderPois(PoseStack poseStack, int mouseX, int mouseY) {
-        List<Poi> pois = new ArrayList<>();
-
-        pois.addAll(MapModel.getServicePois());
-        pois.addAll(MapModel.getLabelPois());
+        BoundingBox textureBoundingBox =
+                BoundingBox.centered(mapCenterX, mapCenterZ, width / currentZoom, height / currentZoom);
 
-        pois.addAll(MapFeature.INSTANCE.customPois);
+        List<Poi> pois = new ArrayList<>();
+        MapModel.getPoisInBoundingBox(
+                textureBoundingBox, MapModel.POI_QUERY_MARGIN * MapFeature.INSTANCE.poiScale, true, pois);
 
         List<HadesUser> renderedPlayers = HadesUserModel.getHadesUserMap().values().stream()
                 .filter(
@@ -224,13 +224,8 @@ public class MainMapScreen extends AbstractMapScreen {
             pois.addAll(TerritoryManager.getTerritoryPois());
         }
 
-        renderPois(
-                pois,
-                poseStack,
-                BoundingBox.centered(mapCenterX, mapCenterZ, width / currentZoom, height / currentZoom),
-                MapFeature.INSTANCE.poiScale,
-                mouseX,
-                mouseY);
+        int drawn = renderPois(pois, poseStack, textureBoundingBox, MapFeature.INSTANCE.poiScale, mouseX, mouseY);
+        MapModel.recordMainMapPoiStats(pois.size(), drawn);
     }
 
     @Override
@@ -279,7 +274,7 @@ public class MainMapScreen extends AbstractMapScreen {
                 }
             } else if (KeyboardUtils.isControlDown()) {
                 if (hovered instanceof CustomPoi customPoi) {
-                    MapFeature.INSTANCE.customPois.remove(customPoi);
+                    MapFeature.INSTANCE.removeCustomPoi(customPoi);
                     ConfigManager.saveConfig();
                 }
             } else {
@@ -443,10 +443,10 @@ public class PoiCreationScreen extends Screen implements TextboxScreen {
                 selectedVisiblity.getMinZoom());
 
         if (oldPoi != null) {
-            MapFeature.INSTANCE.customPois.remove(oldPoi);
+            MapFeature.INSTANCE.removeCustomPoi(oldPoi);
         }
 
-        MapFeature.INSTANCE.customPois.add(poi);
+        MapFeature.INSTANCE.addCustomPoi(poi);
 
         ConfigManager.saveConfig();
     }
@@ -17,6 +17,7 @@ import com.wynntils.mc.utils.McUtils;
 import com.wynntils.utils.KeyboardUtils;
 import com.wynntils.utils.StringUtils;
 import com.wynntils.wynn.model.LootrunModel;
+import com.wynntils.wynn.model.lootrun.LootrunCatalog.LootrunMetadata;
 import java.io.File;
 import java.util.Objects;
 import net.minecraft.Util;
@@ -32,11 +33,10 @@ public class LootrunButton extends AbstractButton {
     private static final CustomColor TRACKED_BUTTON_COLOR = new CustomColor(176, 197, 148);
     private static final CustomColor TRACKED_BUTTON_COLOR_HOVERED = new CustomColor(126, 211, 106);
 
-    private final LootrunModel.LootrunInstance lootrun;
+    private final LootrunMetadata lootrun;
     private final WynntilsLootrunsScreen screen;
 
-    public LootrunButton(
-            int x, int y, int width, int height, LootrunModel.LootrunInstance lootrun, WynntilsLootrunsScreen screen) {
+    public LootrunButton(int x, int y, int width, int height, LootrunMetadata lootrun, WynntilsLootrunsScreen screen) {
         super(x, y, width, height, new TextComponent("Lootrun Button"));
         this.lootrun = lootrun;
         this.screen = screen;
@@ -90,8 +90,7 @@ public class LootrunButton extends AbstractButton {
                 return true;
             }
 
-            LootrunModel.Path path = lootrun.path();
-            Vec3 start = path.points().get(0);
+            Vec3 start = lootrun.start();
 
             McUtils.mc().setScreen(new MainMapScreen((float) start.x, (float) start.z));
             return true;
@@ -108,8 +107,10 @@ public class LootrunButton extends AbstractButton {
     public void updateNarration(NarrationElementOutput narrationElementOutput) {}
 
     private void tryDeleteLootrun() {
-        File file = new File(LootrunModel.LOOTRUNS, lootrun.name() + ".json");
-        file.delete();
+        File file = LootrunModel.findLootrunFile(lootrun.name());
+        if (file != null) {
+            file.delete();
+        }
         screen.reloadElements();
     }
 
@@ -118,7 +119,7 @@ public class LootrunButton extends AbstractButton {
         return currentLootrun != null && Objects.equals(currentLootrun.name(), lootrun.name());
     }
 
-    public LootrunModel.LootrunInstance getLootrun() {
+    public LootrunMetadata getLootrun() {
         return lootrun;
     }
 }
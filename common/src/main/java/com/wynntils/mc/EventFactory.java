@@ -17,6 +17,7 @@ import com.wynntils.mc.event.BossHealthUpdateEvent;
 import com.wynntils.mc.event.ChatPacketReceivedEvent;
 import com.wynntils.mc.event.ChatSentEvent;
 import com.wynntils.mc.event.ChestMenuQuickMoveEvent;
+import com.wynntils.mc.event.ChunkUpdateEvent;
 import com.wynntils.mc.event.ClientTickEvent;
 import com.wynntils.mc.event.ClientsideMessageEvent;
 import com.wynntils.mc.event.CommandsPacketEvent;
@@ -481,6 +482,10 @@ public final class EventFactory {
         return post(new SetSpawnEvent(spawnPos));
     }
 
+    public static void onChunkUpdate(int chunkX, int chunkZ) {
+        post(new ChunkUpdateEvent(chunkX, chunkZ));
+    }
+
     public static void onPlayerInfoPacket(ClientboundPlayerInfoPacket packet) {
         Action action = packet.getAction();
         List<PlayerUpdate> entries = packet.getEntries();
@@ -4,23 +4,207 @@
  */
 package com.wynntils.mc;
 
+import com.wynntils.core.WynntilsMod;
 import com.wynntils.core.managers.CoreManager;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
 
-// Use this manager to schedule runnables to run on next tick
+/**
+ * Use this manager to schedule runnables to run on a later tick, on the main thread.
+ *
+ * <p>Scheduled tasks are kept in a hierarchical timing wheel: each level has 64 slots, and a slot of a level
+ * spans all 64 slots of the level below it. A task is put in the lowest level its due tick fits in, and is
+ * moved down a level whenever the wheel turns to its slot, so scheduling and cancelling are O(1), and a tick
+ * only touches the tasks that are due. Due tasks are run until the tick budget is spent; the rest are run on
+ * the next tick, before any newly due tasks.
+ */
 public class MinecraftSchedulerManager extends CoreManager {
-    private static final Queue<Runnable> queue = new ConcurrentLinkedQueue<>();
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    // 64^4 ticks, about ten days; tasks due later wait in the overflow list
+    private static final int LEVELS = 4;
+
+    // Due tasks are run until this much time is spent in a tick
+    private static final long TICK_BUDGET_NANOS = 2_000_000;
+
+    // Tasks can be scheduled from any thread, they are put into the wheel on the next tick
+    private static final Queue<ScheduledTask> incoming = new ConcurrentLinkedQueue<>();
+
+    private static final List<List<ScheduledTask>> wheel = createWheel();
+    private static final List<ScheduledTask> overflow = new ArrayList<>();
+    private static final ArrayDeque<ScheduledTask> dueTasks = new ArrayDeque<>();
+
+    private static long currentTick = 0;
 
     public static void init() {}
 
+    /** Runs the runnable on the next tick */
     public static void queueRunnable(Runnable runnable) {
-        queue.add(runnable);
+        schedule(runnable, 0);
+    }
+
+    /** Runs the runnable once, after the given number of ticks */
+    public static ScheduledTask schedule(Runnable runnable, int delayTicks) {
+        return submit(new ScheduledTask(runnable, Math.max(delayTicks, 0), 0));
+    }
+
+    /** Runs the runnable after the given number of ticks, and then every period ticks until it is cancelled */
+    public static ScheduledTask scheduleRepeating(Runnable runnable, int delayTicks, int periodTicks) {
+        if (periodTicks <= 0) throw new IllegalArgumentException("Period must be positive: " + periodTicks);
+
+        return submit(new ScheduledTask(runnable, Math.max(delayTicks, 0), periodTicks));
     }
 
     public static void onTick() {
-        while (!queue.isEmpty()) {
-            queue.remove().run();
+        currentTick++;
+
+        ScheduledTask task;
+        while ((task = incoming.poll()) != null) {
+            if (task.isCancelled()) continue;
+
+            task.dueTick = currentTick + task.delay;
+            insert(task);
+        }
+
+        advance();
+        runDueTasks();
+    }
+
+    private static ScheduledTask submit(ScheduledTask task) {
+        incoming.add(task);
+        return task;
+    }
+
+    private static void insert(ScheduledTask task) {
+        if (task.dueTick <= currentTick) {
+            dueTasks.addLast(task);
+            return;
+        }
+
+        // The highest group of slot bits the due tick differs in from now picks the level, so the slot of the
+        // task is always ahead of the wheel on that level
+        long difference = task.dueTick ^ currentTick;
+        for (int level = 0; level < LEVELS; level++) {
+            if (difference >>> (SLOT_BITS * (level + 1)) == 0) {
+                int slot = (int) (task.dueTick >>> (SLOT_BITS * level)) & SLOT_MASK;
+                wheel.get(level * SLOTS + slot).add(task);
+                return;
+            }
+        }
+
+        overflow.add(task);
+    }
+
+    private static void advance() {
+        // Higher levels go first, so tasks moved down into a slot that is turned to now are moved again
+        for (int level = LEVELS; level > 0; level--) {
+            if ((currentTick & ((1L << (SLOT_BITS * level)) - 1)) != 0) continue;
+
+            if (level == LEVELS) {
+                reinsert(overflow);
+            } else {
+                int slot = (int) (currentTick >>> (SLOT_BITS * level)) & SLOT_MASK;
+                reinsert(wheel.get(level * SLOTS + slot));
+            }
+        }
+
+        List<ScheduledTask> slot = wheel.get((int) currentTick & SLOT_MASK);
+        for (ScheduledTask task : slot) {
+            if (!task.isCancelled()) {
+                dueTasks.addLast(task);
+            }
+        }
+        slot.clear();
+    }
+
+    private static void reinsert(List<ScheduledTask> tasks) {
+        if (tasks.isEmpty()) return;
+
+        List<ScheduledTask> moved = new ArrayList<>(tasks);
+        tasks.clear();
+        for (ScheduledTask task : moved) {
+            if (!task.isCancelled()) {
+                insert(task);
+            }
+        }
+    }
+
+    private static void runDueTasks() {
+        long deadline = System.nanoTime() + TICK_BUDGET_NANOS;
+
+        // At least one task runs every tick, so a slow task can not stall the queue
+        ScheduledTask task;
+        while ((task = dueTasks.pollFirst()) != null) {
+            if (!task.isCancelled()) {
+                run(task);
+            }
+
+            if (System.nanoTime() > deadline) break;
+        }
+    }
+
+    private static void run(ScheduledTask task) {
+        try {
+            task.runnable.run();
+        } catch (Throwable t) {
+            WynntilsMod.error("Exception in scheduled task", t);
+        }
+
+        if (task.period > 0 && !task.isCancelled()) {
+            // The period counts from when the task ran, so a task delayed by the budget does not run twice
+            task.dueTick = currentTick + task.period;
+            insert(task);
+        } else {
+            task.done = true;
+        }
+    }
+
+    private static List<List<ScheduledTask>> createWheel() {
+        List<List<ScheduledTask>> slots = new ArrayList<>(LEVELS * SLOTS);
+        for (int i = 0; i < LEVELS * SLOTS; i++) {
+            slots.add(new ArrayList<>());
+        }
+        return slots;
+    }
+
+    public static final class ScheduledTask {
+        private final Runnable runnable;
+        private final int delay;
+        private final int period;
+
+        private long dueTick = -1;
+        private volatile boolean cancelled = false;
+        private volatile boolean done = false;
+
+        private ScheduledTask(Runnable runnable, int delay, int period) {
+            this.runnable = runnable;
+            this.delay = delay;
+            this.period = period;
+        }
+
+        /** The task is dropped when the wheel reaches it */
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        /** @return whether the task has run, and will not run again */
+        public boolean isDone() {
+            return done;
+        }
+
+        /** @return the ticks left until the task is due, only meaningful on the main thread */
+        public int getRemainingTicks() {
+            if (dueTick < 0) return delay;
+
+            return (int) Math.max(dueTick - currentTick, 0);
         }
     }
 }
@@ -4,6 +4,7 @@
  */
 package com.wynntils.mc.event;
 
+import com.wynntils.core.chat.ChatMessage;
 import net.minecraft.network.chat.ChatType;
 import net.minecraft.network.chat.Component;
 import net.minecraftforge.eventbus.api.Cancelable;
@@ -12,14 +13,19 @@ import net.minecraftforge.eventbus.api.Event;
 @Cancelable
 public class ChatPacketReceivedEvent extends Event {
     private final ChatType type;
-    private Component message;
+    private ChatMessage message;
 
     public ChatPacketReceivedEvent(ChatType type, Component message) {
         this.type = type;
-        this.message = message;
+        this.message = new ChatMessage(message);
     }
 
     public Component getMessage() {
+        return message.getComponent();
+    }
+
+    /** @return the message, with its memoized text forms */
+    public ChatMessage getChatMessage() {
         return message;
     }
 
@@ -28,6 +34,12 @@ public class ChatPacketReceivedEvent extends Event {
     }
 
     public void setMessage(Component message) {
+        if (message == this.message.getComponent()) return;
+
+        this.message = new ChatMessage(message);
+    }
+
+    public void setChatMessage(ChatMessage message) {
         this.message = message;
     }
 }
@@ -0,0 +1,26 @@
+/*
+ * Copyright © Wynntils 2022.
+ * This file is released under AGPLv3. See LICENSE for full license details.
+ */
+package com.wynntils.mc.event;
+
+import net.minecraftforge.eventbus.api.Event;
+
+/** Fires when a chunk is loaded or unloaded, or when blocks in it are changed by the server */
+public class ChunkUpdateEvent extends Event {
+    private final int chunkX;
+    private final int chunkZ;
+
+    public ChunkUpdateEvent(int chunkX, int chunkZ) {
+        this.chunkX = chunkX;
+        this.chunkZ = chunkZ;
+    }
+
+    public int getChunkX() {
+        return chunkX;
+    }
+
+    public int getChunkZ() {
+        return chunkZ;
+    }
+}
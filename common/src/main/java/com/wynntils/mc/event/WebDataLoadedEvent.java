@@ -0,0 +1,33 @@
+/*
+ * Copyright © Wynntils 2022.
+ * This file is released under AGPLv3. See LICENSE for full license details.
+ */
+package com.wynntils.mc.event;
+
+import com.wynntils.core.events.EventThread;
+import net.minecraftforge.eventbus.api.Event;
+
+/**
+ * Fired whenever web content has been (re)loaded, first from the cache and again once fresh data has
+ * arrived. Listeners should re-read the data from {@link com.wynntils.core.webapi.WebManager} or
+ * {@link com.wynntils.core.webapi.TerritoryManager}.
+ */
+@EventThread(EventThread.Type.WORKER)
+public class WebDataLoadedEvent extends Event {
+    private final DataType dataType;
+
+    public WebDataLoadedEvent(DataType dataType) {
+        this.dataType = dataType;
+    }
+
+    public DataType getDataType() {
+        return dataType;
+    }
+
+    public enum DataType {
+        ITEM_LIST,
+        ITEM_GUESSES,
+        INGREDIENT_LIST,
+        TERRITORIES
+    }
+}
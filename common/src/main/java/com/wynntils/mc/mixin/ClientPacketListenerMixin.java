@@ -10,20 +10,26 @@ import com.wynntils.mc.event.CommandsPacketEvent;
 import com.wynntils.mc.mixin.accessors.ClientboundCommandsPacketAccessor;
 import com.wynntils.mc.utils.McUtils;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
 import net.minecraft.client.gui.Gui;
 import net.minecraft.client.multiplayer.ClientPacketListener;
 import net.minecraft.client.multiplayer.PlayerInfo;
+import net.minecraft.core.BlockPos;
 import net.minecraft.network.chat.ChatType;
 import net.minecraft.network.chat.Component;
 import net.minecraft.network.protocol.game.ClientboundAddPlayerPacket;
+import net.minecraft.network.protocol.game.ClientboundBlockUpdatePacket;
 import net.minecraft.network.protocol.game.ClientboundCommandsPacket;
 import net.minecraft.network.protocol.game.ClientboundContainerClosePacket;
 import net.minecraft.network.protocol.game.ClientboundContainerSetContentPacket;
 import net.minecraft.network.protocol.game.ClientboundContainerSetSlotPacket;
+import net.minecraft.network.protocol.game.ClientboundForgetLevelChunkPacket;
+import net.minecraft.network.protocol.game.ClientboundLevelChunkWithLightPacket;
 import net.minecraft.network.protocol.game.ClientboundOpenScreenPacket;
 import net.minecraft.network.protocol.game.ClientboundPlayerInfoPacket;
 import net.minecraft.network.protocol.game.ClientboundPlayerPositionPacket;
 import net.minecraft.network.protocol.game.ClientboundResourcePackPacket;
+import net.minecraft.network.protocol.game.ClientboundSectionBlocksUpdatePacket;
 import net.minecraft.network.protocol.game.ClientboundSetDefaultSpawnPositionPacket;
 import net.minecraft.network.protocol.game.ClientboundSetPassengersPacket;
 import net.minecraft.network.protocol.game.ClientboundSetPlayerTeamPacket;
@@ -239,4 +245,44 @@ public abstract class ClientPacketListenerMixin {
         if (!isRenderThread()) return;
         EventFactory.onUpdateAdvancements(packet);
     }
+
+    @Inject(
+            method =
+                    "handleLevelChunkWithLight(Lnet/minecraft/network/protocol/game/ClientboundLevelChunkWithLightPacket;)V",
+            at = @At("RETURN"))
+    private void handleLevelChunkWithLightPost(ClientboundLevelChunkWithLightPacket packet, CallbackInfo ci) {
+        if (!isRenderThread()) return;
+        EventFactory.onChunkUpdate(packet.getX(), packet.getZ());
+    }
+
+    @Inject(
+            method = "handleForgetLevelChunk(Lnet/minecraft/network/protocol/game/ClientboundForgetLevelChunkPacket;)V",
+            at = @At("RETURN"))
+    private void handleForgetLevelChunkPost(ClientboundForgetLevelChunkPacket packet, CallbackInfo ci) {
+        if (!isRenderThread()) return;
+        EventFactory.onChunkUpdate(packet.getX(), packet.getZ());
+    }
+
+    @Inject(
+            method = "handleBlockUpdate(Lnet/minecraft/network/protocol/game/ClientboundBlockUpdatePacket;)V",
+            at = @At("RETURN"))
+    private void handleBlockUpdatePost(ClientboundBlockUpdatePacket packet, CallbackInfo ci) {
+        if (!isRenderThread()) return;
+        EventFactory.onChunkUpdate(packet.getPos().getX() >> 4, packet.getPos().getZ() >> 4);
+    }
+
+    @Inject(
+            method =
+                    "handleChunkBlocksUpdate(Lnet/minecraft/network/protocol/game/ClientboundSectionBlocksUpdatePacket;)V",
+            at = @At("RETURN"))
+    private void handleChunkBlocksUpdatePost(ClientboundSectionBlocksUpdatePacket packet, CallbackInfo ci) {
+        if (!isRenderThread()) return;
+
+        // All updated blocks are in the same section, so any of them gives the chunk
+        AtomicReference<BlockPos> updatedPos = new AtomicReference<>();
+        packet.runUpdates((pos, state) -> updatedPos.compareAndSet(null, pos.immutable()));
+        if (updatedPos.get() == null) return;
+
+        EventFactory.onChunkUpdate(updatedPos.get().getX() >> 4, updatedPos.get().getZ() >> 4);
+    }
 }
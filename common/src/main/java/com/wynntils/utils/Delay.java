@@ -4,31 +4,20 @@
  */
 package com.wynntils.utils;
 
-import com.wynntils.core.WynntilsMod;
-import com.wynntils.mc.event.ClientTickEvent;
-import net.minecraftforge.eventbus.api.SubscribeEvent;
+import com.wynntils.mc.MinecraftSchedulerManager;
+import com.wynntils.mc.MinecraftSchedulerManager.ScheduledTask;
 
 public class Delay {
     private final Runnable function;
-    private int delay;
+    private ScheduledTask task;
+    private int remainingTicks = 0;
     private boolean isRunning = true;
     private boolean onPause = false;
 
     public Delay(Runnable function, int delay) {
         this.function = function;
-        this.delay = delay;
 
-        WynntilsMod.registerEventListener(this);
-    }
-
-    @SubscribeEvent
-    public void onTick(ClientTickEvent.End e) {
-        if (!onPause && isRunning) {
-            if (delay < 0) {
-                start();
-            }
-            delay--;
-        }
+        task = MinecraftSchedulerManager.schedule(this::start, delay);
     }
 
     public boolean isRunning() {
@@ -38,6 +27,8 @@ public class Delay {
     public boolean pause() {
         if (!onPause && isRunning) {
             onPause = true;
+            remainingTicks = task.getRemainingTicks();
+            task.cancel();
             return true; // success
         }
 
@@ -47,6 +38,7 @@ public class Delay {
     public boolean resume() {
         if (onPause && isRunning) {
             onPause = false;
+            task = MinecraftSchedulerManager.schedule(this::start, remainingTicks);
             return true; // success
         }
 
@@ -61,6 +53,6 @@ public class Delay {
 
     public void end() {
         isRunning = false;
-        WynntilsMod.unregisterEventListener(this);
+        task.cancel();
     }
 }
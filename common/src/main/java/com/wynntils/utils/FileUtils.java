@@ -9,8 +9,10 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
 import java.nio.file.FileSystemException;
+import java.nio.file.Files;
 
 public final class FileUtils {
     /**
@@ -63,6 +65,14 @@ public final class FileUtils {
         }
     }
 
+    /**
+     * Reads the whole file into a heap buffer. Files are not memory mapped, as a mapped file stays locked on Windows
+     * until the mapping is garbage collected, so it could not be replaced or deleted.
+     */
+    public static ByteBuffer readToBuffer(File file) throws IOException {
+        return ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+    }
+
     private static void copyFileWindows(File sourceFile, File destFile) {
         try (FileChannel source = new FileInputStream(sourceFile).getChannel();
                 FileChannel destination = new FileOutputStream(destFile).getChannel()) {
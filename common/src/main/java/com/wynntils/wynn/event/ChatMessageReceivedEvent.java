@@ -4,9 +4,12 @@
  */
 package com.wynntils.wynn.event;
 
+import com.wynntils.core.chat.ChatMatches;
+import com.wynntils.core.chat.ChatMessage;
+import com.wynntils.core.chat.ChatPattern;
 import com.wynntils.core.chat.MessageType;
 import com.wynntils.core.chat.RecipientType;
-import com.wynntils.mc.utils.ComponentUtils;
+import java.util.regex.Matcher;
 import net.minecraft.network.chat.Component;
 import net.minecraftforge.eventbus.api.Cancelable;
 import net.minecraftforge.eventbus.api.Event;
@@ -14,36 +17,37 @@ import net.minecraftforge.eventbus.api.Event;
 @Cancelable
 public class ChatMessageReceivedEvent extends Event {
     // These are used to keep the original message so different features don't have to fight over it.
-    private final Component originalMessage;
-    private final String originalCodedMessage;
+    private final ChatMatches originalMatches;
 
-    private Component message;
-    private String codedMessage;
+    private ChatMessage message;
     private final MessageType messageType;
     private final RecipientType recipientType;
 
-    public ChatMessageReceivedEvent(
-            Component message, String codedMessage, MessageType messageType, RecipientType recipientType) {
-        this.originalMessage = message;
-        this.originalCodedMessage = codedMessage;
+    public ChatMessageReceivedEvent(ChatMatches matches, MessageType messageType, RecipientType recipientType) {
+        this.originalMatches = matches;
 
-        this.message = message;
-        this.codedMessage = codedMessage; // message, but as a format-coded string
+        this.message = matches.getMessage();
         this.messageType = messageType;
         this.recipientType = recipientType;
     }
 
     public Component getMessage() {
-        return message;
+        return message.getComponent();
     }
 
     public void setMessage(Component message) {
-        this.message = message;
-        this.codedMessage = ComponentUtils.getCoded(message);
+        if (message == this.message.getComponent()) return;
+
+        this.message = new ChatMessage(message);
+    }
+
+    /** @return the current message, with its memoized text forms */
+    public ChatMessage getChatMessage() {
+        return message;
     }
 
     public String getCodedMessage() {
-        return codedMessage;
+        return message.getCoded();
     }
 
     public MessageType getMessageType() {
@@ -55,10 +59,22 @@ public class ChatMessageReceivedEvent extends Event {
     }
 
     public Component getOriginalMessage() {
-        return originalMessage;
+        return originalMatches.getMessage().getComponent();
     }
 
     public String getOriginalCodedMessage() {
-        return originalCodedMessage;
+        return originalMatches.getMessage().getCoded();
+    }
+
+    public String getOriginalUnformattedMessage() {
+        return originalMatches.getMessage().getUnformatted();
+    }
+
+    /**
+     * @return the matcher of the chat pattern on the original message after a successful match, or null if
+     *     it does not match. The result is shared with other subscribers.
+     */
+    public Matcher getOriginalMatch(ChatPattern pattern) {
+        return originalMatches.get(pattern);
     }
 }
@@ -72,6 +72,40 @@ public class GearItemStack extends WynnItemStack {
         if (WebManager.getItemsMap() == null || !WebManager.getItemsMap().containsKey(itemName)) return;
         itemProfile = WebManager.getItemsMap().get(itemName);
 
+        // the server sends the same stacks over and over again, so parsing is only done once per stack
+        ParsedGear parsed = GearParseCache.get(stack, itemProfile);
+        if (parsed == null) {
+            parseStack();
+            parsed = new ParsedGear(
+                    itemProfile,
+                    List.copyOf(identifications),
+                    powders == null ? null : List.copyOf(powders),
+                    rerolls,
+                    customName,
+                    overallPercentage,
+                    isPerfect,
+                    isDefective,
+                    hasNew,
+                    List.copyOf(percentTooltip),
+                    List.copyOf(rangeTooltip),
+                    List.copyOf(rerollTooltip));
+            GearParseCache.put(stack, parsed);
+        }
+
+        identifications = parsed.identifications();
+        powders = parsed.powders();
+        rerolls = parsed.rerolls();
+        customName = parsed.customName();
+        overallPercentage = parsed.overallPercentage();
+        isPerfect = parsed.isPerfect();
+        isDefective = parsed.isDefective();
+        hasNew = parsed.hasNew();
+        percentTooltip = parsed.percentTooltip();
+        rangeTooltip = parsed.rangeTooltip();
+        rerollTooltip = parsed.rerollTooltip();
+    }
+
+    private void parseStack() {
         // identification parsing & tooltip creation
         identifications = new ArrayList<>();
 
@@ -142,6 +176,21 @@ public class GearItemStack extends WynnItemStack {
         parseIDs();
     }
 
+    /** The result of parsing a stack, shared by all stacks with the same item and NBT */
+    record ParsedGear(
+            ItemProfile itemProfile,
+            List<ItemIdentificationContainer> identifications,
+            List<Powder> powders,
+            int rerolls,
+            Component customName,
+            float overallPercentage,
+            boolean isPerfect,
+            boolean isDefective,
+            boolean hasNew,
+            List<Component> percentTooltip,
+            List<Component> rangeTooltip,
+            List<Component> rerollTooltip) {}
+
     public GearItemStack(ItemProfile itemProfile) {
         super(itemProfile.getItemInfo().asItemStack());
 
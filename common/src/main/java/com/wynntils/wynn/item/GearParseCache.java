@@ -0,0 +1,72 @@
+/*
+ * Copyright © Wynntils 2022.
+ * This file is released under AGPLv3. See LICENSE for full license details.
+ */
+package com.wynntils.wynn.item;
+
+import com.wynntils.core.webapi.profiles.item.ItemProfile;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+
+/**
+ * Keeps the parsed identifications and tooltips of recently seen gear, so a stack the server sends again, with the
+ * same item and NBT, is not parsed again. Entries are shared between stacks and must not be changed.
+ */
+public final class GearParseCache {
+    private static final int MAX_ENTRIES = 512;
+
+    private static final Map<StackKey, GearItemStack.ParsedGear> CACHE = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<StackKey, GearItemStack.ParsedGear> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    private static long hits = 0;
+    private static long misses = 0;
+
+    private GearParseCache() {}
+
+    /** @return the parsed gear, or null if the stack was not seen with this item profile */
+    static synchronized GearItemStack.ParsedGear get(ItemStack stack, ItemProfile profile) {
+        GearItemStack.ParsedGear parsed = CACHE.get(new StackKey(stack.getItem(), stack.getTag()));
+
+        // The item profiles are replaced when the web data is reloaded
+        if (parsed == null || parsed.itemProfile() != profile) {
+            misses++;
+            return null;
+        }
+
+        hits++;
+        return parsed;
+    }
+
+    static synchronized void put(ItemStack stack, GearItemStack.ParsedGear parsed) {
+        // The tag is copied, since the key must not change when the stack is changed later on
+        CompoundTag tag = stack.getTag();
+        CACHE.put(new StackKey(stack.getItem(), tag == null ? null : tag.copy()), parsed);
+    }
+
+    /** Must be called when anything the parsed tooltips depend on changes */
+    public static synchronized void clear() {
+        CACHE.clear();
+    }
+
+    public static synchronized long getHits() {
+        return hits;
+    }
+
+    public static synchronized long getMisses() {
+        return misses;
+    }
+
+    public static synchronized int getSize() {
+        return CACHE.size();
+    }
+
+    // NBT tags compare and hash by content
+    private record StackKey(Item item, CompoundTag tag) {}
+}
@@ -6,6 +6,8 @@ package com.wynntils.wynn.item;
 
 import com.wynntils.core.managers.Model;
 import com.wynntils.mc.event.SetSlotEvent;
+import com.wynntils.mc.event.WebDataLoadedEvent;
+import com.wynntils.wynn.item.parsers.ItemView;
 import com.wynntils.wynn.item.parsers.WynnItemMatchers;
 import com.wynntils.wynn.item.properties.AmplifierTierProperty;
 import com.wynntils.wynn.item.properties.ConsumableChargeProperty;
@@ -25,82 +27,152 @@ import com.wynntils.wynn.item.properties.ServerCountProperty;
 import com.wynntils.wynn.item.properties.SkillIconProperty;
 import com.wynntils.wynn.item.properties.SkillPointProperty;
 import com.wynntils.wynn.item.properties.TeleportScrollProperty;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.function.Predicate;
+import net.minecraft.world.item.Item;
 import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.Items;
 import net.minecraftforge.eventbus.api.EventPriority;
 import net.minecraftforge.eventbus.api.SubscribeEvent;
 
+/**
+ * Classifies item stacks as they are put in slots. Each stack is parsed once into an {@link ItemView} shared by
+ * all matchers, and only the matchers that can apply to the item type, and whose name literal is in the item name,
+ * are run. The time spent in each matcher is recorded.
+ */
 public class ItemStackTransformModel extends Model {
-    private static final Map<Predicate<ItemStack>, ItemStackTransformer> TRANSFORMERS = new HashMap<>();
-    private static final Map<Predicate<ItemStack>, PropertyWriter> PROPERTIES = new HashMap<>();
+    private static final List<ItemMatcher<ItemStackTransformer>> TRANSFORMERS = new ArrayList<>();
+    private static final List<ItemMatcher<PropertyWriter>> PROPERTIES = new ArrayList<>();
 
-    public static void registerTransformer(Predicate<ItemStack> pred, ItemStackTransformer cons) {
-        TRANSFORMERS.put(pred, cons);
-    }
+    // The matchers which can apply to an item type, in registration order; rebuilt on registration
+    private static final Map<Item, List<ItemMatcher<ItemStackTransformer>>> TRANSFORMERS_BY_ITEM = new HashMap<>();
+    private static final Map<Item, List<ItemMatcher<PropertyWriter>>> PROPERTIES_BY_ITEM = new HashMap<>();
 
-    public void unregisterTransformer(Predicate<ItemStack> pred, ItemStackTransformer cons) {
-        TRANSFORMERS.remove(pred, cons);
-    }
+    private static long classifiedStacks = 0;
 
-    public static void registerProperty(Predicate<ItemStack> pred, PropertyWriter cons) {
-        PROPERTIES.put(pred, cons);
+    /** Transformers are tried in registration order, and only the first matching one is applied */
+    public static void registerTransformer(
+            String name, ItemFilter filter, Predicate<ItemView> pred, ItemStackTransformer cons) {
+        TRANSFORMERS.add(new ItemMatcher<>(name, filter, pred, cons));
+        TRANSFORMERS_BY_ITEM.clear();
     }
 
-    public void unregisterProperty(Predicate<ItemStack> pred, PropertyWriter cons) {
-        PROPERTIES.remove(pred, cons);
+    public static void registerProperty(String name, ItemFilter filter, Predicate<ItemView> pred, PropertyWriter cons) {
+        PROPERTIES.add(new ItemMatcher<>(name, filter, pred, cons));
+        PROPERTIES_BY_ITEM.clear();
     }
 
     public static void init() {
-        registerTransformer(WynnItemMatchers::isKnownGear, GearItemStack::new);
-        registerTransformer(WynnItemMatchers::isUnidentified, UnidentifiedItemStack::new);
-        registerTransformer(WynnItemMatchers::isSoulPoint, SoulPointItemStack::new);
-        registerTransformer(WynnItemMatchers::isIntelligenceSkillPoints, IntelligenceSkillPointsItemStack::new);
-        registerTransformer(WynnItemMatchers::isServerItem, ServerItemStack::new);
-        registerTransformer(WynnItemMatchers::isIngredient, IngredientItemStack::new);
-        registerTransformer(WynnItemMatchers::isEmeraldPouch, EmeraldPouchItemStack::new);
-        registerTransformer(WynnItemMatchers::isPowder, PowderItemStack::new);
-
-        registerProperty(WynnItemMatchers::isDurabilityItem, DurabilityProperty::new);
-        registerProperty(WynnItemMatchers::isTieredItem, ItemTierProperty::new);
-        registerProperty(WynnItemMatchers::isCosmetic, CosmeticTierProperty::new);
-        registerProperty(WynnItemMatchers::isDailyRewardsChest, DailyRewardMultiplierProperty::new);
-        registerProperty(WynnItemMatchers::isPowder, PowderTierProperty::new);
-        registerProperty(WynnItemMatchers::isEmeraldPouch, EmeraldPouchTierProperty::new);
-        registerProperty(WynnItemMatchers::isSkillTyped, SkillIconProperty::new);
-        registerProperty(WynnItemMatchers::isSkillPoint, SkillPointProperty::new);
-        registerProperty(WynnItemMatchers::isTeleportScroll, TeleportScrollProperty::new);
-        registerProperty(WynnItemMatchers::isDungeonKey, DungeonKeyProperty::new);
-        registerProperty(WynnItemMatchers::isAmplifier, AmplifierTierProperty::new);
-        registerProperty(WynnItemMatchers::isConsumable, ConsumableChargeProperty::new);
-        registerProperty(WynnItemMatchers::isIngredient, IngredientProperty::new);
-        registerProperty(WynnItemMatchers::isMaterial, MaterialProperty::new);
-        registerProperty(WynnItemMatchers::isHorse, HorseProperty::new);
-        registerProperty(WynnItemMatchers::isServerItem, ServerCountProperty::new);
-        registerProperty(WynnItemMatchers::isGatheringTool, GatheringToolProperty::new);
-        registerProperty(itemStack -> true, SearchOverlayProperty::new);
+        registerTransformer("knownGear", ItemFilter.any(), WynnItemMatchers::isKnownGear, GearItemStack::new);
+        registerTransformer(
+                "unidentified",
+                ItemFilter.items(Items.STONE_SHOVEL),
+                WynnItemMatchers::isUnidentified,
+                UnidentifiedItemStack::new);
+        registerTransformer(
+                "soulPoint",
+                ItemFilter.items(Items.NETHER_STAR, Items.SNOW),
+                WynnItemMatchers::isSoulPoint,
+                SoulPointItemStack::new);
+        registerTransformer(
+                "intelligenceSkillPoints",
+                ItemFilter.items(Items.BOOK),
+                WynnItemMatchers::isIntelligenceSkillPoints,
+                IntelligenceSkillPointsItemStack::new);
+        registerTransformer(
+                "serverItem", ItemFilter.name("World "), WynnItemMatchers::isServerItem, ServerItemStack::new);
+        registerTransformer("ingredient", ItemFilter.any(), WynnItemMatchers::isIngredient, IngredientItemStack::new);
+        registerTransformer(
+                "emeraldPouch",
+                ItemFilter.items(Items.DIAMOND_AXE, Items.GOLDEN_SHOVEL),
+                WynnItemMatchers::isEmeraldPouch,
+                EmeraldPouchItemStack::new);
+        registerTransformer("powder", ItemFilter.any(), WynnItemMatchers::isPowder, PowderItemStack::new);
+
+        registerProperty("durability", ItemFilter.any(), WynnItemMatchers::isDurabilityItem, DurabilityProperty::new);
+        registerProperty("tier", ItemFilter.any(), WynnItemMatchers::isTieredItem, ItemTierProperty::new);
+        registerProperty("cosmetic", ItemFilter.any(), WynnItemMatchers::isCosmetic, CosmeticTierProperty::new);
+        registerProperty(
+                "dailyReward",
+                ItemFilter.name("Daily Reward"),
+                WynnItemMatchers::isDailyRewardsChest,
+                DailyRewardMultiplierProperty::new);
+        registerProperty("powder", ItemFilter.any(), WynnItemMatchers::isPowder, PowderTierProperty::new);
+        registerProperty(
+                "emeraldPouch",
+                ItemFilter.items(Items.DIAMOND_AXE, Items.GOLDEN_SHOVEL),
+                WynnItemMatchers::isEmeraldPouch,
+                EmeraldPouchTierProperty::new);
+        registerProperty("skillIcon", ItemFilter.any(), WynnItemMatchers::isSkillTyped, SkillIconProperty::new);
+        registerProperty(
+                "skillPoint",
+                ItemFilter.name("Upgrade your"),
+                WynnItemMatchers::isSkillPoint,
+                SkillPointProperty::new);
+        registerProperty(
+                "teleportScroll",
+                ItemFilter.name("Teleport Scroll"),
+                WynnItemMatchers::isTeleportScroll,
+                TeleportScrollProperty::new);
+        registerProperty("dungeonKey", ItemFilter.name("Key"), WynnItemMatchers::isDungeonKey, DungeonKeyProperty::new);
+        registerProperty(
+                "amplifier",
+                ItemFilter.name("Corkian Amplifier"),
+                WynnItemMatchers::isAmplifier,
+                AmplifierTierProperty::new);
+        registerProperty(
+                "consumable",
+                ItemFilter.items(Items.POTION, Items.DIAMOND_AXE),
+                WynnItemMatchers::isConsumable,
+                ConsumableChargeProperty::new);
+        registerProperty("ingredient", ItemFilter.any(), WynnItemMatchers::isIngredient, IngredientProperty::new);
+        registerProperty("material", ItemFilter.name("✫"), WynnItemMatchers::isMaterial, MaterialProperty::new);
+        registerProperty("horse", ItemFilter.items(Items.SADDLE), WynnItemMatchers::isHorse, HorseProperty::new);
+        registerProperty(
+                "serverCount", ItemFilter.name("World "), WynnItemMatchers::isServerItem, ServerCountProperty::new);
+        registerProperty(
+                "gatheringTool",
+                ItemFilter.name("Gathering"),
+                WynnItemMatchers::isGatheringTool,
+                GatheringToolProperty::new);
+        registerProperty("searchOverlay", ItemFilter.any(), view -> true, SearchOverlayProperty::new);
+    }
+
+    @SubscribeEvent
+    public static void onWebDataLoaded(WebDataLoadedEvent event) {
+        // Gear parsed with the old item profiles is never used again
+        if (event.getDataType() == WebDataLoadedEvent.DataType.ITEM_LIST) {
+            GearParseCache.clear();
+        }
     }
 
     @SubscribeEvent(priority = EventPriority.HIGHEST)
     public static void onSetSlot(SetSlotEvent.Pre event) {
         ItemStack stack = event.getItem();
+        ItemView view = new ItemView(stack);
+        classifiedStacks++;
 
         // itemstack transformers
-        for (Map.Entry<Predicate<ItemStack>, ItemStackTransformer> e : TRANSFORMERS.entrySet()) {
-            if (e.getKey().test(stack)) {
-                stack = e.getValue().transform(stack);
+        for (ItemMatcher<ItemStackTransformer> matcher : getTransformers(stack.getItem())) {
+            if (matcher.test(view)) {
+                stack = matcher.action.transform(stack);
+                // The transformed stack can have a different name and lore
+                view = new ItemView(stack);
                 break;
             }
         }
 
         // itemstack properties
-        for (Map.Entry<Predicate<ItemStack>, PropertyWriter> e : PROPERTIES.entrySet()) {
-            if (e.getKey().test(stack)) {
+        for (ItemMatcher<PropertyWriter> matcher : getProperties(stack.getItem())) {
+            if (matcher.test(view)) {
                 if (!(stack instanceof WynnItemStack))
                     stack = new WynnItemStack(stack); // create WynnItemStack wrapper to hold properties if necessary
 
-                e.getValue().attach((WynnItemStack) stack);
+                matcher.action.attach((WynnItemStack) stack);
             }
         }
 
@@ -110,13 +182,105 @@ public class ItemStackTransformModel extends Model {
         event.setItem(stack);
     }
 
+    public static long getClassifiedStacks() {
+        return classifiedStacks;
+    }
+
+    /** @return the statistics of every transformer and property matcher */
+    public static List<MatcherStats> getMatcherStats() {
+        List<MatcherStats> stats = new ArrayList<>();
+        for (ItemMatcher<?> matcher : TRANSFORMERS) {
+            stats.add(matcher.getStats("transformer/"));
+        }
+        for (ItemMatcher<?> matcher : PROPERTIES) {
+            stats.add(matcher.getStats("property/"));
+        }
+        return stats;
+    }
+
+    private static List<ItemMatcher<ItemStackTransformer>> getTransformers(Item item) {
+        return TRANSFORMERS_BY_ITEM.computeIfAbsent(item, i -> TRANSFORMERS.stream()
+                .filter(matcher -> matcher.filter.accepts(i))
+                .toList());
+    }
+
+    private static List<ItemMatcher<PropertyWriter>> getProperties(Item item) {
+        return PROPERTIES_BY_ITEM.computeIfAbsent(item, i -> PROPERTIES.stream()
+                .filter(matcher -> matcher.filter.accepts(i))
+                .toList());
+    }
+
+    /**
+     * Selects the items a matcher can apply to. A matcher limited to item types is never run for other types,
+     * and a matcher with a name literal is only run when the unformatted name contains it. The filter must never
+     * exclude an item the predicate would match.
+     */
+    public record ItemFilter(Set<Item> items, String nameLiteral) {
+        public static ItemFilter any() {
+            return new ItemFilter(null, null);
+        }
+
+        public static ItemFilter items(Item... items) {
+            return new ItemFilter(Set.of(items), null);
+        }
+
+        public static ItemFilter name(String nameLiteral) {
+            return new ItemFilter(null, nameLiteral);
+        }
+
+        private boolean accepts(Item item) {
+            return items == null || items.contains(item);
+        }
+    }
+
+    public record MatcherStats(String name, long nanos, long tests, long hits, long skipped) {}
+
+    private static final class ItemMatcher<T> {
+        private final String name;
+        private final ItemFilter filter;
+        private final Predicate<ItemView> predicate;
+        private final T action;
+
+        private long nanos = 0;
+        private long tests = 0;
+        private long hits = 0;
+        private long skipped = 0;
+
+        private ItemMatcher(String name, ItemFilter filter, Predicate<ItemView> predicate, T action) {
+            this.name = name;
+            this.filter = filter;
+            this.predicate = predicate;
+            this.action = action;
+        }
+
+        private boolean test(ItemView view) {
+            if (filter.nameLiteral() != null && !view.getUnformattedName().contains(filter.nameLiteral())) {
+                skipped++;
+                return false;
+            }
+
+            long start = System.nanoTime();
+            boolean matches = predicate.test(view);
+            nanos += System.nanoTime() - start;
+            tests++;
+            if (matches) {
+                hits++;
+            }
+            return matches;
+        }
+
+        private MatcherStats getStats(String prefix) {
+            return new MatcherStats(prefix + name, nanos, tests, hits, skipped);
+        }
+    }
+
     @FunctionalInterface
-    private interface ItemStackTransformer {
+    public interface ItemStackTransformer {
         WynnItemStack transform(ItemStack stack);
     }
 
     @FunctionalInterface
-    private interface PropertyWriter {
+    public interface PropertyWriter {
         void attach(WynnItemStack stack);
     }
 }
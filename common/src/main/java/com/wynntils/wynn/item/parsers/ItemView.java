@@ -0,0 +1,125 @@
+/*
+ * Copyright © Wynntils 2022.
+ * This file is released under AGPLv3. See LICENSE for full license details.
+ */
+package com.wynntils.wynn.item.parsers;
+
+import com.wynntils.mc.utils.ComponentUtils;
+import com.wynntils.mc.utils.ItemUtils;
+import com.wynntils.wynn.utils.WynnUtils;
+import java.util.ArrayList;
+import java.util.List;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.Tag;
+import net.minecraft.network.chat.Component;
+import net.minecraft.world.item.ItemStack;
+
+/**
+ * The name and lore of an item stack, in the text forms the item matchers test. Each form is parsed when it is
+ * first asked for and then kept, so a stack is parsed once, no matter how many matchers look at it. A view must
+ * not outlive a change to its stack.
+ */
+public final class ItemView {
+    private final ItemStack itemStack;
+
+    private String name = null;
+    private String codedName = null;
+    private String unformattedName = null;
+    private String normalizedName = null;
+    private String normalizedUnformattedName = null;
+    private List<String> unformattedLore = null;
+    private String codedLore = null;
+    private List<Component> tooltipLines = null;
+    private List<String> tooltipStrings = null;
+    private List<String> codedTooltipLines = null;
+
+    public ItemView(ItemStack itemStack) {
+        this.itemStack = itemStack;
+    }
+
+    public ItemStack getItemStack() {
+        return itemStack;
+    }
+
+    /** @return the hover name as a string, which for Wynncraft items still holds the § codes */
+    public String getName() {
+        if (name == null) {
+            name = itemStack.getHoverName().getString();
+        }
+        return name;
+    }
+
+    public String getCodedName() {
+        if (codedName == null) {
+            codedName = ComponentUtils.getCoded(itemStack.getHoverName());
+        }
+        return codedName;
+    }
+
+    public String getUnformattedName() {
+        if (unformattedName == null) {
+            unformattedName = ComponentUtils.stripFormatting(getName());
+        }
+        return unformattedName;
+    }
+
+    /** @see WynnUtils#normalizeBadString(String) */
+    public String getNormalizedName() {
+        if (normalizedName == null) {
+            normalizedName = WynnUtils.normalizeBadString(getName());
+        }
+        return normalizedName;
+    }
+
+    public String getNormalizedUnformattedName() {
+        if (normalizedUnformattedName == null) {
+            normalizedUnformattedName = WynnUtils.normalizeBadString(getUnformattedName());
+        }
+        return normalizedUnformattedName;
+    }
+
+    /** @return the lines of the lore tag without formatting, skipping lines that can not be parsed */
+    public List<String> getUnformattedLore() {
+        if (unformattedLore == null) {
+            List<String> lore = new ArrayList<>();
+            ListTag loreTag = ItemUtils.getLoreTagElseEmpty(itemStack);
+            for (Tag tag : loreTag) {
+                String line = ComponentUtils.getUnformatted(tag.getAsString());
+                if (line != null) {
+                    lore.add(line);
+                }
+            }
+            unformattedLore = lore;
+        }
+        return unformattedLore;
+    }
+
+    /** @see ItemUtils#getStringLore(ItemStack) */
+    public String getCodedLore() {
+        if (codedLore == null) {
+            codedLore = ItemUtils.getStringLore(itemStack);
+        }
+        return codedLore;
+    }
+
+    public List<Component> getTooltipLines() {
+        if (tooltipLines == null) {
+            tooltipLines = ItemUtils.getTooltipLines(itemStack);
+        }
+        return tooltipLines;
+    }
+
+    public List<String> getTooltipStrings() {
+        if (tooltipStrings == null) {
+            tooltipStrings = getTooltipLines().stream().map(Component::getString).toList();
+        }
+        return tooltipStrings;
+    }
+
+    public List<String> getCodedTooltipLines() {
+        if (codedTooltipLines == null) {
+            codedTooltipLines = getTooltipLines().stream().map(ComponentUtils::getCoded).toList();
+        }
+        return codedTooltipLines;
+    }
+}
@@ -7,7 +7,6 @@ package com.wynntils.wynn.item.parsers;
 import com.wynntils.core.webapi.WebManager;
 import com.wynntils.core.webapi.profiles.item.ItemProfile;
 import com.wynntils.mc.utils.ComponentUtils;
-import com.wynntils.mc.utils.ItemUtils;
 import com.wynntils.wynn.item.EmeraldPouchItemStack;
 import com.wynntils.wynn.item.GearItemStack;
 import com.wynntils.wynn.item.IngredientItemStack;
@@ -16,13 +15,14 @@ import com.wynntils.wynn.utils.WynnUtils;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import net.minecraft.ChatFormatting;
-import net.minecraft.nbt.ListTag;
-import net.minecraft.nbt.Tag;
 import net.minecraft.network.chat.Component;
 import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.item.Items;
 
-/** Tests if an item is a certain wynncraft item */
+/**
+ * Tests if an item is a certain wynncraft item. Every matcher also takes an {@link ItemView}, so an item tested
+ * by many matchers has its name and lore parsed only once.
+ */
 public final class WynnItemMatchers {
     private static final Pattern SERVER_ITEM_PATTERN = Pattern.compile("§[baec]§lWorld (\\d+)(§3 \\(Recommended\\))?");
     private static final Pattern CONSUMABLE_PATTERN = Pattern.compile("(.+)\\[([0-9]+)/([0-9]+)]");
@@ -48,36 +48,46 @@ public final class WynnItemMatchers {
             Pattern.compile("[ⒸⒷⓀⒿ] Gathering (Axe|Rod|Scythe|Pickaxe) T(\\d+)");
 
     public static boolean isSoulPoint(ItemStack itemStack) {
+        return isSoulPoint(new ItemView(itemStack));
+    }
+
+    public static boolean isSoulPoint(ItemView view) {
+        ItemStack itemStack = view.getItemStack();
         return !itemStack.isEmpty()
                 && (itemStack.getItem() == Items.NETHER_STAR || itemStack.getItem() == Items.SNOW)
-                && itemStack.getDisplayName().getString().contains("Soul Point");
+                && view.getName().contains("Soul Point");
     }
 
     public static boolean isIntelligenceSkillPoints(ItemStack itemStack) {
-        if (itemStack.getItem() != Items.BOOK) return false;
+        return isIntelligenceSkillPoints(new ItemView(itemStack));
+    }
 
-        Component name = itemStack.getHoverName();
-        String unformattedLoreLine = ComponentUtils.getCoded(name);
-        return unformattedLoreLine.equals("§dUpgrade your §b❉ Intelligence§d skill");
+    public static boolean isIntelligenceSkillPoints(ItemView view) {
+        if (view.getItemStack().getItem() != Items.BOOK) return false;
+
+        return view.getCodedName().equals("§dUpgrade your §b❉ Intelligence§d skill");
     }
 
     public static boolean isServerItem(ItemStack itemStack) {
-        return serverItemMatcher(itemStack.getHoverName()).matches();
+        return isServerItem(new ItemView(itemStack));
+    }
+
+    public static boolean isServerItem(ItemView view) {
+        return SERVER_ITEM_PATTERN.matcher(view.getName()).matches();
     }
 
     public static boolean isHealingPotion(ItemStack itemStack) {
-        if (!isConsumable(itemStack)) return false;
-        if (itemStack.getHoverName().getString().contains(ChatFormatting.LIGHT_PURPLE + "Potions of Healing")
-                || itemStack.getHoverName().getString().contains(ChatFormatting.RED + "Potion of Healing")) return true;
+        return isHealingPotion(new ItemView(itemStack));
+    }
+
+    public static boolean isHealingPotion(ItemView view) {
+        if (!isConsumable(view)) return false;
+        if (view.getName().contains(ChatFormatting.LIGHT_PURPLE + "Potions of Healing")
+                || view.getName().contains(ChatFormatting.RED + "Potion of Healing")) return true;
 
         boolean isCraftedPotion = false;
         boolean hasHealEffect = false;
-        ListTag lore = ItemUtils.getLoreTagElseEmpty(itemStack);
-        for (Tag tag : lore) {
-            String unformattedLoreLine = ComponentUtils.getUnformatted(tag.getAsString());
-
-            if (unformattedLoreLine == null) continue;
-
+        for (String unformattedLoreLine : view.getUnformattedLore()) {
             if (unformattedLoreLine.equals("Crafted Potion")) {
                 isCraftedPotion = true;
             } else if (unformattedLoreLine.startsWith("- Heal:")) {
@@ -89,16 +99,20 @@ public final class WynnItemMatchers {
     }
 
     public static boolean isConsumable(ItemStack itemStack) {
+        return isConsumable(new ItemView(itemStack));
+    }
+
+    public static boolean isConsumable(ItemView view) {
+        ItemStack itemStack = view.getItemStack();
         if (itemStack.isEmpty()) return false;
 
         // consumables are either a potion or a diamond axe for crafteds
         // to ensure an axe item is really a consumable, make sure it has the right name color
         if (itemStack.getItem() != Items.POTION
                 && !(itemStack.getItem() == Items.DIAMOND_AXE
-                        && itemStack.getHoverName().getString().startsWith(ChatFormatting.DARK_AQUA.toString())))
-            return false;
+                        && view.getName().startsWith(ChatFormatting.DARK_AQUA.toString()))) return false;
 
-        return consumableNameMatcher(itemStack.getHoverName()).matches();
+        return CONSUMABLE_PATTERN.matcher(view.getNormalizedName()).matches();
     }
 
     public static boolean isUnidentified(ItemStack itemStack) {
@@ -107,39 +121,59 @@ public final class WynnItemMatchers {
                 && itemStack.getDamageValue() <= 6);
     }
 
+    public static boolean isUnidentified(ItemView view) {
+        return isUnidentified(view.getItemStack());
+    }
+
     public static boolean isEmeraldPouch(ItemStack itemStack) {
+        return isEmeraldPouch(new ItemView(itemStack));
+    }
+
+    public static boolean isEmeraldPouch(ItemView view) {
+        ItemStack itemStack = view.getItemStack();
         if (itemStack instanceof EmeraldPouchItemStack) {
             return true;
         }
 
         // Checks for normal emerald pouch (diamond axe) and emerald pouch pickup texture (gold shovel)
         return (itemStack.getItem() == Items.DIAMOND_AXE || itemStack.getItem() == Items.GOLDEN_SHOVEL)
-                && itemStack.getHoverName().getString().startsWith("§aEmerald Pouch§2 [Tier");
+                && view.getName().startsWith("§aEmerald Pouch§2 [Tier");
     }
 
     /**
      * Returns true if the passed item has an attack speed
      */
     public static boolean isWeapon(ItemStack itemStack) {
-        String lore = ItemUtils.getStringLore(itemStack);
+        return isWeapon(new ItemView(itemStack));
+    }
+
+    public static boolean isWeapon(ItemView view) {
+        String lore = view.getCodedLore();
         return lore.contains("Attack Speed") && lore.contains("§7");
     }
 
     public static boolean isHorse(ItemStack itemStack) {
-        return itemStack.getItem() == Items.SADDLE
-                && itemStack.getHoverName().getString().contains("Horse");
+        return isHorse(new ItemView(itemStack));
+    }
+
+    public static boolean isHorse(ItemView view) {
+        return view.getItemStack().getItem() == Items.SADDLE && view.getName().contains("Horse");
     }
 
     /**
      * Returns true if the passed item is a Wynncraft item (armor, weapon, accessory)
      */
     public static boolean isGear(ItemStack itemStack) {
-        if (itemStack instanceof GearItemStack) {
+        return isGear(new ItemView(itemStack));
+    }
+
+    public static boolean isGear(ItemView view) {
+        if (view.getItemStack() instanceof GearItemStack) {
             return true;
         }
 
-        for (Component line : ItemUtils.getTooltipLines(itemStack)) {
-            if (rarityLineMatcher(line).find()) return true;
+        for (String line : view.getTooltipStrings()) {
+            if (ITEM_RARITY_PATTERN.matcher(line).find()) return true;
         }
         return false;
     }
@@ -148,33 +182,48 @@ public final class WynnItemMatchers {
      * Determines if a given ItemStack is an instance of a gear item in the API
      */
     public static boolean isKnownGear(ItemStack itemStack) {
-        String name = itemStack.getHoverName().getString();
-        String strippedName = WynnUtils.normalizeBadString(ComponentUtils.stripFormatting(name));
+        return isKnownGear(new ItemView(itemStack));
+    }
+
+    public static boolean isKnownGear(ItemView view) {
+        String strippedName = view.getNormalizedUnformattedName();
         if (WebManager.getItemsMap() == null || !WebManager.getItemsMap().containsKey(strippedName)) return false;
         ItemProfile profile = WebManager.getItemsMap().get(strippedName);
         return (profile != null
-                && name.startsWith(profile.getTier().getChatFormatting().toString()));
+                && view.getName().startsWith(profile.getTier().getChatFormatting().toString()));
     }
 
     public static boolean isCraftedGear(ItemStack itemStack) {
-        String name = itemStack.getHoverName().getString();
+        return isCraftedGear(new ItemView(itemStack));
+    }
+
+    public static boolean isCraftedGear(ItemView view) {
+        String name = view.getName();
         // crafted gear will have a dark aqua name and a % marker for the status of the item
         return (name.startsWith(ChatFormatting.DARK_AQUA.toString()) && name.contains("%"));
     }
 
     public static boolean isMythic(ItemStack itemStack) {
+        return isMythic(new ItemView(itemStack));
+    }
+
+    public static boolean isMythic(ItemView view) {
         // only gear, identified or not, could be a mythic
-        if (!(isUnidentified(itemStack) || isGear(itemStack))) return false;
+        if (!(isUnidentified(view) || isGear(view))) return false;
 
-        return itemStack.getHoverName().getString().contains(ChatFormatting.DARK_PURPLE.toString());
+        return view.getName().contains(ChatFormatting.DARK_PURPLE.toString());
     }
 
     /**
      * Returns true if the passed item has a durability value (crafted items, tools)
      */
     public static boolean isDurabilityItem(ItemStack itemStack) {
-        for (Component line : ItemUtils.getTooltipLines(itemStack)) {
-            if (durabilityLineMatcher(line).find()) return true;
+        return isDurabilityItem(new ItemView(itemStack));
+    }
+
+    public static boolean isDurabilityItem(ItemView view) {
+        for (String line : view.getTooltipStrings()) {
+            if (DURABILITY_PATTERN.matcher(line).find()) return true;
         }
         return false;
     }
@@ -183,83 +232,137 @@ public final class WynnItemMatchers {
      * Returns true if the passed item is within the Wynncraft tier system (mythic, legendary, etc.)
      */
     public static boolean isTieredItem(ItemStack itemStack) {
-        return isGear(itemStack) || isCraftedGear(itemStack) || isUnidentified(itemStack);
+        return isTieredItem(new ItemView(itemStack));
+    }
+
+    public static boolean isTieredItem(ItemView view) {
+        return isGear(view) || isCraftedGear(view) || isUnidentified(view);
     }
 
     public static boolean isCosmetic(ItemStack itemStack) {
-        for (Component c : ItemUtils.getTooltipLines(itemStack)) {
-            if (COSMETIC_PATTERN.matcher(c.getString()).matches()) return true;
+        return isCosmetic(new ItemView(itemStack));
+    }
+
+    public static boolean isCosmetic(ItemView view) {
+        for (String line : view.getTooltipStrings()) {
+            if (COSMETIC_PATTERN.matcher(line).matches()) return true;
         }
         return false;
     }
 
     public static boolean isDailyRewardsChest(ItemStack itemStack) {
-        return itemStack.getHoverName().getString().contains("Daily Reward");
+        return isDailyRewardsChest(new ItemView(itemStack));
+    }
+
+    public static boolean isDailyRewardsChest(ItemView view) {
+        return view.getName().contains("Daily Reward");
     }
 
     public static boolean isPowder(ItemStack itemStack) {
-        return itemStack instanceof PowderItemStack
-                || powderNameMatcher(itemStack.getHoverName()).matches();
+        return isPowder(new ItemView(itemStack));
+    }
+
+    public static boolean isPowder(ItemView view) {
+        return view.getItemStack() instanceof PowderItemStack
+                || POWDER_PATTERN.matcher(view.getNormalizedName()).matches();
     }
 
     public static boolean isSkillTyped(ItemStack itemStack) {
-        return skillIconMatcher(itemStack.getHoverName()).matches();
+        return isSkillTyped(new ItemView(itemStack));
+    }
+
+    public static boolean isSkillTyped(ItemView view) {
+        return SKILL_ICON_PATTERN.matcher(view.getCodedName()).matches();
     }
 
     public static boolean isSkillPoint(ItemStack itemStack) {
-        return skillPointNameMatcher(itemStack.getHoverName()).matches();
+        return isSkillPoint(new ItemView(itemStack));
+    }
+
+    public static boolean isSkillPoint(ItemView view) {
+        return SKILL_POINT_NAME_PATTERN.matcher(view.getCodedName()).matches();
     }
 
     public static boolean isTeleportScroll(ItemStack itemStack) {
-        return teleportScrollNameMatcher(itemStack.getHoverName()).matches();
+        return isTeleportScroll(new ItemView(itemStack));
+    }
+
+    public static boolean isTeleportScroll(ItemView view) {
+        return TELEPORT_SCROLL_PATTERN
+                .matcher(WynnUtils.normalizeBadString(view.getCodedName()))
+                .matches();
     }
 
     public static boolean isDungeonKey(ItemStack itemStack) {
-        if (!dungeonKeyNameMatcher(itemStack.getHoverName()).matches()) return false;
+        return isDungeonKey(new ItemView(itemStack));
+    }
+
+    public static boolean isDungeonKey(ItemView view) {
+        if (!DUNGEON_KEY_PATTERN.matcher(view.getNormalizedName()).matches()) return false;
 
-        for (Component line : ItemUtils.getTooltipLines(itemStack)) {
+        for (String line : view.getTooltipStrings()) {
             // check lore to avoid matching misc. key items
-            if (line.getString().contains("Dungeon Info")) return true;
-            if (line.getString().contains("Corrupted Dungeon Key")) return true;
+            if (line.contains("Dungeon Info")) return true;
+            if (line.contains("Corrupted Dungeon Key")) return true;
         }
 
         return false;
     }
 
     public static boolean isAmplifier(ItemStack itemStack) {
-        return amplifierNameMatcher(itemStack.getHoverName()).matches();
+        return isAmplifier(new ItemView(itemStack));
+    }
+
+    public static boolean isAmplifier(ItemView view) {
+        return AMPLIFIER_PATTERN.matcher(view.getNormalizedName()).matches();
     }
 
     public static boolean isIngredient(ItemStack itemStack) {
-        if (itemStack instanceof IngredientItemStack) {
+        return isIngredient(new ItemView(itemStack));
+    }
+
+    public static boolean isIngredient(ItemView view) {
+        if (view.getItemStack() instanceof IngredientItemStack) {
             return true;
         }
 
-        if (!ingredientOrMaterialMatcher(itemStack.getHoverName()).matches()) {
+        if (!INGREDIENT_OR_MATERIAL_PATTERN
+                .matcher(view.getNormalizedUnformattedName())
+                .matches()) {
             return false;
         }
 
-        for (Component line : ItemUtils.getTooltipLines(itemStack)) {
-            if (ComponentUtils.getCoded(line).contains("§8Crafting Ingredient")) return true;
+        for (String line : view.getCodedTooltipLines()) {
+            if (line.contains("§8Crafting Ingredient")) return true;
         }
 
         return false;
     }
 
     public static boolean isMaterial(ItemStack itemStack) {
-        if (!ingredientOrMaterialMatcher(itemStack.getHoverName()).matches()) {
+        return isMaterial(new ItemView(itemStack));
+    }
+
+    public static boolean isMaterial(ItemView view) {
+        if (!INGREDIENT_OR_MATERIAL_PATTERN
+                .matcher(view.getNormalizedUnformattedName())
+                .matches()) {
             return false;
         }
 
-        for (Component line : ItemUtils.getTooltipLines(itemStack)) {
-            if (ComponentUtils.getCoded(line).contains("§7Crafting Material")) return true;
+        for (String line : view.getCodedTooltipLines()) {
+            if (line.contains("§7Crafting Material")) return true;
         }
 
         return false;
     }
 
     public static boolean isGatheringTool(ItemStack itemStack) {
-        return gatheringToolMatcher(itemStack.getHoverName()).matches();
+        return isGatheringTool(new ItemView(itemStack));
+    }
+
+    public static boolean isGatheringTool(ItemView view) {
+        return GATHERING_TOOL_PATTERN.matcher(view.getNormalizedUnformattedName()).matches();
     }
 
     public static Matcher serverItemMatcher(Component text) {
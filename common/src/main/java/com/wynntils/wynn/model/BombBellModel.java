@@ -4,8 +4,9 @@
  */
 package com.wynntils.wynn.model;
 
+import com.wynntils.core.chat.ChatMatcher;
+import com.wynntils.core.chat.ChatPattern;
 import com.wynntils.core.managers.Model;
-import com.wynntils.mc.utils.ComponentUtils;
 import com.wynntils.wynn.event.ChatMessageReceivedEvent;
 import com.wynntils.wynn.objects.BombInfo;
 import com.wynntils.wynn.objects.BombType;
@@ -17,8 +18,11 @@ import net.minecraftforge.eventbus.api.EventPriority;
 import net.minecraftforge.eventbus.api.SubscribeEvent;
 
 public class BombBellModel extends Model {
-    private static final Pattern BOMB_BELL_PATTERN =
-            Pattern.compile("^\\[Bomb Bell\\] (?<user>.+) has thrown an? (?<bomb>.+) Bomb on (?<server>.+)$");
+    private static final ChatPattern BOMB_BELL_PATTERN = ChatMatcher.register(
+            "bombBell",
+            Pattern.compile("^\\[Bomb Bell\\] (?<user>.+) has thrown an? (?<bomb>.+) Bomb on (?<server>.+)$"),
+            ChatPattern.Target.UNFORMATTED,
+            ChatPattern.Mode.MATCHES);
 
     private static final Set<BombInfo> BOMB_BELLS = ConcurrentHashMap.newKeySet();
 
@@ -30,10 +34,8 @@ public class BombBellModel extends Model {
 
     @SubscribeEvent(priority = EventPriority.HIGHEST)
     public static void onChat(ChatMessageReceivedEvent event) {
-        String unformatted = ComponentUtils.stripFormatting(event.getOriginalCodedMessage());
-
-        Matcher matcher = BOMB_BELL_PATTERN.matcher(unformatted);
-        if (matcher.matches()) {
+        Matcher matcher = event.getOriginalMatch(BOMB_BELL_PATTERN);
+        if (matcher != null) {
             String user = matcher.group("user");
             String bomb = matcher.group("bomb");
             String server = matcher.group("server");
@@ -4,6 +4,8 @@
  */
 package com.wynntils.wynn.model;
 
+import com.wynntils.core.chat.ChatMatcher;
+import com.wynntils.core.chat.ChatPattern;
 import com.wynntils.core.chat.RecipientType;
 import com.wynntils.core.managers.Model;
 import com.wynntils.utils.Pair;
@@ -22,7 +24,11 @@ import net.minecraftforge.eventbus.api.SubscribeEvent;
 
 public class GuildAttackTimerModel extends Model {
     private static final Pattern GUILD_ATTACK_PATTERN = Pattern.compile("§b- (.+):(.+) §3(.+)");
-    private static final Pattern GUILD_DEFENSE_CHAT_PATTERN = Pattern.compile("§r§3.+§b (.+) defense is (.+)");
+    private static final ChatPattern GUILD_DEFENSE_CHAT_PATTERN = ChatMatcher.register(
+            "guildDefense",
+            Pattern.compile("§r§3.+§b (.+) defense is (.+)"),
+            ChatPattern.Target.CODED,
+            ChatPattern.Mode.MATCHES);
 
     public static final GuildAttackHandler SCOREBOARD_HANDLER = new GuildAttackHandler();
     private static final TimedSet<Pair<String, String>> territoryDefenseSet = new TimedSet<>(5, TimeUnit.SECONDS, true);
@@ -35,8 +41,8 @@ public class GuildAttackTimerModel extends Model {
     public static void onMessage(ChatMessageReceivedEvent event) {
         if (event.getRecipientType() != RecipientType.GUILD) return;
 
-        Matcher matcher = GUILD_DEFENSE_CHAT_PATTERN.matcher(event.getOriginalCodedMessage());
-        if (!matcher.matches()) return;
+        Matcher matcher = event.getOriginalMatch(GUILD_DEFENSE_CHAT_PATTERN);
+        if (matcher == null) return;
 
         Optional<TerritoryAttackTimer> territory = attackTimers.stream()
                 .filter(territoryAttackTimer -> territoryAttackTimer.territory().equals(matcher.group(1))
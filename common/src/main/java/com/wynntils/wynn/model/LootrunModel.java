@@ -14,8 +14,13 @@ import com.mojang.blaze3d.vertex.VertexConsumer;
 import com.mojang.math.Matrix4f;
 import com.wynntils.core.WynntilsMod;
 import com.wynntils.features.statemanaged.LootrunFeature;
-import com.wynntils.gui.render.CustomRenderType;
 import com.wynntils.mc.utils.McUtils;
+import com.wynntils.wynn.model.lootrun.BinaryLootrunFormat;
+import com.wynntils.wynn.model.lootrun.IncrementalLootrunCompiler;
+import com.wynntils.wynn.model.lootrun.LootrunCatalog;
+import com.wynntils.wynn.model.lootrun.LootrunCatalog.LootrunMetadata;
+import com.wynntils.wynn.model.lootrun.LootrunMeshCache;
+import com.wynntils.wynn.model.lootrun.LootrunSampler;
 import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
 import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
 import java.io.File;
@@ -41,20 +46,18 @@ import net.minecraft.client.renderer.MultiBufferSource;
 import net.minecraft.client.renderer.RenderType;
 import net.minecraft.core.BlockPos;
 import net.minecraft.network.chat.Component;
-import net.minecraft.util.CubicSpline;
 import net.minecraft.util.FastColor;
 import net.minecraft.util.FormattedCharSequence;
 import net.minecraft.util.Mth;
 import net.minecraft.world.entity.Entity;
 import net.minecraft.world.level.ChunkPos;
-import net.minecraft.world.level.Level;
-import net.minecraft.world.level.block.Blocks;
-import net.minecraft.world.level.block.state.BlockState;
 import net.minecraft.world.phys.AABB;
 import net.minecraft.world.phys.Vec3;
+import org.apache.commons.io.FileUtils;
 
 public final class LootrunModel {
     public static final File LOOTRUNS = WynntilsMod.getModStorageDir("lootruns");
+    private static final File EXPORTS = new File(LOOTRUNS, "exported");
 
     private static final List<Integer> COLORS = List.of(
             ChatFormatting.RED.getColor(),
@@ -65,6 +68,9 @@ public final class LootrunModel {
             0x3f00ff,
             ChatFormatting.DARK_PURPLE.getColor());
 
+    private static final LootrunMeshCache LOOTRUN_MESHES = new LootrunMeshCache();
+    private static final LootrunMeshCache RECORDING_MESHES = new LootrunMeshCache();
+
     private static LootrunState state = LootrunState.DISABLED;
 
     private static LootrunInstance lootrun = null;
@@ -73,17 +79,23 @@ public final class LootrunModel {
     private static LootrunUncompiled recording = null;
 
     private static RecordingInformation recordingInformation = null;
+    private static IncrementalLootrunCompiler recordingCompiler = null;
 
     public static LootrunState getState() {
         return state;
     }
 
     public static void render(PoseStack poseStack) {
-        renderLootrun(poseStack, lootrun, LootrunFeature.INSTANCE.activePathColor.asInt());
-        renderLootrun(poseStack, recordingCompiled, LootrunFeature.INSTANCE.recordingPathColor.asInt());
+        renderLootrun(poseStack, lootrun, LOOTRUN_MESHES, LootrunFeature.INSTANCE.activePathColor.asInt());
+        renderLootrun(
+                poseStack,
+                recordingCompiled,
+                RECORDING_MESHES,
+                LootrunFeature.INSTANCE.recordingPathColor.asInt());
     }
 
-    private static void renderLootrun(PoseStack poseStack, LootrunInstance lootrun, int color) {
+    private static void renderLootrun(
+            PoseStack poseStack, LootrunInstance lootrun, LootrunMeshCache meshes, int color) {
         if (lootrun == null) {
             return;
         }
@@ -106,6 +118,8 @@ public final class LootrunModel {
         BlockPos pos = camera.getBlockPosition();
         ChunkPos origin = new ChunkPos(pos);
 
+        meshes.startFrame(lootrun);
+
         for (int i = 0; i <= renderDistance; i++) {
             for (int j = 0; j <= renderDistance; j++) {
                 int x = j + origin.x - (renderDistance / 2);
@@ -118,7 +132,7 @@ public final class LootrunModel {
                 long chunkLong = chunk.toLong();
 
                 if (points.containsKey(chunkLong)) {
-                    renderPoints(poseStack, source, points, chunkLong);
+                    meshes.renderChunk(poseStack, level, chunkLong);
                 }
 
                 if (lootrun.chests().containsKey(chunkLong)) {
@@ -178,116 +192,9 @@ public final class LootrunModel {
         source.endBatch();
     }
 
-    private static void renderPoints(
-            PoseStack poseStack,
-            MultiBufferSource.BufferSource source,
-            Long2ObjectMap<List<ColoredPath>> points,
-            long chunkLong) {
-        List<ColoredPath> locations = points.get(chunkLong);
-
-        Level level = McUtils.mc().level;
-        if (level == null) return;
-
-        renderNonTexturedLootrunPoints(poseStack, source, locations, level, CustomRenderType.LOOTRUN_LINE);
-    }
-
-    private static void renderNonTexturedLootrunPoints(
-            PoseStack poseStack,
-            MultiBufferSource.BufferSource source,
-            List<ColoredPath> locations,
-            Level level,
-            RenderType renderType) {
-        for (ColoredPath locationsInRoute : locations) {
-            VertexConsumer consumer = source.getBuffer(renderType);
-            Matrix4f lastMatrix = poseStack.last().pose();
-            boolean sourceBatchEnded = false;
-
-            ColoredPath toRender = new ColoredPath(new ArrayList<>());
-
-            boolean pauseDraw = false;
-            BlockPos lastBlockPos = null;
-
-            for (ColoredPoint point : locationsInRoute.points()) {
-                BlockPos blockPos = new BlockPos(point.vec3());
-
-                if (blockPos.equals(lastBlockPos)) { // Do not recalculate block validness
-                    if (!toRender.points().isEmpty()) {
-                        toRender.points().add(point);
-                    }
-                } else {
-                    BlockValidness blockValidness = checkBlockValidness(level, point);
-
-                    if (blockValidness == BlockValidness.VALID) {
-                        pauseDraw = false;
-                        if (sourceBatchEnded) {
-                            consumer = source.getBuffer(renderType);
-                            sourceBatchEnded = false;
-                        }
-                        renderQueuedPoints(consumer, lastMatrix, toRender);
-                        toRender.points().clear();
-                    } else if (blockValidness == BlockValidness.HAS_BARRIER) {
-                        pauseDraw = true;
-                        toRender.points().clear();
-                    } else {
-                        pauseDraw = false;
-                        toRender.points().add(point);
-                        continue;
-                    }
-                }
-
-                lastBlockPos = blockPos;
-
-                if (!pauseDraw) {
-                    renderPoint(consumer, lastMatrix, point);
-                } else if (!sourceBatchEnded) {
-                    source.endBatch();
-                    sourceBatchEnded = true;
-                }
-            }
-            if (!sourceBatchEnded) {
-                renderQueuedPoints(consumer, lastMatrix, toRender);
-                source.endBatch();
-            }
-        }
-    }
-
-    private static void renderQueuedPoints(VertexConsumer consumer, Matrix4f lastMatrix, ColoredPath toRender) {
-        for (ColoredPoint location : toRender.points()) {
-            renderPoint(consumer, lastMatrix, location);
-        }
-    }
-
-    private static void renderPoint(VertexConsumer consumer, Matrix4f lastMatrix, ColoredPoint location) {
-        Vec3 rawLocation = location.vec3();
-        int pathColor = location.color();
-        consumer.vertex(lastMatrix, (float) rawLocation.x, (float) rawLocation.y, (float) rawLocation.z)
-                .color(pathColor)
-                .normal(0, 0, 1)
-                .endVertex();
-    }
-
-    private static BlockValidness checkBlockValidness(Level level, ColoredPoint point) {
-        BlockValidness state = BlockValidness.INVALID;
-        Iterable<BlockPos> blocks = getBlocksForPoint(point);
-
-        for (BlockPos blockInArea : blocks) {
-            BlockState blockStateInArea = level.getBlockState(blockInArea);
-            if (blockStateInArea.is(Blocks.BARRIER)) {
-                state = BlockValidness.HAS_BARRIER;
-            } else if (blockStateInArea.getCollisionShape(level, blockInArea) != null) {
-                state = BlockValidness.VALID;
-                return state;
-            }
-        }
-
-        return state;
-    }
-
-    private static Iterable<BlockPos> getBlocksForPoint(ColoredPoint loc) {
-        BlockPos minPos = new BlockPos(loc.vec3().x - 0.3D, loc.vec3().y - 1D, loc.vec3().z - 0.3D);
-        BlockPos maxPos = new BlockPos(loc.vec3().x + 0.3D, loc.vec3().y - 1D, loc.vec3().z + 0.3D);
-
-        return BlockPos.betweenClosed(minPos, maxPos);
+    public static void onChunkUpdate(int chunkX, int chunkZ) {
+        LOOTRUN_MESHES.onChunkUpdate(chunkX, chunkZ);
+        RECORDING_MESHES.onChunkUpdate(chunkX, chunkZ);
     }
 
     public static int addNote(Component text) {
@@ -297,7 +204,11 @@ public final class LootrunModel {
 
         if (current == null) return 0;
 
-        current.notes().add(new Note(root.position(), text));
+        Note note = new Note(root.position(), text);
+        current.notes().add(note);
+        if (recordingCompiler != null && current == recording) {
+            recordingCompiler.addNote(note);
+        }
         return recompileLootrun(true);
     }
 
@@ -317,102 +228,42 @@ public final class LootrunModel {
         if (recording != null) {
             recordingInformation.setDirty(true);
         } else if (uncompiled != null) {
-            lootrun = compile(uncompiled, false);
+            lootrun = compile(uncompiled);
             if (saveToFile && uncompiled.file() != null) {
-                LootrunSaveResult lootrunSaveResult =
-                        trySaveCurrentLootrun(uncompiled.file().getName());
-
-                if (lootrunSaveResult == null) {
-                    return 0;
-                }
-
-                switch (lootrunSaveResult) {
-                    case SAVED -> {
-                        return 1;
-                    }
-                    case ERROR_SAVING, ERROR_ALREADY_EXISTS -> {
-                        return 0;
-                    }
-                }
+                return uncompiled.writeTo(uncompiled.file()) == LootrunSaveResult.SAVED ? 1 : 0;
             }
         }
         return 1;
     }
 
-    private static LootrunInstance compile(LootrunUncompiled uncompiled, boolean recording) {
-        Long2ObjectMap<List<ColoredPath>> points = generatePointsByChunk(uncompiled.path(), recording);
+    private static LootrunInstance compile(LootrunUncompiled uncompiled) {
+        Long2ObjectMap<List<ColoredPath>> points = generatePointsByChunk(uncompiled.path());
         Long2ObjectMap<Set<BlockPos>> chests = getChests(uncompiled.chests());
         Long2ObjectMap<List<Note>> notes = getNotes(uncompiled.notes());
 
-        String lootrunName = recording
-                ? "recorded_lootrun"
-                : (uncompiled.file() == null
-                        ? "lootrun"
-                        : uncompiled.file().getName().replace(".json", ""));
+        String lootrunName = uncompiled.file() == null
+                ? "lootrun"
+                : uncompiled.file().getName().replaceAll("\\.(json|lootrun)$", "");
         return new LootrunInstance(lootrunName, uncompiled.path, points, chests, notes);
     }
 
-    private static List<Path> sample(Path raw, float sampleRate) {
-        List<Path> vec3s = new ArrayList<>();
-        Path currentVec3s = new Path(new ArrayList<>());
-        vec3s.add(currentVec3s);
-        for (Vec3 element : raw.points()) {
-            if (!currentVec3s.points().isEmpty()
-                    && currentVec3s
-                                    .points()
-                                    .get(currentVec3s.points().size() - 1)
-                                    .distanceTo(element)
-                            >= 32) {
-                currentVec3s = new Path(new ArrayList<>());
-                vec3s.add(currentVec3s);
-            }
-            currentVec3s.points().add(element);
-        }
-
-        List<Path> result = new ArrayList<>();
-        for (Path current : vec3s) {
-            float distance = 0f;
-            CubicSpline.Builder<Float> builderX = CubicSpline.builder((value) -> value);
-            CubicSpline.Builder<Float> builderY = CubicSpline.builder((value) -> value);
-            CubicSpline.Builder<Float> builderZ = CubicSpline.builder((value) -> value);
-            for (int i = 0; i < current.points().size(); i++) {
-                Vec3 vec3 = current.points().get(i);
-                if (i > 0) {
-                    distance += current.points().get(i - 1).distanceTo(vec3);
-                }
-
-                float slopeX = 0f;
-                float slopeY = 0f;
-                float slopeZ = 0f;
-                if (i < current.points().size() - 1) {
-                    Vec3 next = current.points().get(i + 1);
-                    slopeX = (float) ((next.x - vec3.x) / vec3.distanceTo(next));
-                    slopeY = (float) ((next.y - vec3.y) / vec3.distanceTo(next));
-                    slopeZ = (float) ((next.z - vec3.z) / vec3.distanceTo(next));
-                }
-                builderX.addPoint(distance, (float) vec3.x, slopeX);
-                builderY.addPoint(distance, (float) vec3.y, slopeY);
-                builderZ.addPoint(distance, (float) vec3.z, slopeZ);
-            }
-            CubicSpline<Float> splineX = builderX.build();
-            CubicSpline<Float> splineY = builderY.build();
-            CubicSpline<Float> splineZ = builderZ.build();
-
-            Path newResult = new Path(new ArrayList<>());
-            for (float i = 0f; i < distance; i += (1f / sampleRate)) {
-                newResult.points().add(new Vec3(splineX.apply(i), splineY.apply(i), splineZ.apply(i)));
-            }
-            result.add(newResult);
+    private static LootrunInstance compileRecording() {
+        // The recording is only appended to, unless something was undone or removed
+        int color = LootrunFeature.INSTANCE.recordingPathColor.asInt();
+        if (recordingCompiler == null
+                || recordingCompiler.getColor() != color
+                || !recordingCompiler.canContinue(recording.path().points())) {
+            recordingCompiler = new IncrementalLootrunCompiler(color);
+            recording.chests().forEach(recordingCompiler::addChest);
+            recording.notes().forEach(recordingCompiler::addNote);
         }
-        return result;
-    }
 
-    private static Long2ObjectMap<List<ColoredPath>> generatePointsByChunk(Path raw, boolean recording) {
-        float sampleRate = 10f;
+        recordingCompiler.addPoints(recording.path().points());
+        return recordingCompiler.build("recorded_lootrun", recording.path());
+    }
 
-        List<List<Vec3>> sampled =
-                sample(raw, sampleRate).stream().map(Path::points).toList();
-        List<Vec3> vec3s = sampled.stream().flatMap(List::stream).toList();
+    private static Long2ObjectMap<List<ColoredPath>> generatePointsByChunk(Path raw) {
+        List<Vec3> vec3s = LootrunSampler.sample(raw.points());
 
         ColoredPath locationsList = new ColoredPath(new ArrayList<>());
 
@@ -427,7 +278,7 @@ public final class LootrunModel {
         for (int i = 0; i < vec3s.size(); i++) {
             Vec3 location = vec3s.get(i);
 
-            if (LootrunFeature.INSTANCE.rainbowLootRun && !recording) {
+            if (LootrunFeature.INSTANCE.rainbowLootRun) {
                 int cycleDistance = LootrunFeature.INSTANCE.cycleDistance;
                 int cycle = 10 * cycleDistance;
                 int parts = i % cycle;
@@ -456,11 +307,7 @@ public final class LootrunModel {
             } else {
                 locationsList
                         .points()
-                        .add(new ColoredPoint(
-                                location,
-                                recording
-                                        ? LootrunFeature.INSTANCE.recordingPathColor.asInt()
-                                        : LootrunFeature.INSTANCE.activePathColor.asInt()));
+                        .add(new ColoredPoint(location, LootrunFeature.INSTANCE.activePathColor.asInt()));
             }
         }
 
@@ -507,6 +354,17 @@ public final class LootrunModel {
         return result;
     }
 
+    private static LootrunUncompiled readLootrunFile(File file) throws IOException {
+        if (file.getName().endsWith(BinaryLootrunFormat.EXTENSION)) {
+            return BinaryLootrunFormat.read(file);
+        }
+
+        // Lootruns shared as JSON can be loaded directly
+        try (FileReader reader = new FileReader(file, StandardCharsets.UTF_8)) {
+            return readJson(file, JsonParser.parseReader(reader).getAsJsonObject());
+        }
+    }
+
     private static LootrunUncompiled readJson(File file, JsonObject json) {
         JsonArray points = json.getAsJsonArray("points");
         Path pointsList = new Path(new ArrayList<>());
@@ -535,7 +393,10 @@ public final class LootrunModel {
         if (notesJson != null) {
             for (JsonElement element : notesJson) {
                 JsonObject noteJson = element.getAsJsonObject();
-                JsonObject positionJson = noteJson.getAsJsonObject("location");
+                // Older versions saved the position of notes under a different key
+                JsonObject positionJson = noteJson.has("location")
+                        ? noteJson.getAsJsonObject("location")
+                        : noteJson.getAsJsonObject("position");
                 Vec3 position = new Vec3(
                         positionJson.get("x").getAsDouble(),
                         positionJson.get("y").getAsDouble(),
@@ -556,57 +417,44 @@ public final class LootrunModel {
         recording = null;
         recordingCompiled = null;
         recordingInformation = null;
+        recordingCompiler = null;
+        LOOTRUN_MESHES.clear();
+        RECORDING_MESHES.clear();
     }
 
     public static void stopRecording() {
         // At this point, we already have LootrunFeature registered to the event bus
         state = LootrunState.LOADED;
-        lootrun = compile(recording, false);
+        lootrun = compile(recording);
         uncompiled = recording;
         recording = null;
         recordingCompiled = null;
         recordingInformation = null;
+        recordingCompiler = null;
+        RECORDING_MESHES.clear();
     }
 
     public static void startRecording() {
         state = LootrunState.RECORDING;
         recording = new LootrunUncompiled(new Path(new ArrayList<>()), new HashSet<>(), new ArrayList<>(), null);
         recordingInformation = new RecordingInformation();
+        recordingCompiler = null;
         LootrunFeature.INSTANCE.enable();
     }
 
-    public static List<LootrunInstance> getLootruns() {
-        List<LootrunInstance> lootruns = new ArrayList<>();
-
-        File[] files = LOOTRUNS.listFiles();
-        for (File file : files != null ? files : new File[0]) {
-            if (file.getName().endsWith(".json")) {
-                try {
-                    FileReader reader = new FileReader(file, StandardCharsets.UTF_8);
-                    JsonObject json = JsonParser.parseReader(reader).getAsJsonObject();
-                    LootrunUncompiled uncompiled = readJson(file, json);
-                    lootruns.add(compile(uncompiled, false));
-                } catch (Exception e) {
-                    WynntilsMod.warn("Could not parse lootrun file.", e);
-                }
-            }
-        }
-
-        return lootruns;
+    /** @return the saved lootruns, which are only compiled once loaded with {@link #tryLoadFile(String)} */
+    public static List<LootrunMetadata> getLootruns() {
+        return LootrunCatalog.refresh(LOOTRUNS);
     }
 
     public static boolean tryLoadFile(String fileName) {
-        String lootrun = fileName + ".json";
-        File lootrunFile = new File(LOOTRUNS, lootrun);
-        if (lootrunFile.exists()) {
+        File lootrunFile = findLootrunFile(fileName);
+        if (lootrunFile != null) {
             try {
-                FileReader file = new FileReader(lootrunFile, StandardCharsets.UTF_8);
-                JsonObject json = JsonParser.parseReader(file).getAsJsonObject();
-                uncompiled = readJson(lootrunFile, json);
-                LootrunModel.lootrun = compile(uncompiled, false);
+                uncompiled = readLootrunFile(lootrunFile);
+                LootrunModel.lootrun = compile(uncompiled);
                 state = LootrunState.LOADED;
                 LootrunFeature.INSTANCE.enable();
-                file.close();
                 return true;
             } catch (Exception e) {
                 WynntilsMod.error("Error when trying to load lootrun file.", e);
@@ -616,6 +464,31 @@ public final class LootrunModel {
         return false;
     }
 
+    /** @return the file of the saved lootrun, preferring the binary format, or null if there is none */
+    public static File findLootrunFile(String name) {
+        File binaryFile = new File(LOOTRUNS, name + BinaryLootrunFormat.EXTENSION);
+        if (binaryFile.exists()) return binaryFile;
+
+        File jsonFile = new File(LOOTRUNS, name + ".json");
+        return jsonFile.exists() ? jsonFile : null;
+    }
+
+    /** Writes a saved lootrun as JSON, for sharing it. Returns the exported file, or null on failure. */
+    public static File tryExportLootrun(String name) {
+        File lootrunFile = findLootrunFile(name);
+        if (lootrunFile == null) return null;
+
+        try {
+            File exportFile = new File(EXPORTS, name + ".json");
+            FileUtils.forceMkdirParent(exportFile);
+            readLootrunFile(lootrunFile).writeJson(exportFile);
+            return exportFile;
+        } catch (IOException | RuntimeException e) {
+            WynntilsMod.warn("Could not export lootrun " + name + ".", e);
+            return null;
+        }
+    }
+
     public static LootrunUndoResult tryUndo() {
         Vec3 position = McUtils.player().position();
         Path points = recording.path();
@@ -642,6 +515,7 @@ public final class LootrunModel {
         }
 
         points.points().removeAll(removed.points());
+        recordingCompiler = null;
         recordingInformation.setDirty(true);
         return LootrunUndoResult.SUCCESSFUL;
     }
@@ -649,7 +523,12 @@ public final class LootrunModel {
     public static boolean addChest(BlockPos pos) {
         LootrunUncompiled current = LootrunModel.getActiveLootrun();
         if (current == null) return false;
-        return current.chests().add(pos);
+
+        boolean added = current.chests().add(pos);
+        if (added && recordingCompiler != null && current == recording) {
+            recordingCompiler.addChest(pos);
+        }
+        return added;
     }
 
     public static boolean removeChest(BlockPos pos) {
@@ -657,7 +536,12 @@ public final class LootrunModel {
 
         if (current == null) return false;
 
-        return current.chests().remove(pos);
+        boolean removed = current.chests().remove(pos);
+        if (removed && current == recording) {
+            // Compiled recordings can only be appended to
+            recordingCompiler = null;
+        }
+        return removed;
     }
 
     public static Note deleteNoteAt(BlockPos pos) {
@@ -669,6 +553,9 @@ public final class LootrunModel {
         for (int i = 0; i < notes.size(); i++) {
             Note note = notes.get(i);
             if (pos.equals(new BlockPos(note.position()))) {
+                if (current == recording) {
+                    recordingCompiler = null;
+                }
                 return notes.remove(i);
             }
         }
@@ -700,7 +587,9 @@ public final class LootrunModel {
             return;
         }
 
-        recording.chests().add(recordingInformation.getLastChest());
+        if (recording.chests().add(recordingInformation.getLastChest()) && recordingCompiler != null) {
+            recordingCompiler.addChest(recordingInformation.getLastChest());
+        }
         recordingInformation.setDirty(true);
         recordingInformation.setLastChest(null);
     }
@@ -722,7 +611,7 @@ public final class LootrunModel {
             }
 
             if (recordingInformation.isDirty()) {
-                recordingCompiled = compile(recording, true);
+                recordingCompiled = compileRecording();
                 recordingInformation.setDirty(false);
             }
         }
@@ -781,7 +670,7 @@ public final class LootrunModel {
             Long2ObjectMap<Set<BlockPos>> chests,
             Long2ObjectMap<List<Note>> notes) {}
 
-    private record ColoredPoint(Vec3 vec3, int color) {}
+    public record ColoredPoint(Vec3 vec3, int color) {}
 
     private static class RecordingInformation {
         private Vec3 lastLocation;
@@ -813,70 +702,86 @@ public final class LootrunModel {
         }
     }
 
-    private record LootrunUncompiled(Path path, Set<BlockPos> chests, List<Note> notes, File file) {
+    public record LootrunUncompiled(Path path, Set<BlockPos> chests, List<Note> notes, File file) {
 
         private LootrunUncompiled(LootrunUncompiled old, File file) {
             this(old.path, old.chests, old.notes, file);
         }
 
         private LootrunSaveResult saveLootrun(String name) {
-            try {
-                File file = new File(LootrunModel.LOOTRUNS, name + ".json");
-                LootrunModel.uncompiled = new LootrunUncompiled(this, file);
+            if (findLootrunFile(name) != null) {
+                return LootrunSaveResult.ERROR_ALREADY_EXISTS;
+            }
 
-                boolean result = file.createNewFile();
+            File file = new File(LootrunModel.LOOTRUNS, name + BinaryLootrunFormat.EXTENSION);
+            LootrunSaveResult result = writeTo(file);
 
-                if (!result) {
-                    return LootrunSaveResult.ERROR_ALREADY_EXISTS;
-                }
+            // Later edits are saved to the file, so only switch to it once it is ours
+            if (result == LootrunSaveResult.SAVED) {
+                LootrunModel.uncompiled = new LootrunUncompiled(this, file);
+            }
+            return result;
+        }
 
-                JsonObject json = new JsonObject();
-                JsonArray points = new JsonArray();
-                for (Vec3 point : this.path().points()) {
-                    JsonObject pointJson = new JsonObject();
-                    pointJson.addProperty("x", point.x);
-                    pointJson.addProperty("y", point.y);
-                    pointJson.addProperty("z", point.z);
-                    points.add(pointJson);
-                }
-                json.add("points", points);
-
-                JsonArray chests = new JsonArray();
-                for (BlockPos chest : this.chests()) {
-                    JsonObject chestJson = new JsonObject();
-                    chestJson.addProperty("x", chest.getX());
-                    chestJson.addProperty("y", chest.getY());
-                    chestJson.addProperty("z", chest.getZ());
-                    chests.add(chestJson);
+        /** Writes the lootrun in the format of the file, so imported JSON lootruns stay JSON */
+        private LootrunSaveResult writeTo(File file) {
+            try {
+                if (file.getName().endsWith(".json")) {
+                    writeJson(file);
+                } else {
+                    BinaryLootrunFormat.write(file, this);
                 }
-                json.add("chests", chests);
+                return LootrunSaveResult.SAVED;
+            } catch (IOException ex) {
+                WynntilsMod.warn("Could not save lootrun " + file.getName() + ".", ex);
+                return LootrunSaveResult.ERROR_SAVING;
+            }
+        }
 
-                JsonArray notes = new JsonArray();
-                for (Note note : this.notes()) {
-                    JsonObject noteJson = new JsonObject();
-                    JsonObject locationJson = new JsonObject();
+        private void writeJson(File file) throws IOException {
+            JsonObject json = new JsonObject();
+            JsonArray points = new JsonArray();
+            for (Vec3 point : this.path().points()) {
+                JsonObject pointJson = new JsonObject();
+                pointJson.addProperty("x", point.x);
+                pointJson.addProperty("y", point.y);
+                pointJson.addProperty("z", point.z);
+                points.add(pointJson);
+            }
+            json.add("points", points);
+
+            JsonArray chests = new JsonArray();
+            for (BlockPos chest : this.chests()) {
+                JsonObject chestJson = new JsonObject();
+                chestJson.addProperty("x", chest.getX());
+                chestJson.addProperty("y", chest.getY());
+                chestJson.addProperty("z", chest.getZ());
+                chests.add(chestJson);
+            }
+            json.add("chests", chests);
 
-                    Vec3 location = note.position();
-                    locationJson.addProperty("x", location.x);
-                    locationJson.addProperty("y", location.y);
-                    locationJson.addProperty("z", location.z);
-                    noteJson.add("position", locationJson);
+            JsonArray notes = new JsonArray();
+            for (Note note : this.notes()) {
+                JsonObject noteJson = new JsonObject();
+                JsonObject locationJson = new JsonObject();
 
-                    noteJson.add("note", Component.Serializer.toJsonTree(note.component()));
-                    notes.add(noteJson);
-                }
-                json.add("notes", notes);
+                Vec3 location = note.position();
+                locationJson.addProperty("x", location.x);
+                locationJson.addProperty("y", location.y);
+                locationJson.addProperty("z", location.z);
+                noteJson.add("location", locationJson);
+
+                noteJson.add("note", Component.Serializer.toJsonTree(note.component()));
+                notes.add(noteJson);
+            }
+            json.add("notes", notes);
 
-                json.addProperty(
-                        "date",
-                        DateFormat.getDateTimeInstance(DateFormat.DEFAULT, DateFormat.DEFAULT, Locale.US)
-                                .format(new Date()));
-                FileWriter writer = new FileWriter(file, StandardCharsets.UTF_8);
+            json.addProperty(
+                    "date",
+                    DateFormat.getDateTimeInstance(DateFormat.DEFAULT, DateFormat.DEFAULT, Locale.US)
+                            .format(new Date()));
+            try (FileWriter writer = new FileWriter(file, StandardCharsets.UTF_8)) {
                 new GsonBuilder().setPrettyPrinting().create().toJson(json, writer);
-                writer.close();
-                return LootrunSaveResult.SAVED;
-            } catch (IOException ex) {
-                return LootrunSaveResult.ERROR_SAVING;
             }
         }
     }
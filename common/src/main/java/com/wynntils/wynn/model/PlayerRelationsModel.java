@@ -5,9 +5,10 @@
 package com.wynntils.wynn.model;
 
 import com.wynntils.core.WynntilsMod;
+import com.wynntils.core.chat.ChatMatcher;
+import com.wynntils.core.chat.ChatPattern;
 import com.wynntils.core.chat.MessageType;
 import com.wynntils.core.managers.Model;
-import com.wynntils.mc.utils.ComponentUtils;
 import com.wynntils.mc.utils.McUtils;
 import com.wynntils.sockets.events.SocketEvent;
 import com.wynntils.sockets.model.HadesUserModel;
@@ -26,23 +27,67 @@ import net.minecraftforge.eventbus.api.SubscribeEvent;
  * This model handles the player's in-game relations, like friends, party info, guild info.
  */
 public class PlayerRelationsModel extends Model {
-    private static final Pattern FRIEND_LIST_MESSAGE_PATTERN = Pattern.compile(".+'s friends \\(.+\\): (.*)");
-    private static final Pattern FRIEND_NO_LIST_MESSAGE_PATTERN_1 = Pattern.compile("§eWe couldn't find any friends.");
-    private static final Pattern FRIEND_NO_LIST_MESSAGE_PATTERN_2 =
-            Pattern.compile("§eTry typing §r§6/friend add Username§r§e!");
-    private static final Pattern FRIEND_REMOVE_MESSAGE_PATTERN =
-            Pattern.compile("§e(.+) has been removed from your friends!");
-    private static final Pattern FRIEND_ADD_MESSAGE_PATTERN = Pattern.compile("§e(.+) has been added to your friends!");
-
-    private static final Pattern PARTY_LIST_MESSAGE_PATTERN = Pattern.compile("Party members: (.*)");
-    private static final Pattern PARTY_NO_LIST_MESSAGE_PATTERN = Pattern.compile("§eYou must be in a party to list.");
-    private static final Pattern PARTY_OTHER_LEAVE_MESSAGE_PATTERN = Pattern.compile("§e(.+) has left the party.");
-    private static final Pattern PARTY_OTHER_JOIN_MESSAGE_PATTERN = Pattern.compile("§e(.+) has joined the party.");
-    private static final Pattern PARTY_SELF_LEAVE_MESSAGE_PATTERN =
-            Pattern.compile("§eYou have been removed from the party.");
-    private static final Pattern PARTY_SELF_JOIN_MESSAGE_PATTERN =
-            Pattern.compile("§eYou have successfully joined the party.");
-    private static final Pattern PARTY_DISBAND = Pattern.compile("§eYour party has been disbanded.");
+    private static final ChatPattern FRIEND_LIST_MESSAGE_PATTERN = ChatMatcher.register(
+            "relations/friendList",
+            Pattern.compile(".+'s friends \\(.+\\): (.*)"),
+            ChatPattern.Target.UNFORMATTED,
+            ChatPattern.Mode.MATCHES);
+    private static final ChatPattern FRIEND_NO_LIST_MESSAGE_PATTERN_1 = ChatMatcher.register(
+            "relations/friendNoList1",
+            Pattern.compile("§eWe couldn't find any friends."),
+            ChatPattern.Target.CODED,
+            ChatPattern.Mode.MATCHES);
+    private static final ChatPattern FRIEND_NO_LIST_MESSAGE_PATTERN_2 = ChatMatcher.register(
+            "relations/friendNoList2",
+            Pattern.compile("§eTry typing §r§6/friend add Username§r§e!"),
+            ChatPattern.Target.CODED,
+            ChatPattern.Mode.MATCHES);
+    private static final ChatPattern FRIEND_REMOVE_MESSAGE_PATTERN = ChatMatcher.register(
+            "relations/friendRemove",
+            Pattern.compile("§e(.+) has been removed from your friends!"),
+            ChatPattern.Target.CODED,
+            ChatPattern.Mode.MATCHES);
+    private static final ChatPattern FRIEND_ADD_MESSAGE_PATTERN = ChatMatcher.register(
+            "relations/friendAdd",
+            Pattern.compile("§e(.+) has been added to your friends!"),
+            ChatPattern.Target.CODED,
+            ChatPattern.Mode.MATCHES);
+
+    private static final ChatPattern PARTY_LIST_MESSAGE_PATTERN = ChatMatcher.register(
+            "relations/partyList",
+            Pattern.compile("Party members: (.*)"),
+            ChatPattern.Target.UNFORMATTED,
+            ChatPattern.Mode.MATCHES);
+    private static final ChatPattern PARTY_NO_LIST_MESSAGE_PATTERN = ChatMatcher.register(
+            "relations/partyNoList",
+            Pattern.compile("§eYou must be in a party to list."),
+            ChatPattern.Target.CODED,
+            ChatPattern.Mode.MATCHES);
+    private static final ChatPattern PARTY_OTHER_LEAVE_MESSAGE_PATTERN = ChatMatcher.register(
+            "relations/partyOtherLeave",
+            Pattern.compile("§e(.+) has left the party."),
+            ChatPattern.Target.CODED,
+            ChatPattern.Mode.MATCHES);
+    private static final ChatPattern PARTY_OTHER_JOIN_MESSAGE_PATTERN = ChatMatcher.register(
+            "relations/partyOtherJoin",
+            Pattern.compile("§e(.+) has joined the party."),
+            ChatPattern.Target.CODED,
+            ChatPattern.Mode.MATCHES);
+    private static final ChatPattern PARTY_SELF_LEAVE_MESSAGE_PATTERN = ChatMatcher.register(
+            "relations/partySelfLeave",
+            Pattern.compile("§eYou have been removed from the party."),
+            ChatPattern.Target.CODED,
+            ChatPattern.Mode.MATCHES);
+    private static final ChatPattern PARTY_SELF_JOIN_MESSAGE_PATTERN = ChatMatcher.register(
+            "relations/partySelfJoin",
+            Pattern.compile("§eYou have successfully joined the party."),
+            ChatPattern.Target.CODED,
+            ChatPattern.Mode.MATCHES);
+    private static final ChatPattern PARTY_DISBAND = ChatMatcher.register(
+            "relations/partyDisband",
+            Pattern.compile("§eYour party has been disbanded."),
+            ChatPattern.Target.CODED,
+            ChatPattern.Mode.MATCHES);
 
     private static boolean expectingFriendMessage = false;
     private static boolean expectingPartyMessage = false;
@@ -82,33 +127,30 @@ public class PlayerRelationsModel extends Model {
     public static void onChatReceived(ChatMessageReceivedEvent event) {
         if (event.getMessageType() != MessageType.SYSTEM) return;
 
-        String coded = event.getOriginalCodedMessage();
-        String unformatted = ComponentUtils.stripFormatting(coded);
-
-        if (tryParseFriendMessages(coded)) {
+        if (tryParseFriendMessages(event)) {
             return;
         }
 
-        if (tryParsePartyMessages(coded)) {
+        if (tryParsePartyMessages(event)) {
             return;
         }
 
         if (expectingFriendMessage) {
-            if (tryParseFriendList(unformatted) || tryParseNoFriendList(coded)) {
+            if (tryParseFriendList(event) || tryParseNoFriendList(event)) {
                 event.setCanceled(true);
                 expectingFriendMessage = false;
                 return;
             }
 
             // Skip first message of two, but still expect more messages
-            if (FRIEND_NO_LIST_MESSAGE_PATTERN_1.matcher(coded).matches()) {
+            if (event.getOriginalMatch(FRIEND_NO_LIST_MESSAGE_PATTERN_1) != null) {
                 event.setCanceled(true);
                 return;
             }
         }
 
         if (expectingPartyMessage) {
-            if (tryParseNoPartyMessage(coded) || tryParsePartyList(unformatted)) {
+            if (tryParseNoPartyMessage(event) || tryParsePartyList(event)) {
                 event.setCanceled(true);
                 expectingPartyMessage = false;
                 return;
@@ -118,9 +160,9 @@ public class PlayerRelationsModel extends Model {
 
     // region Party List Parsing
 
-    private static boolean tryParsePartyMessages(String coded) {
-        if (PARTY_DISBAND.matcher(coded).matches()
-                || PARTY_SELF_LEAVE_MESSAGE_PATTERN.matcher(coded).matches()) {
+    private static boolean tryParsePartyMessages(ChatMessageReceivedEvent event) {
+        if (event.getOriginalMatch(PARTY_DISBAND) != null
+                || event.getOriginalMatch(PARTY_SELF_LEAVE_MESSAGE_PATTERN) != null) {
             WynntilsMod.info("Player left the party.");
 
             partyMembers = Set.of();
@@ -129,15 +171,15 @@ public class PlayerRelationsModel extends Model {
             return true;
         }
 
-        if (PARTY_SELF_JOIN_MESSAGE_PATTERN.matcher(coded).matches()) {
+        if (event.getOriginalMatch(PARTY_SELF_JOIN_MESSAGE_PATTERN) != null) {
             WynntilsMod.info("Player joined a party.");
 
             requestPartyListUpdate();
             return true;
         }
 
-        Matcher matcher = PARTY_OTHER_JOIN_MESSAGE_PATTERN.matcher(coded);
-        if (matcher.matches()) {
+        Matcher matcher = event.getOriginalMatch(PARTY_OTHER_JOIN_MESSAGE_PATTERN);
+        if (matcher != null) {
             String player = matcher.group(1);
 
             WynntilsMod.info("Player's party has a new member: " + player);
@@ -148,8 +190,8 @@ public class PlayerRelationsModel extends Model {
             return true;
         }
 
-        matcher = PARTY_OTHER_LEAVE_MESSAGE_PATTERN.matcher(coded);
-        if (matcher.matches()) {
+        matcher = event.getOriginalMatch(PARTY_OTHER_LEAVE_MESSAGE_PATTERN);
+        if (matcher != null) {
             String player = matcher.group(1);
 
             WynntilsMod.info("Player's party has been left by an other player: " + player);
@@ -163,8 +205,8 @@ public class PlayerRelationsModel extends Model {
         return false;
     }
 
-    private static boolean tryParseNoPartyMessage(String coded) {
-        if (PARTY_NO_LIST_MESSAGE_PATTERN.matcher(coded).matches()) {
+    private static boolean tryParseNoPartyMessage(ChatMessageReceivedEvent event) {
+        if (event.getOriginalMatch(PARTY_NO_LIST_MESSAGE_PATTERN) != null) {
             WynntilsMod.info("Player is not in a party.");
             return true;
         }
@@ -172,9 +214,9 @@ public class PlayerRelationsModel extends Model {
         return false;
     }
 
-    private static boolean tryParsePartyList(String unformatted) {
-        Matcher matcher = PARTY_LIST_MESSAGE_PATTERN.matcher(unformatted);
-        if (!matcher.matches()) return false;
+    private static boolean tryParsePartyList(ChatMessageReceivedEvent event) {
+        Matcher matcher = event.getOriginalMatch(PARTY_LIST_MESSAGE_PATTERN);
+        if (matcher == null) return false;
 
         String[] partyList = matcher.group(1).split(", ");
 
@@ -189,8 +231,8 @@ public class PlayerRelationsModel extends Model {
 
     // region Friend List Parsing
 
-    private static boolean tryParseNoFriendList(String coded) {
-        if (FRIEND_NO_LIST_MESSAGE_PATTERN_2.matcher(coded).matches()) {
+    private static boolean tryParseNoFriendList(ChatMessageReceivedEvent event) {
+        if (event.getOriginalMatch(FRIEND_NO_LIST_MESSAGE_PATTERN_2) != null) {
             WynntilsMod.info("Player has no friends!");
             return true;
         }
@@ -198,9 +240,9 @@ public class PlayerRelationsModel extends Model {
         return false;
     }
 
-    private static boolean tryParseFriendMessages(String coded) {
-        Matcher matcher = FRIEND_REMOVE_MESSAGE_PATTERN.matcher(coded);
-        if (matcher.matches()) {
+    private static boolean tryParseFriendMessages(ChatMessageReceivedEvent event) {
+        Matcher matcher = event.getOriginalMatch(FRIEND_REMOVE_MESSAGE_PATTERN);
+        if (matcher != null) {
             String player = matcher.group(1);
 
             WynntilsMod.info("Player has removed friend: " + player);
@@ -211,8 +253,8 @@ public class PlayerRelationsModel extends Model {
             return true;
         }
 
-        matcher = FRIEND_ADD_MESSAGE_PATTERN.matcher(coded);
-        if (matcher.matches()) {
+        matcher = event.getOriginalMatch(FRIEND_ADD_MESSAGE_PATTERN);
+        if (matcher != null) {
             String player = matcher.group(1);
 
             WynntilsMod.info("Player has added friend: " + player);
@@ -226,9 +268,9 @@ public class PlayerRelationsModel extends Model {
         return false;
     }
 
-    private static boolean tryParseFriendList(String unformatted) {
-        Matcher matcher = FRIEND_LIST_MESSAGE_PATTERN.matcher(unformatted);
-        if (!matcher.matches()) return false;
+    private static boolean tryParseFriendList(ChatMessageReceivedEvent event) {
+        Matcher matcher = event.getOriginalMatch(FRIEND_LIST_MESSAGE_PATTERN);
+        if (matcher == null) return false;
 
         String[] friendList = matcher.group(1).split(", ");
 
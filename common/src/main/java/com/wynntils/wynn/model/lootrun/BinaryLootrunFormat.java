@@ -0,0 +1,269 @@
+/*
+ * Copyright © Wynntils 2022.
+ * This file is released under AGPLv3. See LICENSE for full license details.
+ */
+package com.wynntils.wynn.model.lootrun;
+
+import com.wynntils.utils.FileUtils;
+import com.wynntils.wynn.model.LootrunModel.LootrunUncompiled;
+import com.wynntils.wynn.model.LootrunModel.Note;
+import com.wynntils.wynn.model.LootrunModel.Path;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import net.minecraft.core.BlockPos;
+import net.minecraft.network.chat.Component;
+import net.minecraft.world.phys.Vec3;
+
+/**
+ * The format lootruns are saved in. Positions are stored as fixed point deltas to the previous position
+ * and the whole body is deflated, so a point usually takes a few bytes instead of the ~80 bytes of the
+ * JSON format. The header is not compressed, so the lootrun list can be built without reading the path.
+ *
+ * <p>Layout: magic, version, {@link Header}, uncompressed body length, deflated body. The body holds the
+ * points, the chests and the notes, each preceded by its count in the header.
+ */
+public final class BinaryLootrunFormat {
+    public static final String EXTENSION = ".lootrun";
+
+    private static final int MAGIC = 0x574C524E; // "WLRN"
+    private static final int FORMAT_VERSION = 1;
+    // Magic, version, three counts and seven coordinates
+    private static final int HEADER_SIZE = 5 * 4 + 7 * 8;
+
+    // Positions are stored with a precision of 1/1000 block
+    private static final double FIXED_POINT_SCALE = 1000d;
+
+    private BinaryLootrunFormat() {}
+
+    public static void write(File file, LootrunUncompiled lootrun) throws IOException {
+        List<Vec3> points = lootrun.path().points();
+        ByteArrayOutputStream bodyBytes = new ByteArrayOutputStream(points.size() * 6 + 256);
+        DataOutputStream body = new DataOutputStream(bodyBytes);
+
+        long lastX = 0;
+        long lastY = 0;
+        long lastZ = 0;
+        for (Vec3 point : points) {
+            long x = toFixedPoint(point.x);
+            long y = toFixedPoint(point.y);
+            long z = toFixedPoint(point.z);
+            writeVarLong(body, x - lastX);
+            writeVarLong(body, y - lastY);
+            writeVarLong(body, z - lastZ);
+            lastX = x;
+            lastY = y;
+            lastZ = z;
+        }
+
+        for (BlockPos chest : lootrun.chests()) {
+            writeVarLong(body, chest.getX());
+            writeVarLong(body, chest.getY());
+            writeVarLong(body, chest.getZ());
+        }
+
+        for (Note note : lootrun.notes()) {
+            writeVarLong(body, toFixedPoint(note.position().x));
+            writeVarLong(body, toFixedPoint(note.position().y));
+            writeVarLong(body, toFixedPoint(note.position().z));
+
+            byte[] component = Component.Serializer.toJson(note.component()).getBytes(StandardCharsets.UTF_8);
+            writeVarLong(body, component.length);
+            body.write(component);
+        }
+
+        File tempFile = new File(file.getPath() + ".tmp");
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            writeHeader(out, lootrun);
+            out.writeInt(bodyBytes.size());
+
+            DeflaterOutputStream deflaterOut = new DeflaterOutputStream(out, deflater);
+            bodyBytes.writeTo(deflaterOut);
+            deflaterOut.finish();
+        } catch (IOException e) {
+            tempFile.delete();
+            throw e;
+        } finally {
+            deflater.end();
+        }
+
+        // Never leave a half written lootrun behind
+        Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    public static LootrunUncompiled read(File file) throws IOException {
+        ByteBuffer buffer = FileUtils.readToBuffer(file);
+        try {
+            Header header = readHeader(buffer);
+            ByteBuffer body = inflate(buffer, buffer.getInt());
+
+            List<Vec3> points = new ArrayList<>(header.pointCount());
+            long x = 0;
+            long y = 0;
+            long z = 0;
+            for (int i = 0; i < header.pointCount(); i++) {
+                x += readVarLong(body);
+                y += readVarLong(body);
+                z += readVarLong(body);
+                points.add(new Vec3(fromFixedPoint(x), fromFixedPoint(y), fromFixedPoint(z)));
+            }
+
+            Set<BlockPos> chests = new HashSet<>();
+            for (int i = 0; i < header.chestCount(); i++) {
+                chests.add(new BlockPos((int) readVarLong(body), (int) readVarLong(body), (int) readVarLong(body)));
+            }
+
+            List<Note> notes = new ArrayList<>(header.noteCount());
+            for (int i = 0; i < header.noteCount(); i++) {
+                Vec3 position = new Vec3(
+                        fromFixedPoint(readVarLong(body)),
+                        fromFixedPoint(readVarLong(body)),
+                        fromFixedPoint(readVarLong(body)));
+
+                byte[] component = new byte[(int) readVarLong(body)];
+                body.get(component);
+                String componentJson = new String(component, StandardCharsets.UTF_8);
+                notes.add(new Note(position, Component.Serializer.fromJson(componentJson)));
+            }
+
+            return new LootrunUncompiled(new Path(points), chests, notes, file);
+        } catch (RuntimeException e) {
+            throw new IOException("Malformed lootrun file " + file.getName(), e);
+        }
+    }
+
+    /** Only reads the header of the file, for listing lootruns */
+    public static Header readHeader(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE);
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {}
+            buffer.flip();
+
+            return readHeader(buffer);
+        } catch (RuntimeException e) {
+            throw new IOException("Malformed lootrun file " + file.getName(), e);
+        }
+    }
+
+    private static void writeHeader(DataOutputStream out, LootrunUncompiled lootrun) throws IOException {
+        List<Vec3> points = lootrun.path().points();
+        out.writeInt(points.size());
+        out.writeInt(lootrun.chests().size());
+        out.writeInt(lootrun.notes().size());
+
+        Vec3 start = points.isEmpty() ? Vec3.ZERO : points.get(0);
+        double minX = start.x;
+        double minZ = start.z;
+        double maxX = start.x;
+        double maxZ = start.z;
+        for (Vec3 point : points) {
+            minX = Math.min(minX, point.x);
+            minZ = Math.min(minZ, point.z);
+            maxX = Math.max(maxX, point.x);
+            maxZ = Math.max(maxZ, point.z);
+        }
+
+        out.writeDouble(start.x);
+        out.writeDouble(start.y);
+        out.writeDouble(start.z);
+        out.writeDouble(minX);
+        out.writeDouble(minZ);
+        out.writeDouble(maxX);
+        out.writeDouble(maxZ);
+    }
+
+    private static Header readHeader(ByteBuffer buffer) throws IOException {
+        if (buffer.getInt() != MAGIC) throw new IOException("Not a lootrun file");
+        if (buffer.getInt() != FORMAT_VERSION) throw new IOException("Unsupported lootrun format version");
+
+        return new Header(
+                buffer.getInt(),
+                buffer.getInt(),
+                buffer.getInt(),
+                new Vec3(buffer.getDouble(), buffer.getDouble(), buffer.getDouble()),
+                buffer.getDouble(),
+                buffer.getDouble(),
+                buffer.getDouble(),
+                buffer.getDouble());
+    }
+
+    private static ByteBuffer inflate(ByteBuffer compressed, int length) throws IOException {
+        ByteBuffer result = ByteBuffer.allocate(length);
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            while (result.hasRemaining()) {
+                if (inflater.inflate(result) == 0 && (inflater.finished() || inflater.needsInput())) {
+                    throw new IOException("Truncated lootrun file");
+                }
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt lootrun file", e);
+        } finally {
+            inflater.end();
+        }
+
+        return result.flip();
+    }
+
+    private static long toFixedPoint(double value) {
+        return Math.round(value * FIXED_POINT_SCALE);
+    }
+
+    private static double fromFixedPoint(long value) {
+        return value / FIXED_POINT_SCALE;
+    }
+
+    // Zigzag encoded, so small negative deltas are short as well
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        long zigzag = (value << 1) ^ (value >> 63);
+        while ((zigzag & ~0x7FL) != 0) {
+            out.writeByte((int) ((zigzag & 0x7F) | 0x80));
+            zigzag >>>= 7;
+        }
+        out.writeByte((int) zigzag);
+    }
+
+    private static long readVarLong(ByteBuffer buffer) {
+        long zigzag = 0;
+        int shift = 0;
+        byte read;
+        do {
+            read = buffer.get();
+            zigzag |= (long) (read & 0x7F) << shift;
+            shift += 7;
+        } while ((read & 0x80) != 0);
+
+        return (zigzag >>> 1) ^ -(zigzag & 1);
+    }
+
+    public record Header(
+            int pointCount,
+            int chestCount,
+            int noteCount,
+            Vec3 start,
+            double minX,
+            double minZ,
+            double maxX,
+            double maxZ) {}
+}
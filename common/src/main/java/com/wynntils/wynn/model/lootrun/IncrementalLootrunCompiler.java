@@ -0,0 +1,255 @@
+/*
+ * Copyright © Wynntils 2022.
+ * This file is released under AGPLv3. See LICENSE for full license details.
+ */
+package com.wynntils.wynn.model.lootrun;
+
+import com.wynntils.wynn.model.LootrunModel.ColoredPath;
+import com.wynntils.wynn.model.LootrunModel.ColoredPoint;
+import com.wynntils.wynn.model.LootrunModel.LootrunInstance;
+import com.wynntils.wynn.model.LootrunModel.Note;
+import com.wynntils.wynn.model.LootrunModel.Path;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import net.minecraft.core.BlockPos;
+import net.minecraft.util.CubicSpline;
+import net.minecraft.util.Mth;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.phys.Vec3;
+
+/**
+ * Compiles a lootrun which is only ever appended to, as while recording. Adding a point only resamples the
+ * last segment of the path, so the cost does not grow with the length of the lootrun.
+ *
+ * <p>The result is the same as compiling the whole path with a single color. A spline segment only depends
+ * on its two end points and their slopes, and the slope of a point only depends on the next point, so a new
+ * point changes the previous segment and adds a new one.
+ *
+ * <p>Removing anything from the lootrun is not supported, a new compiler has to be used instead.
+ */
+public final class IncrementalLootrunCompiler {
+    private static final float SAMPLE_STEP = 1f / 10f;
+    private static final double MAX_POINT_DISTANCE = 32;
+
+    private final int color;
+
+    private final Long2ObjectMap<List<ColoredPath>> points = new Long2ObjectOpenHashMap<>();
+    private final Long2ObjectMap<Set<BlockPos>> chests = new Long2ObjectOpenHashMap<>();
+    private final Long2ObjectMap<List<Note>> notes = new Long2ObjectOpenHashMap<>();
+
+    // The raw points compiled so far
+    private int compiledCount = 0;
+    private Vec3 lastCompiled = null;
+
+    // The last two points of the current spline, with their distance along it
+    private Vec3 previousPoint = null;
+    private float previousDistance;
+    private float previousSlopeX;
+    private float previousSlopeY;
+    private float previousSlopeZ;
+    private Vec3 lastPoint = null;
+    private float lastDistance;
+    private float nextSampleAt;
+
+    // State of the chunk bucketing
+    private long lastChunk;
+    private ColoredPath lastChunkPath = null;
+    private Vec3 lastSample = null;
+
+    // Everything needed to undo the samples of the last segment, as they change once another point is added
+    private final List<Runnable> lastSegmentUndo = new ArrayList<>();
+    private float lastSegmentSampleAt;
+    private long lastSegmentChunk;
+    private ColoredPath lastSegmentChunkPath;
+    private Vec3 lastSegmentSample;
+
+    private final LongSet changedChunks = new LongOpenHashSet();
+
+    public IncrementalLootrunCompiler(int color) {
+        this.color = color;
+    }
+
+    public int getColor() {
+        return color;
+    }
+
+    /** @return whether the points compiled so far are still the start of the given path */
+    public boolean canContinue(List<Vec3> path) {
+        if (path.size() < compiledCount) return false;
+
+        return compiledCount == 0 || path.get(compiledCount - 1) == lastCompiled;
+    }
+
+    /** Compiles the points of the path which were added since the last call */
+    public void addPoints(List<Vec3> path) {
+        for (int i = compiledCount; i < path.size(); i++) {
+            addPoint(path.get(i));
+        }
+
+        compiledCount = path.size();
+        lastCompiled = compiledCount == 0 ? null : path.get(compiledCount - 1);
+    }
+
+    public void addChest(BlockPos pos) {
+        chests.computeIfAbsent(new ChunkPos(pos).toLong(), (chunk) -> new HashSet<>()).add(pos);
+    }
+
+    public void addNote(Note note) {
+        ChunkPos chunk = new ChunkPos(new BlockPos(note.position()));
+        notes.computeIfAbsent(chunk.toLong(), (chunkPos) -> new ArrayList<>()).add(note);
+    }
+
+    public LootrunInstance build(String name, Path path) {
+        // Chunks which changed get a new list, so cached data of the other chunks can be kept
+        for (long chunk : changedChunks) {
+            List<ColoredPath> chunkPaths = points.get(chunk);
+            if (chunkPaths != null) {
+                points.put(chunk, new ArrayList<>(chunkPaths));
+            }
+        }
+        changedChunks.clear();
+
+        return new LootrunInstance(name, path, points, chests, notes);
+    }
+
+    private void addPoint(Vec3 point) {
+        if (lastPoint == null || lastPoint.distanceTo(point) >= MAX_POINT_DISTANCE) {
+            // Start a new spline, the previous one is complete
+            previousPoint = null;
+            lastPoint = point;
+            lastDistance = 0f;
+            nextSampleAt = 0f;
+            lastSegmentUndo.clear();
+            return;
+        }
+
+        float distance = (float) (lastDistance + lastPoint.distanceTo(point));
+        float slopeX = (float) ((point.x - lastPoint.x) / lastPoint.distanceTo(point));
+        float slopeY = (float) ((point.y - lastPoint.y) / lastPoint.distanceTo(point));
+        float slopeZ = (float) ((point.z - lastPoint.z) / lastPoint.distanceTo(point));
+
+        if (previousPoint != null) {
+            // The slope at the end of the last segment was 0, as it had no following point
+            undoLastSegment();
+            sampleSegment(
+                    previousPoint,
+                    previousDistance,
+                    previousSlopeX,
+                    previousSlopeY,
+                    previousSlopeZ,
+                    lastPoint,
+                    lastDistance,
+                    slopeX,
+                    slopeY,
+                    slopeZ);
+        }
+
+        lastSegmentUndo.clear();
+        lastSegmentSampleAt = nextSampleAt;
+        lastSegmentChunk = lastChunk;
+        lastSegmentChunkPath = lastChunkPath;
+        lastSegmentSample = lastSample;
+        sampleSegment(lastPoint, lastDistance, slopeX, slopeY, slopeZ, point, distance, 0f, 0f, 0f);
+
+        previousPoint = lastPoint;
+        previousDistance = lastDistance;
+        previousSlopeX = slopeX;
+        previousSlopeY = slopeY;
+        previousSlopeZ = slopeZ;
+        lastPoint = point;
+        lastDistance = distance;
+    }
+
+    private void sampleSegment(
+            Vec3 start,
+            float startDistance,
+            float startSlopeX,
+            float startSlopeY,
+            float startSlopeZ,
+            Vec3 end,
+            float endDistance,
+            float endSlopeX,
+            float endSlopeY,
+            float endSlopeZ) {
+        CubicSpline<Float> splineX = CubicSpline.builder((Float value) -> value)
+                .addPoint(startDistance, (float) start.x, startSlopeX)
+                .addPoint(endDistance, (float) end.x, endSlopeX)
+                .build();
+        CubicSpline<Float> splineY = CubicSpline.builder((Float value) -> value)
+                .addPoint(startDistance, (float) start.y, startSlopeY)
+                .addPoint(endDistance, (float) end.y, endSlopeY)
+                .build();
+        CubicSpline<Float> splineZ = CubicSpline.builder((Float value) -> value)
+                .addPoint(startDistance, (float) start.z, startSlopeZ)
+                .addPoint(endDistance, (float) end.z, endSlopeZ)
+                .build();
+
+        // Samples are taken at the same distances as when sampling the whole spline at once
+        while (nextSampleAt < endDistance) {
+            addSample(new Vec3(
+                    splineX.apply(nextSampleAt), splineY.apply(nextSampleAt), splineZ.apply(nextSampleAt)));
+            nextSampleAt += SAMPLE_STEP;
+        }
+    }
+
+    private void addSample(Vec3 location) {
+        ColoredPoint point = new ColoredPoint(location, color);
+        long chunk = ChunkPos.asLong(Mth.fastFloor(location.x()) >> 4, Mth.fastFloor(location.z()) >> 4);
+
+        if (lastChunkPath == null || chunk != lastChunk) {
+            // Connect the paths of neighbouring chunks
+            if (lastChunkPath != null && location.distanceTo(lastSample) < MAX_POINT_DISTANCE) {
+                addToChunkPath(lastChunk, lastChunkPath, point);
+            }
+
+            lastChunk = chunk;
+            lastChunkPath = new ColoredPath(new ArrayList<>());
+            addChunkPath(chunk, lastChunkPath);
+        }
+
+        addToChunkPath(lastChunk, lastChunkPath, point);
+        lastSample = location;
+    }
+
+    private void addChunkPath(long chunk, ColoredPath path) {
+        points.computeIfAbsent(chunk, (key) -> new ArrayList<>()).add(path);
+        changedChunks.add(chunk);
+
+        lastSegmentUndo.add(() -> {
+            List<ColoredPath> chunkPaths = points.get(chunk);
+            chunkPaths.remove(chunkPaths.size() - 1);
+            if (chunkPaths.isEmpty()) {
+                points.remove(chunk);
+            }
+            changedChunks.add(chunk);
+        });
+    }
+
+    private void addToChunkPath(long chunk, ColoredPath path, ColoredPoint point) {
+        path.points().add(point);
+        changedChunks.add(chunk);
+
+        lastSegmentUndo.add(() -> {
+            path.points().remove(path.points().size() - 1);
+            changedChunks.add(chunk);
+        });
+    }
+
+    private void undoLastSegment() {
+        for (int i = lastSegmentUndo.size() - 1; i >= 0; i--) {
+            lastSegmentUndo.get(i).run();
+        }
+        lastSegmentUndo.clear();
+
+        nextSampleAt = lastSegmentSampleAt;
+        lastChunk = lastSegmentChunk;
+        lastChunkPath = lastSegmentChunkPath;
+        lastSample = lastSegmentSample;
+    }
+}
@@ -0,0 +1,290 @@
+/*
+ * Copyright © Wynntils 2022.
+ * This file is released under AGPLv3. See LICENSE for full license details.
+ */
+package com.wynntils.wynn.model.lootrun;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.wynntils.core.WynntilsMod;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import net.minecraft.world.phys.Vec3;
+
+/**
+ * Lists the saved lootruns without compiling them. The metadata of each file is kept in an index on disk,
+ * and a file is only read again when its modification time or size changed, so listing hundreds of
+ * lootruns only costs a directory listing.
+ *
+ * <p>Methods must be called from the render thread.
+ */
+public final class LootrunCatalog {
+    private static final File INDEX_FILE = new File(WynntilsMod.getModStorageDir("lootruncache"), "index.json");
+    // Bump whenever LootrunMetadata changes, older indexes are then rebuilt
+    private static final int INDEX_VERSION = 1;
+
+    private static final Gson GSON = new GsonBuilder().create();
+
+    private static Map<String, LootrunMetadata> entries = null;
+
+    private LootrunCatalog() {}
+
+    /** @return the metadata of all lootruns in the directory, sorted by name */
+    public static List<LootrunMetadata> refresh(File directory) {
+        if (entries == null) {
+            entries = loadIndex();
+        }
+
+        File[] files = directory.listFiles(
+                (dir, name) -> name.endsWith(".json") || name.endsWith(BinaryLootrunFormat.EXTENSION));
+        if (files == null) files = new File[0];
+
+        Map<String, LootrunMetadata> updated = new HashMap<>();
+        boolean changed = false;
+        for (File file : files) {
+            LootrunMetadata metadata = entries.get(file.getName());
+            if (metadata == null || metadata.lastModified != file.lastModified() || metadata.size != file.length()) {
+                // Broken files are not indexed, so they are read again each time
+                metadata = scan(file);
+                if (metadata == null) continue;
+                changed = true;
+            }
+
+            updated.put(file.getName(), metadata);
+        }
+
+        changed |= !updated.keySet().equals(entries.keySet());
+        entries = updated;
+        if (changed) {
+            saveIndex();
+        }
+
+        // A lootrun saved in both formats is loaded from the binary one
+        Map<String, LootrunMetadata> byName = new HashMap<>();
+        for (LootrunMetadata metadata : entries.values()) {
+            byName.merge(metadata.name(), metadata, (first, second) -> first.isBinary() ? first : second);
+        }
+
+        List<LootrunMetadata> result = new ArrayList<>(byName.values());
+        result.sort(Comparator.comparing(LootrunMetadata::name, String.CASE_INSENSITIVE_ORDER));
+        return result;
+    }
+
+    private static LootrunMetadata scan(File file) {
+        return file.getName().endsWith(BinaryLootrunFormat.EXTENSION) ? scanBinary(file) : scanJson(file);
+    }
+
+    private static LootrunMetadata scanBinary(File file) {
+        LootrunMetadata metadata = new LootrunMetadata(file);
+
+        try {
+            BinaryLootrunFormat.Header header = BinaryLootrunFormat.readHeader(file);
+            metadata.pointCount = header.pointCount();
+            metadata.chestCount = header.chestCount();
+            metadata.noteCount = header.noteCount();
+            metadata.startX = header.start().x;
+            metadata.startY = header.start().y;
+            metadata.startZ = header.start().z;
+            metadata.minX = header.minX();
+            metadata.minZ = header.minZ();
+            metadata.maxX = header.maxX();
+            metadata.maxZ = header.maxZ();
+        } catch (IOException e) {
+            WynntilsMod.warn("Could not read lootrun file " + file.getName() + ".", e);
+            return null;
+        }
+
+        return metadata.pointCount == 0 ? null : metadata;
+    }
+
+    /** Reads the metadata of a JSON lootrun file, without keeping the path or the notes in memory */
+    private static LootrunMetadata scanJson(File file) {
+        LootrunMetadata metadata = new LootrunMetadata(file);
+
+        try (JsonReader reader = new JsonReader(new FileReader(file, StandardCharsets.UTF_8))) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "points" -> {
+                        reader.beginArray();
+                        while (reader.hasNext()) {
+                            scanPoint(reader, metadata);
+                        }
+                        reader.endArray();
+                    }
+                    case "chests" -> metadata.chestCount = countElements(reader);
+                    case "notes" -> metadata.noteCount = countElements(reader);
+                    default -> reader.skipValue();
+                }
+            }
+            reader.endObject();
+        } catch (IOException | RuntimeException e) {
+            WynntilsMod.warn("Could not parse lootrun file " + file.getName() + ".", e);
+            return null;
+        }
+
+        // A lootrun without points can not be loaded
+        return metadata.pointCount == 0 ? null : metadata;
+    }
+
+    private static void scanPoint(JsonReader reader, LootrunMetadata metadata) throws IOException {
+        double x = 0;
+        double y = 0;
+        double z = 0;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "x" -> x = reader.nextDouble();
+                case "y" -> y = reader.nextDouble();
+                case "z" -> z = reader.nextDouble();
+                default -> reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        if (metadata.pointCount == 0) {
+            metadata.startX = x;
+            metadata.startY = y;
+            metadata.startZ = z;
+            metadata.minX = metadata.maxX = x;
+            metadata.minZ = metadata.maxZ = z;
+        } else {
+            metadata.minX = Math.min(metadata.minX, x);
+            metadata.maxX = Math.max(metadata.maxX, x);
+            metadata.minZ = Math.min(metadata.minZ, z);
+            metadata.maxZ = Math.max(metadata.maxZ, z);
+        }
+        metadata.pointCount++;
+    }
+
+    private static int countElements(JsonReader reader) throws IOException {
+        if (reader.peek() != JsonToken.BEGIN_ARRAY) {
+            reader.skipValue();
+            return 0;
+        }
+
+        int count = 0;
+        reader.beginArray();
+        while (reader.hasNext()) {
+            reader.skipValue();
+            count++;
+        }
+        reader.endArray();
+        return count;
+    }
+
+    private static Map<String, LootrunMetadata> loadIndex() {
+        Map<String, LootrunMetadata> loaded = new HashMap<>();
+        if (!INDEX_FILE.isFile()) return loaded;
+
+        try (Reader reader = new FileReader(INDEX_FILE, StandardCharsets.UTF_8)) {
+            Index index = GSON.fromJson(reader, Index.class);
+            if (index == null || index.version != INDEX_VERSION || index.lootruns == null) return loaded;
+
+            for (LootrunMetadata metadata : index.lootruns) {
+                loaded.put(metadata.fileName, metadata);
+            }
+        } catch (IOException | RuntimeException e) {
+            WynntilsMod.warn("Could not read lootrun index, rebuilding it.", e);
+        }
+
+        return loaded;
+    }
+
+    private static void saveIndex() {
+        Index index = new Index();
+        index.version = INDEX_VERSION;
+        index.lootruns = entries.values().toArray(new LootrunMetadata[0]);
+        Arrays.sort(index.lootruns, Comparator.comparing(metadata -> metadata.fileName));
+
+        try (Writer writer = new FileWriter(INDEX_FILE, StandardCharsets.UTF_8)) {
+            GSON.toJson(index, writer);
+        } catch (IOException e) {
+            WynntilsMod.warn("Could not save lootrun index.", e);
+        }
+    }
+
+    /** What the lootrun screen needs to know about a lootrun file, without compiling it */
+    public static final class LootrunMetadata {
+        private String fileName;
+        private long lastModified;
+        private long size;
+
+        private int pointCount;
+        private int chestCount;
+        private int noteCount;
+
+        private double startX;
+        private double startY;
+        private double startZ;
+        private double minX;
+        private double minZ;
+        private double maxX;
+        private double maxZ;
+
+        private LootrunMetadata(File file) {
+            this.fileName = file.getName();
+            this.lastModified = file.lastModified();
+            this.size = file.length();
+        }
+
+        public String name() {
+            return fileName.substring(0, fileName.lastIndexOf('.'));
+        }
+
+        public boolean isBinary() {
+            return fileName.endsWith(BinaryLootrunFormat.EXTENSION);
+        }
+
+        public int pointCount() {
+            return pointCount;
+        }
+
+        public int chestCount() {
+            return chestCount;
+        }
+
+        public int noteCount() {
+            return noteCount;
+        }
+
+        public Vec3 start() {
+            return new Vec3(startX, startY, startZ);
+        }
+
+        public double minX() {
+            return minX;
+        }
+
+        public double minZ() {
+            return minZ;
+        }
+
+        public double maxX() {
+            return maxX;
+        }
+
+        public double maxZ() {
+            return maxZ;
+        }
+    }
+
+    private static final class Index {
+        private int version;
+        private LootrunMetadata[] lootruns;
+    }
+}
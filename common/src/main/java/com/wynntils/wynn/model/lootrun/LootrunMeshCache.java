@@ -0,0 +1,266 @@
+/*
+ * Copyright © Wynntils 2022.
+ * This file is released under AGPLv3. See LICENSE for full license details.
+ */
+package com.wynntils.wynn.model.lootrun;
+
+import com.mojang.blaze3d.systems.RenderSystem;
+import com.mojang.blaze3d.vertex.BufferBuilder;
+import com.mojang.blaze3d.vertex.PoseStack;
+import com.mojang.blaze3d.vertex.VertexBuffer;
+import com.mojang.math.Matrix4f;
+import com.wynntils.gui.render.CustomRenderType;
+import com.wynntils.wynn.model.LootrunModel.BlockValidness;
+import com.wynntils.wynn.model.LootrunModel.ColoredPath;
+import com.wynntils.wynn.model.LootrunModel.ColoredPoint;
+import com.wynntils.wynn.model.LootrunModel.LootrunInstance;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import java.util.ArrayList;
+import java.util.List;
+import net.minecraft.core.BlockPos;
+import net.minecraft.util.Mth;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.phys.Vec3;
+
+/**
+ * Keeps the path of a lootrun baked into one vertex buffer per chunk. A chunk mesh is rebuilt when the
+ * path in the chunk changes, or when the blocks of the chunk or its neighbours change, as the path is
+ * hidden above barriers.
+ *
+ * <p>All methods must be called from the render thread.
+ */
+public final class LootrunMeshCache {
+    // Rebuilding needs block lookups, so spread them over several frames when many chunks are stale
+    private static final int MAX_REBUILDS_PER_FRAME = 8;
+
+    private static final BufferBuilder MESH_BUILDER = new BufferBuilder(4096);
+
+    private final Long2ObjectMap<ChunkMesh> meshes = new Long2ObjectOpenHashMap<>();
+    private final List<ColoredPoint> segments = new ArrayList<>();
+
+    private LootrunInstance lootrun = null;
+    private int rebuildsThisFrame = 0;
+
+    /** Must be called before rendering the chunks of the lootrun each frame */
+    public void startFrame(LootrunInstance lootrun) {
+        rebuildsThisFrame = 0;
+        if (lootrun == this.lootrun) return;
+
+        // Meshes of chunks whose path is unchanged can be kept
+        this.lootrun = lootrun;
+        meshes.long2ObjectEntrySet().removeIf(entry -> {
+            if (lootrun.points().get(entry.getLongKey()) == entry.getValue().source) return false;
+
+            entry.getValue().close();
+            return true;
+        });
+    }
+
+    public void renderChunk(PoseStack poseStack, Level level, long chunkLong) {
+        List<ColoredPath> paths = lootrun.points().get(chunkLong);
+        if (paths == null) return;
+
+        ChunkMesh mesh = meshes.get(chunkLong);
+        if (mesh == null || mesh.dirty) {
+            if (rebuildsThisFrame >= MAX_REBUILDS_PER_FRAME) {
+                // Draw the outdated mesh until it is rebuilt in a later frame
+                if (mesh != null) {
+                    drawMesh(poseStack, chunkLong, mesh);
+                }
+                return;
+            }
+
+            if (mesh == null) {
+                mesh = new ChunkMesh(paths);
+                meshes.put(chunkLong, mesh);
+            }
+            buildMesh(level, chunkLong, mesh);
+            rebuildsThisFrame++;
+        }
+
+        drawMesh(poseStack, chunkLong, mesh);
+    }
+
+    /** Marks the meshes which depend on blocks of the chunk as outdated */
+    public void onChunkUpdate(int chunkX, int chunkZ) {
+        // Points near the border of a chunk also check blocks of the neighbouring chunks
+        for (int x = chunkX - 1; x <= chunkX + 1; x++) {
+            for (int z = chunkZ - 1; z <= chunkZ + 1; z++) {
+                ChunkMesh mesh = meshes.get(ChunkPos.asLong(x, z));
+                if (mesh != null) {
+                    mesh.dirty = true;
+                }
+            }
+        }
+    }
+
+    public void clear() {
+        meshes.values().forEach(ChunkMesh::close);
+        meshes.clear();
+        lootrun = null;
+    }
+
+    private void buildMesh(Level level, long chunkLong, ChunkMesh mesh) {
+        segments.clear();
+        for (ColoredPath path : mesh.source) {
+            addPathSegments(level, path);
+        }
+
+        mesh.dirty = false;
+        if (segments.isEmpty()) {
+            mesh.close();
+            return;
+        }
+
+        // Vertices are relative to the chunk origin, to keep float precision far from the world origin
+        int originX = ChunkPos.getX(chunkLong) << 4;
+        int originZ = ChunkPos.getZ(chunkLong) << 4;
+
+        MESH_BUILDER.begin(CustomRenderType.LOOTRUN_LINE.mode(), CustomRenderType.LOOTRUN_LINE.format());
+        for (ColoredPoint point : segments) {
+            Vec3 location = point.vec3();
+            MESH_BUILDER
+                    .vertex((float) (location.x - originX), (float) location.y, (float) (location.z - originZ))
+                    .color(point.color())
+                    .normal(0, 0, 1)
+                    .endVertex();
+        }
+        MESH_BUILDER.end();
+
+        if (mesh.buffer == null) {
+            mesh.buffer = new VertexBuffer();
+        }
+        mesh.buffer.upload(MESH_BUILDER);
+    }
+
+    /**
+     * Adds the pairs of points of the line segments to draw for the path. Points above barriers are not
+     * drawn, and points which are not above any block are only drawn if a point above a block follows.
+     */
+    private void addPathSegments(Level level, ColoredPath path) {
+        List<ColoredPoint> queued = new ArrayList<>();
+        ColoredPoint lastDrawn = null;
+        boolean lineBroken = false;
+
+        boolean pauseDraw = false;
+        BlockPos lastBlockPos = null;
+
+        for (ColoredPoint point : path.points()) {
+            BlockPos blockPos = new BlockPos(point.vec3());
+
+            if (blockPos.equals(lastBlockPos)) { // Do not recalculate block validness
+                if (!queued.isEmpty()) {
+                    queued.add(point);
+                }
+            } else {
+                BlockValidness blockValidness = checkBlockValidness(level, point);
+
+                if (blockValidness == BlockValidness.VALID) {
+                    pauseDraw = false;
+                    lineBroken = false;
+                    for (ColoredPoint queuedPoint : queued) {
+                        lastDrawn = addSegmentTo(lastDrawn, queuedPoint);
+                    }
+                    queued.clear();
+                } else if (blockValidness == BlockValidness.HAS_BARRIER) {
+                    pauseDraw = true;
+                    queued.clear();
+                } else {
+                    pauseDraw = false;
+                    queued.add(point);
+                    continue;
+                }
+            }
+
+            lastBlockPos = blockPos;
+
+            if (!pauseDraw) {
+                lastDrawn = addSegmentTo(lastDrawn, point);
+            } else {
+                // Break the line, it continues from the next point above a block
+                lastDrawn = null;
+                lineBroken = true;
+            }
+        }
+
+        if (!lineBroken) {
+            for (ColoredPoint queuedPoint : queued) {
+                lastDrawn = addSegmentTo(lastDrawn, queuedPoint);
+            }
+        }
+    }
+
+    private ColoredPoint addSegmentTo(ColoredPoint from, ColoredPoint to) {
+        if (from != null) {
+            segments.add(from);
+            segments.add(to);
+        }
+        return to;
+    }
+
+    private static void drawMesh(PoseStack poseStack, long chunkLong, ChunkMesh mesh) {
+        if (mesh.buffer == null) return;
+
+        poseStack.pushPose();
+        poseStack.translate(ChunkPos.getX(chunkLong) << 4, 0, ChunkPos.getZ(chunkLong) << 4);
+
+        CustomRenderType.LOOTRUN_LINE.setupRenderState();
+        // The render type may offset the model view matrix, which the buffer source would apply as well
+        Matrix4f modelView = RenderSystem.getModelViewMatrix().copy();
+        modelView.multiply(poseStack.last().pose());
+        mesh.buffer.drawWithShader(modelView, RenderSystem.getProjectionMatrix(), RenderSystem.getShader());
+        CustomRenderType.LOOTRUN_LINE.clearRenderState();
+
+        poseStack.popPose();
+    }
+
+    private static BlockValidness checkBlockValidness(Level level, ColoredPoint point) {
+        BlockValidness state = BlockValidness.INVALID;
+        Vec3 location = point.vec3();
+
+        int minX = Mth.floor(location.x - 0.3D);
+        int maxX = Mth.floor(location.x + 0.3D);
+        int minZ = Mth.floor(location.z - 0.3D);
+        int maxZ = Mth.floor(location.z + 0.3D);
+        BlockPos.MutableBlockPos blockInArea = new BlockPos.MutableBlockPos();
+        blockInArea.setY(Mth.floor(location.y - 1D));
+
+        for (int x = minX; x <= maxX; x++) {
+            for (int z = minZ; z <= maxZ; z++) {
+                blockInArea.setX(x);
+                blockInArea.setZ(z);
+
+                BlockState blockStateInArea = level.getBlockState(blockInArea);
+                if (blockStateInArea.is(Blocks.BARRIER)) {
+                    state = BlockValidness.HAS_BARRIER;
+                } else if (blockStateInArea.getCollisionShape(level, blockInArea) != null) {
+                    return BlockValidness.VALID;
+                }
+            }
+        }
+
+        return state;
+    }
+
+    private static final class ChunkMesh {
+        // The path of the lootrun in this chunk, at the time the mesh was built
+        private final List<ColoredPath> source;
+        private VertexBuffer buffer = null;
+        private boolean dirty = true;
+
+        private ChunkMesh(List<ColoredPath> source) {
+            this.source = source;
+        }
+
+        private void close() {
+            if (buffer != null) {
+                buffer.close();
+                buffer = null;
+            }
+        }
+    }
+}
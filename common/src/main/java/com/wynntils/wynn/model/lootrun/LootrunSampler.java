@@ -0,0 +1,128 @@
+/*
+ * Copyright © Wynntils 2022.
+ * This file is released under AGPLv3. See LICENSE for full license details.
+ */
+package com.wynntils.wynn.model.lootrun;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import net.minecraft.util.CubicSpline;
+import net.minecraft.world.phys.Vec3;
+
+/**
+ * Samples the splines through the points of a lootrun. Long paths are split into batches of segments which
+ * are sampled in parallel on the common fork-join pool.
+ *
+ * <p>A spline segment only depends on its two end points and their slopes, so a spline built from a range
+ * of the points gives the same samples within that range. The sample positions are accumulated the same
+ * way as when sampling the whole spline at once, so the result does not depend on the batching.
+ */
+public final class LootrunSampler {
+    private static final float SAMPLE_STEP = 1f / 10f;
+    private static final double MAX_POINT_DISTANCE = 32;
+    private static final int SEGMENTS_PER_BATCH = 2048;
+
+    private LootrunSampler() {}
+
+    /** @return the samples of all continuous parts of the path, in order */
+    public static List<Vec3> sample(List<Vec3> raw) {
+        List<Batch> batches = new ArrayList<>();
+
+        int runStart = 0;
+        for (int i = 1; i <= raw.size(); i++) {
+            if (i == raw.size() || raw.get(i - 1).distanceTo(raw.get(i)) >= MAX_POINT_DISTANCE) {
+                addBatches(raw.subList(runStart, i), batches);
+                runStart = i;
+            }
+        }
+
+        if (batches.isEmpty()) return new ArrayList<>();
+        if (batches.size() == 1) return batches.get(0).sample();
+
+        return ForkJoinPool.commonPool().invoke(new SampleTask(batches, 0, batches.size()));
+    }
+
+    /** Splits a continuous part of the path into batches of segments */
+    private static void addBatches(List<Vec3> points, List<Batch> batches) {
+        int count = points.size();
+        if (count < 2) return;
+
+        float[] distances = new float[count];
+        float[] slopes = new float[count * 3];
+        for (int i = 0; i < count; i++) {
+            Vec3 point = points.get(i);
+            if (i > 0) {
+                distances[i] = (float) (distances[i - 1] + points.get(i - 1).distanceTo(point));
+            }
+
+            // The last point has no following point, so its slope is 0
+            if (i < count - 1) {
+                Vec3 next = points.get(i + 1);
+                slopes[i * 3] = (float) ((next.x - point.x) / point.distanceTo(next));
+                slopes[i * 3 + 1] = (float) ((next.y - point.y) / point.distanceTo(next));
+                slopes[i * 3 + 2] = (float) ((next.z - point.z) / point.distanceTo(next));
+            }
+        }
+
+        // Walking the sample positions is cheap compared to evaluating the splines
+        float nextSampleAt = 0f;
+        for (int start = 0; start < count - 1; start += SEGMENTS_PER_BATCH) {
+            while (nextSampleAt < distances[start]) {
+                nextSampleAt += SAMPLE_STEP;
+            }
+
+            int end = Math.min(start + SEGMENTS_PER_BATCH, count - 1);
+            batches.add(new Batch(points, distances, slopes, start, end, nextSampleAt));
+        }
+    }
+
+    private record Batch(List<Vec3> points, float[] distances, float[] slopes, int start, int end, float firstSample) {
+        private List<Vec3> sample() {
+            CubicSpline.Builder<Float> builderX = CubicSpline.builder((Float value) -> value);
+            CubicSpline.Builder<Float> builderY = CubicSpline.builder((Float value) -> value);
+            CubicSpline.Builder<Float> builderZ = CubicSpline.builder((Float value) -> value);
+            for (int i = start; i <= end; i++) {
+                Vec3 point = points.get(i);
+                builderX.addPoint(distances[i], (float) point.x, slopes[i * 3]);
+                builderY.addPoint(distances[i], (float) point.y, slopes[i * 3 + 1]);
+                builderZ.addPoint(distances[i], (float) point.z, slopes[i * 3 + 2]);
+            }
+            CubicSpline<Float> splineX = builderX.build();
+            CubicSpline<Float> splineY = builderY.build();
+            CubicSpline<Float> splineZ = builderZ.build();
+
+            List<Vec3> samples = new ArrayList<>();
+            for (float i = firstSample; i < distances[end]; i += SAMPLE_STEP) {
+                samples.add(new Vec3(splineX.apply(i), splineY.apply(i), splineZ.apply(i)));
+            }
+            return samples;
+        }
+    }
+
+    private static final class SampleTask extends RecursiveTask<List<Vec3>> {
+        private final List<Batch> batches;
+        private final int from;
+        private final int to;
+
+        private SampleTask(List<Batch> batches, int from, int to) {
+            this.batches = batches;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected List<Vec3> compute() {
+            if (to - from == 1) return batches.get(from).sample();
+
+            int middle = (from + to) >>> 1;
+            SampleTask second = new SampleTask(batches, middle, to);
+            second.fork();
+
+            List<Vec3> result = new SampleTask(batches, from, middle).compute();
+            result.addAll(second.join());
+            return result;
+        }
+    }
+}
@@ -14,19 +14,25 @@ import com.wynntils.core.webapi.WebManager;
 import com.wynntils.core.webapi.request.RequestBuilder;
 import com.wynntils.core.webapi.request.RequestHandler;
 import com.wynntils.utils.BoundingBox;
+import com.wynntils.wynn.model.map.poi.CustomPoi;
 import com.wynntils.wynn.model.map.poi.Label;
 import com.wynntils.wynn.model.map.poi.LabelPoi;
 import com.wynntils.wynn.model.map.poi.MapLocation;
+import com.wynntils.wynn.model.map.poi.Poi;
 import com.wynntils.wynn.model.map.poi.ServiceKind;
 import com.wynntils.wynn.model.map.poi.ServicePoi;
 import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.lang.reflect.Type;
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.apache.commons.io.FileUtils;
 
 public final class MapModel extends Model {
     private static final String PLACES_JSON_URL =
@@ -38,23 +44,97 @@ public final class MapModel extends Model {
     private static final String SPIRITS_JSON_URL =
             "https://raw.githubusercontent.com/Wynntils/Reference/main/locations/spirits.json";
 
+    // The reference data rarely changes, there is no need to revalidate it on every launch
+    private static final long REFERENCE_MAX_AGE_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    /** POIs are filtered by their size around their location, this is larger than any unscaled POI */
+    public static final float POI_QUERY_MARGIN = 128f;
+
     private static final Gson GSON = new GsonBuilder().create();
+    // Not shared with WebManager, a dispatch skips requests which another dispatch is still loading
+    private static final RequestHandler HANDLER = new RequestHandler();
     private static final List<MapTexture> MAPS = new CopyOnWriteArrayList<>();
-    private static final Set<LabelPoi> LABEL_POIS = new HashSet<>();
-    private static final Set<ServicePoi> SERVICE_POIS = new HashSet<>();
+    // These are replaced as a whole from request worker threads while being read for rendering
+    private static volatile Set<LabelPoi> allLabelPois = Set.of();
+    private static volatile Set<ServicePoi> allServicePois = Set.of();
+
+    // Spatial indices of the sets above, replaced as a whole whenever the sets are reloaded
+    private static volatile PoiIndex<LabelPoi> labelPoiIndex = new PoiIndex<>();
+    private static volatile PoiIndex<ServicePoi> servicePoiIndex = new PoiIndex<>();
+    // Custom POIs are edited by the user, so this one is updated in place
+    private static final PoiIndex<CustomPoi> CUSTOM_POI_INDEX = new PoiIndex<>();
+
+    private static PoiStats mainMapPoiStats = new PoiStats(0, 0);
+    private static PoiStats minimapPoiStats = new PoiStats(0, 0);
 
     public static void init() {
         loadMaps();
         loadPlaces();
         loadServices();
+
+        // Load all three in parallel, without blocking the thread enabling the model
+        HANDLER.dispatchAsync();
+    }
+
+    public static void disable() {
+        MapTileCache.shutdown();
     }
 
     public static Set<LabelPoi> getLabelPois() {
-        return LABEL_POIS;
+        return allLabelPois;
     }
 
     public static Set<ServicePoi> getServicePois() {
-        return SERVICE_POIS;
+        return allServicePois;
+    }
+
+    /**
+     * Adds the label, service and custom POIs which may be visible in the box to {@code output}.
+     *
+     * @param margin how far outside the box a POI location may be, to account for the size of POIs
+     * @return the number of POIs added
+     */
+    public static int getPoisInBoundingBox(
+            BoundingBox box, float margin, boolean includeLabels, Collection<? super Poi> output) {
+        int found = servicePoiIndex.query(box, margin, output);
+        found += CUSTOM_POI_INDEX.query(box, margin, output);
+        if (includeLabels) {
+            found += labelPoiIndex.query(box, margin, output);
+        }
+
+        return found;
+    }
+
+    /** Replaces all custom POIs, e.g. after the config has been loaded */
+    public static void setCustomPois(Collection<CustomPoi> customPois) {
+        CUSTOM_POI_INDEX.clear();
+        customPois.forEach(CUSTOM_POI_INDEX::add);
+    }
+
+    public static void addCustomPoi(CustomPoi poi) {
+        CUSTOM_POI_INDEX.add(poi);
+    }
+
+    public static void removeCustomPoi(CustomPoi poi) {
+        CUSTOM_POI_INDEX.remove(poi);
+    }
+
+    public static void recordMainMapPoiStats(int tested, int drawn) {
+        mainMapPoiStats = new PoiStats(tested, drawn);
+    }
+
+    public static void recordMinimapPoiStats(int tested, int drawn) {
+        minimapPoiStats = new PoiStats(tested, drawn);
+    }
+
+    /** @return how many POIs were tested and drawn in the last main map frame */
+    public static PoiStats getMainMapPoiStats() {
+        return mainMapPoiStats;
+    }
+
+    /** @return how many POIs were tested and drawn in the last minimap frame */
+    public static PoiStats getMinimapPoiStats() {
+        return minimapPoiStats;
     }
 
     public static List<MapTexture> getMapsForBoundingBox(BoundingBox box) {
@@ -63,30 +143,45 @@ public final class MapModel extends Model {
 
     private static void loadMaps() {
         File mapDirectory = new File(WebManager.API_CACHE_ROOT, "maps");
-        RequestHandler handler = WebManager.getHandler();
+        File tileDirectory = new File(mapDirectory, "tiles");
 
         MAPS.clear();
 
-        handler.addAndDispatch(new RequestBuilder(MAPS_JSON_URL, "map-parts")
+        HANDLER.addRequest(new RequestBuilder(MAPS_JSON_URL, "map-parts")
                 .cacheTo(new File(mapDirectory, "maps.json"))
                 .useCacheAsBackup()
                 .handleJsonArray(json -> {
                     Type type = new TypeToken<List<MapPartProfile>>() {}.getType();
 
                     List<MapPartProfile> mapPartList = GSON.fromJson(json, type);
+                    deleteOutdatedTiles(tileDirectory, mapPartList);
+
                     for (MapPartProfile mapPart : mapPartList) {
                         String fileName = mapPart.md5 + ".png";
 
-                        handler.addRequest(new RequestBuilder(mapPart.url, "map-part-" + mapPart.name)
+                        HANDLER.addRequest(new RequestBuilder(mapPart.url, "map-part-" + mapPart.name)
                                 .cacheTo(new File(mapDirectory, fileName))
                                 .cacheMD5Validator(mapPart.md5)
                                 .useCacheAsBackup()
                                 .handle(bytes -> {
-                                    try (ByteArrayInputStream in = new ByteArrayInputStream(bytes)) {
-                                        NativeImage nativeImage = NativeImage.read(in);
-                                        MapTexture mapPartImage = new MapTexture(
-                                                fileName, nativeImage, mapPart.x1, mapPart.z1, mapPart.x2, mapPart.z2);
-                                        MAPS.add(mapPartImage);
+                                    MapTexture mapPartTexture = new MapTexture(
+                                            mapPart.md5,
+                                            new File(tileDirectory, mapPart.md5),
+                                            mapPart.x1,
+                                            mapPart.z1,
+                                            mapPart.x2,
+                                            mapPart.z2);
+
+                                    // Tiles are only generated once per version of a map part
+                                    if (mapPartTexture.hasTilesOnDisk()) {
+                                        MAPS.add(mapPartTexture);
+                                        return true;
+                                    }
+
+                                    try (ByteArrayInputStream in = new ByteArrayInputStream(bytes);
+                                            NativeImage nativeImage = NativeImage.read(in)) {
+                                        MapTileWriter.writeTiles(mapPartTexture, nativeImage);
+                                        MAPS.add(mapPartTexture);
                                     } catch (IOException e) {
                                         WynntilsMod.info(
                                                 "IOException occurred while loading map image of " + mapPart.name);
@@ -98,23 +193,41 @@ public final class MapModel extends Model {
                                 .build());
                     }
 
-                    handler.dispatchAsync();
+                    HANDLER.dispatchAsync();
                     return true;
                 })
                 .build());
     }
 
+    private static void deleteOutdatedTiles(File tileDirectory, List<MapPartProfile> mapParts) {
+        File[] partDirectories = tileDirectory.listFiles(File::isDirectory);
+        if (partDirectories == null) return;
+
+        Set<String> currentParts = mapParts.stream().map(mapPart -> mapPart.md5).collect(Collectors.toSet());
+        for (File partDirectory : partDirectories) {
+            if (!currentParts.contains(partDirectory.getName())) {
+                FileUtils.deleteQuietly(partDirectory);
+            }
+        }
+    }
+
     private static void loadPlaces() {
         File mapDirectory = new File(WebManager.API_CACHE_ROOT, "maps");
-        RequestHandler handler = WebManager.getHandler();
-        handler.addAndDispatch(new RequestBuilder(PLACES_JSON_URL, "maps-places")
+        HANDLER.addRequest(new RequestBuilder(PLACES_JSON_URL, "maps-places")
                 .cacheTo(new File(mapDirectory, "places.json"))
+                .staleWhileRevalidate(REFERENCE_MAX_AGE_MILLIS)
+                .useConditionalRequests()
                 .useCacheAsBackup()
                 .handleJsonObject(json -> {
                     PlacesProfile places = GSON.fromJson(json, PlacesProfile.class);
+                    List<LabelPoi> labelPois = new ArrayList<>();
                     for (Label label : places.labels) {
-                        LABEL_POIS.add(new LabelPoi(label));
+                        labelPois.add(new LabelPoi(label));
                     }
+
+                    // Cached places may be replaced by fresh ones
+                    allLabelPois = Set.copyOf(labelPois);
+                    labelPoiIndex = new PoiIndex<>(labelPois);
                     return true;
                 })
                 .build());
@@ -122,30 +235,37 @@ public final class MapModel extends Model {
 
     private static void loadServices() {
         File mapDirectory = new File(WebManager.API_CACHE_ROOT, "maps");
-        RequestHandler handler = WebManager.getHandler();
-        handler.addAndDispatch(new RequestBuilder(SERVICES_JSON_URL, "maps-services")
+        HANDLER.addRequest(new RequestBuilder(SERVICES_JSON_URL, "maps-services")
                 .cacheTo(new File(mapDirectory, "services.json"))
+                .staleWhileRevalidate(REFERENCE_MAX_AGE_MILLIS)
+                .useConditionalRequests()
                 .useCacheAsBackup()
                 .handleJsonArray(json -> {
                     Type type = new TypeToken<List<ServiceProfile>>() {}.getType();
 
                     List<ServiceProfile> serviceList = GSON.fromJson(json, type);
+                    List<ServicePoi> servicePois = new ArrayList<>();
                     for (var service : serviceList) {
                         ServiceKind kind = ServiceKind.fromString(service.type);
                         if (kind != null) {
                             for (MapLocation location : service.locations) {
-                                SERVICE_POIS.add(new ServicePoi(location, kind));
+                                servicePois.add(new ServicePoi(location, kind));
                             }
                         } else {
                             WynntilsMod.warn("Unknown service type in services.json: " + service.type);
                         }
                     }
 
+                    // Cached services may be replaced by fresh ones
+                    allServicePois = Set.copyOf(servicePois);
+                    servicePoiIndex = new PoiIndex<>(servicePois);
                     return true;
                 })
                 .build());
     }
 
+    public record PoiStats(int tested, int drawn) {}
+
     private static class PlacesProfile {
         List<Label> labels;
     }
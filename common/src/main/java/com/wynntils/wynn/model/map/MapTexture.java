@@ -4,17 +4,23 @@
  */
 package com.wynntils.wynn.model.map;
 
-import com.mojang.blaze3d.platform.NativeImage;
-import com.wynntils.mc.utils.McUtils;
 import com.wynntils.utils.BoundingBox;
-import net.minecraft.client.renderer.texture.DynamicTexture;
-import net.minecraft.resources.ResourceLocation;
-
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A map part, split into tiles of {@link #TILE_SIZE} pixels. Level 0 has the full resolution, every
+ * following level halves it, up to a level which fits into a single tile. The pixels of the tiles are
+ * stored on disk, see {@link MapTileCache} for loading them.
+ */
 public class MapTexture {
-    private final NativeImage texture;
-    private final ResourceLocation mapResource;
+    public static final int TILE_SIZE = 256;
 
-    private boolean registered = false;
+    private static final String COMPLETE_MARKER = "tiles.complete";
+
+    private final String name;
+    private final File tileDirectory;
 
     private final int x1;
     private final int z1;
@@ -24,28 +30,96 @@ public class MapTexture {
     private final int textureWidth;
     private final int textureHeight;
 
-    public MapTexture(String name, NativeImage texture, int x1, int z1, int x2, int z2) {
-        this.texture = texture;
+    // Indexed by level, then tile x and tile z
+    private final List<MapTile[][]> levels = new ArrayList<>();
+
+    public MapTexture(String name, File tileDirectory, int x1, int z1, int x2, int z2) {
+        this.name = name;
+        this.tileDirectory = tileDirectory;
         this.x1 = x1;
         this.z1 = z1;
         this.x2 = x2;
         this.z2 = z2;
-        this.textureWidth = texture.getWidth();
-        this.textureHeight = texture.getHeight();
+        this.textureWidth = x2 - x1 + 1;
+        this.textureHeight = z2 - z1 + 1;
+
+        for (int level = 0; ; level++) {
+            int levelWidth = getLevelWidth(level);
+            int levelHeight = getLevelHeight(level);
+            int tilesX = ceilDiv(levelWidth, TILE_SIZE);
+            int tilesZ = ceilDiv(levelHeight, TILE_SIZE);
+
+            MapTile[][] tiles = new MapTile[tilesX][tilesZ];
+            for (int tileX = 0; tileX < tilesX; tileX++) {
+                for (int tileZ = 0; tileZ < tilesZ; tileZ++) {
+                    int width = Math.min(TILE_SIZE, levelWidth - tileX * TILE_SIZE);
+                    int height = Math.min(TILE_SIZE, levelHeight - tileZ * TILE_SIZE);
+                    tiles[tileX][tileZ] = new MapTile(this, level, tileX, tileZ, width, height);
+                }
+            }
+            levels.add(tiles);
+
+            if (tilesX == 1 && tilesZ == 1) break;
+        }
+    }
 
-        this.mapResource = new ResourceLocation("wynntils", "/maps/" + name);
+    /** @return whether the tiles of this part have already been written to disk */
+    public boolean hasTilesOnDisk() {
+        return new File(tileDirectory, COMPLETE_MARKER).isFile();
+    }
 
-        assert (x2 - x1 + 1 == textureWidth);
-        assert (z2 - z1 + 1 == textureHeight);
+    File getCompleteMarker() {
+        return new File(tileDirectory, COMPLETE_MARKER);
     }
 
-    public ResourceLocation resource() {
-        if (!registered) {
-            registered = true;
-            McUtils.mc().getTextureManager().register(mapResource, new DynamicTexture(texture));
+    File getTileFile(MapTile tile) {
+        return new File(tileDirectory, tile.getLevel() + "_" + tile.getTileX() + "_" + tile.getTileZ() + ".png");
+    }
+
+    /** Adds all tiles of the level which intersect the box to {@code output} */
+    public void getTilesInBox(int level, BoundingBox box, List<MapTile> output) {
+        MapTile[][] tiles = levels.get(level);
+        int tileWorldSize = TILE_SIZE << level;
+
+        int minTileX = Math.max(0, (int) Math.floor((box.x1 - x1) / tileWorldSize));
+        int minTileZ = Math.max(0, (int) Math.floor((box.z1 - z1) / tileWorldSize));
+        int maxTileX = Math.min(tiles.length - 1, (int) Math.floor((box.x2 - x1) / tileWorldSize));
+        int maxTileZ = Math.min(tiles[0].length - 1, (int) Math.floor((box.z2 - z1) / tileWorldSize));
+
+        for (int tileX = minTileX; tileX <= maxTileX; tileX++) {
+            for (int tileZ = minTileZ; tileZ <= maxTileZ; tileZ++) {
+                output.add(tiles[tileX][tileZ]);
+            }
         }
+    }
+
+    /** @return the tile of the given level covering the location of the tile, or null if there is none */
+    public MapTile getCoveringTile(MapTile tile, int level) {
+        if (level >= levels.size()) return null;
 
-        return mapResource;
+        int shift = level - tile.getLevel();
+        MapTile[][] tiles = levels.get(level);
+        return tiles[tile.getTileX() >> shift][tile.getTileZ() >> shift];
+    }
+
+    MapTile[][] getTiles(int level) {
+        return levels.get(level);
+    }
+
+    public int getLevelCount() {
+        return levels.size();
+    }
+
+    public int getLevelWidth(int level) {
+        return ceilDiv(textureWidth, 1 << level);
+    }
+
+    public int getLevelHeight(int level) {
+        return ceilDiv(textureHeight, 1 << level);
+    }
+
+    public String getName() {
+        return name;
     }
 
     public float getTextureXPosition(double posX) {
@@ -91,4 +165,8 @@ public class MapTexture {
     public int getTextureWidth() {
         return textureWidth;
     }
+
+    private static int ceilDiv(int dividend, int divisor) {
+        return (dividend + divisor - 1) / divisor;
+    }
 }
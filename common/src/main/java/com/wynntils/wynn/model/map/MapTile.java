@@ -0,0 +1,74 @@
+/*
+ * Copyright © Wynntils 2022.
+ * This file is released under AGPLv3. See LICENSE for full license details.
+ */
+package com.wynntils.wynn.model.map;
+
+import com.wynntils.utils.BoundingBox;
+import java.io.File;
+import java.util.Locale;
+import net.minecraft.resources.ResourceLocation;
+
+/** A single tile of a {@link MapTexture} at one level of detail */
+public class MapTile {
+    private final MapTexture map;
+    private final int level;
+    private final int tileX;
+    private final int tileZ;
+    private final int width;
+    private final int height;
+    private final ResourceLocation resource;
+
+    MapTile(MapTexture map, int level, int tileX, int tileZ, int width, int height) {
+        this.map = map;
+        this.level = level;
+        this.tileX = tileX;
+        this.tileZ = tileZ;
+        this.width = width;
+        this.height = height;
+        this.resource = new ResourceLocation(
+                "wynntils",
+                "maps/tiles/" + map.getName().toLowerCase(Locale.ROOT) + "/" + level + "_" + tileX + "_" + tileZ);
+    }
+
+    public MapTexture getMap() {
+        return map;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    public int getTileX() {
+        return tileX;
+    }
+
+    public int getTileZ() {
+        return tileZ;
+    }
+
+    /** @return the width of the tile image, in pixels of its level */
+    public int getWidth() {
+        return width;
+    }
+
+    /** @return the height of the tile image, in pixels of its level */
+    public int getHeight() {
+        return height;
+    }
+
+    public ResourceLocation getResource() {
+        return resource;
+    }
+
+    File getFile() {
+        return map.getTileFile(this);
+    }
+
+    /** @return the world area covered by this tile */
+    public BoundingBox getWorldBox() {
+        float worldX1 = map.getX1() + (float) (tileX * MapTexture.TILE_SIZE << level);
+        float worldZ1 = map.getZ1() + (float) (tileZ * MapTexture.TILE_SIZE << level);
+        return new BoundingBox(worldX1, worldZ1, worldX1 + (width << level), worldZ1 + (height << level));
+    }
+}
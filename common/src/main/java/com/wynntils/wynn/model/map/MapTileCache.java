@@ -0,0 +1,167 @@
+/*
+ * Copyright © Wynntils 2022.
+ * This file is released under AGPLv3. See LICENSE for full license details.
+ */
+package com.wynntils.wynn.model.map;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.mojang.blaze3d.platform.NativeImage;
+import com.mojang.blaze3d.systems.RenderSystem;
+import com.wynntils.core.WynntilsMod;
+import com.wynntils.mc.utils.McUtils;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import net.minecraft.client.renderer.texture.DynamicTexture;
+import net.minecraft.client.renderer.texture.TextureManager;
+import net.minecraft.resources.ResourceLocation;
+
+/**
+ * Keeps the recently drawn map tiles uploaded, and loads missing ones from disk in the background.
+ * At most {@link #MAX_RESIDENT_TILES} tiles are kept, the least recently drawn ones are released first.
+ *
+ * <p>Unless noted otherwise, methods must be called from the render thread.
+ */
+public final class MapTileCache {
+    // 256x256 RGBA tiles take 256 KiB each, so this caps map textures at 48 MiB
+    private static final int MAX_RESIDENT_TILES = 192;
+    private static final int MAX_PENDING_LOADS = 16;
+
+    private static final int LOADER_THREADS = 2;
+
+    // Created when the first tile is loaded, and shut down when the map model is disabled
+    private static ExecutorService loader = null;
+
+    private static final Map<ResourceLocation, DynamicTexture> RESIDENT_TILES = new LinkedHashMap<>(16, 0.75f, true);
+    private static final Set<ResourceLocation> PENDING_TILES = ConcurrentHashMap.newKeySet();
+    private static final Set<ResourceLocation> FAILED_TILES = ConcurrentHashMap.newKeySet();
+    private static final Queue<LoadedTile> LOADED_TILES = new ConcurrentLinkedQueue<>();
+
+    // Counts the shutdowns, tiles loaded before the last one are closed instead of queued. Guarded by LOADED_TILES
+    private static int generation = 0;
+
+    private MapTileCache() {}
+
+    /**
+     * @return the texture of the tile, or null if it is not loaded yet. In that case, loading it is
+     *     started.
+     */
+    public static ResourceLocation getOrLoad(MapTile tile) {
+        ResourceLocation resource = getIfResident(tile);
+        if (resource != null) return resource;
+
+        if (PENDING_TILES.size() < MAX_PENDING_LOADS
+                && !FAILED_TILES.contains(tile.getResource())
+                && PENDING_TILES.add(tile.getResource())) {
+            int loadGeneration = generation;
+            getLoader().submit(() -> loadTile(tile, loadGeneration));
+        }
+
+        return null;
+    }
+
+    /** @return the texture of the tile, or null if it is not loaded. Does not start loading it. */
+    public static ResourceLocation getIfResident(MapTile tile) {
+        return RESIDENT_TILES.get(tile.getResource()) != null ? tile.getResource() : null;
+    }
+
+    /** Uploads tiles that finished loading since the last call. Should be called once per frame. */
+    public static void uploadLoadedTiles() {
+        TextureManager textureManager = McUtils.mc().getTextureManager();
+
+        LoadedTile loaded;
+        while ((loaded = LOADED_TILES.poll()) != null) {
+            DynamicTexture texture = new DynamicTexture(loaded.image());
+            textureManager.register(loaded.resource(), texture);
+            RESIDENT_TILES.put(loaded.resource(), texture);
+            PENDING_TILES.remove(loaded.resource());
+        }
+
+        Iterator<ResourceLocation> iterator = RESIDENT_TILES.keySet().iterator();
+        while (RESIDENT_TILES.size() > MAX_RESIDENT_TILES && iterator.hasNext()) {
+            // This also frees the pixels of the tile
+            textureManager.release(iterator.next());
+            iterator.remove();
+        }
+    }
+
+    /** Stops loading tiles, and releases all of them. Loading starts again when a tile is requested. */
+    public static void shutdown() {
+        if (loader != null) {
+            loader.shutdownNow();
+            loader = null;
+        }
+
+        // A loader thread blocked reading a tile is not interrupted, it closes the tile itself once it sees this
+        synchronized (LOADED_TILES) {
+            generation++;
+
+            LoadedTile loaded;
+            while ((loaded = LOADED_TILES.poll()) != null) {
+                loaded.image().close();
+            }
+        }
+
+        PENDING_TILES.clear();
+        FAILED_TILES.clear();
+
+        RenderSystem.recordRenderCall(() -> {
+            TextureManager textureManager = McUtils.mc().getTextureManager();
+            RESIDENT_TILES.keySet().forEach(textureManager::release);
+            RESIDENT_TILES.clear();
+        });
+    }
+
+    public static int getResidentTileCount() {
+        return RESIDENT_TILES.size();
+    }
+
+    private static ExecutorService getLoader() {
+        if (loader == null) {
+            loader = Executors.newFixedThreadPool(
+                    LOADER_THREADS,
+                    new ThreadFactoryBuilder()
+                            .setNameFormat("wynntils-map-tile-pool-%d")
+                            .setDaemon(true)
+                            .build());
+        }
+        return loader;
+    }
+
+    // Called on a loader thread
+    private static void loadTile(MapTile tile, int loadGeneration) {
+        NativeImage image;
+        try (InputStream in = new FileInputStream(tile.getFile())) {
+            image = NativeImage.read(in);
+        } catch (IOException e) {
+            WynntilsMod.warn("Could not load map tile " + tile.getFile().getPath(), e);
+            synchronized (LOADED_TILES) {
+                if (loadGeneration != generation) return;
+
+                FAILED_TILES.add(tile.getResource());
+                PENDING_TILES.remove(tile.getResource());
+            }
+            return;
+        }
+
+        synchronized (LOADED_TILES) {
+            if (loadGeneration != generation) {
+                image.close();
+                return;
+            }
+
+            LOADED_TILES.add(new LoadedTile(tile.getResource(), image));
+        }
+    }
+
+    private record LoadedTile(ResourceLocation resource, NativeImage image) {}
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright © Wynntils 2022.
+ * This file is released under AGPLv3. See LICENSE for full license details.
+ */
+package com.wynntils.wynn.model.map;
+
+import com.mojang.blaze3d.platform.NativeImage;
+import java.io.File;
+import java.io.IOException;
+import org.apache.commons.io.FileUtils;
+
+/** Splits a decoded map part into the tiles of all its levels and writes them to disk */
+final class MapTileWriter {
+    private MapTileWriter() {}
+
+    static void writeTiles(MapTexture map, NativeImage image) throws IOException {
+        File completeMarker = map.getCompleteMarker();
+        FileUtils.forceMkdirParent(completeMarker);
+
+        NativeImage levelImage = image;
+        try {
+            for (int level = 0; level < map.getLevelCount(); level++) {
+                if (level > 0) {
+                    NativeImage downscaled = downscale(levelImage, map.getLevelWidth(level), map.getLevelHeight(level));
+                    if (levelImage != image) {
+                        levelImage.close();
+                    }
+                    levelImage = downscaled;
+                }
+
+                for (MapTile[] column : map.getTiles(level)) {
+                    for (MapTile tile : column) {
+                        writeTile(levelImage, tile);
+                    }
+                }
+            }
+        } finally {
+            if (levelImage != image) {
+                levelImage.close();
+            }
+        }
+
+        // Only written once every tile is on disk, so interrupted runs are redone
+        FileUtils.touch(completeMarker);
+    }
+
+    private static void writeTile(NativeImage levelImage, MapTile tile) throws IOException {
+        int offsetX = tile.getTileX() * MapTexture.TILE_SIZE;
+        int offsetZ = tile.getTileZ() * MapTexture.TILE_SIZE;
+
+        try (NativeImage tileImage = new NativeImage(tile.getWidth(), tile.getHeight(), false)) {
+            for (int x = 0; x < tile.getWidth(); x++) {
+                for (int z = 0; z < tile.getHeight(); z++) {
+                    tileImage.setPixelRGBA(x, z, levelImage.getPixelRGBA(offsetX + x, offsetZ + z));
+                }
+            }
+
+            tileImage.writeToFile(tile.getFile());
+        }
+    }
+
+    /** Halves the image with a box filter, edge pixels of odd sized images are averaged with themselves */
+    private static NativeImage downscale(NativeImage source, int width, int height) {
+        NativeImage result = new NativeImage(width, height, false);
+
+        int maxX = source.getWidth() - 1;
+        int maxZ = source.getHeight() - 1;
+        for (int x = 0; x < width; x++) {
+            for (int z = 0; z < height; z++) {
+                int sourceX = x * 2;
+                int sourceZ = z * 2;
+                int nextX = Math.min(sourceX + 1, maxX);
+                int nextZ = Math.min(sourceZ + 1, maxZ);
+
+                result.setPixelRGBA(
+                        x,
+                        z,
+                        average(
+                                source.getPixelRGBA(sourceX, sourceZ),
+                                source.getPixelRGBA(nextX, sourceZ),
+                                source.getPixelRGBA(sourceX, nextZ),
+                                source.getPixelRGBA(nextX, nextZ)));
+            }
+        }
+
+        return result;
+    }
+
+    private static int average(int a, int b, int c, int d) {
+        int result = 0;
+        for (int shift = 0; shift < 32; shift += 8) {
+            int sum = ((a >>> shift) & 0xFF) + ((b >>> shift) & 0xFF) + ((c >>> shift) & 0xFF) + ((d >>> shift) & 0xFF);
+            result |= ((sum + 2) / 4) << shift;
+        }
+        return result;
+    }
+}
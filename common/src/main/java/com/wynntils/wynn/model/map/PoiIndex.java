@@ -0,0 +1,128 @@
+/*
+ * Copyright © Wynntils 2022.
+ * This file is released under AGPLv3. See LICENSE for full license details.
+ */
+package com.wynntils.wynn.model.map;
+
+import com.wynntils.utils.BoundingBox;
+import com.wynntils.wynn.model.map.poi.MapLocation;
+import com.wynntils.wynn.model.map.poi.Poi;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A uniform grid over world X/Z coordinates, so the POIs in an area can be found without testing every
+ * single POI. POIs can be added and removed one by one.
+ */
+public final class PoiIndex<T extends Poi> {
+    // Cells are 128x128 blocks
+    private static final int CELL_SHIFT = 7;
+
+    private final Map<Long, List<T>> cells = new HashMap<>();
+    private final Map<T, Long> cellKeys = new IdentityHashMap<>();
+
+    public PoiIndex() {}
+
+    public PoiIndex(Collection<? extends T> pois) {
+        pois.forEach(this::add);
+    }
+
+    public synchronized void add(T poi) {
+        long key = cellKey(poi.getLocation());
+        Long oldKey = cellKeys.put(poi, key);
+        if (oldKey != null) {
+            removeFromCell(poi, oldKey);
+        }
+
+        cells.computeIfAbsent(key, k -> new ArrayList<>()).add(poi);
+    }
+
+    public synchronized boolean remove(T poi) {
+        Long key = cellKeys.remove(poi);
+        if (key == null) return false;
+
+        removeFromCell(poi, key);
+        return true;
+    }
+
+    public synchronized void clear() {
+        cells.clear();
+        cellKeys.clear();
+    }
+
+    public synchronized int size() {
+        return cellKeys.size();
+    }
+
+    /**
+     * Adds all POIs which may be inside the box to {@code output}. The result is a superset of the POIs
+     * within the box, callers still have to do their own exact test.
+     *
+     * @param margin how far outside the box a POI location may be, to account for the size of POIs
+     * @return the number of POIs added
+     */
+    public synchronized int query(BoundingBox box, float margin, Collection<? super T> output) {
+        int minCellX = (int) Math.floor(box.x1 - margin) >> CELL_SHIFT;
+        int minCellZ = (int) Math.floor(box.z1 - margin) >> CELL_SHIFT;
+        int maxCellX = (int) Math.floor(box.x2 + margin) >> CELL_SHIFT;
+        int maxCellZ = (int) Math.floor(box.z2 + margin) >> CELL_SHIFT;
+
+        int found = 0;
+
+        // When zoomed far out, it is cheaper to go over the occupied cells than all cells in the box
+        long cellCount = (long) (maxCellX - minCellX + 1) * (maxCellZ - minCellZ + 1);
+        if (cellCount > cells.size()) {
+            for (Map.Entry<Long, List<T>> entry : cells.entrySet()) {
+                long key = entry.getKey();
+                int cellX = (int) (key >> 32);
+                int cellZ = (int) key;
+                if (cellX < minCellX || cellX > maxCellX || cellZ < minCellZ || cellZ > maxCellZ) continue;
+
+                output.addAll(entry.getValue());
+                found += entry.getValue().size();
+            }
+            return found;
+        }
+
+        for (int cellX = minCellX; cellX <= maxCellX; cellX++) {
+            for (int cellZ = minCellZ; cellZ <= maxCellZ; cellZ++) {
+                List<T> cell = cells.get(toKey(cellX, cellZ));
+                if (cell == null) continue;
+
+                output.addAll(cell);
+                found += cell.size();
+            }
+        }
+
+        return found;
+    }
+
+    private void removeFromCell(T poi, long key) {
+        List<T> cell = cells.get(key);
+        if (cell == null) return;
+
+        // Remove by identity, POIs at the same location may be equal
+        for (int i = 0; i < cell.size(); i++) {
+            if (cell.get(i) == poi) {
+                cell.remove(i);
+                break;
+            }
+        }
+
+        if (cell.isEmpty()) {
+            cells.remove(key);
+        }
+    }
+
+    private static long cellKey(MapLocation location) {
+        return toKey(location.getX() >> CELL_SHIFT, location.getZ() >> CELL_SHIFT);
+    }
+
+    private static long toKey(int cellX, int cellZ) {
+        return ((long) cellX << 32) | (cellZ & 0xFFFFFFFFL);
+    }
+}
@@ -35,7 +35,7 @@ public class LabelPoi implements Poi {
 
     @Override
     public int getWidth(float mapZoom, float scale) {
-        return (int) (FontRenderer.getInstance().getFont().width(label.getName()) * scale);
+        return (int) (FontRenderer.getInstance().getTextWidth(label.getName()) * scale);
     }
 
     @Override
@@ -14,7 +14,6 @@ import com.wynntils.gui.render.VerticalAlignment;
 import com.wynntils.mc.utils.PlayerInfoUtils;
 import com.wynntils.sockets.objects.HadesUser;
 import com.wynntils.wynn.objects.HealthTexture;
-import net.minecraft.client.gui.Font;
 import net.minecraft.resources.ResourceLocation;
 
 public class PlayerMainMapPoi extends PlayerPoiBase {
@@ -54,8 +53,7 @@ public class PlayerMainMapPoi extends PlayerPoiBase {
                 (float) user.getHealth() / user.getMaxHealth());
 
         // name
-        Font font = FontRenderer.getInstance().getFont();
-        int width = font.width(user.getName());
+        int width = FontRenderer.getInstance().getTextWidth(user.getName());
         FontRenderer.getInstance()
                 .renderText(
                         poseStack,
@@ -6,6 +6,7 @@ package com.wynntils.wynn.model.scoreboard;
 
 import com.wynntils.core.WynntilsMod;
 import com.wynntils.core.managers.Model;
+import com.wynntils.mc.event.ClientTickEvent;
 import com.wynntils.mc.event.ScoreboardSetScoreEvent;
 import com.wynntils.mc.utils.ComponentUtils;
 import com.wynntils.mc.utils.McUtils;
@@ -19,17 +20,15 @@ import com.wynntils.wynn.model.scoreboard.objectives.ObjectiveHandler;
 import com.wynntils.wynn.utils.WynnUtils;
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.Optional;
+import java.util.Queue;
 import java.util.Set;
 import java.util.TreeMap;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import net.minecraft.ChatFormatting;
@@ -50,107 +49,57 @@ public final class ScoreboardModel extends Model {
     private static final Pattern GUILD_OBJECTIVE_HEADER_PATTERN = Pattern.compile("([★⭑] )?Guild Obj: (.+)");
     private static final Pattern PARTY_PATTERN = Pattern.compile("Party:\\s\\[Lv. (\\d+)]");
 
-    // TimeUnit.MILLISECONDS
-    // 250 -> 4 times a second
-    private static final int CHANGE_PROCESS_RATE = 250;
+    private static final Pattern EMPTY_LINE_PATTERN = Pattern.compile("À+");
+
+    // 5 ticks -> 4 times a second
+    private static final int CHANGE_PROCESS_TICKS = 5;
+    // The scoreboard is rebuilt every second even without changes, so toggled segment overlays are picked up
+    private static final int RECONSTRUCTION_TICKS = 20;
+
+    // Changes are queued as they arrive, and applied on the next processing tick
+    private static final Queue<ScoreboardLineChange> queuedChanges = new ConcurrentLinkedQueue<>();
+
+    // The current lines, by score and by text; a line text has at most one score
+    private static final TreeMap<Integer, ParsedLine> linesByIndex = new TreeMap<>(Comparator.reverseOrder());
+    private static final Map<String, Integer> indexByLine = new HashMap<>();
 
     private static List<ScoreboardLine> reconstructedScoreboard = new ArrayList<>();
 
     private static List<Segment> segments = new ArrayList<>();
 
-    private static final LinkedList<ScoreboardLineChange> queuedChanges = new LinkedList<>();
-
     private static final List<Pair<ScoreboardHandler, Set<SegmentType>>> scoreboardHandlers = new ArrayList<>();
 
-    private static ScheduledExecutorService executor = null;
-
     private static boolean firstExecution = false;
+    private static int ticksSinceProcessing = 0;
+    private static int ticksSinceReconstruction = 0;
 
-    private static final Runnable changeHandlerRunnable = () -> {
+    @SubscribeEvent
+    public static void onTick(ClientTickEvent.Start event) {
         if (!WynnUtils.onWorld() || McUtils.player() == null) return;
 
-        if (queuedChanges.isEmpty()) {
-            handleScoreboardReconstruction();
-            return;
-        }
-
-        List<ScoreboardLine> scoreboardCopy = new ArrayList<>(reconstructedScoreboard);
-        LinkedList<ScoreboardLineChange> queueCopy = new LinkedList<>(queuedChanges);
-        queuedChanges.clear();
-
-        Map<Integer, ScoreboardLine> scoreboardLineMap = new TreeMap<>();
+        ticksSinceReconstruction++;
+        if (++ticksSinceProcessing < CHANGE_PROCESS_TICKS) return;
+        ticksSinceProcessing = 0;
 
-        for (ScoreboardLine scoreboardLine : scoreboardCopy) {
-            scoreboardLineMap.put(scoreboardLine.index(), scoreboardLine);
+        if (processChanges() || ticksSinceReconstruction >= RECONSTRUCTION_TICKS) {
+            handleScoreboardReconstruction();
         }
+    }
 
+    /** @return whether any change was applied */
+    private static boolean processChanges() {
         Set<String> changedLines = new HashSet<>();
-        while (!queueCopy.isEmpty()) {
-            ScoreboardLineChange processed = queueCopy.pop();
-
-            if (processed.method() == ServerScoreboard.Method.REMOVE) {
-                for (ScoreboardLine lineToRemove : scoreboardLineMap.values().stream()
-                        .filter(scoreboardLine -> Objects.equals(scoreboardLine.line(), processed.lineText()))
-                        .toList()) {
-                    scoreboardLineMap.remove(lineToRemove.index());
-                }
-            } else {
-                ScoreboardLine line = new ScoreboardLine(processed.lineText(), processed.lineIndex());
-                scoreboardLineMap.put(line.index(), line);
-                changedLines.add(processed.lineText());
-            }
-        }
-
-        scoreboardCopy.clear();
-
-        scoreboardCopy = scoreboardLineMap.values().stream()
-                .sorted(Comparator.comparing(ScoreboardLine::index).reversed())
-                .collect(Collectors.toList());
-
-        List<Segment> parsedSegments = calculateSegments(scoreboardCopy);
-
-        for (String changedString : changedLines) {
-            int changedLine =
-                    scoreboardCopy.stream().map(ScoreboardLine::line).toList().indexOf(changedString);
-
-            if (changedLine == -1) {
-                continue;
-            }
-
-            Optional<Segment> foundSegment = parsedSegments.stream()
-                    .filter(segment -> segment.getStartIndex() <= changedLine
-                            && segment.getEndIndex() >= changedLine
-                            && !segment.isChanged())
-                    .findFirst();
-
-            if (foundSegment.isEmpty()) {
-                continue;
-            }
+        if (!applyChanges(changedLines)) return false;
 
-            // Prevent bugs where content was not changed, but rather replaced to prepare room for other segment updates
-            //  (Objective -> Daily Objective update)
-            Optional<Segment> oldMatchingSegment = segments.stream()
-                    .filter(segment -> segment.getType() == foundSegment.get().getType())
-                    .findFirst();
+        List<ParsedLine> lines = new ArrayList<>(linesByIndex.values());
+        reconstructedScoreboard = lines.stream().map(ParsedLine::line).toList();
 
-            if (oldMatchingSegment.isEmpty()) {
-                foundSegment.get().setChanged(true);
-                continue;
-            }
-
-            if (!oldMatchingSegment.get().getContent().equals(foundSegment.get().getContent())
-                    || !Objects.equals(
-                            oldMatchingSegment.get().getHeader(),
-                            foundSegment.get().getHeader())) {
-                foundSegment.get().setChanged(true);
-            }
-        }
+        List<Segment> parsedSegments = calculateSegments(lines, changedLines);
 
         List<Segment> removedSegments = segments.stream()
                 .filter(segment -> parsedSegments.stream().noneMatch(parsed -> parsed.getType() == segment.getType()))
                 .toList();
 
-        reconstructedScoreboard = scoreboardCopy;
         segments = parsedSegments;
 
         for (Segment segment : removedSegments) {
@@ -165,7 +114,7 @@ public final class ScoreboardModel extends Model {
 
         if (firstExecution) {
             firstExecution = false;
-            changedSegments = parsedSegments.stream().toList();
+            changedSegments = parsedSegments;
         } else {
             changedSegments = parsedSegments.stream().filter(Segment::isChanged).toList();
         }
@@ -178,128 +127,197 @@ public final class ScoreboardModel extends Model {
             }
         }
 
-        handleScoreboardReconstruction();
-    };
-
-    private static void handleScoreboardReconstruction() {
-        McUtils.mc().doRunTask(() -> {
-            Scoreboard scoreboard = McUtils.player().getScoreboard();
+        return true;
+    }
 
-            List<String> skipped = new ArrayList<>();
+    /** Applies the queued changes to the lines in place, collecting the text of every added line */
+    private static boolean applyChanges(Set<String> changedLines) {
+        boolean applied = false;
 
-            for (Segment parsedSegment : segments) {
-                boolean cancelled = WynntilsMod.postEvent(new ScoreboardSegmentAdditionEvent(parsedSegment));
+        ScoreboardLineChange change;
+        while ((change = queuedChanges.poll()) != null) {
+            applied = true;
 
-                if (cancelled) {
-                    skipped.addAll(parsedSegment.getScoreboardLines());
+            if (change.method() == ServerScoreboard.Method.REMOVE) {
+                Integer index = indexByLine.remove(change.lineText());
+                if (index != null) {
+                    linesByIndex.remove(index);
                 }
+                continue;
             }
 
-            final String objectiveName = "wynntilsSB" + McUtils.player().getScoreboardName();
-
-            Objective objective = scoreboard.getObjective(objectiveName);
+            // Setting the score of a line moves it
+            Integer oldIndex = indexByLine.put(change.lineText(), change.lineIndex());
+            if (oldIndex != null && oldIndex != change.lineIndex()) {
+                linesByIndex.remove(oldIndex);
+            }
 
-            if (objective == null) {
-                objective = scoreboard.addObjective(
-                        objectiveName,
-                        ObjectiveCriteria.DUMMY,
-                        new TextComponent(" play.wynncraft.com")
-                                .withStyle(ChatFormatting.GOLD)
-                                .withStyle(ChatFormatting.BOLD),
-                        ObjectiveCriteria.RenderType.INTEGER);
+            ParsedLine replaced = linesByIndex.put(
+                    change.lineIndex(), ParsedLine.parse(new ScoreboardLine(change.lineText(), change.lineIndex())));
+            if (replaced != null && !replaced.line().line().equals(change.lineText())) {
+                indexByLine.remove(replaced.line().line());
             }
 
-            scoreboard.setDisplayObjective(1, objective);
+            changedLines.add(change.lineText());
+        }
 
-            // Set player team display objective
-            // This fixes scoreboard gui flickering
-            PlayerTeam playerTeam = scoreboard.getPlayersTeam(McUtils.player().getScoreboardName());
-            if (playerTeam != null) {
-                if (playerTeam.getColor().getId() >= 0) {
-                    int id = playerTeam.getColor().getId() + 3;
-                    scoreboard.setDisplayObjective(id, objective);
-                }
-            }
+        return applied;
+    }
 
-            for (Map<Objective, Score> scoreMap : scoreboard.playerScores.values()) {
-                scoreMap.remove(objective);
+    private static void handleScoreboardReconstruction() {
+        ticksSinceReconstruction = 0;
+
+        Scoreboard scoreboard = McUtils.player().getScoreboard();
+
+        List<String> skipped = new ArrayList<>();
+
+        for (Segment parsedSegment : segments) {
+            boolean cancelled = WynntilsMod.postEvent(new ScoreboardSegmentAdditionEvent(parsedSegment));
+
+            if (cancelled) {
+                skipped.addAll(parsedSegment.getScoreboardLines());
             }
+        }
 
-            // Filter and skip leading empty lines
-            List<ScoreboardLine> toBeAdded = reconstructedScoreboard.stream()
-                    .filter(scoreboardLine -> !skipped.contains(scoreboardLine.line()))
-                    .dropWhile(scoreboardLine -> scoreboardLine.line().matches("À+"))
-                    .toList();
+        final String objectiveName = "wynntilsSB" + McUtils.player().getScoreboardName();
 
-            boolean allEmpty = true;
+        Objective objective = scoreboard.getObjective(objectiveName);
 
-            // Skip trailing empty lines
-            for (int i = toBeAdded.size() - 1; i >= 0; i--) {
-                if (allEmpty && toBeAdded.get(i).line().matches("À+")) {
-                    continue;
-                }
+        if (objective == null) {
+            objective = scoreboard.addObjective(
+                    objectiveName,
+                    ObjectiveCriteria.DUMMY,
+                    new TextComponent(" play.wynncraft.com")
+                            .withStyle(ChatFormatting.GOLD)
+                            .withStyle(ChatFormatting.BOLD),
+                    ObjectiveCriteria.RenderType.INTEGER);
+        }
+
+        scoreboard.setDisplayObjective(1, objective);
 
-                allEmpty = false;
-                Score score = scoreboard.getOrCreatePlayerScore(toBeAdded.get(i).line(), objective);
-                score.setScore(toBeAdded.get(i).index());
+        // Set player team display objective
+        // This fixes scoreboard gui flickering
+        PlayerTeam playerTeam = scoreboard.getPlayersTeam(McUtils.player().getScoreboardName());
+        if (playerTeam != null) {
+            if (playerTeam.getColor().getId() >= 0) {
+                int id = playerTeam.getColor().getId() + 3;
+                scoreboard.setDisplayObjective(id, objective);
             }
-        });
-    }
+        }
 
-    private static List<Segment> calculateSegments(List<ScoreboardLine> scoreboardCopy) {
-        List<Segment> segments = new ArrayList<>();
+        for (Map<Objective, Score> scoreMap : scoreboard.playerScores.values()) {
+            scoreMap.remove(objective);
+        }
 
-        Segment currentSegment = null;
+        // Filter and skip leading empty lines
+        List<ScoreboardLine> toBeAdded = reconstructedScoreboard.stream()
+                .filter(scoreboardLine -> !skipped.contains(scoreboardLine.line()))
+                .dropWhile(scoreboardLine -> EMPTY_LINE_PATTERN.matcher(scoreboardLine.line()).matches())
+                .toList();
 
-        for (int i = 0; i < scoreboardCopy.size(); i++) {
-            String strippedLine =
-                    ComponentUtils.stripFormatting(scoreboardCopy.get(i).line());
+        boolean allEmpty = true;
 
-            if (strippedLine == null) {
+        // Skip trailing empty lines
+        for (int i = toBeAdded.size() - 1; i >= 0; i--) {
+            if (allEmpty && EMPTY_LINE_PATTERN.matcher(toBeAdded.get(i).line()).matches()) {
                 continue;
             }
 
-            if (strippedLine.matches("À+")) {
-                if (currentSegment != null) {
-                    currentSegment.setContent(scoreboardCopy.stream()
-                            .map(ScoreboardLine::line)
-                            .collect(Collectors.toList())
-                            .subList(currentSegment.getStartIndex() + 1, i));
-                    currentSegment.setEndIndex(i - 1);
-                    currentSegment.setEnd(strippedLine);
-                    segments.add(currentSegment);
-                    currentSegment = null;
+            allEmpty = false;
+            Score score = scoreboard.getOrCreatePlayerScore(toBeAdded.get(i).line(), objective);
+            score.setScore(toBeAdded.get(i).index());
+        }
+    }
+
+    /**
+     * Splits the lines into segments. Segments without changed lines in the same place as before are kept as
+     * they are, everything else is rebuilt and compared to the previous segment of its type.
+     */
+    private static List<Segment> calculateSegments(List<ParsedLine> lines, Set<String> changedLines) {
+        List<Segment> parsedSegments = new ArrayList<>();
+
+        SegmentType currentType = null;
+        int currentStart = -1;
+
+        for (int i = 0; i < lines.size(); i++) {
+            ParsedLine line = lines.get(i);
+
+            if (line.separator()) {
+                if (currentType != null) {
+                    parsedSegments.add(
+                            getSegment(lines, currentType, currentStart, i - 1, line.stripped(), changedLines));
+                    currentType = null;
                 }
 
                 continue;
             }
 
-            for (SegmentType value : SegmentType.values()) {
-                if (!value.getHeaderPattern().matcher(strippedLine).matches()) continue;
-
-                if (currentSegment != null) {
-                    if (currentSegment.getType() != value) {
-                        WynntilsMod.error(
-                                "ScoreboardModel: currentSegment was not null and SegmentType was mismatched. We might have skipped a scoreboard category.");
-                    }
-                    continue;
+            if (line.header() == null) continue;
+
+            if (currentType != null) {
+                if (currentType != line.header()) {
+                    WynntilsMod.error(
+                            "ScoreboardModel: currentSegment was not null and SegmentType was mismatched. We might have skipped a scoreboard category.");
                 }
+                continue;
+            }
 
-                currentSegment = new Segment(value, scoreboardCopy.get(i).line(), i);
+            currentType = line.header();
+            currentStart = i;
+        }
+
+        if (currentType != null) {
+            parsedSegments.add(getSegment(lines, currentType, currentStart, lines.size() - 1, null, changedLines));
+        }
+
+        return parsedSegments;
+    }
+
+    private static Segment getSegment(
+            List<ParsedLine> lines,
+            SegmentType type,
+            int startIndex,
+            int endIndex,
+            String end,
+            Set<String> changedLines) {
+        Segment oldSegment = segments.stream()
+                .filter(segment -> segment.getType() == type)
+                .findFirst()
+                .orElse(null);
+
+        boolean touched = false;
+        for (int i = startIndex; i <= endIndex; i++) {
+            if (changedLines.contains(lines.get(i).line().line())) {
+                touched = true;
                 break;
             }
         }
 
-        if (currentSegment != null) {
-            currentSegment.setContent(scoreboardCopy.stream()
-                    .map(ScoreboardLine::line)
-                    .collect(Collectors.toList())
-                    .subList(currentSegment.getStartIndex(), scoreboardCopy.size()));
-            currentSegment.setEndIndex(scoreboardCopy.size() - 1);
-            segments.add(currentSegment);
+        if (!touched
+                && oldSegment != null
+                && oldSegment.getStartIndex() == startIndex
+                && oldSegment.getEndIndex() == endIndex
+                && Objects.equals(oldSegment.getEnd(), end)) {
+            oldSegment.setChanged(false);
+            return oldSegment;
         }
 
-        return segments;
+        Segment segment = new Segment(type, lines.get(startIndex).line().line(), startIndex);
+        // A closed segment does not contain its header, an unclosed one does
+        int contentStart = end == null ? startIndex : startIndex + 1;
+        segment.setContent(lines.subList(contentStart, endIndex + 1).stream()
+                .map(line -> line.line().line())
+                .collect(Collectors.toList()));
+        segment.setEndIndex(endIndex);
+        segment.setEnd(end);
+
+        // Prevent bugs where content was not changed, but rather replaced to prepare room for other segment updates
+        //  (Objective -> Daily Objective update)
+        segment.setChanged(touched
+                && (oldSegment == null
+                        || !oldSegment.getContent().equals(segment.getContent())
+                        || !Objects.equals(oldSegment.getHeader(), segment.getHeader())));
+        return segment;
     }
 
     public static void init() {
@@ -307,7 +325,7 @@ public final class ScoreboardModel extends Model {
         registerHandler(QuestManager.SCOREBOARD_HANDLER, SegmentType.Quest);
         registerHandler(GuildAttackTimerModel.SCOREBOARD_HANDLER, SegmentType.GuildAttackTimer);
 
-        startThread();
+        firstExecution = true;
     }
 
     public static void disable() {
@@ -331,28 +349,19 @@ public final class ScoreboardModel extends Model {
     @SubscribeEvent
     public static void onWorldStateChange(WorldStateEvent event) {
         if (event.getNewState() == WorldStateManager.State.WORLD) {
-            startThread();
+            firstExecution = true;
             return;
         }
 
         resetState();
     }
 
-    private static void startThread() {
-        firstExecution = true;
-        executor = Executors.newScheduledThreadPool(1);
-        executor.scheduleAtFixedRate(changeHandlerRunnable, 0, CHANGE_PROCESS_RATE, TimeUnit.MILLISECONDS);
-    }
-
     private static void resetState() {
-        if (executor != null) {
-            executor.shutdownNow();
-            executor = null;
-        }
-
         queuedChanges.clear();
-        reconstructedScoreboard.clear();
-        segments.clear();
+        linesByIndex.clear();
+        indexByLine.clear();
+        reconstructedScoreboard = new ArrayList<>();
+        segments = new ArrayList<>();
 
         for (Pair<ScoreboardHandler, Set<SegmentType>> scoreboardHandler : scoreboardHandlers) {
             scoreboardHandler.a().resetHandler();
@@ -376,4 +385,22 @@ public final class ScoreboardModel extends Model {
             return headerPattern;
         }
     }
+
+    // A line, with what the segment parser needs to know about it computed once when the line is set
+    private record ParsedLine(ScoreboardLine line, String stripped, boolean separator, SegmentType header) {
+        private static ParsedLine parse(ScoreboardLine line) {
+            String stripped = ComponentUtils.stripFormatting(line.line());
+            if (EMPTY_LINE_PATTERN.matcher(stripped).matches()) {
+                return new ParsedLine(line, stripped, true, null);
+            }
+
+            for (SegmentType value : SegmentType.values()) {
+                if (value.getHeaderPattern().matcher(stripped).matches()) {
+                    return new ParsedLine(line, stripped, false, value);
+                }
+            }
+
+            return new ParsedLine(line, stripped, false, null);
+        }
+    }
 }